@@ -0,0 +1,35 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 基准测试使用的映射接口，对应的SQL定义在AuthorMapper.xml中
+ */
+public interface AuthorMapper {
+
+  Author selectAuthor(int id);
+
+  List<Author> findAuthors(@Param("minId") Integer minId, @Param("maxId") Integer maxId, @Param("username") String username);
+
+  int insertAuthor(Author author);
+
+  int updateAuthor(Author author);
+
+}
@@ -0,0 +1,83 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+/**
+ * 基于内存HSQLDB的基准测试数据库
+ *
+ * 负责建表、灌入初始数据，并以编程方式构建出SqlSessionFactory
+ */
+public final class BenchmarkDatabase {
+
+  // 初始数据行数
+  public static final int ROW_COUNT = 10_000;
+
+  private static final String MAPPER_RESOURCE = "org/apache/ibatis/benchmark/AuthorMapper.xml";
+
+  private BenchmarkDatabase() {
+    // Prevent Instantiation
+  }
+
+  public static SqlSessionFactory create(String name) throws SQLException, IOException {
+    PooledDataSource dataSource = new PooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:" + name, "sa", "");
+    initSchema(dataSource);
+
+    Configuration configuration = new Configuration(new Environment(name, new JdbcTransactionFactory(), dataSource));
+    try (InputStream inputStream = Resources.getResourceAsStream(MAPPER_RESOURCE)) {
+      new XMLMapperBuilder(inputStream, configuration, MAPPER_RESOURCE, configuration.getSqlFragments()).parse();
+    }
+    return new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  private static void initSchema(PooledDataSource dataSource) throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("drop table author if exists");
+        statement.execute("create table author (id int primary key, username varchar(64), email varchar(128), bio varchar(512), rating int)");
+      }
+      try (PreparedStatement ps = connection.prepareStatement("insert into author (id, username, email, bio, rating) values (?, ?, ?, ?, ?)")) {
+        for (int i = 1; i <= ROW_COUNT; i++) {
+          ps.setInt(1, i);
+          ps.setString(2, "user" + i);
+          ps.setString(3, "user" + i + "@example.com");
+          ps.setString(4, "bio of user " + i);
+          ps.setInt(5, i % 10);
+          ps.addBatch();
+        }
+        ps.executeBatch();
+      }
+      connection.commit();
+    }
+  }
+
+}
@@ -0,0 +1,138 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * DefaultSqlSession核心查询、更新路径的基准测试
+ *
+ * 覆盖MapperProxy、DynamicSqlSource.getBoundSql、DefaultParameterHandler、DefaultResultSetHandler，
+ * 并分别在SIMPLE、REUSE、BATCH三种执行器下运行。分析内存分配时加上 -prof gc 参数。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SqlSessionBenchmark {
+
+  // 每次调用中执行的写操作数
+  private static final int WRITES_PER_INVOCATION = 100;
+
+  @Param({"SIMPLE", "REUSE", "BATCH"})
+  public ExecutorType executorType;
+
+  private SqlSessionFactory sqlSessionFactory;
+  private SqlSession sqlSession;
+  private AuthorMapper mapper;
+  private int nextId;
+
+  @Setup(Level.Trial)
+  public void setUpDatabase() throws SQLException, IOException {
+    sqlSessionFactory = BenchmarkDatabase.create("bench_" + executorType.name().toLowerCase());
+  }
+
+  @Setup(Level.Iteration)
+  public void openSession() {
+    sqlSession = sqlSessionFactory.openSession(executorType);
+    mapper = sqlSession.getMapper(AuthorMapper.class);
+  }
+
+  @TearDown(Level.Iteration)
+  public void closeSession() {
+    sqlSession.rollback(true);
+    sqlSession.close();
+  }
+
+  private int nextId() {
+    nextId = nextId % BenchmarkDatabase.ROW_COUNT + 1;
+    return nextId;
+  }
+
+  @Benchmark
+  public Author selectOne() {
+    return sqlSession.selectOne("org.apache.ibatis.benchmark.AuthorMapper.selectAuthor", nextId());
+  }
+
+  @Benchmark
+  public Author mapperSelectOne() {
+    return mapper.selectAuthor(nextId());
+  }
+
+  @Benchmark
+  public List<Author> selectList() {
+    int minId = nextId();
+    return mapper.findAuthors(minId, minId + 100, null);
+  }
+
+  @Benchmark
+  public List<Author> selectListWithoutFilter() {
+    return sqlSession.selectList("org.apache.ibatis.benchmark.AuthorMapper.findAuthors", null);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(WRITES_PER_INVOCATION)
+  public int insert() {
+    int count = 0;
+    for (int i = 1; i <= WRITES_PER_INVOCATION; i++) {
+      int id = BenchmarkDatabase.ROW_COUNT + i;
+      count += sqlSession.insert("org.apache.ibatis.benchmark.AuthorMapper.insertAuthor",
+          new Author(id, "new" + id, "new" + id + "@example.com", "bio", 1));
+    }
+    sqlSession.flushStatements();
+    // 回滚以保持表的大小不变
+    sqlSession.rollback(true);
+    return count;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(WRITES_PER_INVOCATION)
+  public int update() {
+    int count = 0;
+    for (int i = 0; i < WRITES_PER_INVOCATION; i++) {
+      int id = nextId();
+      count += sqlSession.update("org.apache.ibatis.benchmark.AuthorMapper.updateAuthor",
+          new Author(id, null, "changed" + id + "@example.com", null, 5));
+    }
+    sqlSession.flushStatements();
+    sqlSession.rollback(true);
+    return count;
+  }
+
+}
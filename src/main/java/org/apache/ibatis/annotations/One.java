@@ -33,4 +33,10 @@ public @interface One {
 
   FetchType fetchType() default FetchType.DEFAULT;
 
+  /**
+   * fetchType为BATCH时，嵌套查询结果中与column对应的外键列
+   * @return 外键列名
+   */
+  String foreignColumn() default "";
+
 }
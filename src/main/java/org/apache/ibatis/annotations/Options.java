@@ -54,6 +54,11 @@ public @interface Options {
 
   int fetchSize() default -1;
 
+  /**
+   * 以游标方式查询时在后台线程中预先读取并映射的对象数量，不大于0表示不预读
+   */
+  int prefetchSize() default -1;
+
   int timeout() default -1;
 
   boolean useGeneratedKeys() default false;
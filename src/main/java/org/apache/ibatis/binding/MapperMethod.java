@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.ibatis.annotations.Flush;
 import org.apache.ibatis.annotations.MapKey;
@@ -34,8 +35,11 @@ import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ParamNameResolver;
 import org.apache.ibatis.reflection.TypeParameterResolver;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.Page;
+import org.apache.ibatis.session.PagedList;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SeekBounds;
 import org.apache.ibatis.session.SqlSession;
 
 /**
@@ -71,6 +75,33 @@ public class MapperMethod {
    * @return 数据库操作结果
    */
   public Object execute(SqlSession sqlSession, Object[] args) {
+    if (method.returnsFuture()) {
+      // 返回CompletableFuture的方法
+      return executeForFuture(sqlSession, args);
+    }
+    return executeForResult(sqlSession, args);
+  }
+
+  /**
+   * 执行返回CompletableFuture的映射方法
+   *
+   * SqlSession不是线程安全的，因此在当前线程中执行，并返回已经完成的CompletableFuture。
+   * 需要异步执行时，应使用AsyncSqlSession.getMapper得到的映射，由它在自己的异步执行器中调用本方法。
+   * @param sqlSession sqlSession接口的实例
+   * @param args 执行接口方法时传入的参数
+   * @return 数据库操作结果
+   */
+  private CompletableFuture<Object> executeForFuture(SqlSession sqlSession, Object[] args) {
+    CompletableFuture<Object> future = new CompletableFuture<>();
+    try {
+      future.complete(executeForResult(sqlSession, args));
+    } catch (RuntimeException e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  private Object executeForResult(SqlSession sqlSession, Object[] args) {
     Object result;
     switch (command.getType()) { // 根据SQL语句类型，执行不同操作
       case INSERT: { // 如果是插入语句
@@ -105,6 +136,10 @@ public class MapperMethod {
           result = executeForMap(sqlSession, args);
         } else if (method.returnsCursor()) { // 游标类型结果查询
           result = executeForCursor(sqlSession, args);
+        } else if (method.returnsPage()) { // 键集翻页查询
+          result = executeForPage(sqlSession, args);
+        } else if (method.returnsPagedList()) { // 带总行数的翻页查询
+          result = executeForPagedList(sqlSession, args);
         } else { // 单条结果查询
           Object param = method.convertArgsToSqlCommandParam(args);
           result = sqlSession.selectOne(command.getName(), param);
@@ -193,6 +228,21 @@ public class MapperMethod {
     return result;
   }
 
+  private <E> Page<E> executeForPage(SqlSession sqlSession, Object[] args) {
+    SeekBounds seekBounds = method.extractSeekBounds(args);
+    if (seekBounds == null) {
+      throw new BindingException("Mapper method '" + command.getName() + "' returns a Page and requires a non-null SeekBounds parameter.");
+    }
+    Object param = method.convertArgsToSqlCommandParam(args);
+    return sqlSession.selectPage(command.getName(), param, seekBounds);
+  }
+
+  private <E> PagedList<E> executeForPagedList(SqlSession sqlSession, Object[] args) {
+    Object param = method.convertArgsToSqlCommandParam(args);
+    RowBounds rowBounds = method.hasRowBounds() ? method.extractRowBounds(args) : RowBounds.DEFAULT;
+    return sqlSession.selectPagedList(command.getName(), param, rowBounds);
+  }
+
   private <E> Object convertToDeclaredCollection(Configuration config, List<E> list) {
     Object collection = config.getObjectFactory().create(method.getReturnType());
     MetaObject metaObject = config.newMetaObject(collection);
@@ -324,6 +374,12 @@ public class MapperMethod {
     private final boolean returnsCursor;
     // 返回类型是否是optional类型
     private final boolean returnsOptional;
+    // 返回类型是否是键集翻页的Page类型
+    private final boolean returnsPage;
+    // 返回类型是否是带总行数的PagedList类型
+    private final boolean returnsPagedList;
+    // 返回类型是否是CompletableFuture类型，是则以下各项描述的是CompletableFuture中的类型
+    private final boolean returnsFuture;
     // 返回类型
     private final Class<?> returnType;
     // 如果返回为map,这里记录所有的map的key
@@ -332,25 +388,42 @@ public class MapperMethod {
     private final Integer resultHandlerIndex;
     // rowBounds参数的位置
     private final Integer rowBoundsIndex;
+    // seekBounds参数的位置
+    private final Integer seekBoundsIndex;
     // 引用参数名称解析器
     private final ParamNameResolver paramNameResolver;
 
     public MethodSignature(Configuration configuration, Class<?> mapperInterface, Method method) {
       Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, mapperInterface);
+      this.returnsFuture = CompletableFuture.class.equals(method.getReturnType());
+      if (this.returnsFuture) {
+        resolvedReturnType = resolvedReturnType instanceof ParameterizedType
+            ? ((ParameterizedType) resolvedReturnType).getActualTypeArguments()[0] : Object.class;
+      }
       if (resolvedReturnType instanceof Class<?>) {
         this.returnType = (Class<?>) resolvedReturnType;
       } else if (resolvedReturnType instanceof ParameterizedType) {
         this.returnType = (Class<?>) ((ParameterizedType) resolvedReturnType).getRawType();
       } else {
-        this.returnType = method.getReturnType();
+        this.returnType = this.returnsFuture ? Object.class : method.getReturnType();
       }
-      this.returnsVoid = void.class.equals(this.returnType);
+      this.returnsVoid = void.class.equals(this.returnType) || (this.returnsFuture && Void.class.equals(this.returnType));
       this.returnsMany = configuration.getObjectFactory().isCollection(this.returnType) || this.returnType.isArray();
       this.returnsCursor = Cursor.class.equals(this.returnType);
       this.returnsOptional = Optional.class.equals(this.returnType);
-      this.mapKey = getMapKey(method);
+      this.returnsPage = Page.class.equals(this.returnType);
+      this.returnsPagedList = PagedList.class.equals(this.returnType);
+      this.mapKey = getMapKey(method, this.returnType);
       this.returnsMap = this.mapKey != null;
+      if (this.returnsFuture && this.returnsCursor) {
+        // 游标需要在会话打开期间使用，不能异步返回
+        throw new BindingException(method.getName() + " cannot return a Cursor wrapped in a CompletableFuture");
+      }
       this.rowBoundsIndex = getUniqueParamIndex(method, RowBounds.class);
+      this.seekBoundsIndex = getUniqueParamIndex(method, SeekBounds.class);
+      if (this.returnsPage && this.seekBoundsIndex == null) {
+        throw new BindingException(method.getName() + " returns a Page and must have a SeekBounds parameter");
+      }
       this.resultHandlerIndex = getUniqueParamIndex(method, ResultHandler.class);
       this.paramNameResolver = new ParamNameResolver(configuration, method);
     }
@@ -367,6 +440,10 @@ public class MapperMethod {
       return hasRowBounds() ? (RowBounds) args[rowBoundsIndex] : null;
     }
 
+    public SeekBounds extractSeekBounds(Object[] args) {
+      return seekBoundsIndex != null ? (SeekBounds) args[seekBoundsIndex] : null;
+    }
+
     public boolean hasResultHandler() {
       return resultHandlerIndex != null;
     }
@@ -408,6 +485,30 @@ public class MapperMethod {
       return returnsOptional;
     }
 
+    /**
+     * return whether return type is {@link Page}, the result of keyset pagination.
+     * @return return {@code true}, if return type is {@link Page}
+     */
+    public boolean returnsPage() {
+      return returnsPage;
+    }
+
+    /**
+     * return whether return type is {@link PagedList}, a page with the total row count.
+     * @return return {@code true}, if return type is {@link PagedList}
+     */
+    public boolean returnsPagedList() {
+      return returnsPagedList;
+    }
+
+    /**
+     * return whether return type is {@code java.util.concurrent.CompletableFuture}.
+     * @return return {@code true}, if return type is {@code java.util.concurrent.CompletableFuture}
+     */
+    public boolean returnsFuture() {
+      return returnsFuture;
+    }
+
     // 返回指定参数的index
     private Integer getUniqueParamIndex(Method method, Class<?> paramType) {
       Integer index = null;
@@ -424,9 +525,9 @@ public class MapperMethod {
       return index;
     }
 
-    private String getMapKey(Method method) {
+    private String getMapKey(Method method, Class<?> returnType) {
       String mapKey = null;
-      if (Map.class.isAssignableFrom(method.getReturnType())) {
+      if (Map.class.isAssignableFrom(returnType)) {
         final MapKey mapKeyAnnotation = method.getAnnotation(MapKey.class);
         if (mapKeyAnnotation != null) {
           mapKey = mapKeyAnnotation.value();
@@ -0,0 +1,113 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.ibatis.dialect.SqlScanner;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * 由查询语句派生出的计数语句的SQL源。去除原SQL末尾的ORDER BY子句后，将其作为子查询求COUNT(*)。
+ * 静态SQL每次得到的原SQL都相同，因此只需转换一次。
+ */
+public class CountSqlSource implements SqlSource {
+
+  // 计数语句id的后缀
+  public static final String COUNT_SUFFIX = "!count";
+
+  private final Configuration configuration;
+  // 原查询语句的SQL源
+  private final SqlSource sqlSource;
+  // 最近一次转换的原SQL和计数SQL
+  private volatile String[] lastConversion;
+
+  public CountSqlSource(Configuration configuration, SqlSource sqlSource) {
+    this.configuration = configuration;
+    this.sqlSource = sqlSource;
+  }
+
+  /**
+   * 为查询语句创建对应的计数语句
+   * @param ms 查询语句
+   * @return 计数语句，id为原语句的id加上"!count"
+   */
+  public static MappedStatement buildCountStatement(MappedStatement ms) {
+    if (ms.getSqlCommandType() != SqlCommandType.SELECT) {
+      throw new BuilderException("Cannot derive a count statement from '" + ms.getId() + "' as it is not a select statement.");
+    }
+    Configuration configuration = ms.getConfiguration();
+    String id = ms.getId() + COUNT_SUFFIX;
+    ResultMap resultMap = new ResultMap.Builder(configuration, id + "-Inline", Long.class, new ArrayList<>()).build();
+    return new MappedStatement.Builder(configuration, id, new CountSqlSource(configuration, ms.getSqlSource()), SqlCommandType.SELECT)
+        .resource(ms.getResource())
+        .statementType(ms.getStatementType())
+        .parameterMap(ms.getParameterMap())
+        .resultMaps(Collections.singletonList(resultMap))
+        .timeout(ms.getTimeout())
+        .databaseId(ms.getDatabaseId())
+        .lang(ms.getLang())
+        // 与原语句共用二级缓存，以便在更新语句清空缓存时一并失效
+        .cache(ms.getCache())
+        .useCache(ms.isUseCache())
+        .flushCacheRequired(false)
+        .build();
+  }
+
+  @Override
+  public BoundSql getBoundSql(Object parameterObject) {
+    BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
+    // 只去除不含参数的ORDER BY子句，因此参数映射列表不变
+    return boundSql.copyWith(configuration, toCountSql(boundSql.getSql()), boundSql.getParameterMappings());
+  }
+
+  private String toCountSql(String sql) {
+    String[] last = lastConversion;
+    if (last != null && (last[0] == sql || last[0].equals(sql))) {
+      return last[1];
+    }
+    String countSql = "SELECT COUNT(*) FROM (" + removeOrderBy(sql) + ") count_";
+    lastConversion = new String[] {sql, countSql};
+    return countSql;
+  }
+
+  /**
+   * 去除SQL末尾的ORDER BY子句。子查询、引号中的ORDER BY不受影响；
+   * 子句中含有参数，或者其后还有LIMIT、OFFSET、FETCH等翻页子句时保留原SQL
+   * @param sql 原SQL
+   * @return 去除ORDER BY子句后的SQL
+   */
+  static String removeOrderBy(String sql) {
+    int orderByIndex = SqlScanner.lastIndexOfTopLevel(sql, "ORDER BY");
+    if (orderByIndex < 0) {
+      return sql;
+    }
+    String orderBy = sql.substring(orderByIndex).toUpperCase(Locale.ENGLISH);
+    if (orderBy.indexOf('?') >= 0 || orderBy.contains("LIMIT") || orderBy.contains("OFFSET") || orderBy.contains("FETCH")) {
+      return sql;
+    }
+    return sql.substring(0, orderByIndex);
+  }
+
+}
@@ -34,6 +34,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.ibatis.annotations.Arg;
 import org.apache.ibatis.annotations.CacheNamespace;
@@ -85,6 +86,8 @@ import org.apache.ibatis.parsing.PropertyParser;
 import org.apache.ibatis.reflection.TypeParameterResolver;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.Page;
+import org.apache.ibatis.session.PagedList;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.type.JdbcType;
@@ -328,6 +331,7 @@ public class MapperAnnotationBuilder {
       final String mappedStatementId = type.getName() + "." + method.getName();
       // 用默认值初始化各项设置
       Integer fetchSize = null;
+      Integer prefetchSize = null;
       Integer timeout = null;
       StatementType statementType = StatementType.PREPARED;
       ResultSetType resultSetType = configuration.getDefaultResultSetType();
@@ -367,6 +371,7 @@ public class MapperAnnotationBuilder {
         }
         useCache = options.useCache();
         fetchSize = options.fetchSize() > -1 || options.fetchSize() == Integer.MIN_VALUE ? options.fetchSize() : null; //issue #348
+        prefetchSize = options.prefetchSize() > 0 ? options.prefetchSize() : null;
         timeout = options.timeout() > -1 ? options.timeout() : null;
         statementType = options.statementType();
         if (options.resultSetType() != ResultSetType.DEFAULT) {
@@ -408,7 +413,8 @@ public class MapperAnnotationBuilder {
           null,
           languageDriver,
           // ResultSets
-          options != null ? nullOrEmpty(options.resultSets()) : null);
+          options != null ? nullOrEmpty(options.resultSets()) : null,
+          prefetchSize);
     }
   }
 
@@ -440,13 +446,21 @@ public class MapperAnnotationBuilder {
   private Class<?> getReturnType(Method method) {
     Class<?> returnType = method.getReturnType();
     Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, type);
+    if (resolvedReturnType instanceof ParameterizedType
+        && CompletableFuture.class.equals(((ParameterizedType) resolvedReturnType).getRawType())) {
+      // 异步方法，以CompletableFuture中的类型作为返回类型
+      resolvedReturnType = ((ParameterizedType) resolvedReturnType).getActualTypeArguments()[0];
+      if (resolvedReturnType instanceof ParameterizedType) {
+        returnType = (Class<?>) ((ParameterizedType) resolvedReturnType).getRawType();
+      }
+    }
     if (resolvedReturnType instanceof Class) {
       returnType = (Class<?>) resolvedReturnType;
       if (returnType.isArray()) {
         returnType = returnType.getComponentType();
       }
       // gcode issue #508
-      if (void.class.equals(returnType)) {
+      if (void.class.equals(returnType) || Void.class.equals(returnType)) {
         ResultType rt = method.getAnnotation(ResultType.class);
         if (rt != null) {
           returnType = rt.value();
@@ -455,7 +469,7 @@ public class MapperAnnotationBuilder {
     } else if (resolvedReturnType instanceof ParameterizedType) {
       ParameterizedType parameterizedType = (ParameterizedType) resolvedReturnType;
       Class<?> rawType = (Class<?>) parameterizedType.getRawType();
-      if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType)) {
+      if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType) || Page.class.equals(rawType) || PagedList.class.equals(rawType)) {
         Type[] actualTypeArguments = parameterizedType.getActualTypeArguments();
         if (actualTypeArguments != null && actualTypeArguments.length == 1) {
           Type returnTypeParameter = actualTypeArguments[0];
@@ -613,8 +627,9 @@ public class MapperAnnotationBuilder {
           typeHandler,
           flags,
           null,
-          null,
-          isLazy(result));
+          foreignColumn(result),
+          isLazy(result),
+          isBatch(result));
       resultMappings.add(resultMapping);
     }
   }
@@ -633,13 +648,27 @@ public class MapperAnnotationBuilder {
   private boolean isLazy(Result result) {
     boolean isLazy = configuration.isLazyLoadingEnabled();
     if (result.one().select().length() > 0 && FetchType.DEFAULT != result.one().fetchType()) {
-      isLazy = result.one().fetchType() == FetchType.LAZY;
+      isLazy = result.one().fetchType() == FetchType.LAZY || (result.one().fetchType() == FetchType.BATCH && isLazy);
     } else if (result.many().select().length() > 0 && FetchType.DEFAULT != result.many().fetchType()) {
-      isLazy = result.many().fetchType() == FetchType.LAZY;
+      isLazy = result.many().fetchType() == FetchType.LAZY || (result.many().fetchType() == FetchType.BATCH && isLazy);
     }
     return isLazy;
   }
 
+  private boolean isBatch(Result result) {
+    if (result.one().select().length() > 0) {
+      return result.one().fetchType() == FetchType.BATCH;
+    }
+    return result.many().select().length() > 0 && result.many().fetchType() == FetchType.BATCH;
+  }
+
+  private String foreignColumn(Result result) {
+    if (result.one().select().length() > 0) {
+      return nullOrEmpty(result.one().foreignColumn());
+    }
+    return nullOrEmpty(result.many().foreignColumn());
+  }
+
   private boolean hasNestedSelect(Result result) {
     if (result.one().select().length() > 0 && result.many().select().length() > 0) {
       throw new BuilderException("Cannot use both @One and @Many annotations in the same @Result");
@@ -23,6 +23,7 @@ import javax.sql.DataSource;
 import org.apache.ibatis.builder.BaseBuilder;
 import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.datasource.DataSourceFactory;
+import org.apache.ibatis.dialect.Dialect;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.loader.ProxyFactory;
 import org.apache.ibatis.io.Resources;
@@ -279,6 +280,27 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setDefaultStatementTimeout(integerValueOf(props.getProperty("defaultStatementTimeout"), null));
     configuration.setDefaultFetchSize(integerValueOf(props.getProperty("defaultFetchSize"), null));
     configuration.setDefaultResultSetType(resolveResultSetType(props.getProperty("defaultResultSetType")));
+    configuration.setBatchFlushSize(integerValueOf(props.getProperty("batchFlushSize"), null));
+    configuration.setBatchFlushBytes(longValueOf(props.getProperty("batchFlushBytes"), null));
+    configuration.setGroupBatchStatements(booleanValueOf(props.getProperty("groupBatchStatements"), false));
+    configuration.setBatchInsertRowsPerStatement(integerValueOf(props.getProperty("batchInsertRowsPerStatement"), null));
+    configuration.setParallelRowMappingChunkSize(integerValueOf(props.getProperty("parallelRowMappingChunkSize"), null));
+    configuration.setRowBoundsPushdown(booleanValueOf(props.getProperty("rowBoundsPushdown"), false));
+    configuration.setUseGeneratedRowMappers(booleanValueOf(props.getProperty("useGeneratedRowMappers"), false));
+    configuration.setGeneratedRowMapperCacheSize(integerValueOf(props.getProperty("generatedRowMapperCacheSize"), 1024));
+    configuration.setBatchFetchSize(integerValueOf(props.getProperty("batchFetchSize"), 100));
+    configuration.setAutoMappingPlanCacheSize(integerValueOf(props.getProperty("autoMappingPlanCacheSize"), 1024));
+    configuration.setResultSetColumnsCacheSize(integerValueOf(props.getProperty("resultSetColumnsCacheSize"), 1024));
+    configuration.setConstructorMappingPlanCacheSize(integerValueOf(props.getProperty("constructorMappingPlanCacheSize"), 1024));
+    configuration.setCompactMapRows(booleanValueOf(props.getProperty("compactMapRows"), false));
+    Class<? extends Dialect> dialectClass = resolveClass(props.getProperty("dialect"));
+    if (dialectClass != null) {
+      try {
+        configuration.setDialect(dialectClass.newInstance());
+      } catch (InstantiationException | IllegalAccessException e) {
+        throw new BuilderException("Error creating dialect " + dialectClass.getName() + ". Cause: " + e, e);
+      }
+    }
     configuration.setMapUnderscoreToCamelCase(booleanValueOf(props.getProperty("mapUnderscoreToCamelCase"), false));
     configuration.setSafeRowBoundsEnabled(booleanValueOf(props.getProperty("safeRowBoundsEnabled"), false));
     configuration.setLocalCacheScope(LocalCacheScope.valueOf(props.getProperty("localCacheScope", "SESSION")));
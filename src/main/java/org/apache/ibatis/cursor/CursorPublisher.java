@@ -0,0 +1,282 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 基于游标的发布者，按订阅者的请求量逐条从结果集中读取、映射对象。
+ * 接口方法与 java.util.concurrent.Flow 及 Reactive Streams 保持一致，可直接桥接到响应式框架。
+ *
+ * 游标及其所需的资源（如专门为该游标打开的SqlSession）在第一次请求数据时才打开，
+ * 取消订阅、读取完毕、出错或者订阅者抛出异常时会关闭游标（随之释放Statement）以及资源。
+ * 读取游标和推送对象都在指定的执行器中进行，不会占用调用request的线程。任一时刻只有一个线程在读取游标，
+ * 因此 request 方法可以在任意线程上调用，但同一时刻只能有一个订阅者。
+ *
+ * @param <T> 元素类型
+ */
+public class CursorPublisher<T> {
+
+  /**
+   * 订阅者，与 Flow.Subscriber 一致
+   * @param <T> 元素类型
+   */
+  public interface Subscriber<T> {
+    void onSubscribe(Subscription subscription);
+
+    void onNext(T item);
+
+    void onError(Throwable throwable);
+
+    void onComplete();
+  }
+
+  /**
+   * 订阅关系，与 Flow.Subscription 一致
+   */
+  public interface Subscription {
+    void request(long n);
+
+    void cancel();
+  }
+
+  // 打开资源和游标，在第一次请求数据时调用
+  private final Callable<OpenCursor<T>> opener;
+  // 读取游标并推送对象的执行器
+  private final Executor executor;
+  // 是否已经被订阅
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+
+  /**
+   * 构造方法
+   * @param cursorSupplier 游标的提供者
+   * @param executor 读取游标并推送对象的执行器
+   */
+  public CursorPublisher(Callable<Cursor<T>> cursorSupplier, Executor executor) {
+    Objects.requireNonNull(cursorSupplier, "cursorSupplier");
+    this.opener = () -> new OpenCursor<>(null, cursorSupplier.call());
+    this.executor = Objects.requireNonNull(executor, "executor");
+  }
+
+  /**
+   * 构造方法。游标所需的资源由发布者打开并持有，游标结束后一并关闭
+   * @param resourceSupplier 资源的提供者，如打开SqlSession
+   * @param cursorFactory 使用资源打开游标
+   * @param executor 读取游标并推送对象的执行器
+   * @param <R> 资源类型
+   */
+  public <R extends AutoCloseable> CursorPublisher(Callable<R> resourceSupplier, Function<? super R, Cursor<T>> cursorFactory,
+      Executor executor) {
+    Objects.requireNonNull(resourceSupplier, "resourceSupplier");
+    Objects.requireNonNull(cursorFactory, "cursorFactory");
+    this.opener = () -> {
+      R resource = resourceSupplier.call();
+      try {
+        return new OpenCursor<>(resource, cursorFactory.apply(resource));
+      } catch (Throwable t) {
+        resource.close();
+        throw t;
+      }
+    };
+    this.executor = Objects.requireNonNull(executor, "executor");
+  }
+
+  /**
+   * 添加订阅者。游标只能被遍历一次，因此只允许一个订阅者
+   * @param subscriber 订阅者
+   */
+  public void subscribe(Subscriber<? super T> subscriber) {
+    Objects.requireNonNull(subscriber, "subscriber");
+    if (!subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(new Subscription() {
+        @Override
+        public void request(long n) {
+          // 已经结束，忽略
+        }
+
+        @Override
+        public void cancel() {
+          // 已经结束，忽略
+        }
+      });
+      subscriber.onError(new IllegalStateException("A CursorPublisher allows only one subscriber."));
+      return;
+    }
+    subscriber.onSubscribe(new CursorSubscription(subscriber));
+  }
+
+  private class CursorSubscription implements Subscription {
+    private final Subscriber<? super T> subscriber;
+    // 尚未满足的请求量
+    private final AtomicLong requested = new AtomicLong();
+    // 正在读取游标的标志及错过的读取次数，保证同一时刻只有一个线程读取游标
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean cancelled;
+    // 非法的请求量导致的错误，需要以该错误结束
+    private volatile IllegalArgumentException invalidRequest;
+    private OpenCursor<T> openCursor;
+    private Iterator<T> iterator;
+
+    CursorSubscription(Subscriber<? super T> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        invalidRequest = new IllegalArgumentException("Requested items must be positive but was " + n);
+      } else {
+        // 累加请求量，溢出时视为无限
+        long current;
+        long next;
+        do {
+          current = requested.get();
+          next = current + n;
+          if (next < 0) {
+            next = Long.MAX_VALUE;
+          }
+        } while (!requested.compareAndSet(current, next));
+      }
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      // 由正在读取的线程或当前线程负责关闭游标
+      drain();
+    }
+
+    /**
+     * 安排执行器读取游标
+     */
+    private void drain() {
+      if (wip.getAndIncrement() != 0) {
+        // 其他线程正在读取，由它继续处理本次请求
+        return;
+      }
+      try {
+        executor.execute(this::drainLoop);
+      } catch (RuntimeException e) {
+        // 执行器拒绝了任务，没有线程会再读取游标，直接结束订阅
+        release();
+        subscriber.onError(e);
+      }
+    }
+
+    /**
+     * 在满足请求量的范围内读取游标并推送给订阅者
+     */
+    private void drainLoop() {
+      int missed = 1;
+      do {
+        long r = requested.get();
+        long emitted = 0;
+        while (true) {
+          if (cancelled) {
+            release();
+            return;
+          }
+          if (invalidRequest != null) {
+            release();
+            subscriber.onError(invalidRequest);
+            return;
+          }
+          if (emitted == r) {
+            break;
+          }
+          T item;
+          try {
+            if (iterator == null) {
+              // 第一次请求数据时才执行查询
+              openCursor = opener.call();
+              iterator = openCursor.cursor.iterator();
+            }
+            if (!iterator.hasNext()) {
+              release();
+              subscriber.onComplete();
+              return;
+            }
+            item = iterator.next();
+          } catch (Throwable t) {
+            release();
+            subscriber.onError(t);
+            return;
+          }
+          try {
+            subscriber.onNext(item);
+          } catch (Throwable t) {
+            // 订阅者违反了规范（Reactive Streams 2.13），视为取消订阅
+            release();
+            return;
+          }
+          emitted++;
+        }
+        if (emitted != 0 && r != Long.MAX_VALUE) {
+          requested.addAndGet(-emitted);
+        }
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+      // 终止后直接return，wip不归零，后续的request和cancel都不会再读取游标
+    }
+
+    /**
+     * 关闭游标及附带的资源
+     */
+    private void release() {
+      cancelled = true;
+      if (openCursor != null) {
+        openCursor.close();
+        openCursor = null;
+      }
+    }
+  }
+
+  /**
+   * 打开的游标及其所需的资源
+   */
+  private static class OpenCursor<T> {
+    private final AutoCloseable resource;
+    private final Cursor<T> cursor;
+
+    OpenCursor(AutoCloseable resource, Cursor<T> cursor) {
+      this.resource = resource;
+      this.cursor = cursor;
+    }
+
+    void close() {
+      try {
+        cursor.close();
+      } catch (Exception e) {
+        // ignore
+      }
+      if (resource != null) {
+        try {
+          resource.close();
+        } catch (Exception e) {
+          // ignore
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,301 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cursor.Cursor;
+
+/**
+ * 预读游标。在后台线程中从被包装的游标读取并映射对象，放入有界队列，调用方从队列中取出对象。
+ * 这样结果集的读取、类型转换和对象映射，可以与调用方对每个对象的处理同时进行。
+ *
+ * 被包装的游标只在后台线程中访问。该游标本身同DefaultCursor一样，只能由一个线程使用。
+ *
+ * 后台线程从会话的连接上读取结果集，预读期间会话不能执行其他操作：执行器在预读开始后、结束前会拒绝
+ * 本会话上的其他语句以及提交、回滚，调用方需要先读完或者关闭游标。
+ * 嵌套查询和懒加载需要在映射时使用会话的执行器，因此含有嵌套查询的结果映射不会预读，而是使用DefaultCursor。
+ *
+ * @param <T> 元素类型
+ */
+public class PrefetchingCursor<T> implements Cursor<T> {
+
+  // 队列中表示读取结束的标志
+  private static final Object END = new Object();
+  // 后台线程放入队列时等待的时长，等待期间会检查游标是否已关闭
+  private static final long OFFER_WAIT_MILLIS = 100;
+
+  // 被包装的游标，只在后台线程中访问
+  private final Cursor<T> delegate;
+  // 预读的对象队列
+  private final BlockingQueue<Object> queue;
+  // 执行后台读取的执行器
+  private final Executor executor;
+  // 开始遍历前的索引
+  private final int startIndex;
+  // 后台线程结束的信号
+  private final CountDownLatch producerDone = new CountDownLatch(1);
+  // 内部迭代器
+  private final PrefetchingIterator cursorIterator = new PrefetchingIterator();
+  // 迭代器存在标志位
+  private boolean iteratorRetrieved;
+  // 后台线程是否已经启动
+  private boolean producerStarted;
+  // 后台线程是否已经读完并关闭了被包装的游标，此后不再使用会话的连接
+  private volatile boolean producerFinished;
+  // 游标是否已经关闭
+  private volatile boolean closed;
+  // 是否已经取完了所有对象
+  private boolean consumed;
+
+  /**
+   * 构造方法
+   * @param delegate 被包装的游标
+   * @param prefetchSize 预读队列的大小
+   * @param executor 执行后台读取的执行器
+   */
+  public PrefetchingCursor(Cursor<T> delegate, int prefetchSize, Executor executor) {
+    this.delegate = delegate;
+    this.queue = new ArrayBlockingQueue<>(prefetchSize + 1);
+    this.executor = executor;
+    this.startIndex = delegate.getCurrentIndex();
+  }
+
+  @Override
+  public boolean isOpen() {
+    return producerStarted && !closed && !consumed;
+  }
+
+  /**
+   * 后台线程是否正在使用会话的连接读取结果集
+   * @return 已开始预读且尚未读完时返回true
+   */
+  public boolean isPrefetching() {
+    return producerStarted && !producerFinished;
+  }
+
+  /**
+   * 预读是否已经结束，包括未开始预读就被关闭的情况
+   * @return 预读是否已经结束
+   */
+  public boolean isPrefetchFinished() {
+    return producerFinished || (closed && !producerStarted);
+  }
+
+  @Override
+  public boolean isConsumed() {
+    return consumed;
+  }
+
+  @Override
+  public int getCurrentIndex() {
+    return startIndex + cursorIterator.iteratorIndex + 1;
+  }
+
+  /**
+   * 返回迭代器
+   * @return 迭代器
+   */
+  @Override
+  public Iterator<T> iterator() {
+    if (iteratorRetrieved) {
+      throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+    }
+    if (closed || consumed) {
+      throw new IllegalStateException("A Cursor is already closed.");
+    }
+    iteratorRetrieved = true;
+    return cursorIterator;
+  }
+
+  /**
+   * 关闭游标。若后台线程正在读取，则等待它关闭被包装的游标后返回
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (!producerStarted) {
+      closeDelegate();
+      return;
+    }
+    // 清空队列，使等待放入的后台线程尽快发现游标已关闭
+    queue.clear();
+    try {
+      producerDone.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * 启动后台线程
+   */
+  private void startProducer() {
+    producerStarted = true;
+    try {
+      executor.execute(this::produce);
+    } catch (RuntimeException e) {
+      producerDone.countDown();
+      close();
+      throw e;
+    }
+  }
+
+  /**
+   * 后台线程：读取被包装的游标，将对象依次放入队列
+   */
+  private void produce() {
+    Object last = END;
+    try {
+      for (T item : delegate) {
+        if (!put(item)) {
+          if (!closed) {
+            last = new PrefetchFailure(new InterruptedException("Cursor prefetching was interrupted"));
+          }
+          return;
+        }
+      }
+    } catch (Throwable t) {
+      last = new PrefetchFailure(t);
+    } finally {
+      closeDelegate();
+      // 在调用方收到结束信号之前释放连接，调用方读完后即可继续使用会话
+      producerFinished = true;
+      if (!closed && !put(last)) {
+        // 线程被中断，丢弃已预读的对象，保证调用方能够收到结束信号
+        queue.clear();
+        queue.offer(last);
+      }
+      producerDone.countDown();
+    }
+  }
+
+  /**
+   * 将对象放入队列，队列满时等待
+   * @param item 对象
+   * @return 是否放入成功。游标已关闭或者线程被中断时返回false
+   */
+  private boolean put(Object item) {
+    try {
+      while (!closed) {
+        if (queue.offer(item, OFFER_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+          return true;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+
+  private void closeDelegate() {
+    try {
+      delegate.close();
+    } catch (Exception e) {
+      // ignore
+    }
+  }
+
+  private static class PrefetchFailure {
+    private final Throwable cause;
+
+    PrefetchFailure(Throwable cause) {
+      this.cause = cause;
+    }
+  }
+
+  private class PrefetchingIterator implements Iterator<T> {
+    // 缓存下一个要返回的对象
+    T object;
+    // next方法中返回的对象的索引
+    int iteratorIndex = -1;
+
+    @Override
+    public boolean hasNext() {
+      if (object == null) {
+        object = take();
+      }
+      return object != null;
+    }
+
+    @Override
+    public T next() {
+      T next = object;
+      if (next == null) {
+        next = take();
+      }
+      if (next != null) {
+        object = null;
+        iteratorIndex++;
+        return next;
+      }
+      throw new NoSuchElementException();
+    }
+
+    /**
+     * 从队列中取出下一个对象
+     * @return 下一个对象，读取结束时返回null
+     */
+    @SuppressWarnings("unchecked")
+    private T take() {
+      if (closed || consumed) {
+        return null;
+      }
+      if (!producerStarted) {
+        startProducer();
+      }
+      Object item;
+      try {
+        item = queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        close();
+        throw new RuntimeException(e);
+      }
+      if (item == END) {
+        consumed = true;
+        return null;
+      }
+      if (item instanceof PrefetchFailure) {
+        // 后台线程在读取时出错，在调用方线程中抛出
+        close();
+        Throwable cause = ((PrefetchFailure) item).cause;
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new RuntimeException(cause);
+      }
+      return (T) item;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("Cannot remove element from Cursor");
+    }
+  }
+}
@@ -17,6 +17,7 @@ package org.apache.ibatis.datasource.pooled;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Clinton Begin
@@ -46,6 +47,12 @@ public class PoolState {
   protected long hadToWaitCount = 0;
   // 坏连接的数目
   protected long badConnectionCount = 0;
+  // PreparedStatement缓存命中的次数
+  protected final AtomicLong statementCacheHitCount = new AtomicLong();
+  // PreparedStatement缓存未命中的次数
+  protected final AtomicLong statementCacheMissCount = new AtomicLong();
+  // PreparedStatement缓存淘汰的语句数
+  protected final AtomicLong statementCacheEvictionCount = new AtomicLong();
 
   public PoolState(PooledDataSource dataSource) {
     this.dataSource = dataSource;
@@ -85,6 +92,18 @@ public class PoolState {
   }
 
 
+  public long getStatementCacheHitCount() {
+    return statementCacheHitCount.get();
+  }
+
+  public long getStatementCacheMissCount() {
+    return statementCacheMissCount.get();
+  }
+
+  public long getStatementCacheEvictionCount() {
+    return statementCacheEvictionCount.get();
+  }
+
   public synchronized int getIdleConnectionCount() {
     return idleConnections.size();
   }
@@ -108,6 +127,7 @@ public class PoolState {
     builder.append("\n poolPingEnabled                ").append(dataSource.poolPingEnabled);
     builder.append("\n poolPingQuery                  ").append(dataSource.poolPingQuery);
     builder.append("\n poolPingConnectionsNotUsedFor  ").append(dataSource.poolPingConnectionsNotUsedFor);
+    builder.append("\n poolPreparedStatementCacheSize ").append(dataSource.poolPreparedStatementCacheSize);
     builder.append("\n ---STATUS-----------------------------------------------------");
     builder.append("\n activeConnections              ").append(getActiveConnectionCount());
     builder.append("\n idleConnections                ").append(getIdleConnectionCount());
@@ -119,6 +139,9 @@ public class PoolState {
     builder.append("\n hadToWait                      ").append(getHadToWaitCount());
     builder.append("\n averageWaitTime                ").append(getAverageWaitTime());
     builder.append("\n badConnectionCount             ").append(getBadConnectionCount());
+    builder.append("\n statementCacheHits             ").append(getStatementCacheHitCount());
+    builder.append("\n statementCacheMisses           ").append(getStatementCacheMissCount());
+    builder.append("\n statementCacheEvictions        ").append(getStatementCacheEvictionCount());
     builder.append("\n===============================================================");
     return builder.toString();
   }
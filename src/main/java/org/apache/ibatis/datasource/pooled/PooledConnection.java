@@ -19,6 +19,7 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 import org.apache.ibatis.reflection.ExceptionUtil;
@@ -30,6 +31,7 @@ import org.apache.ibatis.reflection.ExceptionUtil;
 class PooledConnection implements InvocationHandler {
 
   private static final String CLOSE = "close";
+  private static final String PREPARE_STATEMENT = "prepareStatement";
   private static final Class<?>[] IFACES = new Class<?>[] { Connection.class };
 
   // 该连接的哈希值
@@ -50,6 +52,8 @@ class PooledConnection implements InvocationHandler {
   private int connectionTypeCode;
   // 连接是否可用
   private boolean valid;
+  // 真实连接上的PreparedStatement缓存，在第一次准备语句时创建
+  private PreparedStatementCache statementCache;
 
   /**
    * Constructor for SimplePooledConnection that uses the Connection and PooledDataSource passed in.
@@ -210,6 +214,24 @@ class PooledConnection implements InvocationHandler {
     return System.currentTimeMillis() - checkoutTimestamp;
   }
 
+  /**
+   * Getter for the prepared statement cache of the real connection.
+   *
+   * @return the cache, or null if no statement has been cached
+   */
+  public PreparedStatementCache getStatementCache() {
+    return statementCache;
+  }
+
+  /**
+   * Setter for the prepared statement cache, used when the real connection is wrapped again.
+   *
+   * @param statementCache - the cache
+   */
+  public void setStatementCache(PreparedStatementCache statementCache) {
+    this.statementCache = statementCache;
+  }
+
   @Override
   public int hashCode() {
     return hashCode;
@@ -262,6 +284,16 @@ class PooledConnection implements InvocationHandler {
       if (!Object.class.equals(method.getDeclaringClass())) {
         checkConnection();
       }
+      if (PREPARE_STATEMENT.equals(methodName) && dataSource.getPoolPreparedStatementCacheSize() > 0) {
+        // 优先从语句缓存中取出语句
+        if (statementCache == null) {
+          statementCache = new PreparedStatementCache(dataSource.getPoolState(), dataSource.getPoolPreparedStatementCacheSize());
+        }
+        PreparedStatement statement = statementCache.prepareStatement(realConnection, args);
+        if (statement != null) {
+          return statement;
+        }
+      }
       // 用真正的连接去执行操作
       return method.invoke(realConnection, args);
     } catch (Throwable t) {
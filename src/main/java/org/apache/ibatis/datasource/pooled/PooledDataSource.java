@@ -54,6 +54,8 @@ public class PooledDataSource implements DataSource {
   protected String poolPingQuery = "NO PING QUERY SET";
   protected boolean poolPingEnabled;
   protected int poolPingConnectionsNotUsedFor;
+  // 每个连接上缓存的PreparedStatement数量上限，为0表示不缓存
+  protected int poolPreparedStatementCacheSize;
 
   // 存储池子中的连接的编码，编码用("" + url + username + password).hashCode()算出来
   // 因此，整个池子中的所有连接的编码必须是一致的，里面的连接是等价的
@@ -254,6 +256,17 @@ public class PooledDataSource implements DataSource {
     forceCloseAll();
   }
 
+  /**
+   * The maximum number of prepared statements cached on each pooled connection.
+   * Cached statements survive session close and are reused by later checkouts of the connection.
+   *
+   * @param poolPreparedStatementCacheSize the cache size per connection, 0 disables the cache
+   */
+  public void setPoolPreparedStatementCacheSize(int poolPreparedStatementCacheSize) {
+    this.poolPreparedStatementCacheSize = poolPreparedStatementCacheSize;
+    forceCloseAll();
+  }
+
   public String getDriver() {
     return dataSource.getDriver();
   }
@@ -321,6 +334,10 @@ public class PooledDataSource implements DataSource {
     return poolPingConnectionsNotUsedFor;
   }
 
+  public int getPoolPreparedStatementCacheSize() {
+    return poolPreparedStatementCacheSize;
+  }
+
   /**
    * 将活动和空闲的连接全部关闭
    */
@@ -398,6 +415,8 @@ public class PooledDataSource implements DataSource {
           }
           // 重新整理连接
           PooledConnection newConn = new PooledConnection(conn.getRealConnection(), this);
+          // 语句缓存随真实连接保留
+          newConn.setStatementCache(conn.getStatementCache());
           // 将连接放入空闲连接池
           state.idleConnections.add(newConn);
           newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
@@ -482,6 +501,8 @@ public class PooledDataSource implements DataSource {
               }
               // 新建一个连接替代超期不还连接的位置
               conn = new PooledConnection(oldestActiveConnection.getRealConnection(), this);
+              // 语句缓存随真实连接保留，缓存中只有空闲的语句，超期连接仍在使用的语句不会被新连接取到
+              conn.setStatementCache(oldestActiveConnection.getStatementCache());
               conn.setCreatedTimestamp(oldestActiveConnection.getCreatedTimestamp());
               conn.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
               oldestActiveConnection.invalidate();
@@ -0,0 +1,286 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * 一个真实连接上的PreparedStatement缓存，按最近最少使用的顺序淘汰。
+ * 调用方关闭语句时，语句被归还到缓存中而不是真正关闭，因此在连接归还连接池后，下一次借出该连接的会话仍能复用。
+ * 缓存中只保存空闲的语句，正在使用的语句不在缓存中，因此同一SQL被同时使用时会另外准备一个语句。
+ */
+class PreparedStatementCache {
+
+  private static final Class<?>[] IFACES = new Class<?>[] { PreparedStatement.class };
+
+  // 所属的连接池状态，用于记录命中、未命中和淘汰的次数
+  private final PoolState state;
+  // 空闲的语句，按访问顺序排列
+  private final LinkedHashMap<StatementKey, CachedStatement> idleStatements;
+
+  PreparedStatementCache(PoolState state, int maxSize) {
+    this.state = state;
+    this.idleStatements = new LinkedHashMap<StatementKey, CachedStatement>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<StatementKey, CachedStatement> eldest) {
+        if (size() > maxSize) {
+          eldest.getValue().closeQuietly();
+          state.statementCacheEvictionCount.incrementAndGet();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * 从缓存中取出语句，没有则新建一个
+   * @param connection 真实连接
+   * @param args Connection.prepareStatement的参数
+   * @return 语句的代理，关闭时归还到缓存中。参数形式不支持缓存时返回null
+   * @throws SQLException
+   */
+  synchronized PreparedStatement prepareStatement(Connection connection, Object[] args) throws SQLException {
+    StatementKey key = StatementKey.of(args);
+    if (key == null) {
+      return null;
+    }
+    CachedStatement statement = idleStatements.remove(key);
+    if (statement != null && statement.statement.isClosed()) {
+      statement = null;
+    }
+    if (statement != null) {
+      state.statementCacheHitCount.incrementAndGet();
+    } else {
+      state.statementCacheMissCount.incrementAndGet();
+      statement = new CachedStatement(key, key.prepare(connection));
+    }
+    return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), IFACES, new StatementHandler(statement));
+  }
+
+  /**
+   * 将语句归还到缓存中。若缓存中已有同一SQL的空闲语句，则关闭该语句
+   * @param statement 语句
+   */
+  private synchronized void checkIn(CachedStatement statement) {
+    if (idleStatements.containsKey(statement.key)) {
+      statement.closeQuietly();
+    } else {
+      idleStatements.put(statement.key, statement);
+    }
+  }
+
+  /**
+   * 语句的缓存键：SQL、结果集类型、结果集并发类型以及是否返回自增主键
+   */
+  private static final class StatementKey {
+    private final String sql;
+    private final int resultSetType;
+    private final int resultSetConcurrency;
+    // 自增主键标志，-1表示未指定
+    private final int autoGeneratedKeys;
+
+    private StatementKey(String sql, int resultSetType, int resultSetConcurrency, int autoGeneratedKeys) {
+      this.sql = sql;
+      this.resultSetType = resultSetType;
+      this.resultSetConcurrency = resultSetConcurrency;
+      this.autoGeneratedKeys = autoGeneratedKeys;
+    }
+
+    /**
+     * 根据prepareStatement的参数创建缓存键
+     * @param args prepareStatement的参数
+     * @return 缓存键，参数形式不支持缓存时返回null
+     */
+    static StatementKey of(Object[] args) {
+      if (args == null || !(args[0] instanceof String)) {
+        return null;
+      }
+      String sql = (String) args[0];
+      if (args.length == 1) {
+        return new StatementKey(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, -1);
+      } else if (args.length == 2 && args[1] instanceof Integer) {
+        return new StatementKey(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, (Integer) args[1]);
+      } else if (args.length == 3 && args[1] instanceof Integer && args[2] instanceof Integer) {
+        return new StatementKey(sql, (Integer) args[1], (Integer) args[2], -1);
+      }
+      // 指定主键列名或结果集可保持性的语句不缓存
+      return null;
+    }
+
+    PreparedStatement prepare(Connection connection) throws SQLException {
+      if (autoGeneratedKeys != -1) {
+        return connection.prepareStatement(sql, autoGeneratedKeys);
+      } else if (resultSetType == ResultSet.TYPE_FORWARD_ONLY && resultSetConcurrency == ResultSet.CONCUR_READ_ONLY) {
+        return connection.prepareStatement(sql);
+      } else {
+        return connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof StatementKey)) {
+        return false;
+      }
+      StatementKey that = (StatementKey) o;
+      return resultSetType == that.resultSetType
+          && resultSetConcurrency == that.resultSetConcurrency
+          && autoGeneratedKeys == that.autoGeneratedKeys
+          && sql.equals(that.sql);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(sql, resultSetType, resultSetConcurrency, autoGeneratedKeys);
+    }
+  }
+
+  /**
+   * 缓存中的语句，以及创建时的默认设置，用于归还时恢复
+   */
+  private static final class CachedStatement {
+    private final StatementKey key;
+    private final PreparedStatement statement;
+    private final int defaultFetchSize;
+    private final int defaultQueryTimeout;
+    private final int defaultMaxRows;
+    private final int defaultFetchDirection;
+
+    CachedStatement(StatementKey key, PreparedStatement statement) throws SQLException {
+      this.key = key;
+      this.statement = statement;
+      this.defaultFetchSize = statement.getFetchSize();
+      this.defaultQueryTimeout = statement.getQueryTimeout();
+      this.defaultMaxRows = statement.getMaxRows();
+      this.defaultFetchDirection = statement.getFetchDirection();
+    }
+
+    /**
+     * 清除本次使用留下的状态
+     * @param settingsChanged 本次使用是否修改过语句的设置
+     * @throws SQLException
+     */
+    void reset(boolean settingsChanged) throws SQLException {
+      ResultSet rs = statement.getResultSet();
+      if (rs != null) {
+        rs.close();
+      }
+      statement.clearParameters();
+      statement.clearBatch();
+      statement.clearWarnings();
+      if (settingsChanged) {
+        statement.setFetchSize(defaultFetchSize);
+        statement.setQueryTimeout(defaultQueryTimeout);
+        statement.setMaxRows(defaultMaxRows);
+        statement.setFetchDirection(defaultFetchDirection);
+      }
+    }
+
+    void closeQuietly() {
+      try {
+        statement.close();
+      } catch (SQLException e) {
+        // ignore
+      }
+    }
+  }
+
+  /**
+   * 借出的语句的代理，关闭时将语句归还到缓存中
+   */
+  private final class StatementHandler implements InvocationHandler {
+    private final CachedStatement cachedStatement;
+    // 本次借出是否已经关闭
+    private boolean closed;
+    // 本次使用是否修改过语句的设置
+    private boolean settingsChanged;
+    // 设置了closeOnCompletion的语句会随结果集关闭，不能再放回缓存
+    private boolean discard;
+
+    StatementHandler(CachedStatement cachedStatement) {
+      this.cachedStatement = cachedStatement;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      String methodName = method.getName();
+      if (Object.class.equals(method.getDeclaringClass())) {
+        return method.invoke(this, args);
+      }
+      switch (methodName) {
+        case "close":
+          close();
+          return null;
+        case "isClosed":
+          return closed || cachedStatement.statement.isClosed();
+        case "closeOnCompletion":
+          discard = true;
+          break;
+        case "setFetchSize":
+        case "setQueryTimeout":
+        case "setMaxRows":
+        case "setFetchDirection":
+          settingsChanged = true;
+          break;
+        default:
+          break;
+      }
+      if (closed) {
+        throw new SQLException("Statement is closed.");
+      }
+      try {
+        return method.invoke(cachedStatement.statement, args);
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+    }
+
+    private void close() throws SQLException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (discard || cachedStatement.statement.isClosed()) {
+        cachedStatement.statement.close();
+        return;
+      }
+      try {
+        cachedStatement.reset(settingsChanged);
+      } catch (SQLException e) {
+        cachedStatement.closeQuietly();
+        return;
+      }
+      checkIn(cachedStatement);
+    }
+  }
+}
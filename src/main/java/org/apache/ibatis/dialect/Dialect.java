@@ -0,0 +1,44 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+import java.util.List;
+
+/**
+ * 数据库方言，用于将翻页限制改写到SQL语句中，由数据库完成翻页，而不是在结果集中逐行跳过。
+ * 分页参数以"?"占位符的形式追加在原SQL的所有占位符之后。
+ */
+public interface Dialect {
+
+  /**
+   * 为查询语句添加翻页限制
+   * @param sql 原SQL语句
+   * @param offset 跳过的行数，为RowBounds.NO_ROW_OFFSET时不跳过
+   * @param limit 返回的最大行数，为RowBounds.NO_ROW_LIMIT时不限制
+   * @param parameters 输出参数，按照分页占位符在返回的SQL中出现的顺序放入对应的参数值
+   * @return 添加了翻页限制的SQL语句
+   */
+  String getLimitSql(String sql, int offset, int limit, List<Object> parameters);
+
+  /**
+   * 是否支持行值比较，如 (a, b) &gt; (?, ?)。键集翻页的排序键方向一致时，可以用它代替展开的OR条件
+   * @return 是否支持行值比较
+   */
+  default boolean supportsRowValueComparison() {
+    return false;
+  }
+
+}
@@ -0,0 +1,98 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 方言注册表。以databaseId（由DatabaseIdProvider得到的数据库厂商标识或其别名）查找方言。
+ * 查找时忽略大小写，先精确匹配，再按前缀匹配，以适应"DB2/LINUXX8664"之类带有平台信息的产品名。
+ */
+public class DialectRegistry {
+
+  private final Map<String, Dialect> dialects = new ConcurrentHashMap<>();
+
+  public DialectRegistry() {
+    Dialect limitOffset = new LimitOffsetDialect();
+    Dialect limitOffsetWithoutRowValues = new LimitOffsetDialect(false);
+    Dialect offsetFetch = new OffsetFetchDialect();
+    // 常用的别名
+    register("mysql", limitOffset);
+    register("mariadb", limitOffset);
+    register("postgresql", limitOffset);
+    register("postgres", limitOffset);
+    register("hsqldb", limitOffsetWithoutRowValues);
+    register("h2", limitOffset);
+    register("sqlite", limitOffsetWithoutRowValues);
+    register("oracle", offsetFetch);
+    register("db2", offsetFetch);
+    register("derby", offsetFetch);
+    register("sqlserver", new OffsetFetchDialect(true));
+    // VendorDatabaseIdProvider未设置任何别名属性时（如以编程方式使用），databaseId为数据库产品名
+    register("HSQL Database Engine", limitOffsetWithoutRowValues);
+    register("Apache Derby", offsetFetch);
+    register("Microsoft SQL Server", new OffsetFetchDialect(true));
+  }
+
+  /**
+   * 注册方言
+   * @param databaseId 数据库标识
+   * @param dialect 方言
+   */
+  public void register(String databaseId, Dialect dialect) {
+    dialects.put(databaseId.toLowerCase(Locale.ENGLISH), dialect);
+  }
+
+  /**
+   * 根据数据库标识查找方言
+   * @param databaseId 数据库标识
+   * @return 方言，没有对应的方言时返回null
+   */
+  public Dialect getDialect(String databaseId) {
+    if (databaseId == null) {
+      return null;
+    }
+    String id = databaseId.toLowerCase(Locale.ENGLISH);
+    Dialect dialect = dialects.get(id);
+    if (dialect == null) {
+      String matchedKey = null;
+      for (Map.Entry<String, Dialect> entry : dialects.entrySet()) {
+        // 取最长的前缀匹配
+        if (id.startsWith(entry.getKey()) && (matchedKey == null || entry.getKey().length() > matchedKey.length())) {
+          matchedKey = entry.getKey();
+          dialect = entry.getValue();
+        }
+      }
+    }
+    return dialect;
+  }
+
+  /**
+   * 去除SQL语句末尾的空白和分号，以便在其后追加子句
+   * @param sql SQL语句
+   * @return 处理后的SQL语句
+   */
+  static String trimSql(String sql) {
+    int end = sql.length();
+    while (end > 0 && (Character.isWhitespace(sql.charAt(end - 1)) || sql.charAt(end - 1) == ';')) {
+      end--;
+    }
+    return sql.substring(0, end);
+  }
+
+}
@@ -0,0 +1,66 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+import java.util.List;
+
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * 使用 LIMIT ... OFFSET ... 翻页的方言，适用于MySQL、MariaDB、PostgreSQL、HSQLDB、H2、SQLite等数据库
+ */
+public class LimitOffsetDialect implements Dialect {
+
+  // 是否支持行值比较，HSQLDB等数据库无法推断行值中占位符的类型，SQLite的旧版本不支持行值
+  private final boolean rowValueComparison;
+
+  public LimitOffsetDialect() {
+    this(true);
+  }
+
+  /**
+   * 构造方法
+   * @param rowValueComparison 是否支持以占位符作为行值比较的操作数，如 (a, b) &gt; (?, ?)
+   */
+  public LimitOffsetDialect(boolean rowValueComparison) {
+    this.rowValueComparison = rowValueComparison;
+  }
+
+  @Override
+  public String getLimitSql(String sql, int offset, int limit, List<Object> parameters) {
+    String trimmedSql = DialectRegistry.trimSql(sql);
+    // 翻页子句必须位于FOR UPDATE、LOCK IN SHARE MODE等行锁子句之前
+    int lockIndex = SqlScanner.indexOfLockingClause(trimmedSql);
+    StringBuilder builder = new StringBuilder(lockIndex < 0 ? trimmedSql : DialectRegistry.trimSql(trimmedSql.substring(0, lockIndex)));
+    // 只跳过行时也需要LIMIT子句（MySQL不支持单独的OFFSET），此时使用最大值
+    builder.append(" LIMIT ?");
+    parameters.add(limit);
+    if (offset > RowBounds.NO_ROW_OFFSET) {
+      builder.append(" OFFSET ?");
+      parameters.add(offset);
+    }
+    if (lockIndex >= 0) {
+      builder.append(' ').append(trimmedSql.substring(lockIndex));
+    }
+    return builder.toString();
+  }
+
+  @Override
+  public boolean supportsRowValueComparison() {
+    return rowValueComparison;
+  }
+
+}
@@ -0,0 +1,64 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+import java.util.List;
+
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * 使用SQL:2008标准的 OFFSET ... ROWS FETCH NEXT ... ROWS ONLY 翻页的方言，适用于Oracle 12c、DB2、Derby、SQL Server 2012及以上版本
+ */
+public class OffsetFetchDialect implements Dialect {
+
+  // 是否要求语句带有ORDER BY子句，SQL Server只允许在ORDER BY之后使用OFFSET
+  private final boolean orderByRequired;
+
+  public OffsetFetchDialect() {
+    this(false);
+  }
+
+  /**
+   * 构造方法
+   * @param orderByRequired 是否要求语句带有ORDER BY子句，为true时会为没有排序的语句添加一个不影响结果的排序
+   */
+  public OffsetFetchDialect(boolean orderByRequired) {
+    this.orderByRequired = orderByRequired;
+  }
+
+  @Override
+  public String getLimitSql(String sql, int offset, int limit, List<Object> parameters) {
+    String trimmedSql = DialectRegistry.trimSql(sql);
+    // 翻页子句必须位于FOR UPDATE等行锁子句之前
+    int lockIndex = SqlScanner.indexOfLockingClause(trimmedSql);
+    StringBuilder builder = new StringBuilder(lockIndex < 0 ? trimmedSql : DialectRegistry.trimSql(trimmedSql.substring(0, lockIndex)));
+    // 只有最外层的ORDER BY才对整个语句排序，子查询或者引号中的ORDER BY不算
+    if (orderByRequired && SqlScanner.lastIndexOfTopLevel(builder.toString(), "ORDER BY") < 0) {
+      builder.append(" ORDER BY (SELECT NULL)");
+    }
+    builder.append(" OFFSET ? ROWS");
+    parameters.add(offset);
+    if (limit != RowBounds.NO_ROW_LIMIT) {
+      builder.append(" FETCH NEXT ? ROWS ONLY");
+      parameters.add(limit);
+    }
+    if (lockIndex >= 0) {
+      builder.append(' ').append(trimmedSql.substring(lockIndex));
+    }
+    return builder.toString();
+  }
+
+}
@@ -0,0 +1,126 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+/**
+ * 在SQL语句的最外层查找子句。括号（子查询、函数调用）和引号中的内容不参与匹配，
+ * 关键字不区分大小写，短语中的各个单词之间可以是任意空白。
+ */
+public final class SqlScanner {
+
+  // 行锁子句，翻页子句需要插入到它们之前
+  private static final String[] LOCKING_CLAUSES = {
+      "FOR UPDATE", "FOR NO KEY UPDATE", "FOR SHARE", "FOR KEY SHARE", "FOR READ ONLY", "FOR FETCH ONLY", "LOCK IN SHARE MODE"};
+
+  private SqlScanner() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * 查找最外层第一次出现的关键字短语
+   * @param sql SQL语句
+   * @param phrase 关键字短语，如"ORDER BY"
+   * @return 短语的起始位置，没有时返回-1
+   */
+  public static int indexOfTopLevel(String sql, String phrase) {
+    return find(sql, phrase, false);
+  }
+
+  /**
+   * 查找最外层最后一次出现的关键字短语
+   * @param sql SQL语句
+   * @param phrase 关键字短语，如"ORDER BY"
+   * @return 短语的起始位置，没有时返回-1
+   */
+  public static int lastIndexOfTopLevel(String sql, String phrase) {
+    return find(sql, phrase, true);
+  }
+
+  /**
+   * 查找最外层的行锁子句，如FOR UPDATE、LOCK IN SHARE MODE
+   * @param sql SQL语句
+   * @return 行锁子句的起始位置，没有时返回-1
+   */
+  public static int indexOfLockingClause(String sql) {
+    int index = -1;
+    for (String clause : LOCKING_CLAUSES) {
+      int i = indexOfTopLevel(sql, clause);
+      if (i >= 0 && (index < 0 || i < index)) {
+        index = i;
+      }
+    }
+    return index;
+  }
+
+  private static int find(String sql, String phrase, boolean last) {
+    String[] words = phrase.split(" ");
+    int found = -1;
+    int depth = 0;
+    char quote = 0;
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '\'' || c == '"' || c == '`') {
+        quote = c;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (depth == 0 && isPhraseAt(sql, i, words)) {
+        if (!last) {
+          return i;
+        }
+        found = i;
+      }
+    }
+    return found;
+  }
+
+  private static boolean isPhraseAt(String sql, int index, String[] words) {
+    int pos = index;
+    for (int w = 0; w < words.length; w++) {
+      if (w > 0) {
+        int start = pos;
+        while (pos < sql.length() && Character.isWhitespace(sql.charAt(pos))) {
+          pos++;
+        }
+        if (pos == start) {
+          return false;
+        }
+      }
+      if (!isKeywordAt(sql, pos, words[w])) {
+        return false;
+      }
+      pos += words[w].length();
+    }
+    return true;
+  }
+
+  private static boolean isKeywordAt(String sql, int index, String keyword) {
+    int end = index + keyword.length();
+    return sql.regionMatches(true, index, keyword, 0, keyword.length())
+        && (index == 0 || !isIdentifierPart(sql.charAt(index - 1)))
+        && (end == sql.length() || !isIdentifierPart(sql.charAt(end)));
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return Character.isLetterOrDigit(c) || c == '_';
+  }
+
+}
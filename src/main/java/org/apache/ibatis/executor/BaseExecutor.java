@@ -20,12 +20,15 @@ import static org.apache.ibatis.executor.ExecutionPlaceholder.EXECUTION_PLACEHOL
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
+import org.apache.ibatis.dialect.Dialect;
 import org.apache.ibatis.executor.statement.StatementUtil;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
@@ -41,6 +44,7 @@ import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.LocalCacheScope;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SeekBounds;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 
@@ -50,6 +54,8 @@ import org.apache.ibatis.type.TypeHandlerRegistry;
 public abstract class BaseExecutor implements Executor {
 
   private static final Log log = LogFactory.getLog(BaseExecutor.class);
+  // 翻页下推时分页参数的附加参数名前缀
+  private static final String ROW_BOUNDS_PARAMETER_PREFIX = "__rowBounds_";
 
   protected Transaction transaction;
   protected Executor wrapper;
@@ -63,6 +69,8 @@ public abstract class BaseExecutor implements Executor {
 
   protected int queryStack;
   private boolean closed;
+  // 本会话打开的预读游标。预读期间后台线程在使用会话的连接，会话上的其他操作必须等到预读结束
+  private final List<PrefetchingCursor<?>> prefetchingCursors = new ArrayList<>();
 
   protected BaseExecutor(Configuration configuration, Transaction transaction) {
     this.transaction = transaction;
@@ -85,6 +93,11 @@ public abstract class BaseExecutor implements Executor {
   @Override
   public void close(boolean forceRollback) {
     try {
+      // 先关闭仍在预读的游标，等待后台线程释放连接
+      for (PrefetchingCursor<?> cursor : prefetchingCursors) {
+        cursor.close();
+      }
+      prefetchingCursors.clear();
       try {
         rollback(forceRollback);
       } finally {
@@ -124,6 +137,7 @@ public abstract class BaseExecutor implements Executor {
       // 执行器已经关闭
       throw new ExecutorException("Executor was closed.");
     }
+    checkNotPrefetching();
     // 清理本地缓存
     clearLocalCache();
     // 返回调用子类进行操作
@@ -139,6 +153,7 @@ public abstract class BaseExecutor implements Executor {
     if (closed) {
       throw new ExecutorException("Executor was closed.");
     }
+    checkNotPrefetching();
     return doFlushStatements(isRollBack);
   }
 
@@ -154,7 +169,7 @@ public abstract class BaseExecutor implements Executor {
    */
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
-    BoundSql boundSql = ms.getBoundSql(parameter);
+    BoundSql boundSql = getBoundSql(ms, parameter, rowBounds);
     // 生成缓存的键
     CacheKey key = createCacheKey(ms, parameter, rowBounds, boundSql);
     return query(ms, parameter, rowBounds, resultHandler, key, boundSql);
@@ -180,6 +195,7 @@ public abstract class BaseExecutor implements Executor {
       // 执行器已经关闭
       throw new ExecutorException("Executor was closed.");
     }
+    checkNotPrefetching();
     if (queryStack == 0 && ms.isFlushCacheRequired()) { // 新的查询栈且要求清除缓存
       // 清除一级缓存
       clearLocalCache();
@@ -215,8 +231,33 @@ public abstract class BaseExecutor implements Executor {
 
   @Override
   public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
-    BoundSql boundSql = ms.getBoundSql(parameter);
-    return doQueryCursor(ms, parameter, rowBounds, boundSql);
+    checkNotPrefetching();
+    BoundSql boundSql = getBoundSql(ms, parameter, rowBounds);
+    BoundSql limitBoundSql = pushDownRowBounds(ms, rowBounds, boundSql);
+    Cursor<E> cursor;
+    if (limitBoundSql != null) {
+      // 翻页已经由数据库完成
+      cursor = doQueryCursor(ms, parameter, RowBounds.DEFAULT, limitBoundSql);
+    } else {
+      cursor = doQueryCursor(ms, parameter, rowBounds, boundSql);
+    }
+    if (cursor instanceof PrefetchingCursor) {
+      prefetchingCursors.add((PrefetchingCursor<?>) cursor);
+    }
+    return cursor;
+  }
+
+  /**
+   * 检查是否有预读游标正在使用会话的连接。连接不是线程安全的，预读期间不能在会话上执行其他操作
+   */
+  private void checkNotPrefetching() {
+    prefetchingCursors.removeIf(PrefetchingCursor::isPrefetchFinished);
+    for (PrefetchingCursor<?> cursor : prefetchingCursors) {
+      if (cursor.isPrefetching()) {
+        throw new ExecutorException("A prefetching cursor is reading from the connection of this session. "
+            + "Consume or close the cursor before using the session again.");
+      }
+    }
   }
 
   @Override
@@ -288,6 +329,7 @@ public abstract class BaseExecutor implements Executor {
     if (closed) {
       throw new ExecutorException("Cannot commit, transaction is already closed");
     }
+    checkNotPrefetching();
     clearLocalCache();
     flushStatements();
     if (required) {
@@ -298,6 +340,7 @@ public abstract class BaseExecutor implements Executor {
   @Override
   public void rollback(boolean required) throws SQLException {
     if (!closed) {
+      checkNotPrefetching();
       try {
         clearLocalCache();
         flushStatements(true);
@@ -384,7 +427,13 @@ public abstract class BaseExecutor implements Executor {
     // 向缓存中增加占位符，表示正在查询
     localCache.putObject(key, EXECUTION_PLACEHOLDER);
     try {
-      list = doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
+      BoundSql limitBoundSql = pushDownRowBounds(ms, rowBounds, boundSql);
+      if (limitBoundSql != null) {
+        // 翻页已经由数据库完成，结果集无需再跳过行
+        list = doQuery(ms, parameter, RowBounds.DEFAULT, resultHandler, limitBoundSql);
+      } else {
+        list = doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
+      }
     } finally {
       // 删除占位符
       localCache.removeObject(key);
@@ -397,6 +446,55 @@ public abstract class BaseExecutor implements Executor {
     return list;
   }
 
+  /**
+   * 获取语句的绑定SQL，翻页限制为SeekBounds时改写为键集翻页的查询
+   * @param ms 映射语句
+   * @param parameter 参数对象
+   * @param rowBounds 翻页限制
+   * @return 绑定SQL
+   */
+  static BoundSql getBoundSql(MappedStatement ms, Object parameter, RowBounds rowBounds) {
+    BoundSql boundSql = ms.getBoundSql(parameter);
+    if (rowBounds instanceof SeekBounds) {
+      return SeekQuery.rewrite(ms, boundSql, (SeekBounds) rowBounds);
+    }
+    return boundSql;
+  }
+
+  /**
+   * 启用了翻页下推时，使用当前数据库的方言将翻页限制改写到SQL语句中
+   * @param ms 映射语句
+   * @param rowBounds 翻页限制
+   * @param boundSql 原绑定SQL
+   * @return 改写后的绑定SQL，无需或者无法改写时返回null
+   */
+  private BoundSql pushDownRowBounds(MappedStatement ms, RowBounds rowBounds, BoundSql boundSql) {
+    if (!configuration.isRowBoundsPushdown()
+        || (rowBounds.getOffset() == RowBounds.NO_ROW_OFFSET && rowBounds.getLimit() == RowBounds.NO_ROW_LIMIT)) {
+      return null;
+    }
+    // 分页参数以占位符绑定，因此只支持预编译语句。嵌套结果映射中多行对应一个对象，按行翻页会截断对象，因此也不改写
+    if (ms.getStatementType() != StatementType.PREPARED || ms.hasNestedResultMaps()) {
+      return null;
+    }
+    Dialect dialect = configuration.getCurrentDialect();
+    if (dialect == null) {
+      return null;
+    }
+    List<Object> values = new ArrayList<>();
+    String sql = dialect.getLimitSql(boundSql.getSql(), rowBounds.getOffset(), rowBounds.getLimit(), values);
+    List<ParameterMapping> parameterMappings = new ArrayList<>(boundSql.getParameterMappings());
+    BoundSql limitBoundSql = boundSql.copyWith(configuration, sql, parameterMappings);
+    for (int i = 0; i < values.size(); i++) {
+      // 分页参数作为附加参数绑定
+      String property = ROW_BOUNDS_PARAMETER_PREFIX + i;
+      Object value = values.get(i);
+      parameterMappings.add(new ParameterMapping.Builder(configuration, property, value.getClass()).build());
+      limitBoundSql.setAdditionalParameter(property, value);
+    }
+    return limitBoundSql;
+  }
+
   /**
    * 获取一个Connection对象
    * @param statementLog 日志对象
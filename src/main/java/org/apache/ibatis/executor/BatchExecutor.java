@@ -20,6 +20,7 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -30,6 +31,10 @@ import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -43,12 +48,38 @@ public class BatchExecutor extends BaseExecutor {
   public static final int BATCH_UPDATE_RETURN_VALUE = Integer.MIN_VALUE + 1002;
 
   private final List<Statement> statementList = new ArrayList<>();
+  // 与statementList一一对应，改写为多行VALUES的批次在这里记录参数值，对应的Statement为null
+  private final List<MultiRowInsertBatch> valuesBatchList = new ArrayList<>();
   private final List<BatchResult> batchResultList = new ArrayList<>();
   private String currentSql;
   private MappedStatement currentStatement;
+  // 是否将交替出现的不同语句分组到各自的批次中
+  private final boolean groupBatchStatements;
+  // 合并为多行VALUES时每条INSERT语句包含的行数，小于2表示不合并
+  private final int insertRowsPerStatement;
+
+  // 自动提交批次的行数阈值，0表示不限制
+  private final int batchFlushSize;
+  // 自动提交批次的估算字节数阈值，0表示不限制
+  private final long batchFlushBytes;
+  // 当前批次中累积的行数
+  private int pendingRows;
+  // 当前批次中累积的估算字节数
+  private long pendingBytes;
+  // 已经自动提交的批次的累计结果（不再持有参数对象），更新计数在flushedUpdateCounts中分段保存
+  private final List<BatchResult> flushedBatchResults = new ArrayList<>();
+  // 与flushedBatchResults一一对应，每次自动提交得到的更新计数，在最终提交时才拼接为一个数组
+  private final List<List<int[]>> flushedUpdateCounts = new ArrayList<>();
 
   public BatchExecutor(Configuration configuration, Transaction transaction) {
     super(configuration, transaction);
+    Integer flushSize = configuration.getBatchFlushSize();
+    Long flushBytes = configuration.getBatchFlushBytes();
+    this.batchFlushSize = flushSize == null || flushSize < 0 ? 0 : flushSize;
+    this.batchFlushBytes = flushBytes == null || flushBytes < 0 ? 0 : flushBytes;
+    this.groupBatchStatements = configuration.isGroupBatchStatements();
+    Integer rowsPerStatement = configuration.getBatchInsertRowsPerStatement();
+    this.insertRowsPerStatement = rowsPerStatement == null ? 0 : rowsPerStatement;
   }
 
   @Override
@@ -58,26 +89,213 @@ public class BatchExecutor extends BaseExecutor {
     final BoundSql boundSql = handler.getBoundSql();
     final String sql = boundSql.getSql();
     final Statement stmt;
-    if (sql.equals(currentSql) && ms.equals(currentStatement)) {
-      int last = statementList.size() - 1;
-      stmt = statementList.get(last);
-      applyTransactionTimeout(stmt);
-      handler.parameterize(stmt);//fix Issues 322
-      BatchResult batchResult = batchResultList.get(last);
+    // 找出可以继续追加参数的已有批次
+    final int index;
+    if (groupBatchStatements && ms.getSqlCommandType() == SqlCommandType.INSERT) {
+      index = findGroupedStatement(ms, sql);
+    } else {
+      index = sql.equals(currentSql) && ms.equals(currentStatement) ? statementList.size() - 1 : -1;
+    }
+    final MultiRowInsertBatch valuesBatch;
+    if (index >= 0) {
+      stmt = statementList.get(index);
+      valuesBatch = valuesBatchList.get(index);
+      if (valuesBatch != null) {
+        // 多行VALUES改写的批次，只记录参数值，等到执行时再生成语句
+        valuesBatch.addRow(resolveParameterValues(ms, boundSql, parameterObject));
+      } else {
+        applyTransactionTimeout(stmt);
+        handler.parameterize(stmt);//fix Issues 322
+      }
+      BatchResult batchResult = batchResultList.get(index);
       batchResult.addParameterObject(parameterObject);
     } else {
-      Connection connection = getConnection(ms.getStatementLog());
-      stmt = handler.prepare(connection, transaction.getTimeout());
-      handler.parameterize(stmt);    //fix Issues 322
+      valuesBatch = insertRowsPerStatement > 1 ? MultiRowInsertBatch.forStatement(ms, boundSql) : null;
+      if (valuesBatch != null) {
+        valuesBatch.addRow(resolveParameterValues(ms, boundSql, parameterObject));
+        stmt = null;
+      } else {
+        Connection connection = getConnection(ms.getStatementLog());
+        stmt = handler.prepare(connection, transaction.getTimeout());
+        handler.parameterize(stmt);    //fix Issues 322
+      }
       currentSql = sql;
       currentStatement = ms;
       statementList.add(stmt);
+      valuesBatchList.add(valuesBatch);
       batchResultList.add(new BatchResult(ms, sql, parameterObject));
     }
-    handler.batch(stmt);
+    if (valuesBatch == null) {
+      handler.batch(stmt);
+    }
+    if (isAutoFlushRequired(ms, boundSql, parameterObject)) {
+      autoFlushStatements();
+    }
     return BATCH_UPDATE_RETURN_VALUE;
   }
 
+  /**
+   * 分组模式下，查找相同语句（MappedStatement与SQL均相同）已经打开的批次
+   *
+   * 只有INSERT语句参与分组，且只有在该批次之后打开的批次也都是INSERT时，才允许追加到该批次中，
+   * 因此插入之后又删除、再插入的语句仍按原有顺序执行。批次按照首次出现的顺序执行，
+   * 追加到较早批次中的INSERT会先于其间的其他INSERT执行：依次插入A1、B1、A2时，A2会先于B1执行。
+   * 这不能保证INSERT之间的依赖关系（如A2通过外键引用B1），所以分组模式默认关闭，由用户确认没有这类依赖后开启。
+   * @param ms 当前语句，必须是INSERT
+   * @param sql 当前SQL
+   * @return 可以复用的批次下标，-1表示需要打开新的批次
+   */
+  private int findGroupedStatement(MappedStatement ms, String sql) {
+    for (int i = batchResultList.size() - 1; i >= 0; i--) {
+      BatchResult batchResult = batchResultList.get(i);
+      MappedStatement candidate = batchResult.getMappedStatement();
+      if (candidate.getSqlCommandType() != SqlCommandType.INSERT) {
+        return -1;
+      }
+      if (candidate.equals(ms) && sql.equals(batchResult.getSql())) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * 判断当前批次是否达到了自动提交的阈值
+   * @param ms 刚加入批次的映射语句
+   * @param boundSql 刚加入批次的语句
+   * @param parameterObject 刚加入批次的参数对象
+   * @return 是否需要自动提交
+   */
+  private boolean isAutoFlushRequired(MappedStatement ms, BoundSql boundSql, Object parameterObject) {
+    if (batchFlushSize == 0 && batchFlushBytes == 0) {
+      return false;
+    }
+    pendingRows++;
+    if (batchFlushBytes > 0) {
+      pendingBytes += estimateBatchRowSize(ms, boundSql, parameterObject);
+    }
+    return (batchFlushSize > 0 && pendingRows >= batchFlushSize)
+        || (batchFlushBytes > 0 && pendingBytes >= batchFlushBytes);
+  }
+
+  /**
+   * 执行并释放当前批次，执行结果合并到累计结果中
+   * @throws SQLException
+   */
+  private void autoFlushStatements() throws SQLException {
+    List<BatchResult> results = new ArrayList<>();
+    try {
+      executeBatches(results);
+    } catch (BatchExecutorException e) {
+      // 失败时报告的成功结果中同样要包含之前自动提交的批次
+      e.getSuccessfulBatchResults().addAll(0, collectFlushedBatchResults());
+      flushedBatchResults.clear();
+      flushedUpdateCounts.clear();
+      throw e;
+    } finally {
+      releaseBatches();
+    }
+    for (BatchResult result : results) {
+      accumulateBatchResult(result);
+    }
+  }
+
+  /**
+   * 将一个已执行的批次合并到累计结果中，连续的相同语句合并为一条结果，参数对象不再保留
+   * @param result 已执行的批次结果
+   */
+  private void accumulateBatchResult(BatchResult result) {
+    int last = flushedBatchResults.size() - 1;
+    BatchResult previous = last < 0 ? null : flushedBatchResults.get(last);
+    if (previous != null && previous.getMappedStatement().equals(result.getMappedStatement())
+        && previous.getSql().equals(result.getSql())) {
+      // 只记录本次的更新计数，避免每次自动提交都复制之前的全部计数
+      flushedUpdateCounts.get(last).add(result.getUpdateCounts());
+    } else {
+      flushedBatchResults.add(new BatchResult(result.getMappedStatement(), result.getSql()));
+      List<int[]> chunks = new ArrayList<>();
+      chunks.add(result.getUpdateCounts());
+      flushedUpdateCounts.add(chunks);
+    }
+  }
+
+  /**
+   * 生成已经自动提交的批次的累计结果，各段更新计数在这里一次性拼接
+   * @return 累计结果
+   */
+  private List<BatchResult> collectFlushedBatchResults() {
+    List<BatchResult> results = new ArrayList<>(flushedBatchResults.size());
+    for (int i = 0, n = flushedBatchResults.size(); i < n; i++) {
+      BatchResult flushed = flushedBatchResults.get(i);
+      List<int[]> chunks = flushedUpdateCounts.get(i);
+      int length = 0;
+      for (int[] chunk : chunks) {
+        length += chunk.length;
+      }
+      int[] updateCounts = new int[length];
+      int offset = 0;
+      for (int[] chunk : chunks) {
+        System.arraycopy(chunk, 0, updateCounts, offset, chunk.length);
+        offset += chunk.length;
+      }
+      BatchResult result = new BatchResult(flushed.getMappedStatement(), flushed.getSql());
+      result.setUpdateCounts(updateCounts);
+      results.add(result);
+    }
+    return results;
+  }
+
+  /**
+   * 粗略估算一行批量参数占用的内存字节数
+   * @param ms 映射语句
+   * @param boundSql 语句
+   * @param parameterObject 参数对象
+   * @return 估算的字节数
+   */
+  private long estimateBatchRowSize(MappedStatement ms, BoundSql boundSql, Object parameterObject) {
+    long size = 64;
+    for (Object value : resolveParameterValues(ms, boundSql, parameterObject)) {
+      size += estimateValueSize(value);
+    }
+    return size;
+  }
+
+  /**
+   * 使用DefaultParameterHandler解析出语句中各个参数的值
+   * @param ms 映射语句
+   * @param boundSql 语句
+   * @param parameterObject 参数对象
+   * @return 参数值数组，与参数映射一一对应，输出参数为null
+   */
+  private Object[] resolveParameterValues(MappedStatement ms, BoundSql boundSql, Object parameterObject) {
+    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    if (parameterMappings == null) {
+      return new Object[0];
+    }
+    DefaultParameterHandler parameterHandler = new DefaultParameterHandler(ms, parameterObject, boundSql);
+    Object[] values = new Object[parameterMappings.size()];
+    for (int i = 0; i < values.length; i++) {
+      ParameterMapping parameterMapping = parameterMappings.get(i);
+      if (parameterMapping.getMode() != ParameterMode.OUT) {
+        values[i] = parameterHandler.getParameterValue(parameterMapping);
+      }
+    }
+    return values;
+  }
+
+  private long estimateValueSize(Object value) {
+    if (value == null) {
+      return 8;
+    } else if (value instanceof CharSequence) {
+      return 40 + 2L * ((CharSequence) value).length();
+    } else if (value instanceof byte[]) {
+      return 16 + ((byte[]) value).length;
+    } else if (value instanceof char[]) {
+      return 16 + 2L * ((char[]) value).length;
+    }
+    return 24;
+  }
+
   @Override
   public <E> List<E> doQuery(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql)
       throws SQLException {
@@ -110,54 +328,133 @@ public class BatchExecutor extends BaseExecutor {
   @Override
   public List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
     try {
-      List<BatchResult> results = new ArrayList<>();
       if (isRollback) {
         return Collections.emptyList();
       }
-      for (int i = 0, n = statementList.size(); i < n; i++) {
-        Statement stmt = statementList.get(i);
-        applyTransactionTimeout(stmt);
-        BatchResult batchResult = batchResultList.get(i);
-        try {
+      // 先放入已经自动提交的批次的累计结果
+      List<BatchResult> results = collectFlushedBatchResults();
+      executeBatches(results);
+      return results;
+    } finally {
+      releaseBatches();
+      flushedBatchResults.clear();
+      flushedUpdateCounts.clear();
+    }
+  }
+
+  /**
+   * 依次执行当前打开的各个批次，执行结果追加到results中
+   * @param results 结果列表，同时作为失败时报告的成功结果
+   * @throws SQLException
+   */
+  private void executeBatches(List<BatchResult> results) throws SQLException {
+    for (int i = 0, n = statementList.size(); i < n; i++) {
+      Statement stmt = statementList.get(i);
+      MultiRowInsertBatch valuesBatch = valuesBatchList.get(i);
+      BatchResult batchResult = batchResultList.get(i);
+      try {
+        if (valuesBatch != null) {
+          batchResult.setUpdateCounts(executeMultiRowInsert(valuesBatch, batchResult));
+        } else {
+          applyTransactionTimeout(stmt);
           batchResult.setUpdateCounts(stmt.executeBatch());
-          MappedStatement ms = batchResult.getMappedStatement();
-          List<Object> parameterObjects = batchResult.getParameterObjects();
-          KeyGenerator keyGenerator = ms.getKeyGenerator();
-          if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
-            Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
-            jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
-          } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) { //issue #141
-            for (Object parameter : parameterObjects) {
-              keyGenerator.processAfter(this, ms, stmt, parameter);
-            }
-          }
+          processGeneratedKeys(batchResult.getMappedStatement(), stmt, batchResult.getParameterObjects());
           // Close statement to close cursor #1109
           closeStatement(stmt);
-        } catch (BatchUpdateException e) {
-          StringBuilder message = new StringBuilder();
-          message.append(batchResult.getMappedStatement().getId())
-              .append(" (batch index #")
-              .append(i + 1)
-              .append(")")
-              .append(" failed.");
-          if (i > 0) {
-            message.append(" ")
-                .append(i)
-                .append(" prior sub executor(s) completed successfully, but will be rolled back.");
-          }
-          throw new BatchExecutorException(message.toString(), e, results, batchResult);
         }
-        results.add(batchResult);
+      } catch (BatchUpdateException e) {
+        StringBuilder message = new StringBuilder();
+        message.append(batchResult.getMappedStatement().getId())
+            .append(" (batch index #")
+            .append(i + 1)
+            .append(")")
+            .append(" failed.");
+        if (i > 0) {
+          message.append(" ")
+              .append(i)
+              .append(" prior sub executor(s) completed successfully, but will be rolled back.");
+        }
+        throw new BatchExecutorException(message.toString(), e, results, batchResult);
       }
-      return results;
-    } finally {
-      for (Statement stmt : statementList) {
+      results.add(batchResult);
+    }
+  }
+
+  /**
+   * 关闭并清空当前打开的批次
+   */
+  private void releaseBatches() {
+    for (Statement stmt : statementList) {
+      closeStatement(stmt);
+    }
+    currentSql = null;
+    statementList.clear();
+    valuesBatchList.clear();
+    batchResultList.clear();
+    pendingRows = 0;
+    pendingBytes = 0;
+  }
+
+  private void processGeneratedKeys(MappedStatement ms, Statement stmt, List<Object> parameterObjects) {
+    KeyGenerator keyGenerator = ms.getKeyGenerator();
+    if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
+      Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
+      jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
+    } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) { //issue #141
+      for (Object parameter : parameterObjects) {
+        keyGenerator.processAfter(this, ms, stmt, parameter);
+      }
+    }
+  }
+
+  /**
+   * 以多行VALUES的形式执行一组INSERT语句
+   *
+   * 每条语句最多包含insertRowsPerStatement行，行数相同的语句共用一个PreparedStatement批量执行。
+   * @param valuesBatch 待执行的行
+   * @param batchResult 批次结果
+   * @return 每一行对应的更新计数
+   * @throws SQLException
+   */
+  private int[] executeMultiRowInsert(MultiRowInsertBatch valuesBatch, BatchResult batchResult) throws SQLException {
+    final MappedStatement ms = batchResult.getMappedStatement();
+    final List<Object> parameterObjects = batchResult.getParameterObjects();
+    final int totalRows = valuesBatch.size();
+    final int[] updateCounts = new int[totalRows];
+    final int fullChunkRows = totalRows - totalRows % insertRowsPerStatement;
+    int fromRow = 0;
+    while (fromRow < totalRows) {
+      // 先执行所有满行的语句，再执行剩余的行
+      final int chunkSize = fromRow < fullChunkRows ? insertRowsPerStatement : totalRows - fromRow;
+      final int toRow = fromRow < fullChunkRows ? fullChunkRows : totalRows;
+      final String sql = valuesBatch.buildSql(chunkSize);
+      final List<ParameterMapping> mappings = valuesBatch.buildParameterMappings(configuration, chunkSize);
+      Statement stmt = null;
+      try {
+        for (int row = fromRow; row < toRow; row += chunkSize) {
+          BoundSql boundSql = valuesBatch.buildBoundSql(configuration, sql, mappings, row, chunkSize);
+          StatementHandler handler = configuration.newStatementHandler(this, ms, null, RowBounds.DEFAULT, null, boundSql);
+          if (stmt == null) {
+            stmt = handler.prepare(getConnection(ms.getStatementLog()), transaction.getTimeout());
+          }
+          handler.parameterize(stmt);
+          handler.batch(stmt);
+        }
+        applyTransactionTimeout(stmt);
+        int[] chunkCounts = stmt.executeBatch();
+        for (int chunk = 0; chunk < chunkCounts.length; chunk++) {
+          // 一条语句对应多行，只有计数与行数一致时才能确定每一行的结果
+          int rowCount = chunkCounts[chunk] == chunkSize ? 1 : Statement.SUCCESS_NO_INFO;
+          int start = fromRow + chunk * chunkSize;
+          Arrays.fill(updateCounts, start, start + chunkSize, rowCount);
+        }
+        processGeneratedKeys(ms, stmt, new ArrayList<>(parameterObjects.subList(fromRow, toRow)));
+      } finally {
         closeStatement(stmt);
       }
-      currentSql = null;
-      statementList.clear();
-      batchResultList.clear();
+      fromRow = toRow;
     }
+    return updateCounts;
   }
 
 }
@@ -0,0 +1,248 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * 一组等待合并执行的简单INSERT语句
+ *
+ * 将多次执行的 INSERT INTO t (a, b) VALUES (?, ?) 改写为 INSERT INTO t (a, b) VALUES (?, ?), (?, ?), ...
+ * 每一行的参数值在加入时就已经解析出来，执行时作为附加参数绑定到改写后的语句上。
+ */
+class MultiRowInsertBatch {
+
+  private static final String VALUES = "values";
+  private static final String ROW_PARAMETER_PREFIX = "__values_";
+
+  // VALUES之前（含VALUES）的部分
+  private final String prefix;
+  // 一行的值列表，如(?, ?)
+  private final String valuesGroup;
+  // 原语句中的参数映射
+  private final List<ParameterMapping> parameterMappings;
+  // 各行已经解析出的参数值
+  private final List<Object[]> rows = new ArrayList<>();
+
+  private MultiRowInsertBatch(String prefix, String valuesGroup, List<ParameterMapping> parameterMappings) {
+    this.prefix = prefix;
+    this.valuesGroup = valuesGroup;
+    this.parameterMappings = parameterMappings;
+  }
+
+  /**
+   * 判断语句能否改写为多行VALUES形式，能则创建对应的批次
+   * @param ms 映射语句
+   * @param boundSql 语句
+   * @return 批次，语句不是简单的 INSERT ... VALUES (...) 时返回null
+   */
+  static MultiRowInsertBatch forStatement(MappedStatement ms, BoundSql boundSql) {
+    if (ms.getSqlCommandType() != SqlCommandType.INSERT || ms.getStatementType() != StatementType.PREPARED) {
+      return null;
+    }
+    // 多行语句执行后只处理一次生成的主键，只有Jdbc3KeyGenerator能为每一行分别取得主键。
+    // selectKey等其他主键生成器会为所有行设置同一个主键，因此不做改写
+    Class<?> keyGeneratorType = ms.getKeyGenerator().getClass();
+    if (!NoKeyGenerator.class.equals(keyGeneratorType) && !Jdbc3KeyGenerator.class.equals(keyGeneratorType)) {
+      return null;
+    }
+    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    for (ParameterMapping parameterMapping : parameterMappings) {
+      if (parameterMapping.getMode() != ParameterMode.IN) {
+        return null;
+      }
+    }
+    String sql = boundSql.getSql().trim();
+    while (sql.endsWith(";")) {
+      sql = sql.substring(0, sql.length() - 1).trim();
+    }
+    if (!sql.toLowerCase(Locale.ENGLISH).startsWith("insert")) {
+      return null;
+    }
+    int valuesIndex = findValuesKeyword(sql);
+    if (valuesIndex < 0) {
+      return null;
+    }
+    int groupStart = valuesIndex + VALUES.length();
+    while (groupStart < sql.length() && Character.isWhitespace(sql.charAt(groupStart))) {
+      groupStart++;
+    }
+    if (groupStart >= sql.length() || sql.charAt(groupStart) != '(') {
+      return null;
+    }
+    int groupEnd = findClosingParenthesis(sql, groupStart);
+    // VALUES之后只能有一组值，不能有ON DUPLICATE KEY、RETURNING等其他子句
+    if (groupEnd < 0 || groupEnd != sql.length() - 1) {
+      return null;
+    }
+    String prefix = sql.substring(0, groupStart);
+    String valuesGroup = sql.substring(groupStart);
+    // 所有的占位符都必须位于值列表中
+    if (countPlaceholders(prefix) != 0 || countPlaceholders(valuesGroup) != parameterMappings.size()) {
+      return null;
+    }
+    return new MultiRowInsertBatch(prefix, valuesGroup, parameterMappings);
+  }
+
+  void addRow(Object[] values) {
+    rows.add(values);
+  }
+
+  int size() {
+    return rows.size();
+  }
+
+  /**
+   * 生成包含指定行数的INSERT语句
+   * @param rowCount 行数
+   * @return 改写后的SQL
+   */
+  String buildSql(int rowCount) {
+    StringBuilder sql = new StringBuilder(prefix.length() + rowCount * (valuesGroup.length() + 2));
+    sql.append(prefix).append(valuesGroup);
+    for (int i = 1; i < rowCount; i++) {
+      sql.append(", ").append(valuesGroup);
+    }
+    return sql.toString();
+  }
+
+  /**
+   * 生成包含指定行数的参数映射，每个参数都改为读取对应的附加参数
+   * @param configuration 配置信息
+   * @param rowCount 行数
+   * @return 参数映射列表
+   */
+  List<ParameterMapping> buildParameterMappings(Configuration configuration, int rowCount) {
+    List<ParameterMapping> mappings = new ArrayList<>(rowCount * parameterMappings.size());
+    for (int row = 0; row < rowCount; row++) {
+      for (int i = 0; i < parameterMappings.size(); i++) {
+        ParameterMapping original = parameterMappings.get(i);
+        mappings.add(new ParameterMapping.Builder(configuration, parameterName(row, i), original.getTypeHandler())
+            .javaType(original.getJavaType())
+            .jdbcType(original.getJdbcType())
+            .numericScale(original.getNumericScale())
+            .build());
+      }
+    }
+    return mappings;
+  }
+
+  /**
+   * 为从fromRow开始的若干行生成绑定了参数值的BoundSql
+   * @param configuration 配置信息
+   * @param sql 由buildSql生成的语句
+   * @param mappings 由buildParameterMappings生成的参数映射
+   * @param fromRow 起始行
+   * @param rowCount 行数
+   * @return BoundSql
+   */
+  BoundSql buildBoundSql(Configuration configuration, String sql, List<ParameterMapping> mappings, int fromRow, int rowCount) {
+    BoundSql boundSql = new BoundSql(configuration, sql, mappings, null);
+    for (int row = 0; row < rowCount; row++) {
+      Object[] values = rows.get(fromRow + row);
+      for (int i = 0; i < values.length; i++) {
+        boundSql.setAdditionalParameter(parameterName(row, i), values[i]);
+      }
+    }
+    return boundSql;
+  }
+
+  private static String parameterName(int row, int index) {
+    return ROW_PARAMETER_PREFIX + row + "_" + index;
+  }
+
+  private static int findValuesKeyword(String sql) {
+    int found = -1;
+    char quote = 0;
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '\'' || c == '"' || c == '`') {
+        quote = c;
+      } else if (sql.regionMatches(true, i, VALUES, 0, VALUES.length())
+          && (i == 0 || !isIdentifierPart(sql.charAt(i - 1)))
+          && (i + VALUES.length() == sql.length() || !isIdentifierPart(sql.charAt(i + VALUES.length())))) {
+        if (found >= 0) {
+          // 出现多个VALUES时不做改写
+          return -1;
+        }
+        found = i;
+      }
+    }
+    return found;
+  }
+
+  private static int findClosingParenthesis(String sql, int start) {
+    int depth = 0;
+    char quote = 0;
+    for (int i = start; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '\'' || c == '"' || c == '`') {
+        quote = c;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+        if (depth == 0) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  private static int countPlaceholders(String sql) {
+    int count = 0;
+    char quote = 0;
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '\'' || c == '"' || c == '`') {
+        quote = c;
+      } else if (c == '?') {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+  }
+
+}
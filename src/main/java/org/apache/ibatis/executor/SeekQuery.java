@@ -0,0 +1,255 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.ibatis.dialect.Dialect;
+import org.apache.ibatis.dialect.SqlScanner;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.MetaClass;
+import org.apache.ibatis.session.AutoMappingBehavior;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SeekBounds;
+
+/**
+ * 将查询语句改写为键集翻页的查询：加入排序键之后的条件，并按排序键排序。
+ * 行数限制由作为RowBounds的SeekBounds完成，启用翻页下推时再由方言改写到SQL中。
+ *
+ * 原查询是简单的SELECT语句时，条件直接并入它的WHERE子句，数据库可以使用排序键上的索引；
+ * 最外层含有GROUP BY、UNION、翻页等子句时，并入WHERE子句会改变语义，此时以原查询为子查询，在外层过滤和排序。
+ */
+final class SeekQuery {
+
+  // 键集翻页参数的附加参数名前缀
+  private static final String PARAMETER_PREFIX = "__seek_";
+  // 子查询的别名
+  private static final String ALIAS = "seek_";
+  // 排序键的列名只能是标识符，可以带有表的别名
+  private static final Pattern COLUMN_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*(\\.[A-Za-z_][A-Za-z0-9_$]*)?");
+  // 出现在最外层时不能把条件并入WHERE子句的子句
+  private static final String[] WRAPPING_CLAUSES = {
+      "GROUP BY", "HAVING", "UNION", "INTERSECT", "EXCEPT", "MINUS", "WINDOW", "TOP", "LIMIT", "OFFSET", "FETCH"};
+
+  private SeekQuery() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * 改写查询语句
+   * @param ms 映射语句
+   * @param boundSql 原绑定SQL
+   * @param seekBounds 键集翻页的限制条件
+   * @return 键集翻页的绑定SQL
+   */
+  static BoundSql rewrite(MappedStatement ms, BoundSql boundSql, SeekBounds seekBounds) {
+    Configuration configuration = ms.getConfiguration();
+    List<SeekBounds.SeekKey> keys = seekBounds.getKeys();
+    if (keys.isEmpty()) {
+      throw new ExecutorException("SeekBounds for statement '" + ms.getId() + "' has no order by keys.");
+    }
+    validateKeys(configuration, ms, keys);
+
+    String sql = trim(boundSql.getSql());
+    // 行锁子句保持在语句的最后
+    int lockIndex = SqlScanner.indexOfLockingClause(sql);
+    String lockingClause = lockIndex < 0 ? "" : " " + sql.substring(lockIndex);
+    String query = lockIndex < 0 ? sql : trim(sql.substring(0, lockIndex));
+    // 原有的ORDER BY子句被排序键取代；其中含有参数，或者其后还有翻页子句时不能去除
+    int orderByIndex = SqlScanner.lastIndexOfTopLevel(query, "ORDER BY");
+    boolean dropOrderBy = orderByIndex >= 0 && query.indexOf('?', orderByIndex) < 0
+        && SqlScanner.lastIndexOfTopLevel(query, "LIMIT") < orderByIndex
+        && SqlScanner.lastIndexOfTopLevel(query, "OFFSET") < orderByIndex
+        && SqlScanner.lastIndexOfTopLevel(query, "FETCH") < orderByIndex;
+    String body = dropOrderBy ? trim(query.substring(0, orderByIndex)) : query;
+    boolean inject = (orderByIndex < 0 || dropOrderBy) && canInject(body);
+
+    String[] columns = new String[keys.size()];
+    for (int i = 0; i < columns.length; i++) {
+      String column = keys.get(i).getColumn();
+      // 在子查询外引用时只能使用结果集中的列名
+      columns[i] = inject ? column : ALIAS + "." + unqualify(column);
+    }
+    List<Object> values = new ArrayList<>();
+    String predicate = seekBounds.isFirstPage() ? null
+        : buildPredicate(configuration.getCurrentDialect(), keys, columns, seekBounds.getLastKey(), values);
+
+    StringBuilder builder = new StringBuilder();
+    if (!inject) {
+      builder.append("SELECT * FROM (").append(body).append(") ").append(ALIAS);
+      if (predicate != null) {
+        builder.append(" WHERE ").append(predicate);
+      }
+    } else if (predicate == null) {
+      builder.append(body);
+    } else {
+      int whereIndex = SqlScanner.indexOfTopLevel(body, "WHERE");
+      if (whereIndex < 0) {
+        builder.append(body).append(" WHERE ").append(predicate);
+      } else {
+        // 原条件加上括号，以免其中的OR与新条件结合
+        int conditionIndex = whereIndex + "WHERE".length();
+        builder.append(body, 0, conditionIndex).append(" (").append(body.substring(conditionIndex).trim()).append(") AND ").append(predicate);
+      }
+    }
+    builder.append(" ORDER BY ");
+    for (int i = 0; i < keys.size(); i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      builder.append(columns[i]).append(keys.get(i).isDescending() ? " DESC" : " ASC");
+    }
+    builder.append(lockingClause);
+
+    // 条件位于原语句所有参数之后，因此其参数追加在参数映射列表的末尾
+    List<ParameterMapping> parameterMappings = new ArrayList<>(boundSql.getParameterMappings());
+    BoundSql seekBoundSql = boundSql.copyWith(configuration, builder.toString(), parameterMappings);
+    for (int i = 0; i < values.size(); i++) {
+      String property = PARAMETER_PREFIX + i;
+      Object value = values.get(i);
+      if (value == null) {
+        throw new ExecutorException("Seek key values must not be null. Statement: " + ms.getId());
+      }
+      parameterMappings.add(new ParameterMapping.Builder(configuration, property, value.getClass()).build());
+      seekBoundSql.setAdditionalParameter(property, value);
+    }
+    return seekBoundSql;
+  }
+
+  /**
+   * 生成排序键之后的条件。排序方向一致且数据库支持时使用行值比较(k1, k2) > (?, ?)，
+   * 否则展开为(k1 > ?) OR (k1 = ? AND k2 > ?) OR ...，可以兼容升降序混合的排序键
+   */
+  private static String buildPredicate(Dialect dialect, List<SeekBounds.SeekKey> keys, String[] columns, Object[] lastKey, List<Object> values) {
+    StringBuilder predicate = new StringBuilder();
+    if (keys.size() > 1 && dialect != null && dialect.supportsRowValueComparison() && isSameDirection(keys)) {
+      predicate.append('(').append(String.join(", ", columns)).append(keys.get(0).isDescending() ? ") < (" : ") > (");
+      for (int i = 0; i < keys.size(); i++) {
+        predicate.append(i > 0 ? ", ?" : "?");
+        values.add(lastKey[i]);
+      }
+      return predicate.append(')').toString();
+    }
+    predicate.append('(');
+    for (int i = 0; i < keys.size(); i++) {
+      if (i > 0) {
+        predicate.append(" OR ");
+      }
+      predicate.append('(');
+      for (int j = 0; j < i; j++) {
+        predicate.append(columns[j]).append(" = ? AND ");
+        values.add(lastKey[j]);
+      }
+      predicate.append(columns[i]).append(keys.get(i).isDescending() ? " < ?" : " > ?").append(')');
+      values.add(lastKey[i]);
+    }
+    return predicate.append(')').toString();
+  }
+
+  private static boolean isSameDirection(List<SeekBounds.SeekKey> keys) {
+    for (SeekBounds.SeekKey key : keys) {
+      if (key.isDescending() != keys.get(0).isDescending()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * 判断能否把条件直接并入语句的WHERE子句
+   */
+  private static boolean canInject(String sql) {
+    if (!sql.regionMatches(true, 0, "SELECT", 0, "SELECT".length())) {
+      return false;
+    }
+    for (String clause : WRAPPING_CLAUSES) {
+      if (SqlScanner.indexOfTopLevel(sql, clause) >= 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * 校验排序键：列名必须是标识符，且与结果映射中该属性对应的列一致
+   */
+  private static void validateKeys(Configuration configuration, MappedStatement ms, List<SeekBounds.SeekKey> keys) {
+    ResultMap resultMap = ms.getResultMaps().isEmpty() ? null : ms.getResultMaps().get(0);
+    for (SeekBounds.SeekKey key : keys) {
+      if (!COLUMN_PATTERN.matcher(key.getColumn()).matches()) {
+        throw new ExecutorException("Seek key column '" + key.getColumn() + "' of statement '" + ms.getId() + "' is not a valid column name.");
+      }
+      if (resultMap == null) {
+        continue;
+      }
+      String column = unqualify(key.getColumn());
+      ResultMapping mapping = findMapping(resultMap, key.getProperty());
+      if (mapping != null) {
+        if (mapping.getColumn() == null || !mapping.getColumn().equalsIgnoreCase(column)) {
+          throw new ExecutorException("Seek key column '" + key.getColumn() + "' does not match the column '" + mapping.getColumn()
+              + "' mapped to property '" + key.getProperty() + "' by result map '" + resultMap.getId() + "'.");
+        }
+      } else if (!isAutoMapped(configuration, resultMap, key.getProperty())) {
+        throw new ExecutorException("Seek key property '" + key.getProperty() + "' is not mapped by result map '" + resultMap.getId() + "'.");
+      }
+    }
+  }
+
+  private static ResultMapping findMapping(ResultMap resultMap, String property) {
+    for (ResultMapping mapping : resultMap.getResultMappings()) {
+      if (property.equals(mapping.getProperty())) {
+        return mapping;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * 判断属性能否通过自动映射得到，此时列名等于属性名（或其下划线形式），无法在执行前确定，只检查属性是否存在
+   */
+  private static boolean isAutoMapped(Configuration configuration, ResultMap resultMap, String property) {
+    Boolean autoMapping = resultMap.getAutoMapping();
+    if (autoMapping != null ? !autoMapping : configuration.getAutoMappingBehavior() == AutoMappingBehavior.NONE) {
+      return false;
+    }
+    return Map.class.isAssignableFrom(resultMap.getType())
+        || MetaClass.forClass(resultMap.getType(), configuration.getReflectorFactory()).hasGetter(property);
+  }
+
+  private static String unqualify(String column) {
+    return column.substring(column.lastIndexOf('.') + 1);
+  }
+
+  private static String trim(String sql) {
+    int end = sql.length();
+    while (end > 0 && (Character.isWhitespace(sql.charAt(end - 1)) || sql.charAt(end - 1) == ';')) {
+      end--;
+    }
+    int start = 0;
+    while (start < end && Character.isWhitespace(sql.charAt(start))) {
+      start++;
+    }
+    return sql.substring(start, end);
+  }
+
+}
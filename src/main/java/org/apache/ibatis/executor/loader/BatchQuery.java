@@ -0,0 +1,152 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.loader;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.MetaClass;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * 批量加载的嵌套查询
+ * 把一批外键作为参数执行一次嵌套查询，再按子对象的外键对结果分组
+ * 嵌套查询的参数与直接传入List时相同，可以通过collection或list引用这一批外键
+ */
+public class BatchQuery {
+
+  private final Configuration configuration;
+  private final MappedStatement nestedQuery;
+  private final ResultMapping propertyMapping;
+  // 子对象中由外键列映射而来的属性，子对象为Map时为null
+  private final String foreignKeyProperty;
+
+  public BatchQuery(Configuration configuration, MappedStatement nestedQuery, ResultMapping propertyMapping) {
+    this.configuration = configuration;
+    this.nestedQuery = nestedQuery;
+    this.propertyMapping = propertyMapping;
+    this.foreignKeyProperty = resolveForeignKeyProperty();
+  }
+
+  public MappedStatement getNestedQuery() {
+    return nestedQuery;
+  }
+
+  public ResultMapping getPropertyMapping() {
+    return propertyMapping;
+  }
+
+  /**
+   * 生成一批外键对应的嵌套查询参数
+   * @param keys 外键
+   * @return 嵌套查询参数
+   */
+  public static Object parameterFor(List<Object> keys) {
+    final ParamMap<Object> parameter = new ParamMap<>();
+    parameter.put("collection", keys);
+    parameter.put("list", keys);
+    return parameter;
+  }
+
+  /**
+   * 查询一组外键对应的子对象。外键数量超过batchFetchSize时分成多批查询
+   * @param executor 执行器
+   * @param keys 外键
+   * @return 子对象，键为统一类型后的外键
+   * @throws SQLException
+   */
+  public Map<Object, List<Object>> query(Executor executor, List<Object> keys) throws SQLException {
+    final int batchSize = Math.max(1, configuration.getBatchFetchSize());
+    final Map<Object, List<Object>> childrenByKey = new HashMap<>();
+    for (int from = 0; from < keys.size(); from += batchSize) {
+      final List<Object> batchKeys = new ArrayList<>(keys.subList(from, Math.min(keys.size(), from + batchSize)));
+      final List<Object> children = executor.query(nestedQuery, parameterFor(batchKeys), RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      for (Object child : children) {
+        if (child != null) {
+          final Object key = normalizeKey(readForeignKey(child));
+          childrenByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(child);
+        }
+      }
+    }
+    return childrenByKey;
+  }
+
+  /**
+   * 统一外键的类型。父对象一侧的外键与子对象的外键属性可能是不同的数字类型，统一后才能按值比较
+   * @param key 外键
+   * @return 统一类型后的外键
+   */
+  public static Object normalizeKey(Object key) {
+    if (key instanceof Number) {
+      try {
+        return new BigDecimal(key.toString()).stripTrailingZeros();
+      } catch (NumberFormatException e) {
+        return key;
+      }
+    }
+    return key;
+  }
+
+  /**
+   * 找出子对象中由外键列映射而来的属性
+   * @return 外键属性，子对象为Map时返回null
+   */
+  private String resolveForeignKeyProperty() {
+    final String foreignColumn = propertyMapping.getForeignColumn();
+    final ResultMap childResultMap = nestedQuery.getResultMaps().get(0);
+    final Class<?> childType = childResultMap.getType();
+    if (Map.class.isAssignableFrom(childType)) {
+      return null;
+    }
+    for (ResultMapping childMapping : childResultMap.getResultMappings()) {
+      if (childMapping.getProperty() != null && foreignColumn.equalsIgnoreCase(childMapping.getColumn())) {
+        return childMapping.getProperty();
+      }
+    }
+    final String property = MetaClass.forClass(childType, configuration.getReflectorFactory())
+        .findProperty(foreignColumn, configuration.isMapUnderscoreToCamelCase());
+    if (property == null) {
+      throw new ExecutorException("Cannot find a property of " + childType.getName() + " mapped from foreignColumn '" + foreignColumn
+          + "' to batch load property '" + propertyMapping.getProperty() + "'");
+    }
+    return property;
+  }
+
+  private Object readForeignKey(Object child) {
+    if (foreignKeyProperty != null) {
+      return configuration.newMetaObject(child).getValue(foreignKeyProperty);
+    }
+    final String foreignColumn = propertyMapping.getForeignColumn();
+    for (Map.Entry<?, ?> entry : ((Map<?, ?>) child).entrySet()) {
+      if (foreignColumn.equalsIgnoreCase(String.valueOf(entry.getKey()))) {
+        return entry.getValue();
+      }
+    }
+    return null;
+  }
+
+}
@@ -0,0 +1,190 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.loader;
+
+import java.lang.ref.WeakReference;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * 批量懒加载的结果加载器
+ * 同一结果集中同一属性的加载器组成一组。任一加载器被触发时，一同加载组内其他尚未加载的对象的该属性，
+ * 每次最多加载batchFetchSize个外键，只执行一次嵌套查询
+ */
+public class BatchResultLoader extends ResultLoader {
+
+  // 所属的组
+  private final Group group;
+  // 持有该属性的对象的元对象
+  private final MetaObject metaResultObject;
+  // 持有该属性的对象的惰性加载器
+  private final ResultLoaderMap lazyLoader;
+  // 外键
+  private final Object key;
+
+  /**
+   * 构造方法
+   * @param config 配置信息
+   * @param executor 执行器
+   * @param parameterObject 只含该外键的嵌套查询参数，该加载器被单独使用（如对象经过序列化）时以此查询
+   * @param cacheKey 只含该外键的嵌套查询的缓存键
+   * @param boundSql 只含该外键的嵌套查询的BoundSql
+   * @param group 所属的组
+   * @param metaResultObject 持有该属性的对象的元对象
+   * @param lazyLoader 持有该属性的对象的惰性加载器
+   * @param key 外键
+   */
+  public BatchResultLoader(Configuration config, Executor executor, Object parameterObject, CacheKey cacheKey, BoundSql boundSql,
+      Group group, MetaObject metaResultObject, ResultLoaderMap lazyLoader, Object key) {
+    super(config, executor, group.batchQuery.getNestedQuery(), parameterObject, group.targetType, cacheKey, boundSql);
+    this.group = group;
+    this.metaResultObject = metaResultObject;
+    this.lazyLoader = lazyLoader;
+    this.key = key;
+    group.add(this);
+  }
+
+  @Override
+  public Object loadResult() throws SQLException {
+    group.load(this);
+    return resultObject;
+  }
+
+  /**
+   * 同一结果集中同一属性的批量懒加载器
+   */
+  public static class Group {
+    private final BatchQuery batchQuery;
+    private final Class<?> targetType;
+    // 组内尚未加载的加载器，按外键分组并保持加入的顺序。一个外键被加载后整组移除，因此每次加载只访问本次加载的外键。
+    // 持有属性的对象被回收后，其加载器也随之回收，不会被组挽留
+    private final Map<Object, List<WeakReference<BatchResultLoader>>> pendingLoaders = new LinkedHashMap<>();
+
+    public Group(BatchQuery batchQuery, Class<?> targetType) {
+      this.batchQuery = batchQuery;
+      this.targetType = targetType;
+    }
+
+    private synchronized void add(BatchResultLoader loader) {
+      pendingLoaders.computeIfAbsent(BatchQuery.normalizeKey(loader.key), k -> new ArrayList<>()).add(new WeakReference<>(loader));
+    }
+
+    /**
+     * 加载触发的加载器及其之后的若干兄弟加载器
+     * @param trigger 被触发的加载器
+     * @throws SQLException
+     */
+    private void load(BatchResultLoader trigger) throws SQLException {
+      final List<BatchResultLoader> window;
+      synchronized (this) {
+        if (trigger.loaded) {
+          return;
+        }
+        window = collectWindow(trigger);
+        final Map<Object, Object> keys = new LinkedHashMap<>();
+        for (BatchResultLoader loader : window) {
+          keys.putIfAbsent(BatchQuery.normalizeKey(loader.key), loader.key);
+        }
+        final Map<Object, List<Object>> childrenByKey = query(trigger, new ArrayList<>(keys.values()));
+        for (BatchResultLoader loader : window) {
+          final List<Object> children = childrenByKey.getOrDefault(BatchQuery.normalizeKey(loader.key), Collections.emptyList());
+          loader.resultObject = loader.resultExtractor.extractObjectFromList(new ArrayList<>(children), targetType);
+          loader.loaded = true;
+        }
+      }
+      // 在组锁之外为兄弟对象赋值。通过代理对象的setter赋值时，代理对象会移除该属性的惰性加载器
+      final String property = batchQuery.getPropertyMapping().getProperty();
+      for (BatchResultLoader loader : window) {
+        if (loader != trigger) {
+          loader.metaResultObject.setValue(property, loader.resultObject);
+        }
+      }
+    }
+
+    /**
+     * 找出触发的加载器及尚未加载的兄弟加载器，最多含batchFetchSize个不同的外键。
+     * 选中的外键从待加载的加载器中移除，已回收的加载器也随之清理
+     * @param trigger 被触发的加载器
+     * @return 本次要加载的加载器
+     */
+    private List<BatchResultLoader> collectWindow(BatchResultLoader trigger) {
+      final int windowSize = Math.max(1, trigger.configuration.getBatchFetchSize());
+      final String property = batchQuery.getPropertyMapping().getProperty();
+      final List<BatchResultLoader> window = new ArrayList<>();
+      window.add(trigger);
+      addPendingLoaders(window, pendingLoaders.remove(BatchQuery.normalizeKey(trigger.key)), trigger, property);
+      int keyCount = 1;
+      final Iterator<List<WeakReference<BatchResultLoader>>> iterator = pendingLoaders.values().iterator();
+      while (keyCount < windowSize && iterator.hasNext()) {
+        final List<WeakReference<BatchResultLoader>> loaders = iterator.next();
+        iterator.remove();
+        if (addPendingLoaders(window, loaders, trigger, property)) {
+          keyCount++;
+        }
+      }
+      return window;
+    }
+
+    /**
+     * 将同一外键下仍需加载的加载器加入本次加载
+     * @return 是否加入了加载器
+     */
+    private boolean addPendingLoaders(List<BatchResultLoader> window, List<WeakReference<BatchResultLoader>> loaders,
+        BatchResultLoader trigger, String property) {
+      if (loaders == null) {
+        return false;
+      }
+      boolean added = false;
+      for (WeakReference<BatchResultLoader> reference : loaders) {
+        final BatchResultLoader loader = reference.get();
+        // 跳过已回收、已加载以及属性已被赋值（惰性加载器已移除）的对象
+        if (loader == null || loader == trigger || loader.loaded || !loader.lazyLoader.hasLoader(property)) {
+          continue;
+        }
+        window.add(loader);
+        added = true;
+      }
+      return added;
+    }
+
+    private Map<Object, List<Object>> query(BatchResultLoader trigger, List<Object> keys) throws SQLException {
+      Executor localExecutor = trigger.executor;
+      if (Thread.currentThread().getId() != trigger.creatorThreadId || localExecutor.isClosed()) {
+        // 执行器关闭，或者执行器属于其他线程，则创建新的执行器
+        localExecutor = trigger.newExecutor();
+      }
+      try {
+        return batchQuery.query(localExecutor, keys);
+      } finally {
+        if (localExecutor != trigger.executor) {
+          localExecutor.close(false);
+        }
+      }
+    }
+  }
+
+}
@@ -92,7 +92,7 @@ public class ResultLoader {
   }
 
   // 这才是创建一个真的执行器，而ClosedExecutor是假的执行器
-  private Executor newExecutor() {
+  protected Executor newExecutor() {
     final Environment environment = configuration.getEnvironment();
     if (environment == null) {
       throw new ExecutorException("ResultLoader could not load lazily.  Environment was not configured.");
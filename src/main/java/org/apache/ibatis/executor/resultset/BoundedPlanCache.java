@@ -0,0 +1,100 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 由Configuration持有、各结果集处理器共享的映射计划缓存
+ *
+ * 自动映射计划、构造方法映射计划、结果集各列信息和生成的行映射器都按结果映射与结果集的列缓存，
+ * 动态SQL的列组合可能无限增长，因此缓存的条目数有上限，超出时淘汰最久未使用的条目。
+ * 查找只在每个结果集开始处理时进行，而不是每一行，因此使用同步的LinkedHashMap即可。
+ * @param <V> 缓存的计划类型
+ */
+public class BoundedPlanCache<V> {
+
+  // 按访问顺序排列的条目，最久未使用的在最前面
+  private final LinkedHashMap<String, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+  // 最多缓存的条目数，不大于0时不缓存
+  private int maxSize;
+
+  public BoundedPlanCache(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  public synchronized int getMaxSize() {
+    return maxSize;
+  }
+
+  public synchronized void setMaxSize(int maxSize) {
+    this.maxSize = maxSize;
+    trim();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  synchronized V get(String key) {
+    return entries.get(key);
+  }
+
+  /**
+   * 放入条目，已有的同键条目被替换
+   * @param key 键
+   * @param value 计划
+   */
+  synchronized void put(String key, V value) {
+    if (maxSize <= 0) {
+      return;
+    }
+    entries.put(key, value);
+    trim();
+  }
+
+  /**
+   * 在没有同键条目时放入条目
+   * @param key 键
+   * @param value 计划
+   * @return 缓存中已有的计划，没有时返回放入的计划
+   */
+  synchronized V putIfAbsent(String key, V value) {
+    V existing = entries.get(key);
+    if (existing != null) {
+      return existing;
+    }
+    put(key, value);
+    return value;
+  }
+
+  /**
+   * 淘汰最久未使用的条目，直到条目数不超过上限
+   */
+  private void trim() {
+    final int limit = Math.max(0, maxSize);
+    while (entries.size() > limit) {
+      Map.Entry<String, V> eldest = entries.entrySet().iterator().next();
+      entries.remove(eldest.getKey());
+    }
+  }
+
+}
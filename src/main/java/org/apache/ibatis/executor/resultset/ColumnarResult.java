@@ -0,0 +1,463 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.PrimitiveTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * 按列存储的查询结果
+ *
+ * 将resultType设为该类时，整个结果集映射为一个ColumnarResult，而不是每行一个对象。
+ * 整数、长整数和浮点数列分别存为int[]、long[]、double[]，字符列存为String[]，其余列存为Object[]，
+ * 每列另有一个位图记录哪些行为null。数值列不产生包装类对象，行数很多时内存占用远小于List<Map>或List<对象>。
+ */
+public class ColumnarResult {
+
+  // 各列的列名
+  private final List<String> columnNames;
+  // 大写列名与列序号（从0开始）的映射表，同名列取第一个
+  private final Map<String, Integer> columnIndexMap = new HashMap<>();
+  private final Column[] columns;
+  private final int rowCount;
+
+  private ColumnarResult(List<String> columnNames, Column[] columns, int rowCount) {
+    this.columnNames = Collections.unmodifiableList(columnNames);
+    this.columns = columns;
+    this.rowCount = rowCount;
+    for (int i = 0; i < columnNames.size(); i++) {
+      columnIndexMap.putIfAbsent(columnNames.get(i).toUpperCase(Locale.ENGLISH), i);
+    }
+  }
+
+  /**
+   * 读取结果集中的行，直到结果集结束或达到行数上限
+   * @param rsw 结果集
+   * @param limit 最多读取的行数
+   * @return 按列存储的结果
+   * @throws SQLException
+   */
+  static ColumnarResult read(ResultSetWrapper rsw, int limit) throws SQLException {
+    final List<String> columnNames = rsw.getColumnNames();
+    final Column[] columns = new Column[columnNames.size()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = Column.create(rsw, i + 1);
+    }
+    final ResultSet rs = rsw.getResultSet();
+    int rowCount = 0;
+    while (rowCount < limit && !rs.isClosed() && rs.next()) {
+      for (Column column : columns) {
+        column.read(rs, rowCount);
+      }
+      rowCount++;
+    }
+    for (Column column : columns) {
+      column.trim(rowCount);
+    }
+    return new ColumnarResult(columnNames, columns, rowCount);
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public int getColumnCount() {
+    return columns.length;
+  }
+
+  public List<String> getColumnNames() {
+    return columnNames;
+  }
+
+  /**
+   * 获取列名对应的列序号，列名不区分大小写
+   * @param columnName 列名
+   * @return 从0开始的列序号，没有该列时返回-1
+   */
+  public int getColumnIndex(String columnName) {
+    final Integer index = columnIndexMap.get(columnName.toUpperCase(Locale.ENGLISH));
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * 获取列的存储类型
+   * @param column 从0开始的列序号
+   * @return int.class、long.class、double.class、String.class或Object.class
+   */
+  public Class<?> getColumnType(int column) {
+    return columns[column].type;
+  }
+
+  /**
+   * 判断指定行的列值是否为null。基本类型的列中，值为null的行存为0
+   * @param column 从0开始的列序号
+   * @param row 从0开始的行号
+   * @return 是否为null
+   */
+  public boolean isNull(int column, int row) {
+    return columns[column].isNull(row);
+  }
+
+  /**
+   * 获取指定行的列值，基本类型的值会被装箱
+   * @param column 从0开始的列序号
+   * @param row 从0开始的行号
+   * @return 列值
+   */
+  public Object getValue(int column, int row) {
+    if (row < 0 || row >= rowCount) {
+      throw new IndexOutOfBoundsException("Row: " + row + ", row count: " + rowCount);
+    }
+    return columns[column].isNull(row) ? null : columns[column].getValue(row);
+  }
+
+  public int[] getInts(int column) {
+    return ((IntColumn) typedColumn(column, int.class)).values;
+  }
+
+  public int[] getInts(String columnName) {
+    return getInts(requireColumnIndex(columnName));
+  }
+
+  public long[] getLongs(int column) {
+    return ((LongColumn) typedColumn(column, long.class)).values;
+  }
+
+  public long[] getLongs(String columnName) {
+    return getLongs(requireColumnIndex(columnName));
+  }
+
+  public double[] getDoubles(int column) {
+    return ((DoubleColumn) typedColumn(column, double.class)).values;
+  }
+
+  public double[] getDoubles(String columnName) {
+    return getDoubles(requireColumnIndex(columnName));
+  }
+
+  public String[] getStrings(int column) {
+    return ((StringColumn) typedColumn(column, String.class)).values;
+  }
+
+  public String[] getStrings(String columnName) {
+    return getStrings(requireColumnIndex(columnName));
+  }
+
+  public Object[] getObjects(int column) {
+    return ((ObjectColumn) typedColumn(column, Object.class)).values;
+  }
+
+  public Object[] getObjects(String columnName) {
+    return getObjects(requireColumnIndex(columnName));
+  }
+
+  private Column typedColumn(int column, Class<?> type) {
+    final Column typedColumn = columns[column];
+    if (typedColumn.type != type) {
+      throw new ExecutorException("Column '" + columnNames.get(column) + "' is stored as " + typedColumn.type.getSimpleName()
+          + "[], not as " + type.getSimpleName() + "[]");
+    }
+    return typedColumn;
+  }
+
+  private int requireColumnIndex(String columnName) {
+    final int index = getColumnIndex(columnName);
+    if (index < 0) {
+      throw new ExecutorException("Column '" + columnName + "' not found in " + columnNames);
+    }
+    return index;
+  }
+
+  /**
+   * 一列的存储。各实现按行号写入值，容量不足时成倍扩大，读取结束后截去多余的部分
+   */
+  private abstract static class Column {
+    private static final int INITIAL_CAPACITY = 64;
+
+    // 存储类型
+    final Class<?> type;
+    // 值为null的行的位图，每个long记录64行
+    private long[] nulls = new long[1];
+    // 当前容量
+    int capacity = INITIAL_CAPACITY;
+
+    Column(Class<?> type) {
+      this.type = type;
+    }
+
+    /**
+     * 为结果集中的一列选择存储方式。整数、浮点数列的类型处理器能以基本类型读取时按基本类型存储
+     * @param rsw 结果集
+     * @param columnIndex 从1开始的列序号
+     * @return 列的存储
+     */
+    static Column create(ResultSetWrapper rsw, int columnIndex) {
+      final String columnName = rsw.getColumnNames().get(columnIndex - 1);
+      final JdbcType jdbcType = rsw.getJdbcTypes().get(columnIndex - 1);
+      final Class<?> primitiveType = primitiveTypeOf(jdbcType);
+      if (primitiveType != null) {
+        final TypeHandler<?> typeHandler = rsw.getTypeHandler(primitiveType, columnName);
+        if (typeHandler instanceof PrimitiveTypeHandler && ((PrimitiveTypeHandler) typeHandler).getPrimitiveType() == primitiveType) {
+          final PrimitiveTypeHandler primitiveTypeHandler = (PrimitiveTypeHandler) typeHandler;
+          if (primitiveType == int.class) {
+            return new IntColumn(columnIndex, primitiveTypeHandler);
+          } else if (primitiveType == long.class) {
+            return new LongColumn(columnIndex, primitiveTypeHandler);
+          }
+          return new DoubleColumn(columnIndex, primitiveTypeHandler);
+        }
+      }
+      if (isCharacterType(jdbcType)) {
+        @SuppressWarnings("unchecked")
+        final TypeHandler<String> typeHandler = (TypeHandler<String>) rsw.getTypeHandler(String.class, columnName);
+        return new StringColumn(columnIndex, typeHandler);
+      }
+      return new ObjectColumn(columnIndex, rsw.getTypeHandler(Object.class, columnName));
+    }
+
+    private static Class<?> primitiveTypeOf(JdbcType jdbcType) {
+      if (jdbcType == null) {
+        return null;
+      }
+      switch (jdbcType) {
+        case TINYINT:
+        case SMALLINT:
+        case INTEGER:
+          return int.class;
+        case BIGINT:
+          return long.class;
+        case REAL:
+        case FLOAT:
+        case DOUBLE:
+          return double.class;
+        default:
+          return null;
+      }
+    }
+
+    private static boolean isCharacterType(JdbcType jdbcType) {
+      if (jdbcType == null) {
+        return false;
+      }
+      switch (jdbcType) {
+        case CHAR:
+        case VARCHAR:
+        case LONGVARCHAR:
+        case NCHAR:
+        case NVARCHAR:
+        case LONGNVARCHAR:
+          return true;
+        default:
+          return false;
+      }
+    }
+
+    /**
+     * 读取当前行的列值并写入指定行
+     * @param rs 结果集
+     * @param row 从0开始的行号
+     * @throws SQLException
+     */
+    void read(ResultSet rs, int row) throws SQLException {
+      if (row == capacity) {
+        capacity = capacity << 1;
+        resize(capacity);
+      }
+      if (readValue(rs, row)) {
+        if ((row >>> 6) >= nulls.length) {
+          nulls = Arrays.copyOf(nulls, Math.max(nulls.length << 1, (row >>> 6) + 1));
+        }
+        nulls[row >>> 6] |= 1L << row;
+      }
+    }
+
+    boolean isNull(int row) {
+      final int word = row >>> 6;
+      return word < nulls.length && (nulls[word] & (1L << row)) != 0;
+    }
+
+    void trim(int rowCount) {
+      capacity = rowCount;
+      resize(rowCount);
+      final int words = (rowCount + 63) >>> 6;
+      if (nulls.length > words) {
+        nulls = Arrays.copyOf(nulls, words);
+      }
+    }
+
+    /**
+     * 读取当前行的列值并写入指定行
+     * @return 列值是否为null
+     */
+    abstract boolean readValue(ResultSet rs, int row) throws SQLException;
+
+    abstract void resize(int newCapacity);
+
+    abstract Object getValue(int row);
+  }
+
+  private static final class IntColumn extends Column {
+    private final int columnIndex;
+    private final PrimitiveTypeHandler typeHandler;
+    int[] values = new int[capacity];
+
+    IntColumn(int columnIndex, PrimitiveTypeHandler typeHandler) {
+      super(int.class);
+      this.columnIndex = columnIndex;
+      this.typeHandler = typeHandler;
+    }
+
+    @Override
+    boolean readValue(ResultSet rs, int row) throws SQLException {
+      values[row] = typeHandler.getInt(rs, columnIndex);
+      return typeHandler.wasNull(rs);
+    }
+
+    @Override
+    void resize(int newCapacity) {
+      values = Arrays.copyOf(values, newCapacity);
+    }
+
+    @Override
+    Object getValue(int row) {
+      return values[row];
+    }
+  }
+
+  private static final class LongColumn extends Column {
+    private final int columnIndex;
+    private final PrimitiveTypeHandler typeHandler;
+    long[] values = new long[capacity];
+
+    LongColumn(int columnIndex, PrimitiveTypeHandler typeHandler) {
+      super(long.class);
+      this.columnIndex = columnIndex;
+      this.typeHandler = typeHandler;
+    }
+
+    @Override
+    boolean readValue(ResultSet rs, int row) throws SQLException {
+      values[row] = typeHandler.getLong(rs, columnIndex);
+      return typeHandler.wasNull(rs);
+    }
+
+    @Override
+    void resize(int newCapacity) {
+      values = Arrays.copyOf(values, newCapacity);
+    }
+
+    @Override
+    Object getValue(int row) {
+      return values[row];
+    }
+  }
+
+  private static final class DoubleColumn extends Column {
+    private final int columnIndex;
+    private final PrimitiveTypeHandler typeHandler;
+    double[] values = new double[capacity];
+
+    DoubleColumn(int columnIndex, PrimitiveTypeHandler typeHandler) {
+      super(double.class);
+      this.columnIndex = columnIndex;
+      this.typeHandler = typeHandler;
+    }
+
+    @Override
+    boolean readValue(ResultSet rs, int row) throws SQLException {
+      values[row] = typeHandler.getDouble(rs, columnIndex);
+      return typeHandler.wasNull(rs);
+    }
+
+    @Override
+    void resize(int newCapacity) {
+      values = Arrays.copyOf(values, newCapacity);
+    }
+
+    @Override
+    Object getValue(int row) {
+      return values[row];
+    }
+  }
+
+  private static final class StringColumn extends Column {
+    private final int columnIndex;
+    private final TypeHandler<String> typeHandler;
+    String[] values = new String[capacity];
+
+    StringColumn(int columnIndex, TypeHandler<String> typeHandler) {
+      super(String.class);
+      this.columnIndex = columnIndex;
+      this.typeHandler = typeHandler;
+    }
+
+    @Override
+    boolean readValue(ResultSet rs, int row) throws SQLException {
+      values[row] = typeHandler.getResult(rs, columnIndex);
+      return values[row] == null;
+    }
+
+    @Override
+    void resize(int newCapacity) {
+      values = Arrays.copyOf(values, newCapacity);
+    }
+
+    @Override
+    Object getValue(int row) {
+      return values[row];
+    }
+  }
+
+  private static final class ObjectColumn extends Column {
+    private final int columnIndex;
+    private final TypeHandler<?> typeHandler;
+    Object[] values = new Object[capacity];
+
+    ObjectColumn(int columnIndex, TypeHandler<?> typeHandler) {
+      super(Object.class);
+      this.columnIndex = columnIndex;
+      this.typeHandler = typeHandler;
+    }
+
+    @Override
+    boolean readValue(ResultSet rs, int row) throws SQLException {
+      values[row] = typeHandler.getResult(rs, columnIndex);
+      return values[row] == null;
+    }
+
+    @Override
+    void resize(int newCapacity) {
+      values = Arrays.copyOf(values, newCapacity);
+    }
+
+    @Override
+    Object getValue(int row) {
+      return values[row];
+    }
+  }
+
+}
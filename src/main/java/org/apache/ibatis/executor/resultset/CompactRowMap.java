@@ -0,0 +1,295 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 紧凑的行Map
+ *
+ * 开启compactMapRows后，resultType为map的结果用该类表示每一行。同一结果集的各行共享一个键的索引，
+ * 每行只保存一个值数组，不为每个键值对创建Entry对象，也不需要扩容和重新散列。
+ * 不在共享索引中的键存放在各行自己的HashMap中，因此仍可以像普通Map一样写入任意键。
+ * 与HashMap相同，该类不是线程安全的。
+ */
+public class CompactRowMap extends AbstractMap<String, Object> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  // 值数组中表示键不存在的占位对象
+  private static final Object ABSENT = new Object();
+
+  // 共享的键索引
+  private final Keys keys;
+  // 各键的值，与共享索引中的键一一对应，没有该键时为ABSENT
+  private Object[] values;
+  // 不在共享索引中的键值对，首次写入时创建
+  private Map<String, Object> extraEntries;
+  // 共享索引中已存在的键的数量
+  private int size;
+  private transient Set<Map.Entry<String, Object>> entrySet;
+
+  CompactRowMap(Keys keys) {
+    this.keys = keys;
+    this.values = new Object[keys.names.length];
+    Arrays.fill(values, ABSENT);
+  }
+
+  @Override
+  public int size() {
+    return size + (extraEntries == null ? 0 : extraEntries.size());
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    final int index = keys.indexOf(key);
+    if (index >= 0) {
+      return values[index] != ABSENT;
+    }
+    return extraEntries != null && extraEntries.containsKey(key);
+  }
+
+  @Override
+  public Object get(Object key) {
+    final int index = keys.indexOf(key);
+    if (index >= 0) {
+      final Object value = values[index];
+      return value == ABSENT ? null : value;
+    }
+    return extraEntries == null ? null : extraEntries.get(key);
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    final int index = keys.indexOf(key);
+    if (index >= 0) {
+      final Object oldValue = values[index];
+      values[index] = value;
+      if (oldValue == ABSENT) {
+        size++;
+        return null;
+      }
+      return oldValue;
+    }
+    if (extraEntries == null) {
+      extraEntries = new LinkedHashMap<>();
+    }
+    return extraEntries.put(key, value);
+  }
+
+  @Override
+  public Object remove(Object key) {
+    final int index = keys.indexOf(key);
+    if (index >= 0) {
+      final Object oldValue = values[index];
+      if (oldValue == ABSENT) {
+        return null;
+      }
+      values[index] = ABSENT;
+      size--;
+      return oldValue;
+    }
+    return extraEntries == null ? null : extraEntries.remove(key);
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(values, ABSENT);
+    size = 0;
+    extraEntries = null;
+  }
+
+  @Override
+  public Set<Map.Entry<String, Object>> entrySet() {
+    if (entrySet == null) {
+      entrySet = new EntrySet();
+    }
+    return entrySet;
+  }
+
+  private final class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+    @Override
+    public Iterator<Map.Entry<String, Object>> iterator() {
+      return new EntryIterator();
+    }
+
+    @Override
+    public int size() {
+      return CompactRowMap.this.size();
+    }
+
+    @Override
+    public void clear() {
+      CompactRowMap.this.clear();
+    }
+  }
+
+  /**
+   * 先按共享索引的顺序遍历，再遍历不在索引中的键值对
+   */
+  private final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+    // 下一个存在的键在共享索引中的位置
+    private int next = advance(0);
+    // 上一次返回的键在共享索引中的位置，上一次返回的是额外的键值对或尚未返回时为-1
+    private int last = -1;
+    private Iterator<Map.Entry<String, Object>> extraIterator;
+
+    private int advance(int from) {
+      int index = from;
+      while (index < values.length && values[index] == ABSENT) {
+        index++;
+      }
+      return index;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next < values.length) {
+        return true;
+      }
+      if (extraIterator == null && extraEntries != null) {
+        extraIterator = extraEntries.entrySet().iterator();
+      }
+      return extraIterator != null && extraIterator.hasNext();
+    }
+
+    @Override
+    public Map.Entry<String, Object> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      if (next < values.length) {
+        last = next;
+        next = advance(next + 1);
+        return new Entry(last);
+      }
+      last = -1;
+      return extraIterator.next();
+    }
+
+    @Override
+    public void remove() {
+      if (last >= 0) {
+        if (values[last] == ABSENT) {
+          throw new IllegalStateException();
+        }
+        values[last] = ABSENT;
+        size--;
+        last = -1;
+      } else if (extraIterator != null) {
+        extraIterator.remove();
+      } else {
+        throw new IllegalStateException();
+      }
+    }
+  }
+
+  /**
+   * 共享索引中的键值对，写入时直接修改值数组
+   */
+  private final class Entry implements Map.Entry<String, Object> {
+    private final int index;
+
+    private Entry(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public String getKey() {
+      return keys.names[index];
+    }
+
+    @Override
+    public Object getValue() {
+      final Object value = values[index];
+      return value == ABSENT ? null : value;
+    }
+
+    @Override
+    public Object setValue(Object value) {
+      final Object oldValue = getValue();
+      if (values[index] == ABSENT) {
+        size++;
+      }
+      values[index] = value;
+      return oldValue;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      final Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+      final Object value = getValue();
+      return getKey().equals(e.getKey()) && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+    }
+
+    @Override
+    public int hashCode() {
+      final Object value = getValue();
+      return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+
+  private Object writeReplace() {
+    // 序列化为普通的HashMap，值数组中的占位对象无法序列化，反序列化后也不再需要共享索引
+    return new HashMap<>(this);
+  }
+
+  /**
+   * 同一结果集的各行共享的键索引，创建后不再改变
+   */
+  static final class Keys {
+    private final String[] names;
+    private final Map<String, Integer> indexes;
+
+    Keys(Collection<String> names) {
+      final Map<String, Integer> indexMap = new HashMap<>();
+      for (String name : names) {
+        if (name != null) {
+          indexMap.putIfAbsent(name, indexMap.size());
+        }
+      }
+      this.names = new String[indexMap.size()];
+      for (Map.Entry<String, Integer> entry : indexMap.entrySet()) {
+        this.names[entry.getValue()] = entry.getKey();
+      }
+      this.indexes = indexMap;
+    }
+
+    int indexOf(Object key) {
+      final Integer index = indexes.get(key);
+      return index == null ? -1 : index;
+    }
+  }
+
+}
@@ -0,0 +1,149 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.result.ResultMapException;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * 构造方法映射计划
+ * 针对结果映射和结果集的列预先确定构造方法、各参数的列序号和类型处理器，之后每行只需按列序号读取参数并调用构造方法
+ */
+public final class ConstructorMappingPlan {
+
+  // 无法预先确定时使用的占位计划，此时仍逐行解析
+  static final ConstructorMappingPlan UNSUPPORTED = new ConstructorMappingPlan(null, null, null, null, null);
+
+  private final Class<?> resultType;
+  // 构造方法的参数类型
+  private final List<Class<?>> parameterTypes;
+  // 各参数的列序号，从1开始
+  private final int[] columnIndexes;
+  private final TypeHandler<?>[] typeHandlers;
+  // 各参数对应的构造方法映射，由列自动匹配构造方法时为null
+  private final ResultMapping[] mappings;
+  // 类型为(Object[])Object的构造方法句柄，无法直接调用时为null
+  private final MethodHandle constructor;
+
+  private ConstructorMappingPlan(Class<?> resultType, Class<?>[] parameterTypes, int[] columnIndexes, TypeHandler<?>[] typeHandlers,
+                                 ResultMapping[] mappings) {
+    this.resultType = resultType;
+    this.parameterTypes = parameterTypes == null ? null : Collections.unmodifiableList(Arrays.asList(parameterTypes));
+    this.columnIndexes = columnIndexes;
+    this.typeHandlers = typeHandlers;
+    this.mappings = mappings;
+    this.constructor = parameterTypes == null ? null : findConstructor(resultType, parameterTypes);
+  }
+
+  /**
+   * 创建构造方法映射计划
+   * @param resultType 结果对象的类型
+   * @param parameterTypes 构造方法的参数类型
+   * @param columnIndexes 各参数的列序号
+   * @param typeHandlers 各参数的类型处理器
+   * @param mappings 各参数对应的构造方法映射，用于出错时的提示，可以为null
+   * @return 构造方法映射计划
+   */
+  static ConstructorMappingPlan of(Class<?> resultType, Class<?>[] parameterTypes, int[] columnIndexes, TypeHandler<?>[] typeHandlers,
+                                   ResultMapping[] mappings) {
+    return new ConstructorMappingPlan(resultType, parameterTypes, columnIndexes, typeHandlers, mappings);
+  }
+
+  /**
+   * 按参数类型查找构造方法并转为方法句柄，与DefaultObjectFactory查找的构造方法相同
+   * @param resultType 结果对象的类型
+   * @param parameterTypes 参数类型
+   * @return 类型为(Object[])Object的方法句柄，找不到或无法访问时返回null
+   */
+  private static MethodHandle findConstructor(Class<?> resultType, Class<?>[] parameterTypes) {
+    try {
+      final Constructor<?> constructor = resultType.getDeclaredConstructor(parameterTypes);
+      MethodHandle handle;
+      try {
+        handle = MethodHandles.lookup().unreflectConstructor(constructor);
+      } catch (IllegalAccessException e) {
+        if (!Reflector.canControlMemberAccessible()) {
+          return null;
+        }
+        constructor.setAccessible(true);
+        handle = MethodHandles.lookup().unreflectConstructor(constructor);
+      }
+      return handle.asType(MethodType.genericMethodType(parameterTypes.length))
+          .asSpreader(Object[].class, parameterTypes.length);
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  /**
+   * 读取当前行的构造方法参数并创建结果对象
+   * 参数类型和参数值同时记录到constructorArgTypes和constructorArgs中，供创建懒加载代理使用
+   * @param rs 结果集
+   * @param objectFactory 对象工厂，不是DefaultObjectFactory时通过它创建对象
+   * @param constructorArgTypes 构造方法的参数类型
+   * @param constructorArgs 构造方法的参数
+   * @return 结果对象，所有参数都为null时返回null
+   * @throws SQLException
+   */
+  Object create(ResultSet rs, ObjectFactory objectFactory, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) throws SQLException {
+    final Object[] args = new Object[columnIndexes.length];
+    boolean foundValues = false;
+    for (int i = 0; i < args.length; i++) {
+      try {
+        args[i] = typeHandlers[i].getResult(rs, columnIndexes[i]);
+      } catch (ResultMapException | SQLException e) {
+        if (mappings == null) {
+          throw e;
+        }
+        throw new ExecutorException("Could not process result for mapping: " + mappings[i], e);
+      }
+      foundValues = args[i] != null || foundValues;
+    }
+    constructorArgTypes.addAll(parameterTypes);
+    Collections.addAll(constructorArgs, args);
+    if (!foundValues) {
+      return null;
+    }
+    if (constructor == null || objectFactory.getClass() != DefaultObjectFactory.class) {
+      return objectFactory.create(resultType, constructorArgTypes, constructorArgs);
+    }
+    try {
+      return (Object) constructor.invokeExact(args);
+    } catch (Throwable t) {
+      final String argTypes = parameterTypes.stream().map(Class::getSimpleName).collect(Collectors.joining(","));
+      final String argValues = Arrays.stream(args).map(String::valueOf).collect(Collectors.joining(","));
+      throw new ReflectionException("Error instantiating " + resultType + " with invalid types (" + argTypes + ") or values (" + argValues + "). Cause: " + t, t);
+    }
+  }
+
+}
@@ -20,28 +20,39 @@ import java.sql.CallableStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.apache.ibatis.annotations.AutomapConstructor;
 import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.cursor.defaults.DefaultCursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.loader.BatchQuery;
+import org.apache.ibatis.executor.loader.BatchResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.executor.result.DefaultResultHandler;
 import org.apache.ibatis.executor.result.ResultMapException;
+import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.Discriminator;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -52,7 +63,9 @@ import org.apache.ibatis.mapping.ResultMapping;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
 import org.apache.ibatis.session.AutoMappingBehavior;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultContext;
@@ -71,6 +84,10 @@ import org.apache.ibatis.type.TypeHandlerRegistry;
 public class DefaultResultSetHandler implements ResultSetHandler {
 
   private static final Object DEFERRED = new Object();
+  // 表示不能为该结果映射生成行映射器
+  private static final RowMapper UNSUPPORTED_ROW_MAPPER = rs -> null;
+  // javassist是可选依赖，存在时才能生成行映射器
+  private static final boolean ROW_MAPPER_GENERATION_SUPPORTED = isClassPresent("javassist.ClassPool");
 
   private final Executor executor;
   private final Configuration configuration;
@@ -88,7 +105,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private final ReflectorFactory reflectorFactory;
 
   // nested resultmaps
-  private final Map<CacheKey, Object> nestedResultObjects = new HashMap<>();
+  private final RowKeyMap nestedResultObjects = new RowKeyMap();
+  // 生成行键时重复使用的构建器
+  private final RowKey.Builder rowKeyBuilder = new RowKey.Builder();
   private final Map<String, Object> ancestorObjects = new HashMap<>();
   private Object previousRowValue;
 
@@ -98,26 +117,44 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   // Cached Automappings
   private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<>();
+  // 明示映射的基本类型属性赋值器。结构为：Map<resultMap的id:列名前缀:列签名，与各属性映射对应的赋值器>
+  private final Map<String, PrimitivePropertySetter[]> primitiveSettersCache = new HashMap<>();
+  // 构造方法映射计划。结构为：Map<resultMap的id:列名前缀，构造方法映射计划>
+  private final Map<String, ConstructorMappingPlan> constructorPlansCache = new HashMap<>();
+  // 紧凑行Map共享的键索引。结构为：Map<resultMap的id:列名前缀，键索引>
+  private final Map<String, CompactRowMap.Keys> compactRowKeysCache = new HashMap<>();
 
   // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
   private boolean useConstructorMappings;
 
+  // batch fetching
+  // 等待批量加载的嵌套查询。结构为：Map<属性映射，等待批量加载的父对象>
+  private final Map<ResultMapping, PendingBatchLoad> pendingBatchLoads = new IdentityHashMap<>();
+  // 是否在所有结果集处理完毕后再批量加载。结果逐个交给游标或自定义结果处理器时，只能在读取每行时立即加载
+  private boolean deferBatchLoads;
+  // 批量懒加载器的分组。结构为：Map<属性映射，该属性的加载器组>
+  private final Map<ResultMapping, BatchResultLoader.Group> lazyBatchGroups = new IdentityHashMap<>();
+
   private static class PendingRelation {
     public MetaObject metaObject;
     public ResultMapping propertyMapping;
   }
 
-  private static class UnMappedColumnAutoMapping {
-    private final String column;
-    private final String property;
-    private final TypeHandler<?> typeHandler;
-    private final boolean primitive;
+  private static class PendingBatchLoad {
+    private final BatchQuery batchQuery;
+    // 外键的原始值，键为统一类型后的外键
+    private final Map<Object, Object> keys = new LinkedHashMap<>();
+    // 持有各外键的父对象，键为统一类型后的外键
+    private final Map<Object, List<MetaObject>> parents = new HashMap<>();
+
+    private PendingBatchLoad(BatchQuery batchQuery) {
+      this.batchQuery = batchQuery;
+    }
 
-    public UnMappedColumnAutoMapping(String column, String property, TypeHandler<?> typeHandler, boolean primitive) {
-      this.column = column;
-      this.property = property;
-      this.typeHandler = typeHandler;
-      this.primitive = primitive;
+    private void add(Object key, MetaObject parent) {
+      final Object normalizedKey = BatchQuery.normalizeKey(key);
+      keys.putIfAbsent(normalizedKey, key);
+      parents.computeIfAbsent(normalizedKey, k -> new ArrayList<>()).add(parent);
     }
   }
 
@@ -206,6 +243,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     int resultSetCount = 0;
     // 可能会有多个结果集，先取出第一个结果集
     ResultSetWrapper rsw = getFirstResultSet(stmt);
+    // 结果全部收集完毕才交给调用方时，批量加载可以推迟到所有结果集处理完毕
+    deferBatchLoads = resultHandler == null;
     // 查询语句对应的resultMap节点，可能含有多个
     List<ResultMap> resultMaps = mappedStatement.getResultMaps();
     int resultMapCount = resultMaps.size();
@@ -243,6 +282,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         resultSetCount++;
       }
     }
+    // 执行批量加载，为所有父对象填充嵌套查询的结果
+    loadPendingBatches();
     // 判断是否是单结果集：如果是则返回结果列表；如果否则返回结果集列表
     return collapseSingleResultList(multipleResults);
   }
@@ -262,7 +303,50 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
 
     ResultMap resultMap = resultMaps.get(0);
-    return new DefaultCursor<>(this, resultMap, rsw, rowBounds);
+    DefaultCursor<E> cursor = new DefaultCursor<>(this, resultMap, rsw, rowBounds);
+    Integer prefetchSize = mappedStatement.getPrefetchSize();
+    if (prefetchSize != null && prefetchSize > 0 && !hasNestedQueries(resultMap)) {
+      // 在后台线程中预先读取并映射对象，使结果的读取与调用方对结果的处理同时进行
+      return new PrefetchingCursor<>(cursor, prefetchSize, configuration.getAsyncExecutor());
+    }
+    return cursor;
+  }
+
+  /**
+   * 判断结果映射（包括嵌套的结果映射和鉴别器分支）中是否含有嵌套查询
+   *
+   * 嵌套查询与懒加载都要在映射时使用当前会话的Executor，而Executor不是线程安全的，
+   * 因此含有嵌套查询的结果映射不能在后台线程中预读。
+   * @param resultMap 结果映射
+   * @return 是否含有嵌套查询
+   */
+  private boolean hasNestedQueries(ResultMap resultMap) {
+    return hasNestedQueries(resultMap, new HashSet<>());
+  }
+
+  private boolean hasNestedQueries(ResultMap resultMap, Set<String> visited) {
+    if (!visited.add(resultMap.getId())) {
+      return false;
+    }
+    if (resultMap.hasNestedQueries()) {
+      return true;
+    }
+    for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+      String nestedResultMapId = resultMapping.getNestedResultMapId();
+      if (nestedResultMapId != null && hasNestedQueries(configuration.getResultMap(nestedResultMapId), visited)) {
+        return true;
+      }
+    }
+    Discriminator discriminator = resultMap.getDiscriminator();
+    if (discriminator != null) {
+      for (String caseResultMapId : discriminator.getDiscriminatorMap().values()) {
+        if (configuration.hasResultMap(caseResultMapId)
+            && hasNestedQueries(configuration.getResultMap(caseResultMapId), visited)) {
+          return true;
+        }
+      }
+    }
+    return false;
   }
 
   private ResultSetWrapper getFirstResultSet(Statement stmt) throws SQLException {
@@ -279,7 +363,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
       }
     }
-    return rs != null ? new ResultSetWrapper(rs, configuration) : null;
+    if (rs == null) {
+      return null;
+    }
+    // 第一个结果集的列通常只由语句和SQL决定，缓存其列信息，再次执行时不必重新读取各列的类型
+    final String columnsKey = boundSql == null ? null : mappedStatement.getId() + ":" + boundSql.getSql();
+    return new ResultSetWrapper(rs, configuration, columnsKey);
   }
 
   private ResultSetWrapper getNextResultSet(Statement stmt) {
@@ -411,22 +500,53 @@ public class DefaultResultSetHandler implements ResultSetHandler {
    */
   private void handleRowValuesForSimpleResultMap(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds, ResultMapping parentMapping)
       throws SQLException {
+    if (parentMapping == null && resultMap.getType() == ColumnarResult.class) {
+      // 整个结果集按列读取为一个对象
+      handleColumnarResult(rsw, resultHandler, rowBounds);
+      return;
+    }
+    if (canMapRowsInParallel(rsw, resultMap, resultHandler, parentMapping)) {
+      // 在当前线程读取列值，在并行线程中创建对象
+      handleRowValuesInParallel(rsw, resultMap, resultHandler, rowBounds);
+      return;
+    }
     DefaultResultContext<Object> resultContext = new DefaultResultContext<>();
     // 当前要处理的结果集
     ResultSet resultSet = rsw.getResultSet();
+    // 生成的行映射器，未启用时为null
+    RowMapper rowMapper = resolveRowMapper(rsw, resultMap);
     // 根据翻页配置，跳过指定的行
     skipRows(resultSet, rowBounds);
     // 持续处理下一条结果，判断条件为：还有结果需要处理 && 结果集没有关闭 && 还有下一条结果
     while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
-      // 经过鉴别器鉴别，确定经过鉴别器分析的最终要使用的resultMap
-      ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
-      // 拿到了一行记录，并且将其转化为一个对象
-      Object rowValue = getRowValue(rsw, discriminatedResultMap, null);
+      Object rowValue;
+      if (rowMapper != null) {
+        // 使用生成的行映射器，直接调用setter
+        rowValue = rowMapper.map(resultSet);
+      } else {
+        // 经过鉴别器鉴别，确定经过鉴别器分析的最终要使用的resultMap
+        ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
+        // 拿到了一行记录，并且将其转化为一个对象
+        rowValue = getRowValue(rsw, discriminatedResultMap, null);
+      }
       // 把这一行记录转化出的对象存起来
       storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
     }
   }
 
+  /**
+   * 把结果集按列读取为一个ColumnarResult，交给结果处理器
+   * @param rsw 结果集包装
+   * @param resultHandler 结果处理器
+   * @param rowBounds 翻页限制条件
+   * @throws SQLException
+   */
+  private void handleColumnarResult(ResultSetWrapper rsw, ResultHandler<?> resultHandler, RowBounds rowBounds) throws SQLException {
+    skipRows(rsw.getResultSet(), rowBounds);
+    final ColumnarResult columnarResult = ColumnarResult.read(rsw, rowBounds.getLimit());
+    callResultHandler(resultHandler, new DefaultResultContext<>(), columnarResult);
+  }
+
   /**
    * 存储当前结果对象
    * @param resultHandler 结果处理器
@@ -529,19 +649,23 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private boolean applyPropertyMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, ResultLoaderMap lazyLoader, String columnPrefix)
       throws SQLException {
-    final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
+    // 各属性映射的列序号，嵌套结果映射上的column属性已被忽略，列不在结果集中时为-1
+    final int[] columnIndexes = rsw.getPropertyColumnIndexes(resultMap, columnPrefix);
+    final PrimitivePropertySetter[] primitiveSetters = getPrimitiveSetters(rsw, resultMap, metaObject, columnIndexes, columnPrefix);
     boolean foundValues = false;
     final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
-    for (ResultMapping propertyMapping : propertyMappings) {
-      String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
-      if (propertyMapping.getNestedResultMapId() != null) {
-        // the user added a column attribute to a nested result map, ignore it
-        column = null;
-      }
-      if (propertyMapping.isCompositeResult()
-          || (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH)))
+    for (int i = 0; i < columnIndexes.length; i++) {
+      final ResultMapping propertyMapping = propertyMappings.get(i);
+      final int columnIndex = columnIndexes[i];
+      if (primitiveSetters[i] != null && columnIndex > 0) {
+        // 基本类型属性直接读取并赋值，不装箱
+        if (primitiveSetters[i].apply(rsw.getResultSet(), columnIndex, metaObject.getOriginalObject())) {
+          foundValues = true;
+        }
+      } else if (propertyMapping.isCompositeResult()
+          || columnIndex > 0
           || propertyMapping.getResultSet() != null) {
-        Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix);
+        Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix, columnIndex);
         // issue #541 make property optional
         final String property = propertyMapping.getProperty();
         if (property == null) {
@@ -562,8 +686,38 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return foundValues;
   }
 
-  private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
-      throws SQLException {
+  /**
+   * 获取明示映射中各属性的基本类型赋值器，只有直接从列读取、类型处理器能以基本类型读取的基本类型属性才有赋值器
+   * @param rsw 结果集
+   * @param resultMap 结果映射
+   * @param metaObject 结果对象的元对象
+   * @param columnIndexes 各属性映射的列序号
+   * @param columnPrefix 列名前缀
+   * @return 与各属性映射对应的赋值器，没有赋值器的位置为null
+   */
+  private PrimitivePropertySetter[] getPrimitiveSetters(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, int[] columnIndexes,
+                                                        String columnPrefix) {
+    // 是否有赋值器取决于列是否在结果集中，同一处理器可能以同一结果映射处理列不同的多个结果集
+    final String mapKey = resultMap.getId() + ":" + columnPrefix + ":" + rsw.getColumnSignature();
+    PrimitivePropertySetter[] primitiveSetters = primitiveSettersCache.get(mapKey);
+    if (primitiveSetters == null) {
+      final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
+      primitiveSetters = new PrimitivePropertySetter[columnIndexes.length];
+      for (int i = 0; i < columnIndexes.length; i++) {
+        final ResultMapping propertyMapping = propertyMappings.get(i);
+        if (columnIndexes[i] > 0 && propertyMapping.getNestedQueryId() == null && propertyMapping.getResultSet() == null
+            && !propertyMapping.isCompositeResult()) {
+          primitiveSetters[i] = PrimitivePropertySetter.resolve(reflectorFactory, metaObject, resultMap.getType(),
+              propertyMapping.getProperty(), propertyMapping.getTypeHandler());
+        }
+      }
+      primitiveSettersCache.put(mapKey, primitiveSetters);
+    }
+    return primitiveSetters;
+  }
+
+  private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix,
+                                         int columnIndex) throws SQLException {
     if (propertyMapping.getNestedQueryId() != null) {
       return getNestedQueryMappingValue(rs, metaResultObject, propertyMapping, lazyLoader, columnPrefix);
     } else if (propertyMapping.getResultSet() != null) {
@@ -571,6 +725,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       return DEFERRED;
     } else {
       final TypeHandler<?> typeHandler = propertyMapping.getTypeHandler();
+      if (columnIndex > 0) {
+        // 按列序号读取，避免驱动逐行按列名查找
+        return typeHandler.getResult(rs, columnIndex);
+      }
       final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
       return typeHandler.getResult(rs, column);
     }
@@ -580,38 +738,53 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     final String mapKey = resultMap.getId() + ":" + columnPrefix;
     List<UnMappedColumnAutoMapping> autoMapping = autoMappingsCache.get(mapKey);
     if (autoMapping == null) {
-      autoMapping = new ArrayList<>();
-      final List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
-      for (String columnName : unmappedColumnNames) {
-        String propertyName = columnName;
-        if (columnPrefix != null && !columnPrefix.isEmpty()) {
-          // When columnPrefix is specified,
-          // ignore columns without the prefix.
-          if (columnName.toUpperCase(Locale.ENGLISH).startsWith(columnPrefix)) {
-            propertyName = columnName.substring(columnPrefix.length());
-          } else {
-            continue;
-          }
+      // 先查找全局缓存，同一语句再次执行时结果集的列不变，可以直接复用之前的自动映射
+      final BoundedPlanCache<List<UnMappedColumnAutoMapping>> planCache = configuration.getAutoMappingPlanCache();
+      final String planKey = mapKey + ":" + rsw.getColumnSignature();
+      autoMapping = planCache.get(planKey);
+      if (autoMapping == null) {
+        autoMapping = buildAutomaticMappings(rsw, resultMap, metaObject, columnPrefix);
+        planCache.put(planKey, autoMapping);
+      }
+      autoMappingsCache.put(mapKey, autoMapping);
+    }
+    return autoMapping;
+  }
+
+  private List<UnMappedColumnAutoMapping> buildAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
+    final List<UnMappedColumnAutoMapping> autoMapping = new ArrayList<>();
+    final List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
+    for (String columnName : unmappedColumnNames) {
+      String propertyName = columnName;
+      if (columnPrefix != null && !columnPrefix.isEmpty()) {
+        // When columnPrefix is specified,
+        // ignore columns without the prefix.
+        if (columnName.toUpperCase(Locale.ENGLISH).startsWith(columnPrefix)) {
+          propertyName = columnName.substring(columnPrefix.length());
+        } else {
+          continue;
         }
-        final String property = metaObject.findProperty(propertyName, configuration.isMapUnderscoreToCamelCase());
-        if (property != null && metaObject.hasSetter(property)) {
-          if (resultMap.getMappedProperties().contains(property)) {
-            continue;
-          }
-          final Class<?> propertyType = metaObject.getSetterType(property);
-          if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
-            final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
-            autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, propertyType.isPrimitive()));
-          } else {
-            configuration.getAutoMappingUnknownColumnBehavior()
-                .doAction(mappedStatement, columnName, property, propertyType);
-          }
+      }
+      final String property = metaObject.findProperty(propertyName, configuration.isMapUnderscoreToCamelCase());
+      if (property != null && metaObject.hasSetter(property)) {
+        if (resultMap.getMappedProperties().contains(property)) {
+          continue;
+        }
+        final Class<?> propertyType = metaObject.getSetterType(property);
+        if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
+          final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
+          final PrimitivePropertySetter primitiveSetter = propertyType.isPrimitive()
+              ? PrimitivePropertySetter.resolve(reflectorFactory, metaObject, resultMap.getType(), property, typeHandler) : null;
+          autoMapping.add(new UnMappedColumnAutoMapping(columnName, rsw.getColumnIndex(columnName), property, typeHandler,
+              propertyType.isPrimitive(), primitiveSetter));
         } else {
           configuration.getAutoMappingUnknownColumnBehavior()
-              .doAction(mappedStatement, columnName, (property != null) ? property : propertyName, null);
+              .doAction(mappedStatement, columnName, property, propertyType);
         }
+      } else {
+        configuration.getAutoMappingUnknownColumnBehavior()
+            .doAction(mappedStatement, columnName, (property != null) ? property : propertyName, null);
       }
-      autoMappingsCache.put(mapKey, autoMapping);
     }
     return autoMapping;
   }
@@ -621,7 +794,14 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     boolean foundValues = false;
     if (!autoMapping.isEmpty()) {
       for (UnMappedColumnAutoMapping mapping : autoMapping) {
-        final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
+        if (mapping.primitiveSetter != null) {
+          // 基本类型属性直接读取并赋值，不装箱
+          if (mapping.primitiveSetter.apply(rsw.getResultSet(), mapping.columnIndex, metaObject.getOriginalObject())) {
+            foundValues = true;
+          }
+          continue;
+        }
+        final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.columnIndex);
         if (value != null) {
           foundValues = true;
         }
@@ -634,6 +814,248 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return foundValues;
   }
 
+  //
+  // PARALLEL ROW MAPPING
+  //
+
+  /**
+   * 判断简单结果映射能否并行创建对象，要求结果直接汇总到列表中
+   * @param rsw 结果集
+   * @param resultMap 结果映射
+   * @param resultHandler 结果处理器
+   * @param parentMapping 父级结果映射
+   * @return 能否并行创建对象
+   */
+  private boolean canMapRowsInParallel(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, ResultMapping parentMapping) {
+    final Integer chunkSize = configuration.getParallelRowMappingChunkSize();
+    if (chunkSize == null || chunkSize <= 0 || parentMapping != null || !(resultHandler instanceof DefaultResultHandler)) {
+      return false;
+    }
+    return isPlainBeanResultMap(rsw, resultMap);
+  }
+
+  /**
+   * 判断结果对象是否由无参构造方法创建、只需设置列值，即没有鉴别器、构造方法映射、嵌套查询和多结果集关联
+   * @param rsw 结果集
+   * @param resultMap 结果映射
+   * @return 是否只需创建对象并设置列值
+   */
+  private boolean isPlainBeanResultMap(ResultSetWrapper rsw, ResultMap resultMap) {
+    if (resultMap.getDiscriminator() != null || resultMap.hasNestedQueries() || !resultMap.getConstructorResultMappings().isEmpty()) {
+      return false;
+    }
+    for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+      if (propertyMapping.isCompositeResult() || propertyMapping.getResultSet() != null) {
+        return false;
+      }
+    }
+    final Class<?> resultType = resultMap.getType();
+    if (hasTypeHandlerForResultObject(rsw, resultType)) {
+      return false;
+    }
+    return resultType.isInterface() || MetaClass.forClass(resultType, reflectorFactory).hasDefaultConstructor();
+  }
+
+  /**
+   * 获取生成的行映射器。第一次使用某个结果映射和列组合时生成，并缓存在Configuration中
+   * @param rsw 结果集
+   * @param resultMap 结果映射
+   * @return 行映射器，未启用或者不能生成时返回null
+   * @throws SQLException
+   */
+  private RowMapper resolveRowMapper(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    if (!configuration.isUseGeneratedRowMappers() || !ROW_MAPPER_GENERATION_SUPPORTED
+        || !(objectFactory instanceof DefaultObjectFactory)
+        || !(configuration.getObjectWrapperFactory() instanceof DefaultObjectWrapperFactory)
+        || resultMap.getType().isInterface() || !isPlainBeanResultMap(rsw, resultMap)) {
+      return null;
+    }
+    final String key = resultMap.getId() + ":" + rsw.getColumnNames() + ":" + rsw.getClassNames();
+    final BoundedPlanCache<RowMapper> rowMappers = configuration.getGeneratedRowMapperCache();
+    RowMapper rowMapper = rowMappers.get(key);
+    if (rowMapper == null) {
+      rowMapper = new RowMappingPlan(rsw, resultMap).generateRowMapper();
+      if (rowMapper == null) {
+        rowMapper = UNSUPPORTED_ROW_MAPPER;
+      }
+      rowMappers.put(key, rowMapper);
+    }
+    return rowMapper == UNSUPPORTED_ROW_MAPPER ? null : rowMapper;
+  }
+
+  /**
+   * 并行处理简单结果映射。当前线程按批读取各行的列值，对象的创建和属性设置交给ForkJoinPool，结果按原顺序交给结果处理器
+   * @param rsw 结果集
+   * @param resultMap 结果映射
+   * @param resultHandler 结果处理器
+   * @param rowBounds 翻页限制
+   * @throws SQLException
+   */
+  private void handleRowValuesInParallel(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds)
+      throws SQLException {
+    final int chunkSize = configuration.getParallelRowMappingChunkSize();
+    final RowMappingPlan plan = new RowMappingPlan(rsw, resultMap);
+    final DefaultResultContext<Object> resultContext = new DefaultResultContext<>();
+    final ResultSet resultSet = rsw.getResultSet();
+    final ForkJoinPool pool = ForkJoinPool.commonPool();
+    // 同时处理中的批次数上限，限制已读取但尚未交出的行占用的内存
+    final int maxInFlight = Math.max(2, pool.getParallelism() * 2);
+    final Deque<ForkJoinTask<Object[]>> inFlight = new ArrayDeque<>();
+    skipRows(resultSet, rowBounds);
+    int remaining = rowBounds.getLimit();
+    try {
+      while (true) {
+        final Object[][] rows = new Object[chunkSize][];
+        int count = 0;
+        while (count < chunkSize && remaining > 0 && !resultSet.isClosed() && resultSet.next()) {
+          rows[count++] = plan.readRow(resultSet);
+          remaining--;
+        }
+        if (count == 0) {
+          break;
+        }
+        final int rowCount = count;
+        if (count < chunkSize && inFlight.isEmpty()) {
+          // 结果只有一批，直接在当前线程中创建对象
+          callResultHandler(resultHandler, resultContext, plan.mapRows(rows, rowCount));
+          break;
+        }
+        inFlight.add(pool.submit(() -> plan.mapRows(rows, rowCount)));
+        while (inFlight.size() >= maxInFlight) {
+          callResultHandler(resultHandler, resultContext, inFlight.poll().join());
+        }
+        if (count < chunkSize) {
+          break;
+        }
+      }
+      while (!inFlight.isEmpty()) {
+        callResultHandler(resultHandler, resultContext, inFlight.poll().join());
+      }
+    } finally {
+      for (ForkJoinTask<Object[]> task : inFlight) {
+        task.cancel(false);
+      }
+    }
+  }
+
+  private void callResultHandler(ResultHandler<?> resultHandler, DefaultResultContext<Object> resultContext, Object[] rowValues) {
+    for (Object rowValue : rowValues) {
+      callResultHandler(resultHandler, resultContext, rowValue);
+    }
+  }
+
+  /**
+   * 简单结果映射的并行映射方案：需要读取的列、对应的类型处理器和要设置的属性
+   */
+  private class RowMappingPlan {
+    private final Class<?> resultType;
+    // 列序号，从1开始
+    private final int[] columnIndexes;
+    private final TypeHandler<?>[] typeHandlers;
+    private final String[] properties;
+    // 值为null时是否仍调用setter
+    private final boolean[] setNulls;
+    // 使用紧凑行Map时共享的键索引，否则为null
+    private final CompactRowMap.Keys compactRowKeys;
+
+    RowMappingPlan(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+      this.resultType = resultMap.getType();
+      // 与逐行映射相同：先自动映射未明示的列，再映射明示的列
+      final MetaObject metaObject = configuration.newMetaObject(objectFactory.create(resultType));
+      final List<Integer> columnIndexList = new ArrayList<>();
+      final List<TypeHandler<?>> typeHandlerList = new ArrayList<>();
+      final List<String> propertyList = new ArrayList<>();
+      final List<Boolean> setNullList = new ArrayList<>();
+      if (shouldApplyAutomaticMappings(resultMap, false)) {
+        for (UnMappedColumnAutoMapping mapping : createAutomaticMappings(rsw, resultMap, metaObject, null)) {
+          columnIndexList.add(mapping.columnIndex);
+          typeHandlerList.add(mapping.typeHandler);
+          propertyList.add(mapping.property);
+          setNullList.add(configuration.isCallSettersOnNulls() && !mapping.primitive);
+        }
+      }
+      final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
+      final int[] propertyColumnIndexes = rsw.getPropertyColumnIndexes(resultMap, null);
+      for (int i = 0; i < propertyColumnIndexes.length; i++) {
+        final ResultMapping propertyMapping = propertyMappings.get(i);
+        final String property = propertyMapping.getProperty();
+        if (property == null || propertyColumnIndexes[i] < 0) {
+          continue;
+        }
+        columnIndexList.add(propertyColumnIndexes[i]);
+        typeHandlerList.add(propertyMapping.getTypeHandler());
+        propertyList.add(property);
+        setNullList.add(configuration.isCallSettersOnNulls() && !metaObject.getSetterType(property).isPrimitive());
+      }
+      this.columnIndexes = new int[columnIndexList.size()];
+      for (int i = 0; i < columnIndexes.length; i++) {
+        columnIndexes[i] = columnIndexList.get(i);
+      }
+      this.typeHandlers = typeHandlerList.toArray(new TypeHandler<?>[0]);
+      this.properties = propertyList.toArray(new String[0]);
+      this.setNulls = new boolean[setNullList.size()];
+      for (int i = 0; i < setNulls.length; i++) {
+        setNulls[i] = setNullList.get(i);
+      }
+      this.compactRowKeys = useCompactRowMap(resultType) ? new CompactRowMap.Keys(propertyList) : null;
+    }
+
+    /**
+     * 生成直接调用setter、按列序号读取的行映射器
+     * @return 行映射器，不能生成时返回null
+     */
+    RowMapper generateRowMapper() {
+      return RowMapperGenerator.generate(resultType, properties, columnIndexes, typeHandlers, setNulls,
+          configuration.isReturnInstanceForEmptyRow());
+    }
+
+    /**
+     * 读取当前行的列值
+     * @param rs 结果集
+     * @return 列值
+     * @throws SQLException
+     */
+    Object[] readRow(ResultSet rs) throws SQLException {
+      final Object[] values = new Object[columnIndexes.length];
+      for (int i = 0; i < columnIndexes.length; i++) {
+        values[i] = typeHandlers[i].getResult(rs, columnIndexes[i]);
+      }
+      return values;
+    }
+
+    /**
+     * 根据一批行的列值创建结果对象
+     * @param rows 各行的列值
+     * @param rowCount 行数
+     * @return 结果对象
+     */
+    Object[] mapRows(Object[][] rows, int rowCount) {
+      final Object[] rowValues = new Object[rowCount];
+      for (int i = 0; i < rowCount; i++) {
+        rowValues[i] = mapRow(rows[i]);
+        // 释放已处理的列值
+        rows[i] = null;
+      }
+      return rowValues;
+    }
+
+    private Object mapRow(Object[] values) {
+      final Object rowValue = compactRowKeys != null ? new CompactRowMap(compactRowKeys) : objectFactory.create(resultType);
+      final MetaObject metaObject = configuration.newMetaObject(rowValue);
+      boolean foundValues = false;
+      for (int i = 0; i < values.length; i++) {
+        final Object value = values[i];
+        if (value != null) {
+          foundValues = true;
+        }
+        if (value != null || setNulls[i]) {
+          metaObject.setValue(properties[i], value);
+        }
+      }
+      return foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
+    }
+  }
+
   // MULTIPLE RESULT SETS
 
   private void linkToParents(ResultSet rs, ResultMapping parentMapping, Object rowValue) throws SQLException {
@@ -718,15 +1140,59 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     if (hasTypeHandlerForResultObject(rsw, resultType)) {
       return createPrimitiveResultObject(rsw, resultMap, columnPrefix);
     } else if (!constructorMappings.isEmpty()) {
+      final ConstructorMappingPlan plan = getConstructorMappingPlan(rsw, resultMap, columnPrefix);
+      if (plan != ConstructorMappingPlan.UNSUPPORTED) {
+        return plan.create(rsw.getResultSet(), objectFactory, constructorArgTypes, constructorArgs);
+      }
       return createParameterizedResultObject(rsw, resultType, constructorMappings, constructorArgTypes, constructorArgs, columnPrefix);
+    } else if (useCompactRowMap(resultType)) {
+      return new CompactRowMap(getCompactRowKeys(rsw, resultMap, columnPrefix));
     } else if (resultType.isInterface() || metaType.hasDefaultConstructor()) {
       return objectFactory.create(resultType);
     } else if (shouldApplyAutomaticMappings(resultMap, false)) {
-      return createByConstructorSignature(rsw, resultType, constructorArgTypes, constructorArgs);
+      return getConstructorMappingPlan(rsw, resultMap, columnPrefix)
+          .create(rsw.getResultSet(), objectFactory, constructorArgTypes, constructorArgs);
     }
     throw new ExecutorException("Do not know how to create an instance of " + resultType);
   }
 
+  /**
+   * 判断是否用紧凑行Map表示结果。只在结果类型恰为Map接口、且未使用自定义对象工厂时使用
+   * @param resultType 结果类型
+   * @return 是否使用紧凑行Map
+   */
+  private boolean useCompactRowMap(Class<?> resultType) {
+    return resultType == Map.class && configuration.isCompactMapRows() && objectFactory.getClass() == DefaultObjectFactory.class;
+  }
+
+  /**
+   * 获取紧凑行Map共享的键索引，包括自动映射的各列和明示映射的各属性
+   * @param rsw 结果集
+   * @param resultMap 结果映射
+   * @param columnPrefix 列名前缀
+   * @return 键索引
+   */
+  private CompactRowMap.Keys getCompactRowKeys(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) {
+    final String mapKey = resultMap.getId() + ":" + columnPrefix;
+    CompactRowMap.Keys keys = compactRowKeysCache.get(mapKey);
+    if (keys == null) {
+      final List<String> names = new ArrayList<>();
+      for (String columnName : rsw.getColumnNames()) {
+        if (columnPrefix == null || columnPrefix.isEmpty()) {
+          names.add(columnName);
+        } else if (columnName.toUpperCase(Locale.ENGLISH).startsWith(columnPrefix)) {
+          names.add(columnName.substring(columnPrefix.length()));
+        }
+      }
+      for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+        names.add(propertyMapping.getProperty());
+      }
+      keys = new CompactRowMap.Keys(names);
+      compactRowKeysCache.put(mapKey, keys);
+    }
+    return keys;
+  }
+
   Object createParameterizedResultObject(ResultSetWrapper rsw, Class<?> resultType, List<ResultMapping> constructorMappings,
                                          List<Class<?>> constructorArgTypes, List<Object> constructorArgs, String columnPrefix) {
     boolean foundValues = false;
@@ -754,33 +1220,89 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return foundValues ? objectFactory.create(resultType, constructorArgTypes, constructorArgs) : null;
   }
 
-  private Object createByConstructorSignature(ResultSetWrapper rsw, Class<?> resultType, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) throws SQLException {
-    final Constructor<?>[] constructors = resultType.getDeclaredConstructors();
-    final Constructor<?> defaultConstructor = findDefaultConstructor(constructors);
-    if (defaultConstructor != null) {
-      return createUsingConstructor(rsw, resultType, constructorArgTypes, constructorArgs, defaultConstructor);
-    } else {
-      for (Constructor<?> constructor : constructors) {
-        if (allowedConstructorUsingTypeHandlers(constructor, rsw.getJdbcTypes())) {
-          return createUsingConstructor(rsw, resultType, constructorArgTypes, constructorArgs, constructor);
-        }
+  /**
+   * 获取构造方法映射计划。计划按结果映射、列名前缀和结果集的列确定，先后在本处理器和全局缓存中查找
+   * @param rsw 结果集
+   * @param resultMap 结果映射
+   * @param columnPrefix 列名前缀
+   * @return 构造方法映射计划，无法预先确定时返回ConstructorMappingPlan.UNSUPPORTED
+   * @throws SQLException
+   */
+  private ConstructorMappingPlan getConstructorMappingPlan(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) throws SQLException {
+    final String mapKey = resultMap.getId() + ":" + columnPrefix;
+    ConstructorMappingPlan plan = constructorPlansCache.get(mapKey);
+    if (plan == null) {
+      final String planKey = mapKey + ":" + rsw.getColumnSignature();
+      final BoundedPlanCache<ConstructorMappingPlan> planCache = configuration.getConstructorMappingPlanCache();
+      plan = planCache.get(planKey);
+      if (plan == null) {
+        plan = resultMap.getConstructorResultMappings().isEmpty()
+            ? createConstructorSignaturePlan(rsw, resultMap.getType())
+            : createConstructorMappingsPlan(rsw, resultMap, columnPrefix);
+        planCache.put(planKey, plan);
       }
+      constructorPlansCache.put(mapKey, plan);
     }
-    throw new ExecutorException("No constructor found in " + resultType.getName() + " matching " + rsw.getClassNames());
+    return plan;
   }
 
-  private Object createUsingConstructor(ResultSetWrapper rsw, Class<?> resultType, List<Class<?>> constructorArgTypes, List<Object> constructorArgs, Constructor<?> constructor) throws SQLException {
-    boolean foundValues = false;
-    for (int i = 0; i < constructor.getParameterTypes().length; i++) {
-      Class<?> parameterType = constructor.getParameterTypes()[i];
-      String columnName = rsw.getColumnNames().get(i);
-      TypeHandler<?> typeHandler = rsw.getTypeHandler(parameterType, columnName);
-      Object value = typeHandler.getResult(rsw.getResultSet(), columnName);
-      constructorArgTypes.add(parameterType);
-      constructorArgs.add(value);
-      foundValues = value != null || foundValues;
+  /**
+   * 为<constructor>节点创建构造方法映射计划。只有各参数都直接读取结果集中的列时才能预先确定
+   * @param rsw 结果集
+   * @param resultMap 结果映射
+   * @param columnPrefix 列名前缀
+   * @return 构造方法映射计划，含嵌套查询、嵌套映射或列不在结果集中时返回ConstructorMappingPlan.UNSUPPORTED
+   */
+  private ConstructorMappingPlan createConstructorMappingsPlan(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) {
+    final List<ResultMapping> constructorMappings = resultMap.getConstructorResultMappings();
+    final int size = constructorMappings.size();
+    final Class<?>[] parameterTypes = new Class<?>[size];
+    final int[] columnIndexes = new int[size];
+    final TypeHandler<?>[] typeHandlers = new TypeHandler<?>[size];
+    for (int i = 0; i < size; i++) {
+      final ResultMapping constructorMapping = constructorMappings.get(i);
+      if (constructorMapping.getNestedQueryId() != null || constructorMapping.getNestedResultMapId() != null) {
+        return ConstructorMappingPlan.UNSUPPORTED;
+      }
+      columnIndexes[i] = rsw.getColumnIndex(prependPrefix(constructorMapping.getColumn(), columnPrefix));
+      if (columnIndexes[i] < 0) {
+        return ConstructorMappingPlan.UNSUPPORTED;
+      }
+      parameterTypes[i] = constructorMapping.getJavaType();
+      typeHandlers[i] = constructorMapping.getTypeHandler();
     }
-    return foundValues ? objectFactory.create(resultType, constructorArgTypes, constructorArgs) : null;
+    return ConstructorMappingPlan.of(resultMap.getType(), parameterTypes, columnIndexes, typeHandlers,
+        constructorMappings.toArray(new ResultMapping[size]));
+  }
+
+  /**
+   * 按结果集的列自动匹配构造方法：优先使用唯一的或带有@AutomapConstructor注解的构造方法，否则找参数与各列依次匹配的构造方法
+   * @param rsw 结果集
+   * @param resultType 结果对象的类型
+   * @return 构造方法映射计划
+   */
+  private ConstructorMappingPlan createConstructorSignaturePlan(ResultSetWrapper rsw, Class<?> resultType) {
+    final Constructor<?>[] constructors = resultType.getDeclaredConstructors();
+    Constructor<?> constructor = findDefaultConstructor(constructors);
+    if (constructor == null) {
+      for (Constructor<?> candidate : constructors) {
+        if (allowedConstructorUsingTypeHandlers(candidate, rsw.getJdbcTypes())) {
+          constructor = candidate;
+          break;
+        }
+      }
+    }
+    if (constructor == null) {
+      throw new ExecutorException("No constructor found in " + resultType.getName() + " matching " + rsw.getClassNames());
+    }
+    final Class<?>[] parameterTypes = constructor.getParameterTypes();
+    final int[] columnIndexes = new int[parameterTypes.length];
+    final TypeHandler<?>[] typeHandlers = new TypeHandler<?>[parameterTypes.length];
+    for (int i = 0; i < parameterTypes.length; i++) {
+      columnIndexes[i] = i + 1;
+      typeHandlers[i] = rsw.getTypeHandler(parameterTypes[i], rsw.getColumnNames().get(i));
+    }
+    return ConstructorMappingPlan.of(resultType, parameterTypes, columnIndexes, typeHandlers, null);
   }
 
   private Constructor<?> findDefaultConstructor(final Constructor<?>[] constructors) {
@@ -820,6 +1342,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       columnName = rsw.getColumnNames().get(0);
     }
     final TypeHandler<?> typeHandler = rsw.getTypeHandler(resultType, columnName);
+    final int columnIndex = rsw.getColumnIndex(columnName);
+    if (columnIndex > 0) {
+      return typeHandler.getResult(rsw.getResultSet(), columnIndex);
+    }
     return typeHandler.getResult(rsw.getResultSet(), columnName);
   }
 
@@ -852,6 +1378,14 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     final Object nestedQueryParameterObject = prepareParameterForNestedQuery(rs, propertyMapping, nestedQueryParameterType, columnPrefix);
     Object value = null;
     if (nestedQueryParameterObject != null) {
+      if (propertyMapping.isBatch()) {
+        if (propertyMapping.isLazy()) {
+          lazyLoader.addLoader(property, metaResultObject, newBatchResultLoader(metaResultObject, propertyMapping, lazyLoader, nestedQuery, nestedQueryParameterObject));
+        } else {
+          addPendingBatchLoad(metaResultObject, propertyMapping, nestedQuery, nestedQueryParameterObject);
+        }
+        return DEFERRED;
+      }
       final BoundSql nestedBoundSql = nestedQuery.getBoundSql(nestedQueryParameterObject);
       final CacheKey key = executor.createCacheKey(nestedQuery, nestedQueryParameterObject, RowBounds.DEFAULT, nestedBoundSql);
       final Class<?> targetType = propertyMapping.getJavaType();
@@ -871,6 +1405,90 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return value;
   }
 
+  //
+  // BATCH FETCHING
+  //
+
+  /**
+   * 记录需要批量加载的父对象和外键。不能推迟时立即为该父对象单独加载
+   * @param metaResultObject 父对象的元对象
+   * @param propertyMapping 属性映射
+   * @param nestedQuery 嵌套查询
+   * @param key 外键
+   * @throws SQLException
+   */
+  private void addPendingBatchLoad(MetaObject metaResultObject, ResultMapping propertyMapping, MappedStatement nestedQuery, Object key)
+      throws SQLException {
+    if (deferBatchLoads) {
+      pendingBatchLoads.computeIfAbsent(propertyMapping, k -> new PendingBatchLoad(new BatchQuery(configuration, nestedQuery, propertyMapping)))
+          .add(key, metaResultObject);
+    } else {
+      final PendingBatchLoad batchLoad = new PendingBatchLoad(new BatchQuery(configuration, nestedQuery, propertyMapping));
+      batchLoad.add(key, metaResultObject);
+      loadBatch(batchLoad);
+    }
+  }
+
+  private void loadPendingBatches() throws SQLException {
+    try {
+      for (PendingBatchLoad batchLoad : pendingBatchLoads.values()) {
+        loadBatch(batchLoad);
+      }
+    } finally {
+      pendingBatchLoads.clear();
+      lazyBatchGroups.clear();
+    }
+  }
+
+  /**
+   * 创建批量懒加载器。同一结果集中同一属性的加载器归入同一组，首次访问时一同加载
+   * @param metaResultObject 父对象的元对象
+   * @param propertyMapping 属性映射
+   * @param lazyLoader 父对象的惰性加载器
+   * @param nestedQuery 嵌套查询
+   * @param key 外键
+   * @return 批量懒加载器
+   */
+  private BatchResultLoader newBatchResultLoader(MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader,
+      MappedStatement nestedQuery, Object key) {
+    final BatchResultLoader.Group group;
+    if (deferBatchLoads) {
+      group = lazyBatchGroups.computeIfAbsent(propertyMapping,
+          k -> new BatchResultLoader.Group(new BatchQuery(configuration, nestedQuery, propertyMapping), propertyMapping.getJavaType()));
+    } else {
+      group = new BatchResultLoader.Group(new BatchQuery(configuration, nestedQuery, propertyMapping), propertyMapping.getJavaType());
+    }
+    final Object parameter = BatchQuery.parameterFor(Collections.singletonList(key));
+    final BoundSql boundSql = nestedQuery.getBoundSql(parameter);
+    final CacheKey cacheKey = executor.createCacheKey(nestedQuery, parameter, RowBounds.DEFAULT, boundSql);
+    return new BatchResultLoader(configuration, executor, parameter, cacheKey, boundSql, group, metaResultObject, lazyLoader, key);
+  }
+
+  /**
+   * 批量加载：把外键分成若干批，每批执行一次嵌套查询，再按子对象的外键把结果分配给各父对象
+   * 嵌套查询的参数与直接传入List时相同，可以通过collection或list引用这一批外键
+   * @param batchLoad 等待批量加载的父对象
+   * @throws SQLException
+   */
+  private void loadBatch(PendingBatchLoad batchLoad) throws SQLException {
+    final ResultMapping propertyMapping = batchLoad.batchQuery.getPropertyMapping();
+    final Map<Object, List<Object>> childrenByKey = batchLoad.batchQuery.query(executor, new ArrayList<>(batchLoad.keys.values()));
+    for (Map.Entry<Object, List<MetaObject>> entry : batchLoad.parents.entrySet()) {
+      final List<Object> children = childrenByKey.getOrDefault(entry.getKey(), Collections.emptyList());
+      for (MetaObject parent : entry.getValue()) {
+        final Object collectionProperty = instantiateCollectionPropertyIfAppropriate(propertyMapping, parent);
+        if (collectionProperty != null) {
+          configuration.newMetaObject(collectionProperty).addAll(children);
+        } else if (children.size() > 1) {
+          throw new ExecutorException("Statement '" + batchLoad.batchQuery.getNestedQuery().getId() + "' returned more than one row for property '"
+              + propertyMapping.getProperty() + "', where no more than one was expected.");
+        } else if (!children.isEmpty()) {
+          parent.setValue(propertyMapping.getProperty(), children.get(0));
+        }
+      }
+    }
+  }
+
   private Object prepareParameterForNestedQuery(ResultSet rs, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
     if (resultMapping.isCompositeResult()) {
       return prepareCompositeKeyParameter(rs, resultMapping, parameterType, columnPrefix);
@@ -990,12 +1608,14 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       // 处理鉴别器
       final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
       // 生成缓存键
-      final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
+      final RowKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
       Object partialObject = nestedResultObjects.get(rowKey);
       // issue #577 && #542
       if (mappedStatement.isResultOrdered()) {
         if (partialObject == null && rowValue != null) {
-          nestedResultObjects.clear();
+          // 根对象的id变化，前一个根对象已经完整。先释放它的全部状态，再交给结果处理器，
+          // 这样无论结果集多大，内存中只保留当前根对象及其下属对象
+          releaseNestedResultState();
           storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
         }
         rowValue = getRowValue(rsw, discriminatedResultMap, rowKey, null, partialObject);
@@ -1007,18 +1627,29 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       }
     }
     if (rowValue != null && mappedStatement.isResultOrdered() && shouldProcessMoreRows(resultContext, rowBounds)) {
-      storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
+      // 结果集已读完，最后一个根对象交出后不再保留任何状态
       previousRowValue = null;
+      releaseNestedResultState();
+      storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
     } else if (rowValue != null) {
       previousRowValue = rowValue;
     }
   }
 
+  /**
+   * 释放当前根对象的嵌套映射状态，包括已创建对象的行键和祖先对象
+   * 只在结果有序时、根对象已经完整后调用
+   */
+  private void releaseNestedResultState() {
+    nestedResultObjects.clear();
+    ancestorObjects.clear();
+  }
+
   //
   // GET VALUE FROM ROW FOR NESTED RESULT MAP
   //
 
-  private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, CacheKey combinedKey, String columnPrefix, Object partialObject) throws SQLException {
+  private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, RowKey combinedKey, String columnPrefix, Object partialObject) throws SQLException {
     final String resultMapId = resultMap.getId();
     Object rowValue = partialObject;
     if (rowValue != null) {
@@ -1042,7 +1673,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         foundValues = lazyLoader.size() > 0 || foundValues;
         rowValue = foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
       }
-      if (combinedKey != CacheKey.NULL_CACHE_KEY) {
+      if (!combinedKey.isNull()) {
         nestedResultObjects.put(combinedKey, rowValue);
       }
     }
@@ -1057,7 +1688,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // NESTED RESULT MAP (JOIN MAPPING)
   //
 
-  private boolean applyNestedResultMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String parentPrefix, CacheKey parentRowKey, boolean newObject) {
+  private boolean applyNestedResultMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String parentPrefix, RowKey parentRowKey, boolean newObject) {
     boolean foundValues = false;
     for (ResultMapping resultMapping : resultMap.getPropertyResultMappings()) {
       final String nestedResultMapId = resultMapping.getNestedResultMapId();
@@ -1076,8 +1707,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
               continue;
             }
           }
-          final CacheKey rowKey = createRowKey(nestedResultMap, rsw, columnPrefix);
-          final CacheKey combinedKey = combineKeys(rowKey, parentRowKey);
+          final RowKey rowKey = createRowKey(nestedResultMap, rsw, columnPrefix);
+          final RowKey combinedKey = combineKeys(rowKey, parentRowKey);
           Object rowValue = nestedResultObjects.get(combinedKey);
           boolean knownValue = rowValue != null;
           instantiateCollectionPropertyIfAppropriate(resultMapping, metaObject); // mandatory
@@ -1138,37 +1769,35 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // UNIQUE RESULT KEY
   //
 
-  private CacheKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
-    final CacheKey cacheKey = new CacheKey();
-    cacheKey.update(resultMap.getId());
+  /**
+   * 生成行键。结果映射的id和列名前缀确定了参与的列，行键中只按位置记录这些列的值
+   * @param resultMap 结果映射
+   * @param rsw 结果集
+   * @param columnPrefix 列名前缀
+   * @return 行键，没有能识别对象的列值时返回RowKey.NULL_ROW_KEY
+   * @throws SQLException
+   */
+  private RowKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
+    final RowKey.Builder builder = rowKeyBuilder.reset(resultMap.getId(), columnPrefix);
     List<ResultMapping> resultMappings = getResultMappingsForRowKey(resultMap);
     if (resultMappings.isEmpty()) {
       if (Map.class.isAssignableFrom(resultMap.getType())) {
-        createRowKeyForMap(rsw, cacheKey);
+        createRowKeyForMap(rsw, builder);
       } else {
-        createRowKeyForUnmappedProperties(resultMap, rsw, cacheKey, columnPrefix);
+        createRowKeyForUnmappedProperties(resultMap, rsw, builder, columnPrefix);
       }
     } else {
-      createRowKeyForMappedProperties(resultMap, rsw, cacheKey, resultMappings, columnPrefix);
+      createRowKeyForMappedProperties(resultMap, rsw, builder, resultMappings, columnPrefix);
     }
-    if (cacheKey.getUpdateCount() < 2) {
-      return CacheKey.NULL_CACHE_KEY;
-    }
-    return cacheKey;
+    return builder.build();
   }
 
-  private CacheKey combineKeys(CacheKey rowKey, CacheKey parentRowKey) {
-    if (rowKey.getUpdateCount() > 1 && parentRowKey.getUpdateCount() > 1) {
-      CacheKey combinedKey;
-      try {
-        combinedKey = rowKey.clone();
-      } catch (CloneNotSupportedException e) {
-        throw new ExecutorException("Error cloning cache key.  Cause: " + e, e);
-      }
-      combinedKey.update(parentRowKey);
-      return combinedKey;
+  private RowKey combineKeys(RowKey rowKey, RowKey parentRowKey) {
+    if (!rowKey.isNull() && !parentRowKey.isNull()) {
+      // 组合键只引用父行键，不复制其内容
+      return rowKey.combine(parentRowKey);
     }
-    return CacheKey.NULL_CACHE_KEY;
+    return RowKey.NULL_ROW_KEY;
   }
 
   private List<ResultMapping> getResultMappingsForRowKey(ResultMap resultMap) {
@@ -1179,30 +1808,27 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return resultMappings;
   }
 
-  private void createRowKeyForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
+  private void createRowKeyForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, RowKey.Builder rowKey, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
     for (ResultMapping resultMapping : resultMappings) {
       if (resultMapping.getNestedResultMapId() != null && resultMapping.getResultSet() == null) {
         // Issue #392
         final ResultMap nestedResultMap = configuration.getResultMap(resultMapping.getNestedResultMapId());
-        createRowKeyForMappedProperties(nestedResultMap, rsw, cacheKey, nestedResultMap.getConstructorResultMappings(),
+        createRowKeyForMappedProperties(nestedResultMap, rsw, rowKey, nestedResultMap.getConstructorResultMappings(),
             prependPrefix(resultMapping.getColumnPrefix(), columnPrefix));
       } else if (resultMapping.getNestedQueryId() == null) {
         final String column = prependPrefix(resultMapping.getColumn(), columnPrefix);
         final TypeHandler<?> th = resultMapping.getTypeHandler();
-        List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
         // Issue #114
-        if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
-          final Object value = th.getResult(rsw.getResultSet(), column);
-          if (value != null || configuration.isReturnInstanceForEmptyRow()) {
-            cacheKey.update(column);
-            cacheKey.update(value);
-          }
+        final int columnIndex = rsw.getColumnIndex(column);
+        if (columnIndex > 0) {
+          final Object value = th.getResult(rsw.getResultSet(), columnIndex);
+          rowKey.append(value, value != null || configuration.isReturnInstanceForEmptyRow());
         }
       }
     }
   }
 
-  private void createRowKeyForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, String columnPrefix) throws SQLException {
+  private void createRowKeyForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, RowKey.Builder rowKey, String columnPrefix) throws SQLException {
     final MetaClass metaType = MetaClass.forClass(resultMap.getType(), reflectorFactory);
     List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
     for (String column : unmappedColumnNames) {
@@ -1216,23 +1842,17 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
       }
       if (metaType.findProperty(property, configuration.isMapUnderscoreToCamelCase()) != null) {
-        String value = rsw.getResultSet().getString(column);
-        if (value != null) {
-          cacheKey.update(column);
-          cacheKey.update(value);
-        }
+        String value = rsw.getResultSet().getString(rsw.getColumnIndex(column));
+        rowKey.append(value, value != null);
       }
     }
   }
 
-  private void createRowKeyForMap(ResultSetWrapper rsw, CacheKey cacheKey) throws SQLException {
+  private void createRowKeyForMap(ResultSetWrapper rsw, RowKey.Builder rowKey) throws SQLException {
     List<String> columnNames = rsw.getColumnNames();
-    for (String columnName : columnNames) {
-      final String value = rsw.getResultSet().getString(columnName);
-      if (value != null) {
-        cacheKey.update(columnName);
-        cacheKey.update(value);
-      }
+    for (int i = 0; i < columnNames.size(); i++) {
+      final String value = rsw.getResultSet().getString(i + 1);
+      rowKey.append(value, value != null);
     }
   }
 
@@ -1269,6 +1889,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return null;
   }
 
+  private static boolean isClassPresent(String className) {
+    try {
+      Resources.classForName(className);
+      return true;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
   private boolean hasTypeHandlerForResultObject(ResultSetWrapper rsw, Class<?> resultType) {
     if (rsw.getColumnNames().size() == 1) {
       return typeHandlerRegistry.hasTypeHandler(resultType, rsw.getJdbcType(rsw.getColumnNames().get(0)));
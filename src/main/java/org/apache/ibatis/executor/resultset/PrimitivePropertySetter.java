@@ -0,0 +1,139 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.lang.invoke.MethodHandle;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.wrapper.BeanWrapper;
+import org.apache.ibatis.type.PrimitiveTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * 基本类型属性的赋值器
+ *
+ * 通过PrimitiveTypeHandler以基本类型读取列值，再通过Reflector提供的方法句柄设置到属性上，整个过程不装箱
+ */
+final class PrimitivePropertySetter {
+
+  // 属性名
+  private final String property;
+  // 基本类型
+  private final Class<?> primitiveType;
+  private final PrimitiveTypeHandler typeHandler;
+  // 类型为(Object, 基本类型)void的set方法句柄
+  private final MethodHandle setter;
+
+  private PrimitivePropertySetter(String property, Class<?> primitiveType, PrimitiveTypeHandler typeHandler, MethodHandle setter) {
+    this.property = property;
+    this.primitiveType = primitiveType;
+    this.typeHandler = typeHandler;
+    this.setter = setter;
+  }
+
+  /**
+   * 为属性创建基本类型赋值器
+   * @param reflectorFactory 反射工厂
+   * @param metaObject 结果对象的元对象
+   * @param resultType 结果对象的类型
+   * @param property 属性名
+   * @param typeHandler 属性使用的类型处理器
+   * @return 基本类型赋值器，不满足条件时返回null
+   */
+  static PrimitivePropertySetter resolve(ReflectorFactory reflectorFactory, MetaObject metaObject, Class<?> resultType,
+                                         String property, TypeHandler<?> typeHandler) {
+    // 只处理普通JavaBean的简单属性，Map、集合以及自定义包装器仍走MetaObject
+    if (!(typeHandler instanceof PrimitiveTypeHandler) || !(metaObject.getObjectWrapper() instanceof BeanWrapper)
+        || property == null || property.indexOf('.') >= 0 || property.indexOf('[') >= 0) {
+      return null;
+    }
+    final PrimitiveTypeHandler primitiveTypeHandler = (PrimitiveTypeHandler) typeHandler;
+    final MethodHandle setter = reflectorFactory.findForClass(resultType).getPrimitiveSetter(property);
+    // char没有对应的读取方法
+    if (setter == null || setter.type().parameterType(1) != primitiveTypeHandler.getPrimitiveType()
+        || primitiveTypeHandler.getPrimitiveType() == char.class) {
+      return null;
+    }
+    return new PrimitivePropertySetter(property, primitiveTypeHandler.getPrimitiveType(), primitiveTypeHandler, setter);
+  }
+
+  /**
+   * 读取列值并设置到属性上，列值为null时不设置
+   * @param rs 结果集
+   * @param columnIndex 列序号
+   * @param target 结果对象
+   * @return 列值是否不为null
+   * @throws SQLException
+   */
+  boolean apply(ResultSet rs, int columnIndex, Object target) throws SQLException {
+    try {
+      if (primitiveType == int.class) {
+        final int value = typeHandler.getInt(rs, columnIndex);
+        if (typeHandler.wasNull(rs)) {
+          return false;
+        }
+        setter.invokeExact(target, value);
+      } else if (primitiveType == long.class) {
+        final long value = typeHandler.getLong(rs, columnIndex);
+        if (typeHandler.wasNull(rs)) {
+          return false;
+        }
+        setter.invokeExact(target, value);
+      } else if (primitiveType == double.class) {
+        final double value = typeHandler.getDouble(rs, columnIndex);
+        if (typeHandler.wasNull(rs)) {
+          return false;
+        }
+        setter.invokeExact(target, value);
+      } else if (primitiveType == boolean.class) {
+        final boolean value = typeHandler.getBoolean(rs, columnIndex);
+        if (typeHandler.wasNull(rs)) {
+          return false;
+        }
+        setter.invokeExact(target, value);
+      } else if (primitiveType == float.class) {
+        final float value = typeHandler.getFloat(rs, columnIndex);
+        if (typeHandler.wasNull(rs)) {
+          return false;
+        }
+        setter.invokeExact(target, value);
+      } else if (primitiveType == short.class) {
+        final short value = typeHandler.getShort(rs, columnIndex);
+        if (typeHandler.wasNull(rs)) {
+          return false;
+        }
+        setter.invokeExact(target, value);
+      } else if (primitiveType == byte.class) {
+        final byte value = typeHandler.getByte(rs, columnIndex);
+        if (typeHandler.wasNull(rs)) {
+          return false;
+        }
+        setter.invokeExact(target, value);
+      } else {
+        throw new ReflectionException("Unsupported primitive type " + primitiveType + " for property '" + property + "'");
+      }
+      return true;
+    } catch (SQLException | ReflectionException e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new ReflectionException("Could not set property '" + property + "' of '" + target.getClass() + "'. Cause: " + t, t);
+    }
+  }
+}
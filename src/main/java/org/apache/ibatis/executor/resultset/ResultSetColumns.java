@@ -0,0 +1,103 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * 由ResultSetMetaData得到的各列信息，创建后不再改变，可以在同一语句的各次执行之间共享。各成员只供结果集处理器使用
+ */
+public final class ResultSetColumns {
+
+  // 各列的列名
+  final List<String> columnNames;
+  // 各列的Java类型名
+  final List<String> classNames;
+  // 各列的JDBC类型
+  final List<JdbcType> jdbcTypes;
+  // 大写列名与列序号（从1开始）的映射表，同名列取第一个，与ResultSet.findColumn一致
+  final Map<String, Integer> columnIndexMap;
+  // 各列的列名与类型组成的签名
+  final String signature;
+
+  private ResultSetColumns(List<String> columnNames, List<String> classNames, List<JdbcType> jdbcTypes) {
+    this.columnNames = Collections.unmodifiableList(columnNames);
+    this.classNames = Collections.unmodifiableList(classNames);
+    this.jdbcTypes = Collections.unmodifiableList(jdbcTypes);
+    final Map<String, Integer> indexMap = new HashMap<>();
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < columnNames.size(); i++) {
+      indexMap.putIfAbsent(columnNames.get(i).toUpperCase(Locale.ENGLISH), i + 1);
+      builder.append(columnNames.get(i)).append('|').append(classNames.get(i)).append('|').append(jdbcTypes.get(i)).append(',');
+    }
+    this.columnIndexMap = indexMap;
+    this.signature = builder.toString();
+  }
+
+  /**
+   * 读取结果集的各列信息
+   * @param metaData 结果集的元数据
+   * @param useColumnLabel 是否使用列标签作为列名
+   * @return 各列信息
+   * @throws SQLException
+   */
+  static ResultSetColumns read(ResultSetMetaData metaData, boolean useColumnLabel) throws SQLException {
+    final int columnCount = metaData.getColumnCount();
+    final List<String> columnNames = new ArrayList<>(columnCount);
+    final List<String> classNames = new ArrayList<>(columnCount);
+    final List<JdbcType> jdbcTypes = new ArrayList<>(columnCount);
+    for (int i = 1; i <= columnCount; i++) {
+      columnNames.add(columnName(metaData, i, useColumnLabel));
+      jdbcTypes.add(JdbcType.forCode(metaData.getColumnType(i)));
+      classNames.add(metaData.getColumnClassName(i));
+    }
+    return new ResultSetColumns(columnNames, classNames, jdbcTypes);
+  }
+
+  /**
+   * 判断缓存的列信息是否仍与结果集一致。只比较列数和列名，不再读取各列的类型
+   * @param metaData 结果集的元数据
+   * @param useColumnLabel 是否使用列标签作为列名
+   * @return 是否一致
+   * @throws SQLException
+   */
+  boolean matches(ResultSetMetaData metaData, boolean useColumnLabel) throws SQLException {
+    final int columnCount = metaData.getColumnCount();
+    if (columnCount != columnNames.size()) {
+      return false;
+    }
+    for (int i = 1; i <= columnCount; i++) {
+      if (!columnNames.get(i - 1).equals(columnName(metaData, i, useColumnLabel))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String columnName(ResultSetMetaData metaData, int column, boolean useColumnLabel) throws SQLException {
+    return useColumnLabel ? metaData.getColumnLabel(column) : metaData.getColumnName(column);
+  }
+
+}
@@ -19,7 +19,6 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -28,6 +27,7 @@ import java.util.Map;
 import java.util.Set;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.ObjectTypeHandler;
@@ -48,12 +48,8 @@ public class ResultSetWrapper {
   private final ResultSet resultSet;
   // 类型处理器注册表
   private final TypeHandlerRegistry typeHandlerRegistry;
-  // resultSet中各个列对应的列名列表
-  private final List<String> columnNames = new ArrayList<>();
-  // resultSet中各个列对应的Java类型名列表
-  private final List<String> classNames = new ArrayList<>();
-  // resultSet中各个列对应的JDBC类型列表
-  private final List<JdbcType> jdbcTypes = new ArrayList<>();
+  // resultSet中各个列的列名、Java类型名、JDBC类型等信息
+  private final ResultSetColumns columns;
   // <列名，< java类型，TypeHandler>>
   // 这里的数据是不断组建起来的。java类型传入，然后去全局handlerMap索引java类型的handler放入map,然后在赋给列名。
   // 每个列后面的java类型不应该是唯一的么？不是的
@@ -74,18 +70,47 @@ public class ResultSetWrapper {
   //  // <resultMap的id : List<对象映射的列名>>
   // 记录了所有的无映射关系的列。结构为：Map<resultMap的id，List<对象映射的列名>>
   private final Map<String, List<String>> unMappedColumnNamesMap = new HashMap<>();
+  // 记录了结果映射中各属性映射对应的列序号。结构为：Map<resultMap的id:列名前缀，各属性映射的列序号>
+  private final Map<String, int[]> propertyColumnIndexesMap = new HashMap<>();
 
   public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
+    this(rs, configuration, null);
+  }
+
+  /**
+   * 构造方法
+   * @param rs 结果集
+   * @param configuration 配置信息
+   * @param columnsKey 缓存各列信息所用的键，为null时不使用缓存
+   * @throws SQLException
+   */
+  public ResultSetWrapper(ResultSet rs, Configuration configuration, String columnsKey) throws SQLException {
     super();
     this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
     this.resultSet = rs;
-    final ResultSetMetaData metaData = rs.getMetaData();
-    final int columnCount = metaData.getColumnCount();
-    for (int i = 1; i <= columnCount; i++) {
-      columnNames.add(configuration.isUseColumnLabel() ? metaData.getColumnLabel(i) : metaData.getColumnName(i));
-      jdbcTypes.add(JdbcType.forCode(metaData.getColumnType(i)));
-      classNames.add(metaData.getColumnClassName(i));
+    this.columns = resolveColumns(rs.getMetaData(), configuration, columnsKey);
+  }
+
+  /**
+   * 获取结果集的各列信息。缓存中有列数和列名一致的信息时直接复用，否则从元数据读取并放入缓存
+   * @param metaData 结果集的元数据
+   * @param configuration 配置信息
+   * @param columnsKey 缓存各列信息所用的键，为null时不使用缓存
+   * @return 各列信息
+   * @throws SQLException
+   */
+  private static ResultSetColumns resolveColumns(ResultSetMetaData metaData, Configuration configuration, String columnsKey) throws SQLException {
+    final boolean useColumnLabel = configuration.isUseColumnLabel();
+    if (columnsKey == null) {
+      return ResultSetColumns.read(metaData, useColumnLabel);
+    }
+    final BoundedPlanCache<ResultSetColumns> cache = configuration.getResultSetColumnsCache();
+    ResultSetColumns resultSetColumns = cache.get(columnsKey);
+    if (resultSetColumns == null || !resultSetColumns.matches(metaData, useColumnLabel)) {
+      resultSetColumns = ResultSetColumns.read(metaData, useColumnLabel);
+      cache.put(columnsKey, resultSetColumns);
     }
+    return resultSetColumns;
   }
 
   public ResultSet getResultSet() {
@@ -93,24 +118,68 @@ public class ResultSetWrapper {
   }
 
   public List<String> getColumnNames() {
-    return this.columnNames;
+    return columns.columnNames;
   }
 
   public List<String> getClassNames() {
-    return Collections.unmodifiableList(classNames);
+    return columns.classNames;
   }
 
   public List<JdbcType> getJdbcTypes() {
-    return jdbcTypes;
+    return columns.jdbcTypes;
+  }
+
+  /**
+   * 获取由各列的列名、Java类型名和JDBC类型组成的签名，列相同的结果集签名相同
+   * @return 列签名
+   */
+  public String getColumnSignature() {
+    return columns.signature;
   }
 
   public JdbcType getJdbcType(String columnName) {
-    for (int i = 0 ; i < columnNames.size(); i++) {
-      if (columnNames.get(i).equalsIgnoreCase(columnName)) {
-        return jdbcTypes.get(i);
+    final int index = getColumnIndex(columnName);
+    return index < 0 ? null : columns.jdbcTypes.get(index - 1);
+  }
+
+  /**
+   * 获取列名对应的列序号，列名不区分大小写
+   * @param columnName 列名
+   * @return 从1开始的列序号，结果集中没有该列时返回-1
+   */
+  public int getColumnIndex(String columnName) {
+    if (columnName == null) {
+      return -1;
+    }
+    final Integer index = columns.columnIndexMap.get(columnName.toUpperCase(Locale.ENGLISH));
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * 获取结果映射中各属性映射对应的列序号，与resultMap.getPropertyResultMappings()一一对应
+   * 没有列、列不在结果集中或者映射到嵌套结果映射的属性，其列序号为-1
+   * @param resultMap 结果映射
+   * @param columnPrefix 列名前缀
+   * @return 各属性映射的列序号
+   */
+  public int[] getPropertyColumnIndexes(ResultMap resultMap, String columnPrefix) {
+    final String mapKey = getMapKey(resultMap, columnPrefix);
+    int[] columnIndexes = propertyColumnIndexesMap.get(mapKey);
+    if (columnIndexes == null) {
+      final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
+      columnIndexes = new int[propertyMappings.size()];
+      for (int i = 0; i < columnIndexes.length; i++) {
+        final ResultMapping propertyMapping = propertyMappings.get(i);
+        final String column = propertyMapping.getColumn();
+        if (column == null || propertyMapping.getNestedResultMapId() != null) {
+          columnIndexes[i] = -1;
+        } else {
+          columnIndexes[i] = getColumnIndex(columnPrefix == null ? column : columnPrefix + column);
+        }
       }
+      propertyColumnIndexesMap.put(mapKey, columnIndexes);
     }
-    return null;
+    return columnIndexes;
   }
 
   /**
@@ -144,8 +213,8 @@ public class ResultSetWrapper {
       // Replicate logic of UnknownTypeHandler#resolveTypeHandler
       // See issue #59 comment 10
       if (handler == null || handler instanceof UnknownTypeHandler) {
-        final int index = columnNames.indexOf(columnName);
-        final Class<?> javaType = resolveClass(classNames.get(index));
+        final int index = getColumnIndex(columnName);
+        final Class<?> javaType = index < 0 ? null : resolveClass(columns.classNames.get(index - 1));
         if (javaType != null && jdbcType != null) {
           handler = typeHandlerRegistry.getTypeHandler(javaType, jdbcType);
         } else if (javaType != null) {
@@ -179,7 +248,7 @@ public class ResultSetWrapper {
     List<String> unmappedColumnNames = new ArrayList<>();
     final String upperColumnPrefix = columnPrefix == null ? null : columnPrefix.toUpperCase(Locale.ENGLISH);
     final Set<String> mappedColumns = prependPrefixes(resultMap.getMappedColumns(), upperColumnPrefix);
-    for (String columnName : columnNames) {
+    for (String columnName : columns.columnNames) {
       final String upperColumnName = columnName.toUpperCase(Locale.ENGLISH);
       if (mappedColumns.contains(upperColumnName)) {
         mappedColumnNames.add(upperColumnName);
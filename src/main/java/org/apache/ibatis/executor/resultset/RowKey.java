@@ -0,0 +1,187 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.Arrays;
+
+import org.apache.ibatis.reflection.ArrayUtil;
+
+/**
+ * 嵌套结果映射中用来识别同一对象的行键
+ *
+ * 与CacheKey相比，行键只按位置记录列值，结果映射的id与列名前缀决定了各位置对应的列，因此不再逐行保存列名；
+ * 组合键只引用父行键而不复制其内容。行键带有由列值计算出的128位哈希值，哈希值相同时再逐个比较列值，避免哈希冲突导致的误判
+ */
+final class RowKey {
+
+  // 不能识别对象时使用的空行键
+  static final RowKey NULL_ROW_KEY = new RowKey(null, null, new Object[0], null);
+
+  private static final long SEED1 = 0x9E3779B97F4A7C15L;
+  private static final long SEED2 = 0xC2B2AE3D27D4EB4FL;
+
+  // 结果映射的id
+  private final String resultMapId;
+  // 列名前缀
+  private final String columnPrefix;
+  // 按位置记录的列值
+  private final Object[] values;
+  // 父行键，只有组合键才有
+  private final RowKey parent;
+  // 128位哈希值的高64位和低64位
+  private final long hash1;
+  private final long hash2;
+
+  private RowKey(String resultMapId, String columnPrefix, Object[] values, RowKey parent) {
+    this.resultMapId = resultMapId;
+    this.columnPrefix = columnPrefix;
+    this.values = values;
+    this.parent = parent;
+    long h1 = mix(SEED1, resultMapId == null ? 0 : resultMapId.hashCode(), SEED1);
+    long h2 = mix(SEED2, columnPrefix == null ? 0 : columnPrefix.hashCode(), SEED2);
+    for (Object value : values) {
+      final long valueHash = hash64(value);
+      h1 = mix(h1, valueHash, SEED1);
+      h2 = mix(h2, valueHash ^ Long.rotateLeft(valueHash, 29), SEED2);
+    }
+    if (parent != null) {
+      h1 = mix(h1, parent.hash1, SEED1);
+      h2 = mix(h2, parent.hash2, SEED2);
+    }
+    this.hash1 = h1;
+    this.hash2 = h2;
+  }
+
+  /**
+   * 与父行键组合，得到在父对象下识别子对象的行键
+   * @param parentRowKey 父行键
+   * @return 组合后的行键
+   */
+  RowKey combine(RowKey parentRowKey) {
+    return new RowKey(resultMapId, columnPrefix, values, parentRowKey);
+  }
+
+  boolean isNull() {
+    return this == NULL_ROW_KEY;
+  }
+
+  private static long mix(long hash, long value, long seed) {
+    long h = (hash ^ value) * seed;
+    return h ^ (h >>> 31);
+  }
+
+  /**
+   * 计算列值的64位哈希值。常见的字符串和整数类型直接根据内容计算，其他类型使用hashCode
+   * @param value 列值
+   * @return 64位哈希值
+   */
+  private static long hash64(Object value) {
+    if (value == null) {
+      return 0x5BD1E995L;
+    } else if (value instanceof String) {
+      final String string = (String) value;
+      long h = 0xCBF29CE484222325L;
+      for (int i = 0; i < string.length(); i++) {
+        h ^= string.charAt(i);
+        h *= 0x100000001B3L;
+      }
+      return h;
+    } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      return ((Number) value).longValue() * SEED2;
+    }
+    return ArrayUtil.hashCode(value);
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    }
+    if (!(object instanceof RowKey)) {
+      return false;
+    }
+    final RowKey that = (RowKey) object;
+    if (hash1 != that.hash1 || hash2 != that.hash2 || values.length != that.values.length) {
+      return false;
+    }
+    // 哈希值相同，再比较内容确认
+    if (resultMapId == null ? that.resultMapId != null : !resultMapId.equals(that.resultMapId)) {
+      return false;
+    }
+    if (columnPrefix == null ? that.columnPrefix != null : !columnPrefix.equals(that.columnPrefix)) {
+      return false;
+    }
+    for (int i = 0; i < values.length; i++) {
+      if (!ArrayUtil.equals(values[i], that.values[i])) {
+        return false;
+      }
+    }
+    return parent == null ? that.parent == null : parent.equals(that.parent);
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (hash1 ^ (hash1 >>> 32));
+  }
+
+  @Override
+  public String toString() {
+    return resultMapId + ":" + columnPrefix + ":" + Arrays.toString(values) + (parent == null ? "" : " <- " + parent);
+  }
+
+  /**
+   * 行键的构建器。处理结果集时逐行重复使用，只有生成的行键会保留下来
+   */
+  static final class Builder {
+    private String resultMapId;
+    private String columnPrefix;
+    private Object[] values = new Object[8];
+    private int size;
+    // 参与识别的列值个数，为0时不能识别对象
+    private int identifyingCount;
+
+    Builder reset(String resultMapId, String columnPrefix) {
+      this.resultMapId = resultMapId;
+      this.columnPrefix = columnPrefix;
+      Arrays.fill(values, 0, size, null);
+      this.size = 0;
+      this.identifyingCount = 0;
+      return this;
+    }
+
+    /**
+     * 追加一个列值
+     * @param value 列值
+     * @param identifying 该列值是否参与识别对象。不参与时只占位，保证各位置对应的列不变
+     */
+    void append(Object value, boolean identifying) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = identifying ? value : null;
+      if (identifying) {
+        identifyingCount++;
+      }
+    }
+
+    RowKey build() {
+      if (identifyingCount == 0) {
+        return NULL_ROW_KEY;
+      }
+      return new RowKey(resultMapId, columnPrefix, Arrays.copyOf(values, size), null);
+    }
+  }
+}
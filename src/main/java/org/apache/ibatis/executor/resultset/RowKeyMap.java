@@ -0,0 +1,119 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.Arrays;
+
+/**
+ * 以行键为键的开放寻址哈希表，用来记录嵌套结果映射中已创建的对象
+ *
+ * 键和值分别存放在两个数组中，采用线性探测解决冲突，每个条目不再需要HashMap那样单独的节点对象
+ */
+final class RowKeyMap {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private RowKey[] keys = new RowKey[INITIAL_CAPACITY];
+  private Object[] values = new Object[INITIAL_CAPACITY];
+  private int size;
+
+  /**
+   * 获取行键对应的对象
+   * @param key 行键
+   * @return 对应的对象，没有时返回null
+   */
+  Object get(RowKey key) {
+    final int mask = keys.length - 1;
+    for (int i = spread(key.hashCode()) & mask; ; i = (i + 1) & mask) {
+      final RowKey candidate = keys[i];
+      if (candidate == null) {
+        return null;
+      }
+      if (candidate.equals(key)) {
+        return values[i];
+      }
+    }
+  }
+
+  /**
+   * 放入行键对应的对象，已存在时覆盖
+   * @param key 行键
+   * @param value 对象
+   */
+  void put(RowKey key, Object value) {
+    // 负载因子不超过0.5，保证探测序列较短
+    if ((size + 1) * 2 > keys.length) {
+      resize(keys.length * 2);
+    }
+    final int mask = keys.length - 1;
+    for (int i = spread(key.hashCode()) & mask; ; i = (i + 1) & mask) {
+      final RowKey candidate = keys[i];
+      if (candidate == null) {
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        return;
+      }
+      if (candidate.equals(key)) {
+        values[i] = value;
+        return;
+      }
+    }
+  }
+
+  void clear() {
+    if (size == 0) {
+      return;
+    }
+    if (keys.length > INITIAL_CAPACITY * 64 && size < keys.length / 8) {
+      // 数组远大于当前需要时直接释放，避免长期占用内存；
+      // 有序结果逐个根对象清空时，各根对象规模相近的情况下保留数组，避免反复扩容
+      keys = new RowKey[INITIAL_CAPACITY];
+      values = new Object[INITIAL_CAPACITY];
+    } else {
+      Arrays.fill(keys, null);
+      Arrays.fill(values, null);
+    }
+    size = 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  private void resize(int capacity) {
+    final RowKey[] oldKeys = keys;
+    final Object[] oldValues = values;
+    keys = new RowKey[capacity];
+    values = new Object[capacity];
+    final int mask = capacity - 1;
+    for (int j = 0; j < oldKeys.length; j++) {
+      final RowKey key = oldKeys[j];
+      if (key != null) {
+        int i = spread(key.hashCode()) & mask;
+        while (keys[i] != null) {
+          i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+}
@@ -0,0 +1,34 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 将结果集的当前行映射为一个对象。由RowMapperGenerator针对结果映射和结果集的列生成，直接调用构造方法和setter
+ */
+public interface RowMapper {
+
+  /**
+   * 映射结果集的当前行
+   * @param rs 结果集
+   * @return 结果对象，没有读到任何值且不要求返回空对象时返回null
+   * @throws SQLException
+   */
+  Object map(ResultSet rs) throws SQLException;
+
+}
@@ -0,0 +1,297 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+
+import org.apache.ibatis.reflection.property.PropertyNamer;
+import org.apache.ibatis.type.BigDecimalTypeHandler;
+import org.apache.ibatis.type.BooleanTypeHandler;
+import org.apache.ibatis.type.ByteTypeHandler;
+import org.apache.ibatis.type.DoubleTypeHandler;
+import org.apache.ibatis.type.FloatTypeHandler;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.LongTypeHandler;
+import org.apache.ibatis.type.ShortTypeHandler;
+import org.apache.ibatis.type.StringTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * 使用javassist生成行映射器。生成的类直接调用结果类型的无参构造方法和setter，按列序号读取结果集；
+ * 内置的基本类型和字符串类型处理器直接调用对应的 rs.getXxx(int)，其他类型处理器调用 TypeHandler.getResult(rs, int)。
+ */
+final class RowMapperGenerator {
+
+  private static final AtomicInteger COUNTER = new AtomicInteger();
+  // 可以直接读取的类型处理器，值为ResultSet的读取方法和读取到的类型
+  private static final Map<Class<?>, Object[]> DIRECT_READERS = new HashMap<>();
+
+  static {
+    DIRECT_READERS.put(IntegerTypeHandler.class, new Object[] {"getInt", int.class});
+    DIRECT_READERS.put(LongTypeHandler.class, new Object[] {"getLong", long.class});
+    DIRECT_READERS.put(ShortTypeHandler.class, new Object[] {"getShort", short.class});
+    DIRECT_READERS.put(ByteTypeHandler.class, new Object[] {"getByte", byte.class});
+    DIRECT_READERS.put(BooleanTypeHandler.class, new Object[] {"getBoolean", boolean.class});
+    DIRECT_READERS.put(DoubleTypeHandler.class, new Object[] {"getDouble", double.class});
+    DIRECT_READERS.put(FloatTypeHandler.class, new Object[] {"getFloat", float.class});
+    DIRECT_READERS.put(StringTypeHandler.class, new Object[] {"getString", String.class});
+    DIRECT_READERS.put(BigDecimalTypeHandler.class, new Object[] {"getBigDecimal", BigDecimal.class});
+  }
+
+  // 各基本类型可以由哪些包装类型经拆箱和拓宽转换得到
+  private static final Map<Class<?>, Class<?>[]> WIDENING_SOURCES = new HashMap<>();
+
+  static {
+    WIDENING_SOURCES.put(boolean.class, new Class<?>[] {Boolean.class});
+    WIDENING_SOURCES.put(char.class, new Class<?>[] {Character.class});
+    WIDENING_SOURCES.put(byte.class, new Class<?>[] {Byte.class});
+    WIDENING_SOURCES.put(short.class, new Class<?>[] {Short.class, Byte.class});
+    WIDENING_SOURCES.put(int.class, new Class<?>[] {Integer.class, Short.class, Byte.class, Character.class});
+    WIDENING_SOURCES.put(long.class, new Class<?>[] {Long.class, Integer.class, Short.class, Byte.class, Character.class});
+    WIDENING_SOURCES.put(float.class, new Class<?>[] {Float.class, Long.class, Integer.class, Short.class, Byte.class, Character.class});
+    WIDENING_SOURCES.put(double.class, new Class<?>[] {Double.class, Float.class, Long.class, Integer.class, Short.class, Byte.class, Character.class});
+  }
+
+  private RowMapperGenerator() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * 生成行映射器
+   * @param resultType 结果类型
+   * @param properties 各列对应的属性
+   * @param columnIndexes 各列在结果集中的序号
+   * @param typeHandlers 各列的类型处理器
+   * @param setNulls 各列的值为null时是否仍调用setter
+   * @param returnInstanceForEmptyRow 没有读到任何值时是否仍返回对象
+   * @return 行映射器，结果类型或属性不能直接访问时返回null
+   */
+  static RowMapper generate(Class<?> resultType, String[] properties, int[] columnIndexes, TypeHandler<?>[] typeHandlers,
+      boolean[] setNulls, boolean returnInstanceForEmptyRow) {
+    if (!isAccessible(resultType)) {
+      return null;
+    }
+    Method[] setters = new Method[properties.length];
+    for (int i = 0; i < properties.length; i++) {
+      setters[i] = findSetter(resultType, properties[i]);
+      if (setters[i] == null || columnIndexes[i] <= 0) {
+        return null;
+      }
+    }
+    String typeName = typeName(resultType);
+    StringBuilder body = new StringBuilder();
+    body.append("public java.lang.Object map(java.sql.ResultSet rs) throws java.sql.SQLException {\n");
+    body.append(typeName).append(" o = new ").append(typeName).append("();\n");
+    body.append("boolean found = false;\n");
+    for (int i = 0; i < properties.length; i++) {
+      appendColumn(body, i, setters[i], columnIndexes[i], typeHandlers[i], setNulls[i]);
+    }
+    body.append("return (found || ").append(returnInstanceForEmptyRow).append(") ? o : null;\n}");
+
+    try {
+      ClassPool pool = new ClassPool(true);
+      pool.appendClassPath(new ClassClassPath(RowMapper.class));
+      if (resultType.getClassLoader() != null) {
+        pool.appendClassPath(new LoaderClassPath(resultType.getClassLoader()));
+      }
+      // 生成的类与结果类型在同一个包中
+      String simpleName = resultType.getSimpleName() + "$$RowMapper$$" + COUNTER.incrementAndGet();
+      CtClass ctClass = pool.makeClass(resultType.getPackage() == null ? simpleName : resultType.getPackage().getName() + "." + simpleName);
+      ctClass.addInterface(pool.get(RowMapper.class.getName()));
+      ctClass.addField(CtField.make("private final org.apache.ibatis.type.TypeHandler[] typeHandlers;", ctClass));
+      ctClass.addConstructor(CtNewConstructor.make(
+          "public " + simpleName + "(org.apache.ibatis.type.TypeHandler[] typeHandlers) { this.typeHandlers = typeHandlers; }", ctClass));
+      ctClass.addMethod(CtNewMethod.make(body.toString(), ctClass));
+      // 每个生成的类使用独立的类加载器，从缓存中淘汰后可以随类加载器一起被卸载
+      byte[] bytecode = ctClass.toBytecode();
+      ctClass.detach();
+      Class<?> mapperClass = new GeneratedClassLoader(resultType.getClassLoader()).define(ctClass.getName(), bytecode);
+      return (RowMapper) mapperClass.getConstructor(TypeHandler[].class).newInstance((Object) typeHandlers.clone());
+    } catch (Exception | LinkageError e) {
+      // 无法生成时退回到基于MetaObject的映射
+      return null;
+    }
+  }
+
+  /**
+   * 生成读取一列并设置属性的代码
+   */
+  private static void appendColumn(StringBuilder body, int i, Method setter, int columnIndex, TypeHandler<?> typeHandler, boolean setNull) {
+    Class<?> propertyType = setter.getParameterTypes()[0];
+    String value = "v" + i;
+    String set = "o." + setter.getName() + "(";
+    Object[] reader = DIRECT_READERS.get(typeHandler.getClass());
+    Class<?> readType = reader == null ? null : (Class<?>) reader[1];
+    if (readType != null && readType.isPrimitive() && (propertyType == readType || propertyType == wrapperType(readType))) {
+      // 直接读取基本类型，通过wasNull判断是否为null
+      body.append(readType.getName()).append(' ').append(value).append(" = rs.").append(reader[0]).append('(').append(columnIndex).append(");\n");
+      body.append("if (!rs.wasNull()) { ").append(set);
+      if (propertyType.isPrimitive()) {
+        body.append(value);
+      } else {
+        body.append(typeName(propertyType)).append(".valueOf(").append(value).append(')');
+      }
+      body.append("); found = true; }");
+    } else if (readType != null && propertyType == readType) {
+      // 直接读取对象类型
+      body.append(typeName(readType)).append(' ').append(value).append(" = rs.").append(reader[0]).append('(').append(columnIndex).append(");\n");
+      body.append("if (").append(value).append(" != null) { ").append(set).append(value).append("); found = true; }");
+    } else {
+      // 通过类型处理器读取
+      body.append("java.lang.Object ").append(value).append(" = typeHandlers[").append(i).append("].getResult(rs, ").append(columnIndex).append(");\n");
+      body.append("if (").append(value).append(" != null) { ");
+      appendConversion(body, value, set, setter, propertyType);
+      body.append(" found = true; }");
+    }
+    if (setNull && !propertyType.isPrimitive()) {
+      body.append(" else { ").append(set).append('(').append(typeName(propertyType)).append(") null); }");
+    }
+    body.append('\n');
+  }
+
+  /**
+   * 生成将类型处理器读到的值转换为属性类型并调用setter的代码
+   *
+   * Method.invoke只接受能够通过拆箱和拓宽转换得到参数类型的值，例如long属性可以接受Integer，int属性不能接受Long。
+   * 这里按同样的规则转换，不能转换时抛出与BeanWrapper相同的ReflectionException，而不是静默地截断数值。
+   */
+  private static void appendConversion(StringBuilder body, String value, String set, Method setter, Class<?> propertyType) {
+    Class<?>[] sources = propertyType.isPrimitive() ? WIDENING_SOURCES.get(propertyType) : new Class<?>[] {propertyType};
+    for (int i = 0; i < sources.length; i++) {
+      body.append(i == 0 ? "if (" : " else if (").append(value).append(" instanceof ").append(typeName(sources[i])).append(") { ").append(set);
+      if (!propertyType.isPrimitive()) {
+        body.append('(').append(typeName(propertyType)).append(") ").append(value);
+      } else if (sources[i] == Boolean.class || sources[i] == Character.class) {
+        body.append(propertyType == sources[i] ? "" : "(" + propertyType.getName() + ") ")
+            .append("((").append(typeName(sources[i])).append(") ").append(value).append(").").append(wrapperValueMethod(sources[i]));
+      } else {
+        body.append("((java.lang.Number) ").append(value).append(").").append(propertyType.getName()).append("Value()");
+      }
+      body.append("); }");
+    }
+    body.append(" else { throw new org.apache.ibatis.reflection.ReflectionException(\"Could not set property '")
+        .append(PropertyNamer.methodToProperty(setter.getName())).append("' of '\" + o.getClass() + \"' with value '\" + ")
+        .append(value).append(" + \"' Cause: java.lang.IllegalArgumentException: argument type mismatch\"); }");
+  }
+
+  private static String wrapperValueMethod(Class<?> wrapperType) {
+    return wrapperType == Boolean.class ? "booleanValue()" : "charValue()";
+  }
+
+  /**
+   * 判断生成的类能否访问结果类型及其无参构造方法
+   */
+  private static boolean isAccessible(Class<?> resultType) {
+    if (!Modifier.isPublic(resultType.getModifiers()) || Modifier.isAbstract(resultType.getModifiers())
+        || resultType.isMemberClass() && !Modifier.isStatic(resultType.getModifiers())) {
+      return false;
+    }
+    try {
+      Constructor<?> constructor = resultType.getConstructor();
+      return Modifier.isPublic(constructor.getModifiers());
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * 查找属性的公有setter
+   * @param resultType 结果类型
+   * @param property 属性名
+   * @return setter，属性是嵌套属性或者没有公有setter时返回null
+   */
+  private static Method findSetter(Class<?> resultType, String property) {
+    if (property.indexOf('.') >= 0 || property.indexOf('[') >= 0) {
+      return null;
+    }
+    Method found = null;
+    for (Method method : resultType.getMethods()) {
+      if (method.getName().startsWith("set") && method.getName().length() > 3 && method.getParameterTypes().length == 1
+          && !Modifier.isStatic(method.getModifiers())
+          && Modifier.isPublic(method.getDeclaringClass().getModifiers())
+          && property.equals(PropertyNamer.methodToProperty(method.getName()))) {
+        if (found != null) {
+          // 存在重载的setter，无法确定使用哪一个
+          return null;
+        }
+        found = method;
+      }
+    }
+    return found;
+  }
+
+  /**
+   * 只定义一个生成的行映射器的类加载器。结果类型的类加载器看不到MyBatis的类时，再从MyBatis的类加载器中查找
+   */
+  private static final class GeneratedClassLoader extends ClassLoader {
+
+    GeneratedClassLoader(ClassLoader parent) {
+      super(parent);
+    }
+
+    Class<?> define(String name, byte[] bytecode) {
+      return defineClass(name, bytecode, 0, bytecode.length);
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      return RowMapper.class.getClassLoader().loadClass(name);
+    }
+  }
+
+  private static Class<?> wrapperType(Class<?> primitiveType) {
+    if (primitiveType == int.class) {
+      return Integer.class;
+    } else if (primitiveType == long.class) {
+      return Long.class;
+    } else if (primitiveType == short.class) {
+      return Short.class;
+    } else if (primitiveType == byte.class) {
+      return Byte.class;
+    } else if (primitiveType == boolean.class) {
+      return Boolean.class;
+    } else if (primitiveType == double.class) {
+      return Double.class;
+    } else if (primitiveType == float.class) {
+      return Float.class;
+    } else if (primitiveType == char.class) {
+      return Character.class;
+    }
+    return primitiveType;
+  }
+
+  private static String typeName(Class<?> type) {
+    if (type.isArray()) {
+      return typeName(type.getComponentType()) + "[]";
+    }
+    return type.getName();
+  }
+
+}
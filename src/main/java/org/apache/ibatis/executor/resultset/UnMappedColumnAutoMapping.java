@@ -0,0 +1,43 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * 未在结果映射中明示的列的自动映射关系
+ * 只由结果映射、列名前缀和结果集的列决定，可以在各次查询之间共享。各成员只供结果集处理器使用
+ */
+public final class UnMappedColumnAutoMapping {
+  final String column;
+  // 列序号，从1开始
+  final int columnIndex;
+  final String property;
+  final TypeHandler<?> typeHandler;
+  final boolean primitive;
+  // 基本类型属性的赋值器，不能直接赋值时为null
+  final PrimitivePropertySetter primitiveSetter;
+
+  UnMappedColumnAutoMapping(String column, int columnIndex, String property, TypeHandler<?> typeHandler, boolean primitive,
+                            PrimitivePropertySetter primitiveSetter) {
+    this.column = column;
+    this.columnIndex = columnIndex;
+    this.property = property;
+    this.typeHandler = typeHandler;
+    this.primitive = primitive;
+    this.primitiveSetter = primitiveSetter;
+  }
+}
@@ -80,4 +80,17 @@ public class BoundSql {
   public Object getAdditionalParameter(String name) {
     return metaParameters.getValue(name);
   }
+
+  /**
+   * 创建一个使用新SQL语句和参数映射的绑定SQL，沿用实参对象和所有附加参数
+   * @param configuration 配置信息
+   * @param sql 新的SQL语句
+   * @param parameterMappings 新的参数映射列表
+   * @return 新的绑定SQL
+   */
+  public BoundSql copyWith(Configuration configuration, String sql, List<ParameterMapping> parameterMappings) {
+    BoundSql boundSql = new BoundSql(configuration, sql, parameterMappings, parameterObject);
+    boundSql.additionalParameters.putAll(additionalParameters);
+    return boundSql;
+  }
 }
@@ -19,5 +19,8 @@ package org.apache.ibatis.mapping;
  * @author Eduardo Macarron
  */
 public enum FetchType {
-  LAZY, EAGER, DEFAULT
+  LAZY, EAGER, DEFAULT,
+  // 批量加载：收集结果集中所有父对象的外键，按批次执行一次IN查询，再把子对象分配给各父对象
+  // 开启lazyLoadingEnabled时，批量加载推迟到首次访问属性时进行，并一同加载同一结果集中其他父对象的该属性
+  BATCH
 }
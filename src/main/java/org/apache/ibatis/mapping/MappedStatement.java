@@ -52,6 +52,8 @@ public final class MappedStatement {
   // 查询语句的完整包名加方法名，例如：com.github.yeecode.mybatisdemo.dao.UserMapper.addUser
   private String id;
   private Integer fetchSize;
+  // 游标在后台线程中预先读取并映射的对象数量（缓冲队列大小），为空表示不预读
+  private Integer prefetchSize;
   private Integer timeout;
   private StatementType statementType;
   private ResultSetType resultSetType;
@@ -132,6 +134,11 @@ public final class MappedStatement {
       return this;
     }
 
+    public Builder prefetchSize(Integer prefetchSize) {
+      mappedStatement.prefetchSize = prefetchSize;
+      return this;
+    }
+
     public Builder timeout(Integer timeout) {
       mappedStatement.timeout = timeout;
       return this;
@@ -244,6 +251,10 @@ public final class MappedStatement {
     return fetchSize;
   }
 
+  public Integer getPrefetchSize() {
+    return prefetchSize;
+  }
+
   public Integer getTimeout() {
     return timeout;
   }
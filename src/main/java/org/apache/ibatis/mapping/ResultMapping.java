@@ -45,6 +45,8 @@ public class ResultMapping {
   private String resultSet;
   private String foreignColumn;
   private boolean lazy;
+  // 是否批量加载嵌套查询的结果
+  private boolean batch;
 
   ResultMapping() {
   }
@@ -132,6 +134,11 @@ public class ResultMapping {
       return this;
     }
 
+    public Builder batch(boolean batch) {
+      resultMapping.batch = batch;
+      return this;
+    }
+
     public ResultMapping build() {
       // lock down collections
       resultMapping.flags = Collections.unmodifiableList(resultMapping.flags);
@@ -167,6 +174,15 @@ public class ResultMapping {
           throw new IllegalStateException("There should be the same number of columns and foreignColumns in property " + resultMapping.property);
         }
       }
+      if (resultMapping.batch) {
+        if (resultMapping.nestedQueryId == null) {
+          throw new IllegalStateException("Batch fetching requires a nested select in property " + resultMapping.property);
+        }
+        if (resultMapping.column == null || !resultMapping.composites.isEmpty()
+            || resultMapping.foreignColumn == null || resultMapping.foreignColumn.indexOf(',') > -1) {
+          throw new IllegalStateException("Batch fetching requires a single column and a single foreignColumn in property " + resultMapping.property);
+        }
+      }
     }
 
     private void resolveTypeHandler() {
@@ -251,6 +267,14 @@ public class ResultMapping {
     this.lazy = lazy;
   }
 
+  public boolean isBatch() {
+    return batch;
+  }
+
+  public void setBatch(boolean batch) {
+    this.batch = batch;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -298,6 +322,7 @@ public class ResultMapping {
     sb.append(", resultSet='").append(resultSet).append('\'');
     sb.append(", foreignColumn='").append(foreignColumn).append('\'');
     sb.append(", lazy=").append(lazy);
+    sb.append(", batch=").append(batch);
     sb.append('}');
     return sb.toString();
   }
@@ -15,6 +15,9 @@
  */
 package org.apache.ibatis.reflection;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
@@ -61,6 +64,8 @@ public class Reflector {
   private final Map<String, Class<?>> setTypes = new HashMap<>();
   // get方法输出类型。键为属性名，值为对应的该属性的set方法的类型（实际为set方法的返回值类型）
   private final Map<String, Class<?>> getTypes = new HashMap<>();
+  // 基本类型属性的set方法句柄。键为属性名，值为类型为(Object, 基本类型)void的方法句柄，调用时不必装箱
+  private final Map<String, MethodHandle> primitiveSetters = new HashMap<>();
   // 默认构造函数
   private Constructor<?> defaultConstructor;
   // 大小写无关的属性映射表。键为属性名全大写值，值为属性名
@@ -247,6 +252,9 @@ public class Reflector {
       setMethods.put(name, new MethodInvoker(method));
       Type[] paramTypes = TypeParameterResolver.resolveParamTypes(method, type);
       setTypes.put(name, typeToClass(paramTypes[0]));
+      if (method.getParameterTypes()[0].isPrimitive()) {
+        addPrimitiveSetter(name, method, null);
+      }
     }
   }
 
@@ -299,7 +307,43 @@ public class Reflector {
       setMethods.put(field.getName(), new SetFieldInvoker(field));
       Type fieldType = TypeParameterResolver.resolveFieldType(field, type);
       setTypes.put(field.getName(), typeToClass(fieldType));
+      if (field.getType().isPrimitive() && !Modifier.isFinal(field.getModifiers())) {
+        addPrimitiveSetter(field.getName(), null, field);
+      }
+    }
+  }
+
+  /**
+   * 为基本类型属性创建set方法句柄，无法访问时不创建，仍使用反射赋值
+   * @param name 属性名
+   * @param method set方法，直接给属性赋值时为null
+   * @param field 属性，使用set方法时为null
+   */
+  private void addPrimitiveSetter(String name, Method method, Field field) {
+    final Class<?> primitiveType = method != null ? method.getParameterTypes()[0] : field.getType();
+    MethodHandle handle;
+    try {
+      handle = unreflectSetter(method, field);
+    } catch (IllegalAccessException e) {
+      if (!canControlMemberAccessible()) {
+        return;
+      }
+      try {
+        if (method != null) {
+          method.setAccessible(true);
+        } else {
+          field.setAccessible(true);
+        }
+        handle = unreflectSetter(method, field);
+      } catch (IllegalAccessException | RuntimeException e2) {
+        return;
+      }
     }
+    primitiveSetters.put(name, handle.asType(MethodType.methodType(void.class, Object.class, primitiveType)));
+  }
+
+  private MethodHandle unreflectSetter(Method method, Field field) throws IllegalAccessException {
+    return method != null ? MethodHandles.lookup().unreflect(method) : MethodHandles.lookup().unreflectSetter(field);
   }
 
   // 设置getter方法，出参
@@ -420,6 +464,16 @@ public class Reflector {
     return method;
   }
 
+  /**
+   * 获取基本类型属性的set方法句柄
+   * 句柄类型为(Object, 基本类型)void，可以用invokeExact直接传入基本类型的值
+   * @param propertyName 属性名
+   * @return set方法句柄，属性不是基本类型或者无法访问时返回null
+   */
+  public MethodHandle getPrimitiveSetter(String propertyName) {
+    return primitiveSetters.get(propertyName);
+  }
+
   public Invoker getGetInvoker(String propertyName) {
     Invoker method = getMethods.get(propertyName);
     if (method == null) {
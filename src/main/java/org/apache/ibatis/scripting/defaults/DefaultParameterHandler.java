@@ -48,6 +48,8 @@ public class DefaultParameterHandler implements ParameterHandler {
   private final BoundSql boundSql;
   // 配置信息
   private final Configuration configuration;
+  // 参数对象的MetaObject，第一次读取属性时创建
+  private MetaObject metaObject;
 
   public DefaultParameterHandler(MappedStatement mappedStatement, Object parameterObject, BoundSql boundSql) {
     this.mappedStatement = mappedStatement;
@@ -76,22 +78,7 @@ public class DefaultParameterHandler implements ParameterHandler {
         ParameterMapping parameterMapping = parameterMappings.get(i);
         // ParameterMode.OUT是CallableStatement的输出参数，已经单独注册。故忽略
         if (parameterMapping.getMode() != ParameterMode.OUT) {
-          Object value;
-          // 取出属性名称
-          String propertyName = parameterMapping.getProperty();
-          if (boundSql.hasAdditionalParameter(propertyName)) {
-            // 从附加参数中读取属性值
-            value = boundSql.getAdditionalParameter(propertyName);
-          } else if (parameterObject == null) {
-            value = null;
-          } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
-            // 参数对象是基本类型，则参数对象即为参数值
-            value = parameterObject;
-          } else {
-            // 参数对象是复杂类型，取出参数对象的该属性值
-            MetaObject metaObject = configuration.newMetaObject(parameterObject);
-            value = metaObject.getValue(propertyName);
-          }
+          Object value = getParameterValue(parameterMapping);
           // 确定该参数的处理器
           TypeHandler typeHandler = parameterMapping.getTypeHandler();
           JdbcType jdbcType = parameterMapping.getJdbcType();
@@ -109,4 +96,29 @@ public class DefaultParameterHandler implements ParameterHandler {
     }
   }
 
+  /**
+   * 取出参数映射对应的参数值
+   * @param parameterMapping 参数映射
+   * @return 参数值
+   */
+  public Object getParameterValue(ParameterMapping parameterMapping) {
+    // 取出属性名称
+    String propertyName = parameterMapping.getProperty();
+    if (boundSql.hasAdditionalParameter(propertyName)) {
+      // 从附加参数中读取属性值
+      return boundSql.getAdditionalParameter(propertyName);
+    } else if (parameterObject == null) {
+      return null;
+    } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
+      // 参数对象是基本类型，则参数对象即为参数值
+      return parameterObject;
+    } else {
+      // 参数对象是复杂类型，取出参数对象的该属性值
+      if (metaObject == null) {
+        metaObject = configuration.newMetaObject(parameterObject);
+      }
+      return metaObject.getValue(propertyName);
+    }
+  }
+
 }
@@ -0,0 +1,110 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.ibatis.cursor.CursorPublisher;
+
+/**
+ * 异步的SqlSession
+ *
+ * 每个操作都在异步执行器中使用一个独立的SqlSession执行，执行成功后提交，因此各个操作之间可以并发，
+ * 但不处于同一个事务中。与SqlSession不同，该接口的实现是线程安全的。
+ * 通过getMapper得到的映射接口中，返回CompletableFuture的方法也会异步执行。
+ */
+public interface AsyncSqlSession {
+
+  <T> CompletableFuture<T> selectOne(String statement);
+
+  <T> CompletableFuture<T> selectOne(String statement, Object parameter);
+
+  <E> CompletableFuture<List<E>> selectList(String statement);
+
+  <E> CompletableFuture<List<E>> selectList(String statement, Object parameter);
+
+  <E> CompletableFuture<List<E>> selectList(String statement, Object parameter, RowBounds rowBounds);
+
+  <K, V> CompletableFuture<Map<K, V>> selectMap(String statement, Object parameter, String mapKey);
+
+  /**
+   * 在两个独立的会话中并行执行翻页查询和派生的计数查询
+   * @param statement 查询语句的id
+   * @param parameter 参数对象
+   * @param rowBounds 翻页限制
+   * @param <E> 元素类型
+   * @return 一页结果及总行数
+   */
+  <E> CompletableFuture<PagedList<E>> selectPagedList(String statement, Object parameter, RowBounds rowBounds);
+
+  /**
+   * 按订阅者的请求量逐条发布游标查询的结果
+   *
+   * 发布者在第一次请求数据时打开一个独立的SqlSession执行查询，在异步执行器中读取游标并推送对象，
+   * 读取完毕、出错或者取消订阅时关闭游标和该会话。
+   * @param statement 查询语句的id
+   * @param parameter 参数对象
+   * @param <T> 元素类型
+   * @return 发布者
+   */
+  <T> CursorPublisher<T> selectPublisher(String statement, Object parameter);
+
+  /**
+   * 按订阅者的请求量逐条发布游标查询的结果，参见{@link #selectPublisher(String, Object)}
+   * @param statement 查询语句的id
+   * @param parameter 参数对象
+   * @param rowBounds 翻页限制
+   * @param <T> 元素类型
+   * @return 发布者
+   */
+  <T> CursorPublisher<T> selectPublisher(String statement, Object parameter, RowBounds rowBounds);
+
+  CompletableFuture<Integer> insert(String statement, Object parameter);
+
+  CompletableFuture<Integer> update(String statement, Object parameter);
+
+  CompletableFuture<Integer> delete(String statement, Object parameter);
+
+  /**
+   * 在一个独立的SqlSession中异步执行一组操作，操作成功后提交事务
+   * @param action 要执行的操作
+   * @param <T> 结果类型
+   * @return 操作结果
+   */
+  <T> CompletableFuture<T> execute(Function<SqlSession, T> action);
+
+  /**
+   * 在一个独立的SqlSession中异步执行一组操作，操作成功后提交事务
+   *
+   * 从调用时起计算截止时间，会话中每条语句执行前都以剩余时间（至少1秒）作为JDBC查询超时，
+   * 因此超过截止时间的语句会由数据库驱动终止，而不是在后台继续占用连接。
+   * @param action 要执行的操作
+   * @param timeout 截止时间距当前的时长
+   * @param unit 时长的单位
+   * @param <T> 结果类型
+   * @return 操作结果
+   */
+  <T> CompletableFuture<T> execute(Function<SqlSession, T> action, long timeout, TimeUnit unit);
+
+  <T> T getMapper(Class<T> type);
+
+  Configuration getConfiguration();
+
+}
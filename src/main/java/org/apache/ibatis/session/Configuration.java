@@ -25,10 +25,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 
 import org.apache.ibatis.binding.MapperRegistry;
 import org.apache.ibatis.builder.CacheRefResolver;
+import org.apache.ibatis.builder.CountSqlSource;
 import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.builder.annotation.MethodResolver;
@@ -42,6 +47,8 @@ import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
+import org.apache.ibatis.dialect.Dialect;
+import org.apache.ibatis.dialect.DialectRegistry;
 import org.apache.ibatis.executor.BatchExecutor;
 import org.apache.ibatis.executor.CachingExecutor;
 import org.apache.ibatis.executor.Executor;
@@ -52,8 +59,13 @@ import org.apache.ibatis.executor.loader.ProxyFactory;
 import org.apache.ibatis.executor.loader.cglib.CglibProxyFactory;
 import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.resultset.BoundedPlanCache;
+import org.apache.ibatis.executor.resultset.ConstructorMappingPlan;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.executor.resultset.ResultSetColumns;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.resultset.RowMapper;
+import org.apache.ibatis.executor.resultset.UnMappedColumnAutoMapping;
 import org.apache.ibatis.executor.statement.RoutingStatementHandler;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.io.VFS;
@@ -138,6 +150,34 @@ public class Configuration {
   protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
   protected AutoMappingBehavior autoMappingBehavior = AutoMappingBehavior.PARTIAL;
   protected AutoMappingUnknownColumnBehavior autoMappingUnknownColumnBehavior = AutoMappingUnknownColumnBehavior.NONE;
+  // 批量执行器自动提交批次的行数阈值，为空表示不自动提交
+  protected Integer batchFlushSize;
+  // 批量执行器自动提交批次的内存阈值（估算的字节数），为空表示不自动提交
+  protected Long batchFlushBytes;
+  // 批量执行器是否为每个不同的INSERT语句保持各自的批次，避免交替执行的语句打断批次。会改变INSERT的执行顺序，默认关闭
+  protected boolean groupBatchStatements;
+  // 批量执行器将简单INSERT语句合并为多行VALUES时每条语句包含的行数，为空表示不合并
+  protected Integer batchInsertRowsPerStatement;
+  // 简单结果映射并行创建对象时每批的行数，为空表示不并行
+  protected Integer parallelRowMappingChunkSize;
+  // 是否将RowBounds翻页改写到SQL中由数据库完成
+  protected boolean rowBoundsPushdown;
+  // 翻页使用的方言，为空时根据databaseId从方言注册表中查找
+  protected Dialect dialect;
+  // 是否为简单结果映射生成直接调用setter的行映射器（需要javassist）
+  protected boolean useGeneratedRowMappers;
+  // 全局缓存的生成的行映射器的最大数量，不大于0时不缓存，超出时淘汰最久未使用的行映射器
+  protected int generatedRowMapperCacheSize = 1024;
+  // fetchType为batch的嵌套查询每次IN查询包含的外键个数
+  protected int batchFetchSize = 100;
+  // 全局缓存的自动映射计划的最大数量，不大于0时不缓存，超出时淘汰最久未使用的计划
+  protected int autoMappingPlanCacheSize = 1024;
+  // 全局缓存的结果集各列信息的最大数量，不大于0时不缓存，超出时淘汰最久未使用的条目
+  protected int resultSetColumnsCacheSize = 1024;
+  // 全局缓存的构造方法映射计划的最大数量，不大于0时不缓存，超出时淘汰最久未使用的计划
+  protected int constructorMappingPlanCacheSize = 1024;
+  // resultType为map时是否使用共享键索引的紧凑行Map
+  protected boolean compactMapRows;
   // 以上为<settings>节点中的配置信息
 
   // <properties>节点信息
@@ -166,10 +206,22 @@ public class Configuration {
   protected final TypeAliasRegistry typeAliasRegistry = new TypeAliasRegistry();
   // 语言驱动注册表
   protected final LanguageDriverRegistry languageRegistry = new LanguageDriverRegistry();
+  // 方言注册表
+  protected final DialectRegistry dialectRegistry = new DialectRegistry();
   // 映射的数据库操作语句
   protected final Map<String, MappedStatement> mappedStatements = new StrictMap<MappedStatement>("Mapped Statements collection")
       .conflictMessageProducer((savedValue, targetValue) ->
           ". please check " + savedValue.getResource() + " and " + targetValue.getResource());
+  // 生成的行映射器，键为结果映射的id与结果集的列
+  protected final BoundedPlanCache<RowMapper> generatedRowMapperCache = new BoundedPlanCache<>(generatedRowMapperCacheSize);
+  // 各结果集处理器共享的构造方法映射计划
+  protected final BoundedPlanCache<ConstructorMappingPlan> constructorMappingPlanCache = new BoundedPlanCache<>(constructorMappingPlanCacheSize);
+  // 各结果集处理器共享的自动映射计划
+  protected final BoundedPlanCache<List<UnMappedColumnAutoMapping>> autoMappingPlanCache = new BoundedPlanCache<>(autoMappingPlanCacheSize);
+  // 各语句结果集的列信息
+  protected final BoundedPlanCache<ResultSetColumns> resultSetColumnsCache = new BoundedPlanCache<>(resultSetColumnsCacheSize);
+  // 由查询语句派生出的计数语句，键为原查询语句的id
+  protected final Map<String, MappedStatement> countStatements = new ConcurrentHashMap<>();
   // 缓存
   protected final Map<String, Cache> caches = new StrictMap<>("Caches collection");
   // 结果映射，即所有的<resultMap>节点
@@ -192,6 +244,9 @@ public class Configuration {
   // 用来存储跨namespace的缓存共享设置
   protected final Map<String, String> cacheRefMap = new HashMap<>();
 
+  // 异步会话未指定执行器时以及游标预读使用的执行器
+  protected volatile java.util.concurrent.Executor asyncExecutor;
+
   public Configuration(Environment environment) {
     this();
     this.environment = environment;
@@ -466,6 +521,227 @@ public class Configuration {
     this.defaultResultSetType = defaultResultSetType;
   }
 
+  /**
+   * 批量执行器中累积的行数达到该值时，自动执行并释放当前批次
+   */
+  public Integer getBatchFlushSize() {
+    return batchFlushSize;
+  }
+
+  public void setBatchFlushSize(Integer batchFlushSize) {
+    this.batchFlushSize = batchFlushSize;
+  }
+
+  /**
+   * 批量执行器中累积的参数估算字节数达到该值时，自动执行并释放当前批次
+   */
+  public Long getBatchFlushBytes() {
+    return batchFlushBytes;
+  }
+
+  public void setBatchFlushBytes(Long batchFlushBytes) {
+    this.batchFlushBytes = batchFlushBytes;
+  }
+
+  /**
+   * 批量执行器是否为每个不同的INSERT语句（MappedStatement与SQL均相同）保持各自打开的批次，UPDATE、DELETE不参与分组。默认关闭。
+   *
+   * 开启后INSERT按语句分组执行，不再按调用顺序执行。例如依次插入A1、B1、A2时，A1与A2在同一个批次中先于B1执行，
+   * 如果A2通过外键引用B1，执行就会失败。只有同一批次中的INSERT之间没有依赖关系时才能开启。
+   */
+  public boolean isGroupBatchStatements() {
+    return groupBatchStatements;
+  }
+
+  public void setGroupBatchStatements(boolean groupBatchStatements) {
+    this.groupBatchStatements = groupBatchStatements;
+  }
+
+  /**
+   * 批量执行器将简单的 INSERT ... VALUES (...) 语句合并为多行VALUES时，每条语句最多包含的行数
+   */
+  public Integer getBatchInsertRowsPerStatement() {
+    return batchInsertRowsPerStatement;
+  }
+
+  public void setBatchInsertRowsPerStatement(Integer batchInsertRowsPerStatement) {
+    this.batchInsertRowsPerStatement = batchInsertRowsPerStatement;
+  }
+
+  /**
+   * 简单结果映射在ForkJoinPool中并行创建对象时，每批处理的行数
+   */
+  public Integer getParallelRowMappingChunkSize() {
+    return parallelRowMappingChunkSize;
+  }
+
+  public void setParallelRowMappingChunkSize(Integer parallelRowMappingChunkSize) {
+    this.parallelRowMappingChunkSize = parallelRowMappingChunkSize;
+  }
+
+  /**
+   * 是否将RowBounds翻页改写为数据库的分页SQL（如LIMIT/OFFSET），而不是在结果集中逐行跳过
+   */
+  public boolean isRowBoundsPushdown() {
+    return rowBoundsPushdown;
+  }
+
+  public void setRowBoundsPushdown(boolean rowBoundsPushdown) {
+    this.rowBoundsPushdown = rowBoundsPushdown;
+  }
+
+  public Dialect getDialect() {
+    return dialect;
+  }
+
+  public void setDialect(Dialect dialect) {
+    this.dialect = dialect;
+  }
+
+  public DialectRegistry getDialectRegistry() {
+    return dialectRegistry;
+  }
+
+  /**
+   * 获取当前数据库对应的方言。优先使用明确设置的方言，否则根据databaseId从方言注册表中查找
+   * @return 方言，没有对应的方言时返回null
+   */
+  public Dialect getCurrentDialect() {
+    return dialect != null ? dialect : dialectRegistry.getDialect(databaseId);
+  }
+
+  /**
+   * 是否使用javassist为简单结果映射生成行映射器，直接调用构造方法和setter、按列序号读取结果集，而不经过MetaObject
+   */
+  public boolean isUseGeneratedRowMappers() {
+    return useGeneratedRowMappers;
+  }
+
+  public void setUseGeneratedRowMappers(boolean useGeneratedRowMappers) {
+    this.useGeneratedRowMappers = useGeneratedRowMappers;
+  }
+
+  /**
+   * 获取全局缓存的生成的行映射器的最大数量。每个行映射器是一个生成的类，从缓存中淘汰后可以被卸载
+   */
+  public int getGeneratedRowMapperCacheSize() {
+    return generatedRowMapperCacheSize;
+  }
+
+  public void setGeneratedRowMapperCacheSize(int generatedRowMapperCacheSize) {
+    this.generatedRowMapperCacheSize = generatedRowMapperCacheSize;
+    generatedRowMapperCache.setMaxSize(generatedRowMapperCacheSize);
+  }
+
+  public BoundedPlanCache<RowMapper> getGeneratedRowMapperCache() {
+    return generatedRowMapperCache;
+  }
+
+  /**
+   * 获取批量加载时每次IN查询包含的外键个数，N个父对象共需执行ceil(N/batchFetchSize)次嵌套查询
+   */
+  public int getBatchFetchSize() {
+    return batchFetchSize;
+  }
+
+  public void setBatchFetchSize(int batchFetchSize) {
+    this.batchFetchSize = batchFetchSize;
+  }
+
+  /**
+   * 获取全局缓存的自动映射计划的最大数量。计划按结果映射、列名前缀和结果集的列缓存，同一语句再次执行时直接复用，超出上限时淘汰最久未使用的计划
+   */
+  public int getAutoMappingPlanCacheSize() {
+    return autoMappingPlanCacheSize;
+  }
+
+  public void setAutoMappingPlanCacheSize(int autoMappingPlanCacheSize) {
+    this.autoMappingPlanCacheSize = autoMappingPlanCacheSize;
+    autoMappingPlanCache.setMaxSize(autoMappingPlanCacheSize);
+  }
+
+  public BoundedPlanCache<List<UnMappedColumnAutoMapping>> getAutoMappingPlanCache() {
+    return autoMappingPlanCache;
+  }
+
+  /**
+   * 获取全局缓存的结果集各列信息的最大数量。列信息按语句和SQL缓存，再次执行时只核对列数和列名，不再读取各列的类型，超出上限时淘汰最久未使用的条目
+   */
+  public int getResultSetColumnsCacheSize() {
+    return resultSetColumnsCacheSize;
+  }
+
+  public void setResultSetColumnsCacheSize(int resultSetColumnsCacheSize) {
+    this.resultSetColumnsCacheSize = resultSetColumnsCacheSize;
+    resultSetColumnsCache.setMaxSize(resultSetColumnsCacheSize);
+  }
+
+  public BoundedPlanCache<ResultSetColumns> getResultSetColumnsCache() {
+    return resultSetColumnsCache;
+  }
+
+  /**
+   * 获取全局缓存的构造方法映射计划的最大数量。计划中预先确定了构造方法、各参数的列序号和类型处理器，同一语句再次执行时直接复用，超出上限时淘汰最久未使用的计划
+   */
+  public int getConstructorMappingPlanCacheSize() {
+    return constructorMappingPlanCacheSize;
+  }
+
+  public void setConstructorMappingPlanCacheSize(int constructorMappingPlanCacheSize) {
+    this.constructorMappingPlanCacheSize = constructorMappingPlanCacheSize;
+    constructorMappingPlanCache.setMaxSize(constructorMappingPlanCacheSize);
+  }
+
+  public BoundedPlanCache<ConstructorMappingPlan> getConstructorMappingPlanCache() {
+    return constructorMappingPlanCache;
+  }
+
+  /**
+   * resultType为map时是否使用CompactRowMap表示每一行。同一结果集的各行共享键索引，每行只保存一个值数组
+   */
+  public boolean isCompactMapRows() {
+    return compactMapRows;
+  }
+
+  public void setCompactMapRows(boolean compactMapRows) {
+    this.compactMapRows = compactMapRows;
+  }
+
+  /**
+   * 获取异步操作使用的执行器。未设置时，若运行环境支持虚拟线程则为每个任务创建一个虚拟线程，否则使用守护线程的缓存线程池
+   */
+  public java.util.concurrent.Executor getAsyncExecutor() {
+    java.util.concurrent.Executor executor = asyncExecutor;
+    if (executor == null) {
+      synchronized (this) {
+        executor = asyncExecutor;
+        if (executor == null) {
+          executor = createDefaultAsyncExecutor();
+          asyncExecutor = executor;
+        }
+      }
+    }
+    return executor;
+  }
+
+  public void setAsyncExecutor(java.util.concurrent.Executor asyncExecutor) {
+    this.asyncExecutor = asyncExecutor;
+  }
+
+  private static ExecutorService createDefaultAsyncExecutor() {
+    try {
+      // Java 21及以上版本支持虚拟线程
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      final AtomicInteger threadNumber = new AtomicInteger();
+      return Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "mybatis-async-" + threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
   public boolean isUseColumnLabel() {
     return useColumnLabel;
   }
@@ -791,9 +1067,22 @@ public class Configuration {
     if (validateIncompleteStatements) {
       buildAllStatements();
     }
+    if (id.endsWith(CountSqlSource.COUNT_SUFFIX) && !mappedStatements.containsKey(id)) {
+      // 派生的计数语句不注册到mappedStatements中，由原语句的编号查找
+      return getCountStatement(mappedStatements.get(id.substring(0, id.length() - CountSqlSource.COUNT_SUFFIX.length())));
+    }
     return mappedStatements.get(id);
   }
 
+  /**
+   * 获取查询语句对应的计数语句（SELECT COUNT(*)），第一次获取时派生并缓存
+   * @param ms 查询语句
+   * @return 计数语句
+   */
+  public MappedStatement getCountStatement(MappedStatement ms) {
+    return countStatements.computeIfAbsent(ms.getId(), id -> CountSqlSource.buildCountStatement(ms));
+  }
+
   public Map<String, XNode> getSqlFragments() {
     return sqlFragments;
   }
@@ -0,0 +1,95 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.ibatis.reflection.MetaObject;
+
+/**
+ * 键集翻页的一页结果，包含本页的对象以及最后一个对象的排序键，用于读取下一页
+ *
+ * @param <T> 元素类型
+ */
+public class Page<T> implements Iterable<T> {
+
+  // 本页的对象
+  private final List<T> items;
+  // 本页最后一个对象的排序键，本页为空时为null
+  private final Object[] lastKey;
+  // 是否还有下一页
+  private final boolean hasNext;
+  // 本页使用的翻页限制条件
+  private final SeekBounds seekBounds;
+
+  public Page(List<T> items, Object[] lastKey, boolean hasNext, SeekBounds seekBounds) {
+    this.items = items;
+    this.lastKey = lastKey;
+    this.hasNext = hasNext;
+    this.seekBounds = seekBounds;
+  }
+
+  /**
+   * 根据查询结果生成一页结果，从最后一个对象中读取排序键
+   * @param configuration 配置信息
+   * @param rows 查询结果，最多比每页的行数多一行
+   * @param seekBounds 本页使用的翻页限制条件
+   * @param <E> 元素类型
+   * @return 一页结果
+   */
+  static <E> Page<E> fromRows(Configuration configuration, List<E> rows, SeekBounds seekBounds) {
+    int pageSize = seekBounds.getPageSize();
+    boolean hasNext = rows.size() > pageSize;
+    List<E> items = hasNext ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+    Object[] lastKey = null;
+    if (!items.isEmpty()) {
+      List<SeekBounds.SeekKey> keys = seekBounds.getKeys();
+      MetaObject metaObject = configuration.newMetaObject(items.get(items.size() - 1));
+      lastKey = new Object[keys.size()];
+      for (int i = 0; i < lastKey.length; i++) {
+        lastKey[i] = metaObject.getValue(keys.get(i).getProperty());
+      }
+    }
+    return new Page<>(items, lastKey, hasNext, seekBounds);
+  }
+
+  public List<T> getItems() {
+    return items;
+  }
+
+  public Object[] getLastKey() {
+    return lastKey == null ? null : lastKey.clone();
+  }
+
+  public boolean hasNext() {
+    return hasNext;
+  }
+
+  /**
+   * 获取读取下一页的翻页限制条件
+   * @return 下一页的翻页限制条件，没有下一页时返回null
+   */
+  public SeekBounds nextBounds() {
+    return hasNext ? seekBounds.after(lastKey) : null;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return items.iterator();
+  }
+}
@@ -0,0 +1,80 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 按偏移量翻页的一页结果，同时包含满足条件的总行数
+ *
+ * @param <E> 元素类型
+ */
+public class PagedList<E> implements Iterable<E> {
+
+  // 本页的对象
+  private final List<E> items;
+  // 满足条件的总行数
+  private final long total;
+  // 本页使用的翻页限制
+  private final RowBounds rowBounds;
+
+  public PagedList(List<E> items, long total, RowBounds rowBounds) {
+    this.items = items;
+    this.total = total;
+    this.rowBounds = rowBounds;
+  }
+
+  /**
+   * 判断是否需要执行计数语句。本页未满时，总行数就是偏移量加上本页的行数，无需计数；
+   * 但偏移量超出总行数时本页为空，无法算出总行数
+   * @param pageSize 本页实际读到的行数
+   * @param rowBounds 本页使用的翻页限制
+   * @return 是否需要计数
+   */
+  public static boolean isCountRequired(int pageSize, RowBounds rowBounds) {
+    return pageSize >= rowBounds.getLimit() || (pageSize == 0 && rowBounds.getOffset() != RowBounds.NO_ROW_OFFSET);
+  }
+
+  public List<E> getItems() {
+    return items;
+  }
+
+  public long getTotal() {
+    return total;
+  }
+
+  public int getOffset() {
+    return rowBounds.getOffset();
+  }
+
+  public int getLimit() {
+    return rowBounds.getLimit();
+  }
+
+  /**
+   * 本页之后是否还有数据
+   * @return 是否还有数据
+   */
+  public boolean hasNext() {
+    return (long) rowBounds.getOffset() + items.size() < total;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return items.iterator();
+  }
+}
@@ -0,0 +1,145 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 一组互不依赖的查询，它们在各自的会话（即各自的连接）中并发执行，总耗时约为其中最慢的一条查询
+ *
+ * <pre>
+ * Map&lt;String, Object&gt; results = sqlSessionFactory.selectParallel(new ParallelQuery()
+ *     .selectList("orders", "OrderMapper.selectRecent", userId)
+ *     .selectOne("unread", "MessageMapper.countUnread", userId), 2, TimeUnit.SECONDS);
+ * </pre>
+ */
+public class ParallelQuery {
+
+  // 以结果名称为键的查询
+  private final Map<String, Query> queries = new LinkedHashMap<>();
+
+  private static class Query {
+    private final String statement;
+    private final Object parameter;
+    private final boolean single;
+
+    Query(String statement, Object parameter, boolean single) {
+      this.statement = statement;
+      this.parameter = parameter;
+      this.single = single;
+    }
+
+    Object select(SqlSession sqlSession) {
+      // 分开调用，避免selectOne的结果类型被推断为List
+      if (single) {
+        return sqlSession.selectOne(statement, parameter);
+      }
+      return sqlSession.selectList(statement, parameter);
+    }
+  }
+
+  /**
+   * 添加一个返回单个结果的查询
+   * @param key 结果名称
+   * @param statement 语句编号
+   * @param parameter 参数对象
+   * @return 当前对象
+   */
+  public ParallelQuery selectOne(String key, String statement, Object parameter) {
+    return add(key, new Query(statement, parameter, true));
+  }
+
+  /**
+   * 添加一个返回结果列表的查询
+   * @param key 结果名称
+   * @param statement 语句编号
+   * @param parameter 参数对象
+   * @return 当前对象
+   */
+  public ParallelQuery selectList(String key, String statement, Object parameter) {
+    return add(key, new Query(statement, parameter, false));
+  }
+
+  private ParallelQuery add(String key, Query query) {
+    if (queries.containsKey(key)) {
+      throw new IllegalArgumentException("Duplicate parallel query key '" + key + "'");
+    }
+    queries.put(key, query);
+    return this;
+  }
+
+  public int size() {
+    return queries.size();
+  }
+
+  /**
+   * 并发执行所有查询，并在共同的截止时间内等待全部结果
+   *
+   * 每条查询的会话都以共同截止时间的剩余时间作为语句的查询超时，超时的语句由数据库驱动终止。
+   * 任何一条查询失败或超时后，其余尚未完成的查询不再等待，尚未开始的查询被取消。
+   * @param asyncSqlSession 异步会话
+   * @param timeout 等待时间
+   * @param unit 等待时间的单位
+   * @return 以结果名称为键的结果，顺序与添加查询的顺序一致
+   */
+  public Map<String, Object> execute(AsyncSqlSession asyncSqlSession, long timeout, TimeUnit unit) {
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    final List<CompletableFuture<?>> futures = new ArrayList<>(queries.size());
+    for (Query query : queries.values()) {
+      long remaining = deadline - System.nanoTime();
+      futures.add(asyncSqlSession.execute(query::select, remaining, TimeUnit.NANOSECONDS));
+    }
+    final Map<String, Object> results = new LinkedHashMap<>();
+    int index = 0;
+    String key = null;
+    try {
+      for (String queryKey : queries.keySet()) {
+        key = queryKey;
+        long remaining = deadline - System.nanoTime();
+        results.put(key, futures.get(index++).get(Math.max(0, remaining), TimeUnit.NANOSECONDS));
+      }
+    } catch (TimeoutException e) {
+      cancel(futures);
+      throw new SqlSessionException("Parallel query '" + key + "' did not complete within " + timeout + " " + unit, e);
+    } catch (ExecutionException e) {
+      cancel(futures);
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new SqlSessionException("Parallel query '" + key + "' failed.  Cause: " + e.getCause(), e.getCause());
+    } catch (InterruptedException e) {
+      cancel(futures);
+      Thread.currentThread().interrupt();
+      throw new SqlSessionException("Interrupted while waiting for parallel query '" + key + "'", e);
+    }
+    return Collections.unmodifiableMap(results);
+  }
+
+  private void cancel(List<CompletableFuture<?>> futures) {
+    for (CompletableFuture<?> future : futures) {
+      future.cancel(false);
+    }
+  }
+
+}
@@ -0,0 +1,157 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 键集翻页（seek翻页）的限制条件。与RowBounds按偏移量翻页不同，它记录上一页最后一行的排序键，
+ * 下一页从该键之后开始读取，因此无论翻到第几页，数据库的查询代价都相同。
+ *
+ * 排序键必须能唯一确定一行（通常以主键作为最后一个排序键），且不能为null。
+ * 排序键的列名用于原查询的WHERE和ORDER BY子句，可以带有表的别名（如u.id），去掉别名后必须与结果映射中的列一致；
+ * 属性名用于从映射出的结果对象中读取键值。
+ *
+ * 作为RowBounds使用时，限制的行数为每页行数加一，多读的一行用于判断是否还有下一页。
+ */
+public class SeekBounds extends RowBounds {
+
+  // 每页的行数
+  private final int pageSize;
+  // 排序键
+  private final List<SeekKey> keys;
+  // 上一页最后一行的键值，为null表示第一页
+  private final Object[] lastKey;
+
+  public SeekBounds(int limit) {
+    this(limit, Collections.emptyList(), null);
+  }
+
+  private SeekBounds(int pageSize, List<SeekKey> keys, Object[] lastKey) {
+    super(NO_ROW_OFFSET, fetchSize(pageSize));
+    this.pageSize = pageSize;
+    this.keys = keys;
+    this.lastKey = lastKey;
+  }
+
+  /**
+   * 增加一个升序的排序键
+   * @param column 列名
+   * @param property 结果对象中的属性名
+   * @return 新的翻页限制条件
+   */
+  public SeekBounds orderBy(String column, String property) {
+    return addKey(new SeekKey(column, property, false));
+  }
+
+  /**
+   * 增加一个降序的排序键
+   * @param column 列名
+   * @param property 结果对象中的属性名
+   * @return 新的翻页限制条件
+   */
+  public SeekBounds orderByDescending(String column, String property) {
+    return addKey(new SeekKey(column, property, true));
+  }
+
+  private SeekBounds addKey(SeekKey key) {
+    List<SeekKey> newKeys = new ArrayList<>(keys);
+    newKeys.add(key);
+    return new SeekBounds(pageSize, Collections.unmodifiableList(newKeys), null);
+  }
+
+  /**
+   * 从给定的键值之后开始读取
+   * @param lastKey 上一页最后一行的键值，与排序键一一对应
+   * @return 新的翻页限制条件
+   */
+  public SeekBounds after(Object... lastKey) {
+    if (lastKey == null || lastKey.length != keys.size()) {
+      throw new IllegalArgumentException("Expected " + keys.size() + " key values but got " + (lastKey == null ? 0 : lastKey.length));
+    }
+    return new SeekBounds(pageSize, keys, lastKey.clone());
+  }
+
+  private static int fetchSize(int pageSize) {
+    if (pageSize <= 0 || pageSize == NO_ROW_LIMIT) {
+      throw new IllegalArgumentException("The page size must be positive and less than " + NO_ROW_LIMIT + " but was " + pageSize);
+    }
+    return pageSize + 1;
+  }
+
+  /**
+   * 获取每页的行数
+   * @return 每页的行数
+   */
+  public int getPageSize() {
+    return pageSize;
+  }
+
+  public List<SeekKey> getKeys() {
+    return keys;
+  }
+
+  public Object[] getLastKey() {
+    return lastKey == null ? null : lastKey.clone();
+  }
+
+  public boolean isFirstPage() {
+    return lastKey == null;
+  }
+
+  @Override
+  public String toString() {
+    return "SeekBounds{pageSize=" + pageSize + ", keys=" + keys + ", lastKey=" + Arrays.toString(lastKey) + "}";
+  }
+
+  /**
+   * 排序键
+   */
+  public static final class SeekKey {
+    private final String column;
+    private final String property;
+    private final boolean descending;
+
+    SeekKey(String column, String property, boolean descending) {
+      if (column == null || property == null) {
+        throw new IllegalArgumentException("Both column and property of a seek key are required.");
+      }
+      this.column = column;
+      this.property = property;
+      this.descending = descending;
+    }
+
+    public String getColumn() {
+      return column;
+    }
+
+    public String getProperty() {
+      return property;
+    }
+
+    public boolean isDescending() {
+      return descending;
+    }
+
+    @Override
+    public String toString() {
+      return column + (descending ? " DESC" : " ASC");
+    }
+  }
+}
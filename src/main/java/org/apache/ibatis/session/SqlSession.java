@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.builder.CountSqlSource;
 import org.apache.ibatis.executor.BatchResult;
 
 /**
@@ -143,6 +144,50 @@ public interface SqlSession extends Closeable {
    */
   <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds);
 
+  /**
+   * Retrieve one page of mapped objects using keyset (seek) pagination.
+   * A predicate on the order by keys of the previous page and an ORDER BY on the keys are added to the statement,
+   * so every page costs the same regardless of its depth. The statement runs through {@link #selectList(String, Object, RowBounds)}
+   * with the seek bounds, and the executor rewrites it.
+   * @param <E> the returned page element type
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @param seekBounds Page size, order by keys and the last key of the previous page
+   * @return Page of mapped objects with the key to continue from
+   */
+  default <E> Page<E> selectPage(String statement, Object parameter, SeekBounds seekBounds) {
+    List<E> rows = selectList(statement, parameter, seekBounds);
+    return Page.fromRows(getConfiguration(), rows, seekBounds);
+  }
+
+  /**
+   * Count the rows the statement would return, using a COUNT(*) statement derived from it once and cached.
+   * The trailing ORDER BY clause of the statement is dropped and the rest is wrapped in a sub query.
+   * The count statement is looked up by the statement id followed by {@code !count}.
+   * @param statement Unique identifier matching the select statement to count.
+   * @param parameter A parameter object to pass to the statement.
+   * @return The number of rows
+   */
+  default long selectCount(String statement, Object parameter) {
+    Long count = selectOne(statement + CountSqlSource.COUNT_SUFFIX, parameter);
+    return count == null ? 0 : count;
+  }
+
+  /**
+   * Retrieve a page of mapped objects together with the total number of rows, counted with a derived COUNT(*) statement.
+   * @param <E> the returned list element type
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @param rowBounds  Bounds of the page
+   * @return Page of mapped objects with the total row count
+   */
+  default <E> PagedList<E> selectPagedList(String statement, Object parameter, RowBounds rowBounds) {
+    List<E> items = selectList(statement, parameter, rowBounds);
+    long total = PagedList.isCountRequired(items.size(), rowBounds)
+        ? selectCount(statement, parameter) : (long) rowBounds.getOffset() + items.size();
+    return new PagedList<>(items, total, rowBounds);
+  }
+
   /**
    * Retrieve a single row mapped from the statement key and parameter
    * using a {@code ResultHandler}.
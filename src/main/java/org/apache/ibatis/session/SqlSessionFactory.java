@@ -16,6 +16,11 @@
 package org.apache.ibatis.session;
 
 import java.sql.Connection;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.session.defaults.DefaultAsyncSqlSession;
 
 /**
  * Creates an {@link SqlSession} out of a connection or a DataSource
@@ -42,4 +47,32 @@ public interface SqlSessionFactory {
 
   Configuration getConfiguration();
 
+  /**
+   * 打开一个异步会话，使用Configuration中配置的异步执行器
+   * @return 异步会话
+   */
+  default AsyncSqlSession openAsyncSession() {
+    return openAsyncSession(getConfiguration().getAsyncExecutor());
+  }
+
+  /**
+   * 打开一个异步会话
+   * @param asyncExecutor 执行数据库操作的异步执行器
+   * @return 异步会话
+   */
+  default AsyncSqlSession openAsyncSession(Executor asyncExecutor) {
+    return new DefaultAsyncSqlSession(this, asyncExecutor);
+  }
+
+  /**
+   * 在各自的会话中并发执行一组互不依赖的查询
+   * @param query 查询
+   * @param timeout 所有查询共同的等待时间
+   * @param unit 等待时间的单位
+   * @return 以结果名称为键的结果
+   */
+  default Map<String, Object> selectParallel(ParallelQuery query, long timeout, TimeUnit unit) {
+    return query.execute(openAsyncSession(), timeout, unit);
+  }
+
 }
@@ -0,0 +1,273 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session.defaults;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.ibatis.cursor.CursorPublisher;
+import org.apache.ibatis.exceptions.ExceptionFactory;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.session.AsyncSqlSession;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.PagedList;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionManager;
+import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.transaction.TransactionFactory;
+import org.apache.ibatis.transaction.managed.ManagedTransactionFactory;
+
+/**
+ * The default implementation for {@link AsyncSqlSession}.
+ *
+ * 借助SqlSessionManager在没有托管会话时为每次调用打开独立会话的特性，在异步执行器的线程中完成各个操作
+ */
+public class DefaultAsyncSqlSession implements AsyncSqlSession {
+
+  private final SqlSessionFactory sqlSessionFactory;
+  // 为每次调用打开独立会话的SqlSession
+  private final SqlSessionManager sqlSessionManager;
+  // 执行数据库操作的异步执行器
+  private final Executor asyncExecutor;
+
+  public DefaultAsyncSqlSession(SqlSessionFactory sqlSessionFactory, Executor asyncExecutor) {
+    this.sqlSessionFactory = sqlSessionFactory;
+    this.sqlSessionManager = SqlSessionManager.newInstance(sqlSessionFactory);
+    this.asyncExecutor = asyncExecutor;
+  }
+
+  @Override
+  public <T> CompletableFuture<T> selectOne(String statement) {
+    return selectOne(statement, null);
+  }
+
+  @Override
+  public <T> CompletableFuture<T> selectOne(String statement, Object parameter) {
+    return CompletableFuture.supplyAsync(() -> sqlSessionManager.selectOne(statement, parameter), asyncExecutor);
+  }
+
+  @Override
+  public <E> CompletableFuture<List<E>> selectList(String statement) {
+    return selectList(statement, null);
+  }
+
+  @Override
+  public <E> CompletableFuture<List<E>> selectList(String statement, Object parameter) {
+    return selectList(statement, parameter, RowBounds.DEFAULT);
+  }
+
+  @Override
+  public <E> CompletableFuture<List<E>> selectList(String statement, Object parameter, RowBounds rowBounds) {
+    return CompletableFuture.supplyAsync(() -> sqlSessionManager.selectList(statement, parameter, rowBounds), asyncExecutor);
+  }
+
+  @Override
+  public <K, V> CompletableFuture<Map<K, V>> selectMap(String statement, Object parameter, String mapKey) {
+    return CompletableFuture.supplyAsync(() -> sqlSessionManager.selectMap(statement, parameter, mapKey), asyncExecutor);
+  }
+
+  @Override
+  public <E> CompletableFuture<PagedList<E>> selectPagedList(String statement, Object parameter, RowBounds rowBounds) {
+    // 与同步的查询一样，只有本页已满时才需要计数
+    return this.<E>selectList(statement, parameter, rowBounds).thenCompose(items -> {
+      if (!PagedList.isCountRequired(items.size(), rowBounds)) {
+        return CompletableFuture.completedFuture(new PagedList<>(items, (long) rowBounds.getOffset() + items.size(), rowBounds));
+      }
+      return CompletableFuture.supplyAsync(() -> new PagedList<>(items, sqlSessionManager.selectCount(statement, parameter), rowBounds), asyncExecutor);
+    });
+  }
+
+  @Override
+  public <T> CursorPublisher<T> selectPublisher(String statement, Object parameter) {
+    return selectPublisher(statement, parameter, RowBounds.DEFAULT);
+  }
+
+  @Override
+  public <T> CursorPublisher<T> selectPublisher(String statement, Object parameter, RowBounds rowBounds) {
+    return new CursorPublisher<>(sqlSessionFactory::openSession,
+        (SqlSession sqlSession) -> sqlSession.<T>selectCursor(statement, parameter, rowBounds), asyncExecutor);
+  }
+
+  @Override
+  public CompletableFuture<Integer> insert(String statement, Object parameter) {
+    return CompletableFuture.supplyAsync(() -> sqlSessionManager.insert(statement, parameter), asyncExecutor);
+  }
+
+  @Override
+  public CompletableFuture<Integer> update(String statement, Object parameter) {
+    return CompletableFuture.supplyAsync(() -> sqlSessionManager.update(statement, parameter), asyncExecutor);
+  }
+
+  @Override
+  public CompletableFuture<Integer> delete(String statement, Object parameter) {
+    return CompletableFuture.supplyAsync(() -> sqlSessionManager.delete(statement, parameter), asyncExecutor);
+  }
+
+  @Override
+  public <T> CompletableFuture<T> execute(Function<SqlSession, T> action) {
+    return CompletableFuture.supplyAsync(() -> {
+      try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        T result = action.apply(sqlSession);
+        sqlSession.commit();
+        return result;
+      }
+    }, asyncExecutor);
+  }
+
+  @Override
+  public <T> CompletableFuture<T> execute(Function<SqlSession, T> action, long timeout, TimeUnit unit) {
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    return CompletableFuture.supplyAsync(() -> {
+      try (SqlSession sqlSession = openSession(deadline)) {
+        T result = action.apply(sqlSession);
+        sqlSession.commit();
+        return result;
+      }
+    }, asyncExecutor);
+  }
+
+  /**
+   * 打开一个会话，其事务以截止时间的剩余时间作为超时时间
+   *
+   * 执行器在准备每条语句时都会以事务的超时时间限制语句的查询超时。
+   * @param deadline 截止时间，System.nanoTime()的取值
+   * @return 会话
+   */
+  private SqlSession openSession(long deadline) {
+    final Configuration configuration = getConfiguration();
+    Transaction tx = null;
+    try {
+      final Environment environment = configuration.getEnvironment();
+      final TransactionFactory transactionFactory = environment.getTransactionFactory() == null
+          ? new ManagedTransactionFactory() : environment.getTransactionFactory();
+      tx = new DeadlineTransaction(transactionFactory.newTransaction(environment.getDataSource(), null, false), deadline);
+      final org.apache.ibatis.executor.Executor executor = configuration.newExecutor(tx, configuration.getDefaultExecutorType());
+      return new DefaultSqlSession(configuration, executor, false);
+    } catch (Exception e) {
+      if (tx != null) {
+        try {
+          tx.close();
+        } catch (SQLException ignore) {
+          // Intentionally ignore. Prefer previous error.
+        }
+      }
+      throw ExceptionFactory.wrapException("Error opening session.  Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().reset();
+    }
+  }
+
+  /**
+   * 以截止时间的剩余秒数作为超时时间的事务，其余操作交给被包装的事务
+   */
+  private static class DeadlineTransaction implements Transaction {
+    private final Transaction delegate;
+    // 截止时间，System.nanoTime()的取值
+    private final long deadline;
+
+    DeadlineTransaction(Transaction delegate, long deadline) {
+      this.delegate = delegate;
+      this.deadline = deadline;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      return delegate.getConnection();
+    }
+
+    @Override
+    public void commit() throws SQLException {
+      delegate.commit();
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+      delegate.rollback();
+    }
+
+    @Override
+    public void close() throws SQLException {
+      delegate.close();
+    }
+
+    @Override
+    public Integer getTimeout() throws SQLException {
+      // JDBC的查询超时以秒为单位，向上取整且至少为1秒，0表示不限制因此不能使用
+      long remaining = TimeUnit.NANOSECONDS.toSeconds(deadline - System.nanoTime() + TimeUnit.SECONDS.toNanos(1) - 1);
+      int timeout = (int) Math.max(1, Math.min(Integer.MAX_VALUE, remaining));
+      Integer delegateTimeout = delegate.getTimeout();
+      return delegateTimeout != null && delegateTimeout > 0 && delegateTimeout < timeout ? delegateTimeout : timeout;
+    }
+  }
+
+  /**
+   * 获取映射接口的实现
+   *
+   * 返回CompletableFuture的方法在本会话的异步执行器中调用，其余方法直接在当前线程中调用。
+   * 底层的映射由SqlSessionManager创建，每次调用都会打开独立的会话。
+   * @param type 映射接口
+   * @param <T> 映射接口的类型
+   * @return 映射接口的实现
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T getMapper(Class<T> type) {
+    final T mapper = sqlSessionManager.getMapper(type);
+    return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+      if (CompletableFuture.class.equals(method.getReturnType())) {
+        // 底层映射在调用线程中执行并返回已完成的CompletableFuture，这里将其移到异步执行器中
+        return CompletableFuture.supplyAsync(() -> (CompletableFuture<Object>) invokeMapper(mapper, method, args), asyncExecutor)
+            .thenCompose(future -> future);
+      }
+      return invokeMapper(mapper, method, args);
+    });
+  }
+
+  private static Object invokeMapper(Object mapper, Method method, Object[] args) {
+    try {
+      return method.invoke(mapper, args);
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      Throwable cause = ExceptionUtil.unwrapThrowable(e);
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new UndeclaredThrowableException(cause);
+    }
+  }
+
+  @Override
+  public Configuration getConfiguration() {
+    return sqlSessionFactory.getConfiguration();
+  }
+
+}
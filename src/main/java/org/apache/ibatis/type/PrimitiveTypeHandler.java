@@ -0,0 +1,73 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 能够以基本类型读取结果的类型处理器
+ *
+ * 结果要设置到基本类型的属性上时，可以先调用与getPrimitiveType()对应的getXxx方法取得基本类型的值，
+ * 再调用wasNull判断是否为null，整个过程不产生包装类对象。
+ * 各getXxx方法默认直接调用ResultSet中对应的方法读取，实现类只在需要转换时覆盖与getPrimitiveType()对应的方法。
+ */
+public interface PrimitiveTypeHandler {
+
+  /**
+   * 获取能够读取的基本类型
+   * @return 基本类型，如int.class
+   */
+  Class<?> getPrimitiveType();
+
+  default boolean getBoolean(ResultSet rs, int columnIndex) throws SQLException {
+    return rs.getBoolean(columnIndex);
+  }
+
+  default byte getByte(ResultSet rs, int columnIndex) throws SQLException {
+    return rs.getByte(columnIndex);
+  }
+
+  default short getShort(ResultSet rs, int columnIndex) throws SQLException {
+    return rs.getShort(columnIndex);
+  }
+
+  default int getInt(ResultSet rs, int columnIndex) throws SQLException {
+    return rs.getInt(columnIndex);
+  }
+
+  default long getLong(ResultSet rs, int columnIndex) throws SQLException {
+    return rs.getLong(columnIndex);
+  }
+
+  default float getFloat(ResultSet rs, int columnIndex) throws SQLException {
+    return rs.getFloat(columnIndex);
+  }
+
+  default double getDouble(ResultSet rs, int columnIndex) throws SQLException {
+    return rs.getDouble(columnIndex);
+  }
+
+  /**
+   * 判断上一次读取的值是否为null
+   * @param rs 结果集
+   * @return 上一次读取的值是否为null
+   * @throws SQLException
+   */
+  default boolean wasNull(ResultSet rs) throws SQLException {
+    return rs.wasNull();
+  }
+}
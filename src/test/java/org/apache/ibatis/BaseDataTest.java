@@ -0,0 +1,47 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+
+public abstract class BaseDataTest {
+
+  public static void runScript(DataSource ds, String resource) throws IOException, SQLException {
+    try (Connection connection = ds.getConnection()) {
+      ScriptRunner runner = new ScriptRunner(connection);
+      runner.setAutoCommit(true);
+      runner.setStopOnError(false);
+      runner.setLogWriter(null);
+      runner.setErrorLogWriter(null);
+      runScript(runner, resource);
+    }
+  }
+
+  public static void runScript(ScriptRunner runner, String resource) throws IOException, SQLException {
+    try (Reader reader = Resources.getResourceAsReader(resource)) {
+      runner.runScript(reader);
+    }
+  }
+
+}
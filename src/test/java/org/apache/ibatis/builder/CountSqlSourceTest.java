@@ -0,0 +1,54 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Collections;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class CountSqlSourceTest {
+
+  @Test
+  void shouldRemoveTheTrailingOrderBy() {
+    assertEquals("select * from t ", CountSqlSource.removeOrderBy("select * from t order by a, b desc"));
+    assertEquals("select * from (select a from t order by a) x ", CountSqlSource.removeOrderBy("select * from (select a from t order by a) x ORDER\n BY a"));
+  }
+
+  @Test
+  void shouldKeepOrderByThatCannotBeRemoved() {
+    assertEquals("select * from t order by abs(a - ?)", CountSqlSource.removeOrderBy("select * from t order by abs(a - ?)"));
+    assertEquals("select * from t order by a limit 10", CountSqlSource.removeOrderBy("select * from t order by a limit 10"));
+    assertEquals("select * from t order by a offset 5 rows", CountSqlSource.removeOrderBy("select * from t order by a offset 5 rows"));
+    assertEquals("select 'order by' from t", CountSqlSource.removeOrderBy("select 'order by' from t"));
+    assertEquals("select * from (select a from t order by a) x", CountSqlSource.removeOrderBy("select * from (select a from t order by a) x"));
+  }
+
+  @Test
+  void shouldWrapTheQueryAndReuseTheConversion() {
+    Configuration configuration = new Configuration();
+    CountSqlSource sqlSource = new CountSqlSource(configuration,
+        new StaticSqlSource(configuration, "select * from t where a = ? order by a", Collections.emptyList()));
+    BoundSql first = sqlSource.getBoundSql(null);
+    assertEquals("SELECT COUNT(*) FROM (select * from t where a = ? ) count_", first.getSql());
+    assertSame(first.getSql(), sqlSource.getBoundSql(null).getSql());
+  }
+
+}
@@ -0,0 +1,156 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PreparedStatementCacheTest {
+
+  private static final String SELECT_NAME = "select name from users where id = ?";
+  private static final String SELECT_IDS = "select id from users order by id";
+
+  private PooledDataSource dataSource;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    dataSource = new PooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:statement_cache", "sa", "");
+    dataSource.setPoolMaximumActiveConnections(1);
+    try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("drop table users if exists");
+      statement.execute("create table users (id int primary key, name varchar(20))");
+      statement.execute("insert into users (id, name) values (1, 'User1'), (2, 'User2'), (3, 'User3')");
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    dataSource.forceCloseAll();
+  }
+
+  @Test
+  void shouldReuseStatementsAcrossCheckouts() throws SQLException {
+    dataSource.setPoolPreparedStatementCacheSize(10);
+    assertEquals("User1", selectName(1));
+    assertEquals("User2", selectName(2));
+    assertEquals("User3", selectName(3));
+    PoolState state = dataSource.getPoolState();
+    assertEquals(1, state.getStatementCacheMissCount());
+    assertEquals(2, state.getStatementCacheHitCount());
+  }
+
+  @Test
+  void shouldNotCacheStatementsWhenTheCacheIsOff() throws SQLException {
+    assertEquals("User1", selectName(1));
+    assertEquals("User2", selectName(2));
+    PoolState state = dataSource.getPoolState();
+    assertEquals(0, state.getStatementCacheMissCount());
+    assertEquals(0, state.getStatementCacheHitCount());
+  }
+
+  @Test
+  void shouldEvictTheLeastRecentlyUsedStatement() throws SQLException {
+    dataSource.setPoolPreparedStatementCacheSize(1);
+    selectName(1);
+    countIds(0);
+    selectName(2);
+    PoolState state = dataSource.getPoolState();
+    assertEquals(3, state.getStatementCacheMissCount());
+    assertEquals(2, state.getStatementCacheEvictionCount());
+  }
+
+  @Test
+  void shouldResetStatementSettingsBeforeReuse() throws SQLException {
+    dataSource.setPoolPreparedStatementCacheSize(10);
+    assertEquals(1, countIds(1));
+    assertEquals(3, countIds(0));
+    assertEquals(1, dataSource.getPoolState().getStatementCacheHitCount());
+  }
+
+  @Test
+  void shouldPrepareAnotherStatementWhileTheCachedOneIsInUse() throws SQLException {
+    dataSource.setPoolPreparedStatementCacheSize(10);
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement first = connection.prepareStatement(SELECT_NAME);
+        PreparedStatement second = connection.prepareStatement(SELECT_NAME)) {
+      assertNotSame(first, second);
+      first.setInt(1, 1);
+      second.setInt(1, 2);
+      assertEquals("User1", singleName(first));
+      assertEquals("User2", singleName(second));
+    }
+    assertEquals(2, dataSource.getPoolState().getStatementCacheMissCount());
+  }
+
+  @Test
+  void shouldNotReturnClosedOnCompletionStatementsToTheCache() throws SQLException {
+    dataSource.setPoolPreparedStatementCacheSize(10);
+    try (Connection connection = dataSource.getConnection()) {
+      PreparedStatement statement = connection.prepareStatement(SELECT_NAME);
+      statement.closeOnCompletion();
+      statement.setInt(1, 1);
+      assertEquals("User1", singleName(statement));
+      statement.close();
+      assertTrue(statement.isClosed());
+    }
+    assertEquals("User1", selectName(1));
+    assertEquals(0, dataSource.getPoolState().getStatementCacheHitCount());
+  }
+
+  private String selectName(int id) throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(SELECT_NAME)) {
+      statement.setInt(1, id);
+      return singleName(statement);
+    }
+  }
+
+  private int countIds(int maxRows) throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(SELECT_IDS)) {
+      statement.setMaxRows(maxRows);
+      int count = 0;
+      try (ResultSet rs = statement.executeQuery()) {
+        while (rs.next()) {
+          count++;
+        }
+      }
+      return count;
+    }
+  }
+
+  private static String singleName(PreparedStatement statement) throws SQLException {
+    try (ResultSet rs = statement.executeQuery()) {
+      assertTrue(rs.next());
+      String name = rs.getString(1);
+      assertFalse(rs.next());
+      return name;
+    }
+  }
+
+}
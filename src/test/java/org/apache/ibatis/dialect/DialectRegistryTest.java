@@ -0,0 +1,67 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class DialectRegistryTest {
+
+  private final DialectRegistry registry = new DialectRegistry();
+
+  @Test
+  void shouldFindBuiltInDialects() {
+    assertTrue(registry.getDialect("mysql") instanceof LimitOffsetDialect);
+    assertTrue(registry.getDialect("HSQL Database Engine") instanceof LimitOffsetDialect);
+    assertTrue(registry.getDialect("Apache Derby") instanceof OffsetFetchDialect);
+    assertTrue(registry.getDialect("ORACLE") instanceof OffsetFetchDialect);
+  }
+
+  @Test
+  void shouldUseRowValuesOnlyWhereParametersCanBeTyped() {
+    assertTrue(registry.getDialect("postgresql").supportsRowValueComparison());
+    assertFalse(registry.getDialect("hsqldb").supportsRowValueComparison());
+    assertFalse(registry.getDialect("HSQL Database Engine").supportsRowValueComparison());
+    assertFalse(registry.getDialect("derby").supportsRowValueComparison());
+  }
+
+  @Test
+  void shouldMatchTheLongestPrefix() {
+    assertTrue(registry.getDialect("DB2/LINUXX8664") instanceof OffsetFetchDialect);
+    Dialect custom = new Dialect() {
+      @Override
+      public String getLimitSql(String sql, int offset, int limit, List<Object> parameters) {
+        return sql;
+      }
+    };
+    registry.register("db2/linux", custom);
+    assertSame(custom, registry.getDialect("DB2/LINUXX8664"));
+    assertTrue(registry.getDialect("DB2/AIX64") instanceof OffsetFetchDialect);
+  }
+
+  @Test
+  void shouldReturnNullForUnknownDatabases() {
+    assertNull(registry.getDialect(null));
+    assertNull(registry.getDialect("informix"));
+  }
+
+}
@@ -0,0 +1,70 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.Test;
+
+class LimitOffsetDialectTest {
+
+  private final Dialect dialect = new LimitOffsetDialect();
+
+  @Test
+  void shouldAppendLimitAndOffset() {
+    List<Object> parameters = new ArrayList<>();
+    assertEquals("select * from t where a = ? LIMIT ? OFFSET ?", dialect.getLimitSql("select * from t where a = ?;\n", 20, 10, parameters));
+    assertEquals(Arrays.asList(10, 20), parameters);
+  }
+
+  @Test
+  void shouldOmitOffsetWhenNoRowsAreSkipped() {
+    List<Object> parameters = new ArrayList<>();
+    assertEquals("select * from t LIMIT ?", dialect.getLimitSql("select * from t", RowBounds.NO_ROW_OFFSET, 10, parameters));
+    assertEquals(Collections.singletonList(10), parameters);
+  }
+
+  @Test
+  void shouldLimitToTheMaximumWhenOnlySkippingRows() {
+    List<Object> parameters = new ArrayList<>();
+    assertEquals("select * from t LIMIT ? OFFSET ?", dialect.getLimitSql("select * from t", 5, RowBounds.NO_ROW_LIMIT, parameters));
+    assertEquals(Arrays.asList(RowBounds.NO_ROW_LIMIT, 5), parameters);
+  }
+
+  @Test
+  void shouldInsertBeforeTheLockingClause() {
+    List<Object> parameters = new ArrayList<>();
+    assertEquals("select * from t order by a LIMIT ? OFFSET ? for update skip locked",
+        dialect.getLimitSql("select * from t order by a for update skip locked", 5, 10, parameters));
+    assertEquals("select * from t LIMIT ? LOCK IN SHARE MODE",
+        dialect.getLimitSql("select * from t LOCK IN SHARE MODE", RowBounds.NO_ROW_OFFSET, 10, new ArrayList<>()));
+  }
+
+  @Test
+  void shouldSupportRowValueComparison() {
+    assertTrue(dialect.supportsRowValueComparison());
+    assertFalse(new LimitOffsetDialect(false).supportsRowValueComparison());
+  }
+
+}
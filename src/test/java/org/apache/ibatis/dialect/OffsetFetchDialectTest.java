@@ -0,0 +1,77 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.Test;
+
+class OffsetFetchDialectTest {
+
+  @Test
+  void shouldAppendOffsetAndFetch() {
+    List<Object> parameters = new ArrayList<>();
+    assertEquals("select * from t order by a OFFSET ? ROWS FETCH NEXT ? ROWS ONLY",
+        new OffsetFetchDialect().getLimitSql("select * from t order by a ; ", 20, 10, parameters));
+    assertEquals(Arrays.asList(20, 10), parameters);
+  }
+
+  @Test
+  void shouldOmitFetchWhenNotLimited() {
+    List<Object> parameters = new ArrayList<>();
+    assertEquals("select * from t OFFSET ? ROWS", new OffsetFetchDialect().getLimitSql("select * from t", 5, RowBounds.NO_ROW_LIMIT, parameters));
+    assertEquals(Collections.singletonList(5), parameters);
+  }
+
+  @Test
+  void shouldAddAnOrderByOnlyWhenRequired() {
+    assertEquals("select * from t OFFSET ? ROWS FETCH NEXT ? ROWS ONLY",
+        new OffsetFetchDialect().getLimitSql("select * from t", 0, 10, new ArrayList<>()));
+    assertEquals("select * from t ORDER BY (SELECT NULL) OFFSET ? ROWS FETCH NEXT ? ROWS ONLY",
+        new OffsetFetchDialect(true).getLimitSql("select * from t", 0, 10, new ArrayList<>()));
+    assertEquals("select * from t order by a OFFSET ? ROWS FETCH NEXT ? ROWS ONLY",
+        new OffsetFetchDialect(true).getLimitSql("select * from t order by a", 0, 10, new ArrayList<>()));
+  }
+
+  @Test
+  void shouldNotTreatNestedOrQuotedOrderByAsTopLevel() {
+    assertEquals("select * from (select top 5 * from t order by a) x ORDER BY (SELECT NULL) OFFSET ? ROWS FETCH NEXT ? ROWS ONLY",
+        new OffsetFetchDialect(true).getLimitSql("select * from (select top 5 * from t order by a) x", 0, 10, new ArrayList<>()));
+    assertEquals("select 'order by' from t ORDER BY (SELECT NULL) OFFSET ? ROWS FETCH NEXT ? ROWS ONLY",
+        new OffsetFetchDialect(true).getLimitSql("select 'order by' from t", 0, 10, new ArrayList<>()));
+  }
+
+  @Test
+  void shouldInsertBeforeTheLockingClause() {
+    assertEquals("select * from t order by a OFFSET ? ROWS FETCH NEXT ? ROWS ONLY for update of a",
+        new OffsetFetchDialect().getLimitSql("select * from t order by a for update of a", 5, 10, new ArrayList<>()));
+    assertEquals("select * from t OFFSET ? ROWS FETCH NEXT ? ROWS ONLY FOR READ ONLY",
+        new OffsetFetchDialect().getLimitSql("select * from t FOR READ ONLY", 5, 10, new ArrayList<>()));
+  }
+
+  @Test
+  void shouldNotSupportRowValueComparisonByDefault() {
+    assertFalse(new OffsetFetchDialect().supportsRowValueComparison());
+  }
+
+}
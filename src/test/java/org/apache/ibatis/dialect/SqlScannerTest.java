@@ -0,0 +1,60 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class SqlScannerTest {
+
+  @Test
+  void shouldFindTopLevelPhrases() {
+    String sql = "select * from (select id from t order by id) x order  by\n name";
+    assertEquals(sql.indexOf("order  by"), SqlScanner.indexOfTopLevel(sql, "ORDER BY"));
+    assertEquals(sql.indexOf("order  by"), SqlScanner.lastIndexOfTopLevel(sql, "ORDER BY"));
+  }
+
+  @Test
+  void shouldIgnorePhrasesInQuotesAndParentheses() {
+    assertEquals(-1, SqlScanner.indexOfTopLevel("select 'order by' from t where x in (select y from z order by y)", "ORDER BY"));
+    assertEquals(-1, SqlScanner.indexOfTopLevel("select \"order by\", `order by` from t", "ORDER BY"));
+  }
+
+  @Test
+  void shouldMatchWholeWordsOnly() {
+    assertEquals(-1, SqlScanner.indexOfTopLevel("select border by_x from t", "ORDER BY"));
+    assertEquals(-1, SqlScanner.indexOfTopLevel("select a from t orderby a", "ORDER BY"));
+  }
+
+  @Test
+  void shouldFindTheLastOccurrence() {
+    String sql = "select a from t order by a union select b from u order by 1";
+    assertEquals(sql.indexOf("order by"), SqlScanner.indexOfTopLevel(sql, "ORDER BY"));
+    assertEquals(sql.lastIndexOf("order by"), SqlScanner.lastIndexOfTopLevel(sql, "ORDER BY"));
+  }
+
+  @Test
+  void shouldFindTheFirstLockingClause() {
+    assertEquals(16, SqlScanner.indexOfLockingClause("select a from t for update"));
+    assertEquals(16, SqlScanner.indexOfLockingClause("select a from t FOR NO KEY UPDATE"));
+    assertEquals(16, SqlScanner.indexOfLockingClause("select a from t lock in share mode"));
+    assertEquals(16, SqlScanner.indexOfLockingClause("select a from t for share nowait"));
+    assertEquals(-1, SqlScanner.indexOfLockingClause("select a from (select b from u for update) t"));
+    assertEquals(-1, SqlScanner.indexOfLockingClause("select 'for update' from t"));
+  }
+
+}
@@ -0,0 +1,98 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.dialect.LimitOffsetDialect;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SeekBounds;
+import org.junit.jupiter.api.Test;
+
+class SeekQueryTest {
+
+  private final Configuration configuration = new Configuration();
+
+  private BoundSql rewrite(String sql, SeekBounds seekBounds) {
+    MappedStatement ms = new MappedStatement.Builder(configuration, "selectUsers", new StaticSqlSource(configuration, sql),
+        SqlCommandType.SELECT)
+        .resultMaps(Collections.singletonList(
+            new ResultMap.Builder(configuration, "selectUsers-Inline", HashMap.class, new ArrayList<>()).build()))
+        .build();
+    return SeekQuery.rewrite(ms, ms.getBoundSql(null), seekBounds);
+  }
+
+  @Test
+  void shouldOnlyOrderTheFirstPage() {
+    assertEquals("select id, score from users ORDER BY id ASC",
+        rewrite("select id, score from users order by score", new SeekBounds(10).orderBy("id", "id")).getSql());
+  }
+
+  @Test
+  void shouldUseRowValueComparisonWhenSupported() {
+    configuration.setDialect(new LimitOffsetDialect());
+    BoundSql boundSql = rewrite("select id, score from users",
+        new SeekBounds(10).orderByDescending("score", "score").orderByDescending("id", "id").after(20, 3));
+    assertEquals("select id, score from users WHERE (score, id) < (?, ?) ORDER BY score DESC, id DESC", boundSql.getSql());
+    assertEquals(2, boundSql.getParameterMappings().size());
+    assertEquals(20, boundSql.getAdditionalParameter(boundSql.getParameterMappings().get(0).getProperty()));
+    assertEquals(3, boundSql.getAdditionalParameter(boundSql.getParameterMappings().get(1).getProperty()));
+  }
+
+  @Test
+  void shouldExpandMixedDirectionsEvenWhenRowValuesAreSupported() {
+    configuration.setDialect(new LimitOffsetDialect());
+    BoundSql boundSql = rewrite("select id, score from users where id > ?",
+        new SeekBounds(10).orderByDescending("score", "score").orderBy("id", "id").after(20, 3));
+    assertEquals("select id, score from users where (id > ?) AND ((score < ?) OR (score = ? AND id > ?)) ORDER BY score DESC, id ASC",
+        boundSql.getSql());
+  }
+
+  @Test
+  void shouldKeepTheLockingClauseLast() {
+    assertEquals("select id, score from users WHERE ((id > ?)) ORDER BY id ASC for update",
+        rewrite("select id, score from users order by id for update", new SeekBounds(10).orderBy("id", "id").after(3)).getSql());
+  }
+
+  @Test
+  void shouldWrapQueriesThatAreAlreadyLimited() {
+    assertEquals("SELECT * FROM (select id, score from users order by id limit 100) seek_ WHERE ((seek_.id > ?)) ORDER BY seek_.id ASC",
+        rewrite("select id, score from users order by id limit 100", new SeekBounds(10).orderBy("id", "id").after(3)).getSql());
+  }
+
+  @Test
+  void shouldWrapQueriesOrderedByParameters() {
+    assertEquals("SELECT * FROM (select id, score from users order by abs(score - ?)) seek_ ORDER BY seek_.id ASC",
+        rewrite("select id, score from users order by abs(score - ?)", new SeekBounds(10).orderBy("u.id", "id")).getSql());
+  }
+
+  @Test
+  void shouldRejectNullKeyValues() {
+    assertThrows(ExecutorException.class,
+        () -> rewrite("select id, score from users", new SeekBounds(10).orderBy("id", "id").after((Object) null)));
+  }
+
+}
@@ -0,0 +1,88 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class BoundedPlanCacheTest {
+
+  @Test
+  void shouldEvictTheLeastRecentlyUsedEntry() {
+    BoundedPlanCache<String> cache = new BoundedPlanCache<>(2);
+    cache.put("a", "A");
+    cache.put("b", "B");
+    // 访问a之后，最久未使用的是b
+    assertEquals("A", cache.get("a"));
+    cache.put("c", "C");
+    assertEquals(2, cache.size());
+    assertEquals("A", cache.get("a"));
+    assertNull(cache.get("b"));
+    assertEquals("C", cache.get("c"));
+  }
+
+  @Test
+  void shouldReplaceEntriesWithTheSameKey() {
+    BoundedPlanCache<String> cache = new BoundedPlanCache<>(2);
+    cache.put("a", "A");
+    cache.put("a", "A2");
+    assertEquals(1, cache.size());
+    assertEquals("A2", cache.get("a"));
+  }
+
+  @Test
+  void shouldKeepTheExistingEntryOnPutIfAbsent() {
+    BoundedPlanCache<String> cache = new BoundedPlanCache<>(2);
+    assertEquals("A", cache.putIfAbsent("a", "A"));
+    assertEquals("A", cache.putIfAbsent("a", "A2"));
+    assertEquals("A", cache.get("a"));
+  }
+
+  @Test
+  void shouldTrimWhenTheMaxSizeShrinks() {
+    BoundedPlanCache<String> cache = new BoundedPlanCache<>(3);
+    cache.put("a", "A");
+    cache.put("b", "B");
+    cache.put("c", "C");
+    cache.setMaxSize(1);
+    assertEquals(1, cache.size());
+    assertEquals("C", cache.get("c"));
+  }
+
+  @Test
+  void shouldNotCacheWhenTheMaxSizeIsNotPositive() {
+    BoundedPlanCache<String> cache = new BoundedPlanCache<>(0);
+    cache.put("a", "A");
+    assertEquals(0, cache.size());
+    assertEquals("A", cache.putIfAbsent("a", "A"));
+    assertNull(cache.get("a"));
+    cache.setMaxSize(-1);
+    cache.put("a", "A");
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void shouldBeEmptyAfterClear() {
+    BoundedPlanCache<String> cache = new BoundedPlanCache<>(2);
+    cache.put("a", "A");
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertNull(cache.get("a"));
+  }
+
+}
@@ -0,0 +1,138 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+class CompactRowMapTest {
+
+  private final CompactRowMap.Keys keys = new CompactRowMap.Keys(Arrays.asList("id", "name", "score", "id", null));
+
+  @Test
+  void shouldBehaveLikeAHashMap() {
+    CompactRowMap map = new CompactRowMap(keys);
+    Map<String, Object> expected = new HashMap<>();
+    assertEquals(expected, map);
+    for (Map<String, Object> target : Arrays.asList(map, expected)) {
+      assertNull(target.put("id", 1));
+      assertNull(target.put("name", null));
+      assertEquals(1, target.put("id", 2));
+      assertNull(target.put("extra", "x"));
+    }
+    assertEquals(expected, map);
+    assertEquals(map, expected);
+    assertEquals(expected.hashCode(), map.hashCode());
+    assertEquals(3, map.size());
+    assertTrue(map.containsKey("name"));
+    assertFalse(map.containsKey("score"));
+    assertNull(map.get("score"));
+    assertEquals("x", map.get("extra"));
+  }
+
+  @Test
+  void shouldRemoveSharedAndExtraKeys() {
+    CompactRowMap map = new CompactRowMap(keys);
+    map.put("id", 1);
+    map.put("extra", "x");
+    assertEquals(1, map.remove("id"));
+    assertNull(map.remove("id"));
+    assertEquals("x", map.remove("extra"));
+    assertNull(map.remove("missing"));
+    assertTrue(map.isEmpty());
+  }
+
+  @Test
+  void shouldIterateSharedKeysInOrderThenExtraKeys() {
+    CompactRowMap map = new CompactRowMap(keys);
+    map.put("extra", "x");
+    map.put("score", 30);
+    map.put("id", 1);
+    assertEquals(Arrays.asList("id", "score", "extra"), new ArrayList<>(map.keySet()));
+    assertEquals(Arrays.asList(1, 30, "x"), new ArrayList<>(map.values()));
+  }
+
+  @Test
+  void shouldWriteThroughEntriesAndRemoveThroughTheIterator() {
+    CompactRowMap map = new CompactRowMap(keys);
+    map.put("id", 1);
+    map.put("name", "a");
+    map.put("extra", "x");
+    for (Map.Entry<String, Object> entry : map.entrySet()) {
+      if (entry.getKey().equals("name")) {
+        assertEquals("a", entry.setValue("b"));
+      }
+    }
+    assertEquals("b", map.get("name"));
+    Iterator<Map.Entry<String, Object>> iterator = map.entrySet().iterator();
+    assertThrows(IllegalStateException.class, iterator::remove);
+    iterator.next();
+    iterator.remove();
+    assertThrows(IllegalStateException.class, iterator::remove);
+    iterator.next();
+    iterator.next();
+    iterator.remove();
+    assertFalse(iterator.hasNext());
+    assertThrows(NoSuchElementException.class, iterator::next);
+    assertEquals(1, map.size());
+    assertEquals("b", map.get("name"));
+  }
+
+  @Test
+  void shouldBeEmptyAfterClear() {
+    CompactRowMap map = new CompactRowMap(keys);
+    map.put("id", 1);
+    map.put("extra", "x");
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertFalse(map.containsKey("extra"));
+    map.put("id", 2);
+    assertEquals(1, map.size());
+  }
+
+  @Test
+  void shouldSerializeAsAHashMap() throws Exception {
+    CompactRowMap map = new CompactRowMap(keys);
+    map.put("id", 1);
+    map.put("extra", "x");
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(map);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      Object copy = in.readObject();
+      assertEquals(HashMap.class, copy.getClass());
+      assertEquals(map, copy);
+    }
+  }
+
+}
@@ -0,0 +1,90 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class RowKeyMapTest {
+
+  private final RowKey.Builder builder = new RowKey.Builder();
+
+  @Test
+  void shouldPutAndGetBeyondTheInitialCapacity() {
+    RowKeyMap map = new RowKeyMap();
+    for (int i = 0; i < 1000; i++) {
+      map.put(key(i), "value" + i);
+    }
+    assertEquals(1000, map.size());
+    for (int i = 0; i < 1000; i++) {
+      assertEquals("value" + i, map.get(key(i)));
+    }
+    assertNull(map.get(key(1000)));
+  }
+
+  @Test
+  void shouldReplaceTheValueOfAnEqualKey() {
+    RowKeyMap map = new RowKeyMap();
+    map.put(key(1), "first");
+    map.put(key(1), "second");
+    assertEquals(1, map.size());
+    assertEquals("second", map.get(key(1)));
+  }
+
+  @Test
+  void shouldKeepKeysWithCollidingHashesApart() {
+    RowKeyMap map = new RowKeyMap();
+    for (int i = 0; i < 100; i++) {
+      map.put(collidingKey(i), i);
+    }
+    assertEquals(100, map.size());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, map.get(collidingKey(i)));
+    }
+  }
+
+  @Test
+  void shouldBeEmptyAfterClear() {
+    RowKeyMap map = new RowKeyMap();
+    for (int i = 0; i < 5000; i++) {
+      map.put(key(i), i);
+    }
+    map.clear();
+    assertEquals(0, map.size());
+    assertNull(map.get(key(1)));
+    // 清空后仍可继续使用
+    map.put(key(1), "again");
+    assertEquals("again", map.get(key(1)));
+    map.clear();
+    map.clear();
+    assertEquals(0, map.size());
+  }
+
+  private RowKey key(int id) {
+    builder.reset("map", null);
+    builder.append(id, true);
+    return builder.build();
+  }
+
+  private RowKey collidingKey(int id) {
+    builder.reset("map", null);
+    builder.append(new RowKeyTest.Colliding(id), true);
+    return builder.build();
+  }
+
+}
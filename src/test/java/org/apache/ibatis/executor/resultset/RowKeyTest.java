@@ -0,0 +1,136 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class RowKeyTest {
+
+  private final RowKey.Builder builder = new RowKey.Builder();
+
+  @Test
+  void shouldBeEqualForTheSameValues() {
+    RowKey first = key("map", null, 1, "a");
+    RowKey second = key("map", null, 1, "a");
+    assertEquals(first, second);
+    assertEquals(first.hashCode(), second.hashCode());
+  }
+
+  @Test
+  void shouldDistinguishResultMapsPrefixesAndValues() {
+    RowKey key = key("map", null, 1, "a");
+    assertNotEquals(key, key("other", null, 1, "a"));
+    assertNotEquals(key, key("map", "p_", 1, "a"));
+    assertNotEquals(key, key("map", null, 1, "b"));
+    assertNotEquals(key, key("map", null, "a", 1));
+    assertNotEquals(key, key("map", null, 1L, "a"));
+  }
+
+  @Test
+  void shouldKeepThePositionsOfNonIdentifyingValues() {
+    builder.reset("map", null);
+    builder.append("ignored", false);
+    builder.append(1, true);
+    RowKey first = builder.build();
+    builder.reset("map", null);
+    builder.append(1, true);
+    builder.append("ignored", false);
+    RowKey second = builder.build();
+    assertNotEquals(first, second);
+    // 不参与识别的列值不影响行键
+    builder.reset("map", null);
+    builder.append("other", false);
+    builder.append(1, true);
+    assertEquals(first, builder.build());
+  }
+
+  @Test
+  void shouldBeNullWithoutIdentifyingValues() {
+    builder.reset("map", null);
+    builder.append(1, false);
+    builder.append(null, false);
+    assertSame(RowKey.NULL_ROW_KEY, builder.build());
+  }
+
+  @Test
+  void shouldCompareArraysByContent() {
+    assertEquals(key("map", null, (Object) new byte[] {1, 2}), key("map", null, (Object) new byte[] {1, 2}));
+    assertNotEquals(key("map", null, (Object) new byte[] {1, 2}), key("map", null, (Object) new byte[] {2, 1}));
+  }
+
+  @Test
+  void shouldVerifyValuesWhenHashesCollide() {
+    RowKey first = key("map", null, new Colliding(1));
+    RowKey second = key("map", null, new Colliding(2));
+    assertEquals(first.hashCode(), second.hashCode());
+    assertNotEquals(first, second);
+    assertEquals(first, key("map", null, new Colliding(1)));
+  }
+
+  @Test
+  void shouldCombineWithParentKeys() {
+    RowKey child = key("child", null, 1);
+    RowKey parent1 = key("parent", null, 10);
+    RowKey parent2 = key("parent", null, 20);
+    assertEquals(child.combine(parent1), key("child", null, 1).combine(key("parent", null, 10)));
+    assertNotEquals(child.combine(parent1), child.combine(parent2));
+    assertNotEquals(child, child.combine(parent1));
+  }
+
+  @Test
+  void shouldReuseTheBuilderWithoutLeakingValues() {
+    builder.reset("map", null);
+    builder.append(1, true);
+    builder.append(2, true);
+    builder.build();
+    assertEquals(key("map", null, 3), key("map", null, 3));
+    assertNotEquals(key("map", null, 1, 2), key("map", null, 1));
+  }
+
+  private RowKey key(String resultMapId, String columnPrefix, Object... values) {
+    builder.reset(resultMapId, columnPrefix);
+    for (Object value : values) {
+      builder.append(value, value != null);
+    }
+    return builder.build();
+  }
+
+  /**
+   * hashCode全部相同的值
+   */
+  static class Colliding {
+    private final int value;
+
+    Colliding(int value) {
+      this.value = value;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      return object instanceof Colliding && ((Colliding) object).value == value;
+    }
+
+    @Override
+    public int hashCode() {
+      return 42;
+    }
+  }
+
+}
@@ -0,0 +1,66 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+
+import org.junit.jupiter.api.Test;
+
+class ReflectorPrimitiveSetterTest {
+
+  @Test
+  void shouldCreateHandlesForPrimitiveSettersAndFields() throws Throwable {
+    Reflector reflector = new DefaultReflectorFactory().findForClass(Bean.class);
+    Bean bean = new Bean();
+
+    MethodHandle setter = reflector.getPrimitiveSetter("count");
+    assertEquals(MethodType.methodType(void.class, Object.class, int.class), setter.type());
+    setter.invokeExact((Object) bean, 5);
+    assertEquals(6, bean.count);
+
+    MethodHandle field = reflector.getPrimitiveSetter("amount");
+    assertEquals(MethodType.methodType(void.class, Object.class, long.class), field.type());
+    field.invokeExact((Object) bean, 7L);
+    assertEquals(7L, bean.amount);
+  }
+
+  @Test
+  void shouldNotCreateHandlesForOtherProperties() {
+    Reflector reflector = new DefaultReflectorFactory().findForClass(Bean.class);
+    assertNull(reflector.getPrimitiveSetter("name"));
+    assertNull(reflector.getPrimitiveSetter("boxed"));
+    assertNull(reflector.getPrimitiveSetter("fixed"));
+    assertNull(reflector.getPrimitiveSetter("missing"));
+  }
+
+  static class Bean {
+    private int count;
+    private long amount;
+    private String name;
+    private Integer boxed;
+    private final int fixed = 1;
+
+    public void setCount(int count) {
+      // 确认调用的是setter而不是直接赋值
+      this.count = count + 1;
+    }
+  }
+
+}
@@ -0,0 +1,150 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.async_session;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.AsyncSqlSession;
+import org.apache.ibatis.session.PagedList;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AsyncSqlSessionTest {
+
+  private static final String GET_USERS = "org.apache.ibatis.submitted.async_session.Mapper.getUsers";
+
+  private SqlSessionFactory sqlSessionFactory;
+  // 提交到异步执行器的任务数
+  private final AtomicInteger submittedTasks = new AtomicInteger();
+  private final Executor countingExecutor = command -> {
+    submittedTasks.incrementAndGet();
+    new Thread(command).start();
+  };
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/async_session/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/async_session/CreateDB.sql");
+  }
+
+  @Test
+  void shouldSelectOnTheAsyncExecutor() throws Exception {
+    AsyncSqlSession asyncSqlSession = sqlSessionFactory.openAsyncSession(countingExecutor);
+    List<User> users = asyncSqlSession.<User>selectList(GET_USERS).get();
+    assertEquals(5, users.size());
+    assertEquals(1, submittedTasks.get());
+  }
+
+  @Test
+  void shouldRunFutureMapperMethodsOnTheAsyncExecutor() throws Exception {
+    Mapper mapper = sqlSessionFactory.openAsyncSession(countingExecutor).getMapper(Mapper.class);
+    CompletableFuture<User> user = mapper.getUserAsync(2);
+    CompletableFuture<List<User>> users = mapper.getUsersAsync();
+    assertEquals("User2", user.get().getName());
+    assertEquals(5, users.get().size());
+    assertEquals(2, submittedTasks.get());
+
+    // 其余方法仍在调用线程中执行
+    assertEquals("User3", mapper.getUser(3).getName());
+    assertEquals(2, submittedTasks.get());
+  }
+
+  @Test
+  void shouldReturnCompletedFuturesFromSynchronousSessions() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      CompletableFuture<User> user = sqlSession.getMapper(Mapper.class).getUserAsync(2);
+      assertTrue(user.isDone());
+      assertEquals("User2", user.join().getName());
+    }
+  }
+
+  @Test
+  void shouldCommitAsyncUpdates() throws Exception {
+    AsyncSqlSession asyncSqlSession = sqlSessionFactory.openAsyncSession(countingExecutor);
+    User user = new User("User6");
+    user.setId(6);
+    assertEquals(1, asyncSqlSession.insert("org.apache.ibatis.submitted.async_session.Mapper.insertUser", user).get());
+    User other = new User("User7");
+    other.setId(7);
+    assertEquals(1, asyncSqlSession.execute(sqlSession -> sqlSession.getMapper(Mapper.class).insertUser(other)).get());
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals("User6", sqlSession.getMapper(Mapper.class).getUser(6).getName());
+      assertEquals("User7", sqlSession.getMapper(Mapper.class).getUser(7).getName());
+    }
+  }
+
+  @Test
+  void shouldCompleteExceptionallyWhenTheStatementFails() {
+    AsyncSqlSession asyncSqlSession = sqlSessionFactory.openAsyncSession(countingExecutor);
+    User user = new User("Duplicate");
+    user.setId(1);
+    ExecutionException e = assertThrows(ExecutionException.class,
+        () -> asyncSqlSession.insert("org.apache.ibatis.submitted.async_session.Mapper.insertUser", user).get());
+    assertTrue(e.getCause() instanceof PersistenceException);
+  }
+
+  @Test
+  void shouldCountOnlyWhenThePageIsFull() throws Exception {
+    AsyncSqlSession asyncSqlSession = sqlSessionFactory.openAsyncSession(countingExecutor);
+    PagedList<User> firstPage = asyncSqlSession.<User>selectPagedList(GET_USERS, null, new RowBounds(0, 2)).get();
+    assertEquals(2, firstPage.getItems().size());
+    assertEquals(5, firstPage.getTotal());
+    assertTrue(firstPage.hasNext());
+    assertEquals(2, submittedTasks.get());
+
+    submittedTasks.set(0);
+    PagedList<User> lastPage = asyncSqlSession.<User>selectPagedList(GET_USERS, null, new RowBounds(4, 2)).get();
+    assertEquals(1, lastPage.getItems().size());
+    assertEquals(5, lastPage.getTotal());
+    assertFalse(lastPage.hasNext());
+    assertEquals(1, submittedTasks.get());
+  }
+
+  @Test
+  void shouldPageLikeTheSynchronousSession() throws Exception {
+    AsyncSqlSession asyncSqlSession = sqlSessionFactory.openAsyncSession(countingExecutor);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      for (int offset = 0; offset < 6; offset += 2) {
+        RowBounds rowBounds = new RowBounds(offset, 2);
+        PagedList<User> expected = sqlSession.selectPagedList(GET_USERS, null, rowBounds);
+        PagedList<User> actual = asyncSqlSession.<User>selectPagedList(GET_USERS, null, rowBounds).get();
+        assertEquals(expected.getTotal(), actual.getTotal());
+        assertEquals(expected.getItems().size(), actual.getItems().size());
+      }
+    }
+  }
+
+}
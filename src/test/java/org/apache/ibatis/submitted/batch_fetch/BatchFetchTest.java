@@ -0,0 +1,192 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_fetch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.Test;
+
+class BatchFetchTest {
+
+  private static final List<String> EXPECTED_POSTS = Arrays.asList(
+      "author1=[post11, post12]", "author2=[post21]", "author3=[]", "author4=[post41]", "author5=[post51]");
+
+  private static final List<String> EXPECTED_AUTHORS = Arrays.asList(
+      "post11=author1", "post12=author1", "post21=author2", "post41=author4", "post51=author5");
+
+  private final List<String> preparedSql = new ArrayList<>();
+
+  @Test
+  void shouldLoadCollectionsOfAllParentsInOneQueryWhenEager() throws Exception {
+    SqlSessionFactory sqlSessionFactory = build("mybatis-config.xml");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Author> authors = sqlSession.getMapper(Mapper.class).getAuthors();
+      assertEquals(2, preparedSql.size());
+      assertEquals(5, countParameters(preparedSql.get(1)));
+      assertEquals(EXPECTED_POSTS, postsOf(authors));
+      assertEquals(2, preparedSql.size());
+    }
+  }
+
+  @Test
+  void shouldSplitKeysIntoChunksOfBatchFetchSize() throws Exception {
+    SqlSessionFactory sqlSessionFactory = build("mybatis-config.xml");
+    sqlSessionFactory.getConfiguration().setBatchFetchSize(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Author> authors = sqlSession.getMapper(Mapper.class).getAuthors();
+      assertEquals(4, preparedSql.size());
+      assertEquals(Arrays.asList(2, 2, 1), preparedSql.subList(1, 4).stream().map(BatchFetchTest::countParameters).collect(Collectors.toList()));
+      assertEquals(EXPECTED_POSTS, postsOf(authors));
+    }
+  }
+
+  @Test
+  void shouldLoadAssociationsForDistinctKeysWhenEager() throws Exception {
+    SqlSessionFactory sqlSessionFactory = build("mybatis-config.xml");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Post> posts = sqlSession.getMapper(Mapper.class).getPosts();
+      assertEquals(2, preparedSql.size());
+      assertEquals(4, countParameters(preparedSql.get(1)));
+      assertEquals(EXPECTED_AUTHORS, authorsOf(posts));
+    }
+  }
+
+  @Test
+  void shouldLoadEachRowOfACursorOnItsOwn() throws Exception {
+    SqlSessionFactory sqlSessionFactory = build("mybatis-config.xml");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession();
+         Cursor<Author> cursor = sqlSession.getMapper(Mapper.class).getAuthorCursor()) {
+      List<Author> authors = new ArrayList<>();
+      cursor.forEach(authors::add);
+      assertEquals(EXPECTED_POSTS, postsOf(authors));
+      assertEquals(6, preparedSql.size());
+      assertEquals(1, countParameters(preparedSql.get(1)));
+    }
+  }
+
+  @Test
+  void shouldDeferBatchLoadingUntilFirstAccessWhenLazy() throws Exception {
+    SqlSessionFactory sqlSessionFactory = build("mybatis-config-lazy.xml");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Author> authors = sqlSession.getMapper(Mapper.class).getAuthors();
+      assertEquals(1, preparedSql.size());
+      assertEquals(0, authors.get(2).getPosts().size());
+      // 第一次访问时一并加载了所有兄弟对象
+      assertEquals(2, preparedSql.size());
+      assertEquals(5, countParameters(preparedSql.get(1)));
+      assertEquals(EXPECTED_POSTS, postsOf(authors));
+      assertEquals(2, preparedSql.size());
+    }
+  }
+
+  @Test
+  void shouldLoadSiblingsInWindowsOfBatchFetchSizeWhenLazy() throws Exception {
+    SqlSessionFactory sqlSessionFactory = build("mybatis-config-lazy.xml");
+    sqlSessionFactory.getConfiguration().setBatchFetchSize(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Author> authors = sqlSession.getMapper(Mapper.class).getAuthors();
+      assertEquals(1, preparedSql.size());
+      assertEquals(EXPECTED_POSTS, postsOf(authors));
+      assertEquals(Arrays.asList(2, 2, 1), preparedSql.subList(1, preparedSql.size()).stream()
+          .map(BatchFetchTest::countParameters).collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  void shouldLoadAssociationsOfSiblingsTogetherWhenLazy() throws Exception {
+    SqlSessionFactory sqlSessionFactory = build("mybatis-config-lazy.xml");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Post> posts = sqlSession.getMapper(Mapper.class).getPosts();
+      assertEquals(1, preparedSql.size());
+      assertEquals(EXPECTED_AUTHORS, authorsOf(posts));
+      assertEquals(2, preparedSql.size());
+      assertEquals(4, countParameters(preparedSql.get(1)));
+    }
+  }
+
+  private SqlSessionFactory build(String config) throws Exception {
+    SqlSessionFactory sqlSessionFactory;
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_fetch/" + config)) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batch_fetch/CreateDB.sql");
+    sqlSessionFactory.getConfiguration().addInterceptor(new PreparedSqlRecorder(preparedSql));
+    return sqlSessionFactory;
+  }
+
+  private static List<String> postsOf(List<Author> authors) {
+    return authors.stream()
+        .map(author -> author.getName() + "=" + author.getPosts().stream().map(Post::getTitle).collect(Collectors.toList()))
+        .collect(Collectors.toList());
+  }
+
+  private static List<String> authorsOf(List<Post> posts) {
+    return posts.stream().map(post -> post.getTitle() + "=" + post.getAuthor().getName()).collect(Collectors.toList());
+  }
+
+  private static int countParameters(String sql) {
+    return sql.length() - sql.replace("?", "").length();
+  }
+
+  @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+  private static class PreparedSqlRecorder implements Interceptor {
+
+    private final List<String> preparedSql;
+
+    PreparedSqlRecorder(List<String> preparedSql) {
+      this.preparedSql = preparedSql;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      StatementHandler handler = (StatementHandler) invocation.getTarget();
+      preparedSql.add(handler.getBoundSql().getSql());
+      return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+      // nop
+    }
+  }
+
+}
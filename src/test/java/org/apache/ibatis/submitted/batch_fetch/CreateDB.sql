@@ -0,0 +1,41 @@
+--
+--    Copyright 2009-2019 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table posts if exists;
+drop table authors if exists;
+
+create table authors (
+  id int primary key,
+  name varchar(20)
+);
+
+create table posts (
+  id int primary key,
+  author_id bigint,
+  title varchar(20)
+);
+
+insert into authors (id, name) values (1, 'author1');
+insert into authors (id, name) values (2, 'author2');
+insert into authors (id, name) values (3, 'author3');
+insert into authors (id, name) values (4, 'author4');
+insert into authors (id, name) values (5, 'author5');
+
+insert into posts (id, author_id, title) values (11, 1, 'post11');
+insert into posts (id, author_id, title) values (12, 1, 'post12');
+insert into posts (id, author_id, title) values (21, 2, 'post21');
+insert into posts (id, author_id, title) values (41, 4, 'post41');
+insert into posts (id, author_id, title) values (51, 5, 'post51');
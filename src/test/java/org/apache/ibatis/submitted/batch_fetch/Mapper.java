@@ -0,0 +1,50 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_fetch;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.One;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.FetchType;
+
+public interface Mapper {
+
+  List<Author> getAuthors();
+
+  Cursor<Author> getAuthorCursor();
+
+  List<Post> getPostsByAuthorIds(List<Integer> authorIds);
+
+  @Results({
+      @Result(property = "id", column = "id", id = true),
+      @Result(property = "authorId", column = "author_id"),
+      @Result(property = "author", column = "author_id",
+          one = @One(select = "getAuthorsByIds", fetchType = FetchType.BATCH, foreignColumn = "id"))
+  })
+  @Select("select id, author_id, title from posts order by id")
+  List<Post> getPosts();
+
+  @Select({"<script>",
+      "select id, name from authors where id in",
+      "<foreach collection='list' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+      "</script>"})
+  List<Author> getAuthorsByIds(List<Long> ids);
+
+}
@@ -0,0 +1,123 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_flush;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchFlushTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_flush/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batch_flush/CreateDB.sql");
+  }
+
+  @Test
+  void shouldExecuteTheBatchOnceTheRowCountIsReached() throws SQLException {
+    sqlSessionFactory.getConfiguration().setBatchFlushSize(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUser(1, "User1");
+      assertEquals(0, countUsers(sqlSession));
+      mapper.insertUser(2, "User2");
+      assertEquals(2, countUsers(sqlSession));
+      mapper.insertUser(3, "User3");
+      assertEquals(2, countUsers(sqlSession));
+
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(3, countUsers(sqlSession));
+      assertEquals(2, results.size());
+      assertArrayEquals(new int[] {1, 1}, results.get(0).getUpdateCounts());
+      assertArrayEquals(new int[] {1}, results.get(1).getUpdateCounts());
+      assertEquals(1, results.get(1).getParameterObjects().size());
+    }
+  }
+
+  @Test
+  void shouldExecuteTheBatchOnceTheEstimatedSizeIsReached() throws SQLException {
+    sqlSessionFactory.getConfiguration().setBatchFlushBytes(1L);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUser(1, "User1");
+      assertEquals(1, countUsers(sqlSession));
+      mapper.insertUser(2, "User2");
+      assertEquals(2, countUsers(sqlSession));
+      assertEquals(2, sqlSession.flushStatements().get(0).getUpdateCounts().length);
+    }
+  }
+
+  @Test
+  void shouldKeepTheBatchOpenUntilFlushedWhenAutoFlushIsOff() throws SQLException {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUser(1, "User1");
+      mapper.insertUser(2, "User2");
+      mapper.insertUser(3, "User3");
+      assertEquals(0, countUsers(sqlSession));
+
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(3, countUsers(sqlSession));
+      assertEquals(1, results.size());
+      assertArrayEquals(new int[] {1, 1, 1}, results.get(0).getUpdateCounts());
+    }
+  }
+
+  @Test
+  void shouldDiscardAutoFlushedResultsOnRollback() throws SQLException {
+    sqlSessionFactory.getConfiguration().setBatchFlushSize(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUser(1, "User1");
+      mapper.insertUser(2, "User2");
+      sqlSession.rollback();
+      assertEquals(0, countUsers(sqlSession));
+      assertEquals(0, sqlSession.flushStatements().size());
+    }
+  }
+
+  private int countUsers(SqlSession sqlSession) throws SQLException {
+    Connection connection = sqlSession.getConnection();
+    try (Statement statement = connection.createStatement();
+        ResultSet rs = statement.executeQuery("select count(*) from users")) {
+      rs.next();
+      return rs.getInt(1);
+    }
+  }
+
+}
@@ -0,0 +1,100 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_grouping;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.Reader;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchGroupingTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_grouping/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batch_grouping/CreateDB.sql");
+  }
+
+  @Test
+  void shouldGroupInterleavedInserts() {
+    sqlSessionFactory.getConfiguration().setGroupBatchStatements(true);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUser(1, "User1");
+      mapper.insertRole(1, "Role1");
+      mapper.insertUser(2, "User2");
+      mapper.insertRole(2, "Role2");
+
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(2, results.size());
+      assertEquals("org.apache.ibatis.submitted.batch_grouping.Mapper.insertUser", results.get(0).getMappedStatement().getId());
+      assertArrayEquals(new int[] {1, 1}, results.get(0).getUpdateCounts());
+      assertEquals("org.apache.ibatis.submitted.batch_grouping.Mapper.insertRole", results.get(1).getMappedStatement().getId());
+      assertArrayEquals(new int[] {1, 1}, results.get(1).getUpdateCounts());
+    }
+  }
+
+  @Test
+  void shouldKeepInterleavedInsertsInOrderWhenGroupingIsOff() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUser(1, "User1");
+      mapper.insertRole(1, "Role1");
+      mapper.insertUser(2, "User2");
+      mapper.insertRole(2, "Role2");
+
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(4, results.size());
+      for (BatchResult result : results) {
+        assertArrayEquals(new int[] {1}, result.getUpdateCounts());
+      }
+    }
+  }
+
+  @Test
+  void shouldNotGroupInsertsAcrossOtherStatements() {
+    sqlSessionFactory.getConfiguration().setGroupBatchStatements(true);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUser(1, "User1");
+      mapper.deleteUser(1);
+      mapper.insertUser(1, "User1");
+
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(3, results.size());
+      assertArrayEquals(new int[] {1}, results.get(0).getUpdateCounts());
+      assertArrayEquals(new int[] {1}, results.get(1).getUpdateCounts());
+      assertArrayEquals(new int[] {1}, results.get(2).getUpdateCounts());
+    }
+  }
+
+}
@@ -0,0 +1,156 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.column_index_reads;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ColumnIndexReadsTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+  private final List<String> labelReads = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/column_index_reads/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/column_index_reads/CreateDB.sql");
+    sqlSessionFactory.getConfiguration().addInterceptor(new LabelReadRecorder(labelReads));
+  }
+
+  @Test
+  void shouldReadAutoMappedColumnsByIndex() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Blog> blogs = sqlSession.getMapper(Mapper.class).getBlogs();
+      assertEquals(Arrays.asList("1, Blog1, null", "2, Blog2, null", "3, null, null"), asStrings(blogs));
+      assertEquals(new ArrayList<String>(), labelReads);
+    }
+  }
+
+  @Test
+  void shouldReadMappedColumnsWithPrefixByIndexIgnoringCase() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Blog> blogs = sqlSession.getMapper(Mapper.class).getBlogsWithAuthors();
+      assertEquals(Arrays.asList("1, Blog1, 101:jim", "2, Blog2, 102:sally", "3, null, 101:jim"), asStrings(blogs));
+      assertEquals(new ArrayList<String>(), labelReads);
+    }
+  }
+
+  @Test
+  void shouldReadTheFirstOfDuplicateColumns() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Author> authors = sqlSession.getMapper(Mapper.class).getAuthorsWithDuplicateColumns();
+      assertEquals(Arrays.asList("101:jim", "102:sally"), asStrings(authors));
+      assertTrue(labelReads.isEmpty(), labelReads.toString());
+    }
+  }
+
+  @Test
+  void shouldReadDiscriminatorColumnsByLabel() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Blog> blogs = sqlSession.getMapper(Mapper.class).getDiscriminatedBlogs();
+      assertEquals(Arrays.asList("1, Blog1, null", "2, Blog2, null", "3, null, null"), asStrings(blogs));
+      // 鉴别器列仍按列名读取，属性列按序号读取
+      assertEquals(Arrays.asList("getInt(author_id)", "getInt(author_id)", "getInt(author_id)"), labelReads);
+    }
+  }
+
+  private static List<String> asStrings(List<?> values) {
+    return values.stream().map(String::valueOf).collect(Collectors.toList());
+  }
+
+  /**
+   * 记录按列名读取结果集的调用
+   */
+  @Intercepts(@Signature(type = ResultSetHandler.class, method = "handleResultSets", args = {Statement.class}))
+  private static class LabelReadRecorder implements Interceptor {
+
+    private final List<String> labelReads;
+
+    LabelReadRecorder(List<String> labelReads) {
+      this.labelReads = labelReads;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      Statement statement = (Statement) invocation.getArgs()[0];
+      Statement recording = (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] {Statement.class},
+          (proxy, method, args) -> {
+            Object result = invoke(statement, method, args);
+            return result instanceof ResultSet ? recording((ResultSet) result) : result;
+          });
+      return invocation.getMethod().invoke(invocation.getTarget(), recording);
+    }
+
+    private ResultSet recording(ResultSet resultSet) {
+      return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+          (proxy, method, args) -> {
+            if (method.getName().startsWith("get") && args != null && args.length > 0 && args[0] instanceof String) {
+              labelReads.add(method.getName() + "(" + args[0] + ")");
+            }
+            return invoke(resultSet, method, args);
+          });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw ExceptionUtil.unwrapThrowable(e);
+      }
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+      // nop
+    }
+  }
+
+}
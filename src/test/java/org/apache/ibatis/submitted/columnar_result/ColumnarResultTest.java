@@ -0,0 +1,165 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.columnar_result;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.resultset.ColumnarResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ColumnarResultTest {
+
+  // 超过列存储的初始容量和一个位图字的行数
+  private static final int ROWS = 200;
+  // 各列都为null的行
+  private static final int NULL_ROW = 100;
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/columnar_result/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/columnar_result/CreateDB.sql");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int id = 0; id < ROWS; id++) {
+        if (id == NULL_ROW) {
+          mapper.insertMetric(id, null, null, null, null);
+        } else {
+          mapper.insertMetric(id, id * 10_000_000_000L, id / 4.0, "label" + id, new Timestamp(id * 1000L));
+        }
+      }
+      sqlSession.commit();
+    }
+  }
+
+  @Test
+  void shouldStoreColumnsAsPrimitiveArrays() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnarResult result = sqlSession.getMapper(Mapper.class).getMetrics();
+      assertEquals(ROWS, result.getRowCount());
+      assertEquals(Arrays.asList("ID", "TOTAL", "RATIO", "LABEL", "CREATED"), result.getColumnNames());
+      assertEquals(int.class, result.getColumnType(0));
+      assertEquals(long.class, result.getColumnType(1));
+      assertEquals(double.class, result.getColumnType(2));
+      assertEquals(String.class, result.getColumnType(3));
+      assertEquals(Object.class, result.getColumnType(4));
+
+      int[] ids = result.getInts("id");
+      long[] totals = result.getLongs("total");
+      double[] ratios = result.getDoubles("ratio");
+      String[] labels = result.getStrings("label");
+      Object[] created = result.getObjects("created");
+      assertEquals(ROWS, ids.length);
+      assertEquals(ROWS, totals.length);
+      assertEquals(199, ids[199]);
+      assertEquals(1_990_000_000_000L, totals[199]);
+      assertEquals(49.75, ratios[199]);
+      assertEquals("label199", labels[199]);
+      assertEquals(new Timestamp(199_000L), created[199]);
+    }
+  }
+
+  @Test
+  void shouldRecordNullsInBitmaps() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnarResult result = sqlSession.getMapper(Mapper.class).getMetrics();
+      for (int column = 1; column < result.getColumnCount(); column++) {
+        assertTrue(result.isNull(column, NULL_ROW));
+        assertNull(result.getValue(column, NULL_ROW));
+        assertFalse(result.isNull(column, NULL_ROW - 1));
+        assertFalse(result.isNull(column, NULL_ROW + 1));
+      }
+      assertFalse(result.isNull(0, NULL_ROW));
+      // 基本类型的列中null存为0
+      assertEquals(0L, result.getLongs(1)[NULL_ROW]);
+      assertEquals(0.0, result.getDoubles(2)[NULL_ROW]);
+      assertNull(result.getStrings(3)[NULL_ROW]);
+      assertEquals(1_010_000_000_000L, result.getValue(1, NULL_ROW + 1));
+    }
+  }
+
+  @Test
+  void shouldApplyRowBounds() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      // 返回单个对象的Mapper方法不传递RowBounds，通过selectList传入
+      List<ColumnarResult> results = sqlSession.selectList("org.apache.ibatis.submitted.columnar_result.Mapper.getMetrics", null,
+          new RowBounds(98, 5));
+      assertEquals(1, results.size());
+      ColumnarResult result = results.get(0);
+      assertEquals(5, result.getRowCount());
+      assertArrayEquals(new int[] {98, 99, 100, 101, 102}, result.getInts(0));
+      assertTrue(result.isNull(1, 2));
+      assertThrows(IndexOutOfBoundsException.class, () -> result.getValue(0, 5));
+    }
+  }
+
+  @Test
+  void shouldReturnAnEmptyResultForNoRows() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnarResult result = sqlSession.getMapper(Mapper.class).getNoMetrics();
+      assertEquals(0, result.getRowCount());
+      assertEquals(2, result.getColumnCount());
+      assertEquals(0, result.getInts("ID").length);
+      assertEquals(0, result.getLongs("Total").length);
+    }
+  }
+
+  @Test
+  void shouldRejectColumnsOfAnotherTypeOrName() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnarResult result = sqlSession.getMapper(Mapper.class).getMetrics();
+      assertEquals(-1, result.getColumnIndex("missing"));
+      ExecutorException typeMismatch = assertThrows(ExecutorException.class, () -> result.getLongs("id"));
+      assertEquals("Column 'ID' is stored as int[], not as long[]", typeMismatch.getMessage());
+      ExecutorException missing = assertThrows(ExecutorException.class, () -> result.getInts("missing"));
+      assertTrue(missing.getMessage().startsWith("Column 'missing' not found"));
+    }
+  }
+
+  @Test
+  void shouldHandTheWholeResultSetToAResultHandlerOnce() {
+    List<Object> handled = new ArrayList<>();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.select("org.apache.ibatis.submitted.columnar_result.Mapper.getMetrics", context -> handled.add(context.getResultObject()));
+    }
+    assertEquals(1, handled.size());
+    assertEquals(ROWS, ((ColumnarResult) handled.get(0)).getRowCount());
+  }
+
+}
@@ -0,0 +1,37 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.columnar_result;
+
+import java.sql.Timestamp;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.executor.resultset.ColumnarResult;
+
+public interface Mapper {
+
+  @Select("select id, total, ratio, label, created from metrics order by id")
+  ColumnarResult getMetrics();
+
+  @Select("select id, total from metrics where id < 0")
+  ColumnarResult getNoMetrics();
+
+  @Insert("insert into metrics (id, total, ratio, label, created) values (#{id}, #{total}, #{ratio}, #{label}, #{created})")
+  void insertMetric(@Param("id") int id, @Param("total") Long total, @Param("ratio") Double ratio, @Param("label") String label,
+      @Param("created") Timestamp created);
+
+}
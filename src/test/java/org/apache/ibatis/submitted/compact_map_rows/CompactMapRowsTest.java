@@ -0,0 +1,126 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.compact_map_rows;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.resultset.CompactRowMap;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CompactMapRowsTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/compact_map_rows/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/compact_map_rows/CreateDB.sql");
+  }
+
+  @Test
+  void shouldMapTheSameRowsAsHashMaps() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    List<Map<String, Object>> expected = query(Mapper::getUsers);
+    assertEquals(HashMap.class, expected.get(0).getClass());
+    configuration.setCompactMapRows(true);
+    List<Map<String, Object>> actual = query(Mapper::getUsers);
+    assertEquals(CompactRowMap.class, actual.get(0).getClass());
+    assertEquals(expected, actual);
+    // 键按列的顺序排列
+    assertEquals(Arrays.asList("ID", "NAME", "SCORE"), new ArrayList<>(actual.get(0).keySet()));
+    // null列不调用setter时不存在该键
+    assertFalse(actual.get(1).containsKey("NAME"));
+    assertEquals(2, actual.get(1).size());
+  }
+
+  @Test
+  void shouldKeepNullColumnsWhenCallingSettersOnNulls() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setCallSettersOnNulls(true);
+    List<Map<String, Object>> expected = query(Mapper::getUsers);
+    configuration.setCompactMapRows(true);
+    List<Map<String, Object>> actual = query(Mapper::getUsers);
+    assertEquals(expected, actual);
+    assertTrue(actual.get(1).containsKey("NAME"));
+    assertEquals(3, actual.get(1).size());
+  }
+
+  @Test
+  void shouldMapExplicitResultMappings() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    List<Map<String, Object>> expected = query(Mapper::getRenamedUsers);
+    configuration.setCompactMapRows(true);
+    List<Map<String, Object>> actual = query(Mapper::getRenamedUsers);
+    assertEquals(expected, actual);
+    assertEquals("User1", actual.get(0).get("userName"));
+    assertEquals(30, actual.get(0).get("SCORE"));
+  }
+
+  @Test
+  void shouldShareKeysButNotValuesBetweenRows() {
+    sqlSessionFactory.getConfiguration().setCompactMapRows(true);
+    List<Map<String, Object>> rows = query(Mapper::getUsers);
+    rows.get(0).put("NAME", "changed");
+    rows.get(0).put("EXTRA", "extra");
+    rows.get(1).remove("ID");
+    assertEquals("changed", rows.get(0).get("NAME"));
+    assertEquals("extra", rows.get(0).get("EXTRA"));
+    assertEquals("User3", rows.get(2).get("NAME"));
+    assertFalse(rows.get(2).containsKey("EXTRA"));
+    assertFalse(rows.get(1).containsKey("ID"));
+    assertEquals(3, rows.get(2).get("ID"));
+  }
+
+  @Test
+  void shouldUseTheObjectFactoryWhenItIsCustomized() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setCompactMapRows(true);
+    configuration.setObjectFactory(new DefaultObjectFactory() {
+      private static final long serialVersionUID = 1L;
+    });
+    List<Map<String, Object>> rows = query(Mapper::getUsers);
+    assertSame(HashMap.class, rows.get(0).getClass());
+  }
+
+  private List<Map<String, Object>> query(Function<Mapper, List<Map<String, Object>>> statement) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return statement.apply(sqlSession.getMapper(Mapper.class));
+    }
+  }
+
+}
@@ -0,0 +1,163 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.count_query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.PagedList;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CountQueryTest {
+
+  private static final String GET_USERS = "org.apache.ibatis.submitted.count_query.Mapper.getUsers";
+
+  private SqlSessionFactory sqlSessionFactory;
+  private final List<String> preparedSql = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/count_query/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/count_query/CreateDB.sql");
+    sqlSessionFactory.getConfiguration().addInterceptor(new PreparedSqlRecorder(preparedSql));
+  }
+
+  @Test
+  void shouldCountWithTheSameConditions() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(5, sqlSession.selectCount(GET_USERS, Collections.singletonMap("minScore", null)));
+      assertEquals(3, sqlSession.selectCount(GET_USERS, Collections.singletonMap("minScore", 20)));
+      assertEquals(0, sqlSession.selectCount(GET_USERS, Collections.singletonMap("minScore", 100)));
+      assertEquals("SELECT COUNT(*) FROM (select id, name, score from users WHERE score >= ? ) count_",
+          preparedSql.get(1).replaceAll("\\s+", " "));
+    }
+  }
+
+  @Test
+  void shouldKeepTheOrderByBeforeALimit() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(2, sqlSession.selectCount("org.apache.ibatis.submitted.count_query.Mapper.getTopScores", null));
+      assertTrue(preparedSql.get(0).contains("order by score desc limit 2"));
+    }
+  }
+
+  @Test
+  void shouldDeriveTheCountStatementOnce() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    MappedStatement count = configuration.getMappedStatement(GET_USERS + "!count");
+    assertSame(count, configuration.getMappedStatement(GET_USERS + "!count"));
+    assertEquals(Long.class, count.getResultMaps().get(0).getType());
+    assertFalse(configuration.hasStatement(GET_USERS + "!count"));
+  }
+
+  @Test
+  void shouldCountOnlyWhenThePageIsFull() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      PagedList<User> firstPage = mapper.getUsers(null, new RowBounds(0, 2));
+      assertEquals(2, firstPage.getItems().size());
+      assertEquals(5, firstPage.getTotal());
+      assertTrue(firstPage.hasNext());
+      assertEquals(2, preparedSql.size());
+
+      preparedSql.clear();
+      PagedList<User> lastPage = mapper.getUsers(null, new RowBounds(4, 2));
+      assertEquals(1, lastPage.getItems().size());
+      assertEquals(5, lastPage.getTotal());
+      assertFalse(lastPage.hasNext());
+      assertEquals(1, preparedSql.size());
+
+      preparedSql.clear();
+      PagedList<User> beyondTheEnd = mapper.getUsers(20, new RowBounds(10, 2));
+      assertTrue(beyondTheEnd.getItems().isEmpty());
+      assertEquals(3, beyondTheEnd.getTotal());
+      assertEquals(2, preparedSql.size());
+    }
+  }
+
+  @Test
+  void shouldNotCountUnboundedLists() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      PagedList<User> users = sqlSession.getMapper(Mapper.class).getUsers(null, RowBounds.DEFAULT);
+      assertEquals(5, users.getTotal());
+      assertEquals(1, preparedSql.size());
+    }
+  }
+
+  @Test
+  void shouldRejectCountsOfOtherStatements() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertThrows(PersistenceException.class,
+          () -> sqlSession.selectCount("org.apache.ibatis.submitted.count_query.Mapper.insertUser", null));
+    }
+  }
+
+  @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+  private static class PreparedSqlRecorder implements Interceptor {
+
+    private final List<String> preparedSql;
+
+    PreparedSqlRecorder(List<String> preparedSql) {
+      this.preparedSql = preparedSql;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      preparedSql.add(((StatementHandler) invocation.getTarget()).getBoundSql().getSql());
+      return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+
+  }
+
+}
@@ -0,0 +1,231 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_publisher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorPublisher;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CursorPublisherTest {
+
+  private static final Executor DIRECT = Runnable::run;
+
+  private SqlSessionFactory sqlSessionFactory;
+  // 发布者打开会话的次数
+  private final AtomicInteger openedSessions = new AtomicInteger();
+  // 发布者打开的游标
+  private final AtomicReference<Cursor<User>> openedCursor = new AtomicReference<>();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor_publisher/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cursor_publisher/CreateDB.sql");
+  }
+
+  private CursorPublisher<User> newPublisher(Executor executor) {
+    return new CursorPublisher<>(() -> {
+      openedSessions.incrementAndGet();
+      return sqlSessionFactory.openSession();
+    }, (SqlSession sqlSession) -> {
+      Cursor<User> cursor = sqlSession.getMapper(Mapper.class).getUsers();
+      openedCursor.set(cursor);
+      return cursor;
+    }, executor);
+  }
+
+  @Test
+  void shouldEmitOnlyWhatWasRequested() {
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    newPublisher(DIRECT).subscribe(subscriber);
+    assertEquals(0, openedSessions.get());
+
+    subscriber.subscription.request(2);
+    assertEquals(2, subscriber.items.size());
+    assertFalse(subscriber.completed);
+    assertTrue(openedCursor.get().isOpen());
+
+    subscriber.subscription.request(2);
+    assertEquals(4, subscriber.items.size());
+    assertFalse(subscriber.completed);
+
+    subscriber.subscription.request(10);
+    assertEquals(5, subscriber.items.size());
+    assertTrue(subscriber.completed);
+    assertFalse(openedCursor.get().isOpen());
+    assertEquals(1, openedSessions.get());
+  }
+
+  @Test
+  void shouldEmitEverythingForAnUnboundedRequest() {
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    newPublisher(DIRECT).subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+    assertEquals(5, subscriber.items.size());
+    assertEquals("User5", subscriber.items.get(4).getName());
+    assertTrue(subscriber.completed);
+    assertNull(subscriber.error);
+  }
+
+  @Test
+  void shouldCloseTheCursorOnCancel() {
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    newPublisher(DIRECT).subscribe(subscriber);
+    subscriber.subscription.request(1);
+    subscriber.subscription.cancel();
+    assertFalse(openedCursor.get().isOpen());
+    subscriber.subscription.request(1);
+    assertEquals(1, subscriber.items.size());
+    assertFalse(subscriber.completed);
+  }
+
+  @Test
+  void shouldCloseTheCursorWhenTheSubscriberThrows() {
+    RecordingSubscriber subscriber = new RecordingSubscriber() {
+      @Override
+      public void onNext(User item) {
+        super.onNext(item);
+        throw new IllegalStateException("subscriber failure");
+      }
+    };
+    newPublisher(DIRECT).subscribe(subscriber);
+    subscriber.subscription.request(3);
+    assertEquals(1, subscriber.items.size());
+    assertFalse(openedCursor.get().isOpen());
+    assertNull(subscriber.error);
+    assertFalse(subscriber.completed);
+  }
+
+  @Test
+  void shouldSignalAnErrorForNonPositiveRequests() {
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    newPublisher(DIRECT).subscribe(subscriber);
+    subscriber.subscription.request(0);
+    assertTrue(subscriber.error instanceof IllegalArgumentException);
+    assertEquals(0, openedSessions.get());
+
+    RecordingSubscriber negative = new RecordingSubscriber();
+    newPublisher(DIRECT).subscribe(negative);
+    negative.subscription.request(1);
+    negative.subscription.request(-1);
+    assertTrue(negative.error instanceof IllegalArgumentException);
+    assertFalse(openedCursor.get().isOpen());
+  }
+
+  @Test
+  void shouldAllowOnlyOneSubscriber() {
+    CursorPublisher<User> publisher = newPublisher(DIRECT);
+    publisher.subscribe(new RecordingSubscriber());
+    RecordingSubscriber second = new RecordingSubscriber();
+    publisher.subscribe(second);
+    assertTrue(second.error instanceof IllegalStateException);
+  }
+
+  @Test
+  void shouldSignalAnErrorWhenTheExecutorRejects() {
+    RejectedExecutionException rejection = new RejectedExecutionException("rejected");
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    newPublisher(command -> {
+      throw rejection;
+    }).subscribe(subscriber);
+    subscriber.subscription.request(1);
+    assertSame(rejection, subscriber.error);
+    assertEquals(0, openedSessions.get());
+  }
+
+  @Test
+  void shouldPublishFromTheAsyncSession() throws Exception {
+    CountDownLatch done = new CountDownLatch(1);
+    RecordingSubscriber subscriber = new RecordingSubscriber() {
+      @Override
+      public void onSubscribe(CursorPublisher.Subscription subscription) {
+        super.onSubscribe(subscription);
+        subscription.request(2);
+      }
+
+      @Override
+      public void onNext(User item) {
+        super.onNext(item);
+        if (items.size() % 2 == 0) {
+          subscription.request(2);
+        }
+      }
+
+      @Override
+      public void onComplete() {
+        super.onComplete();
+        done.countDown();
+      }
+    };
+    sqlSessionFactory.openAsyncSession().<User>selectPublisher(
+        "org.apache.ibatis.submitted.cursor_publisher.Mapper.getUsers", null).subscribe(subscriber);
+    assertTrue(done.await(30, TimeUnit.SECONDS));
+    assertEquals(5, subscriber.items.size());
+    assertNull(subscriber.error);
+  }
+
+  private static class RecordingSubscriber implements CursorPublisher.Subscriber<User> {
+    final List<User> items = new ArrayList<>();
+    volatile CursorPublisher.Subscription subscription;
+    volatile Throwable error;
+    volatile boolean completed;
+
+    @Override
+    public void onSubscribe(CursorPublisher.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(User item) {
+      items.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+    }
+  }
+
+}
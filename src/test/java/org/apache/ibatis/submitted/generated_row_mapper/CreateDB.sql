@@ -0,0 +1,31 @@
+--
+--    Copyright 2009-2019 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table products if exists;
+
+create table products (
+  id int primary key,
+  name varchar(20),
+  stock int,
+  weight double,
+  price decimal(10, 2),
+  active boolean,
+  created timestamp
+);
+
+insert into products (id, name, stock, weight, price, active, created) values (1, 'Product1', 10, 1.5, 9.99, true, '2019-01-01 10:00:00');
+insert into products (id, name, stock, weight, price, active, created) values (2, null, null, null, null, null, null);
+insert into products (id, name, stock, weight, price, active, created) values (3, 'Product3', 30, 3.5, 29.99, false, '2019-03-01 10:00:00');
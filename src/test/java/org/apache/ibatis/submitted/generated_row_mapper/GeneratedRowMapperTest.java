@@ -0,0 +1,162 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.generated_row_mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class GeneratedRowMapperTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/generated_row_mapper/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/generated_row_mapper/CreateDB.sql");
+  }
+
+  @Test
+  void shouldMapTheSameValuesWithGeneratedRowMappers() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    List<Product> expected = query(Mapper::getProducts);
+    assertFalse(isGenerated(expected.get(0)));
+    configuration.setUseGeneratedRowMappers(true);
+    List<Product> actual = query(Mapper::getProducts);
+    assertTrue(isGenerated(actual.get(0)));
+    assertEquals(asStrings(expected), asStrings(actual));
+    assertEquals("default", actual.get(1).getName());
+  }
+
+  @Test
+  void shouldCallSettersOnNullsWithGeneratedRowMappers() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setCallSettersOnNulls(true);
+    List<Product> expected = query(Mapper::getProducts);
+    configuration.setUseGeneratedRowMappers(true);
+    List<Product> actual = query(Mapper::getProducts);
+    assertTrue(isGenerated(actual.get(0)));
+    assertEquals(asStrings(expected), asStrings(actual));
+    assertNull(actual.get(1).getName());
+  }
+
+  @Test
+  void shouldWidenValuesReadByTypeHandlers() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    List<Product> expected = query(Mapper::getProductsWithIntegerStock);
+    configuration.setUseGeneratedRowMappers(true);
+    List<Product> actual = query(Mapper::getProductsWithIntegerStock);
+    assertTrue(isGenerated(actual.get(0)));
+    assertEquals(asStrings(expected), asStrings(actual));
+    assertEquals(30L, actual.get(2).getStock());
+  }
+
+  @Test
+  void shouldRejectNarrowingConversionsLikeBeanWrapper() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    PersistenceException expected = assertThrows(PersistenceException.class, () -> query(Mapper::getProductsWithLongId));
+    configuration.setUseGeneratedRowMappers(true);
+    PersistenceException actual = assertThrows(PersistenceException.class, () -> query(Mapper::getProductsWithLongId));
+    assertEquals(1, configuration.getGeneratedRowMapperCache().size());
+    for (PersistenceException e : new PersistenceException[] {expected, actual}) {
+      Throwable cause = rootReflectionException(e);
+      assertTrue(cause.getMessage().startsWith("Could not set property 'id' of 'class " + Product.class.getName() + "' with value '1'"),
+          cause.getMessage());
+      assertTrue(cause.getMessage().endsWith("argument type mismatch"), cause.getMessage());
+    }
+  }
+
+  @Test
+  void shouldCacheOneRowMapperPerResultMapAndColumns() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setUseGeneratedRowMappers(true);
+    assertEquals(0, configuration.getGeneratedRowMapperCache().size());
+    query(Mapper::getProducts);
+    query(Mapper::getProducts);
+    assertEquals(1, configuration.getGeneratedRowMapperCache().size());
+    query(Mapper::getProductNames);
+    assertEquals(2, configuration.getGeneratedRowMapperCache().size());
+  }
+
+  @Test
+  void shouldEvictRowMappersBeyondTheCacheSize() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setUseGeneratedRowMappers(true);
+    configuration.setGeneratedRowMapperCacheSize(1);
+    List<Product> first = query(Mapper::getProducts);
+    List<String> names = query(Mapper::getProductNames).stream().map(Product::getName).collect(Collectors.toList());
+    assertEquals(1, configuration.getGeneratedRowMapperCache().size());
+    assertEquals("Product1", names.get(0));
+    // 被淘汰的行映射器重新生成后结果不变
+    List<Product> second = query(Mapper::getProducts);
+    assertTrue(isGenerated(second.get(0)));
+    assertEquals(asStrings(first), asStrings(second));
+    assertEquals(1, configuration.getGeneratedRowMapperCache().size());
+  }
+
+  @Test
+  void shouldNotGenerateRowMappersWhenDisabled() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    query(Mapper::getProducts);
+    query(Mapper::getProductNames);
+    assertEquals(0, configuration.getGeneratedRowMapperCache().size());
+  }
+
+  private List<Product> query(Function<Mapper, List<Product>> statement) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return statement.apply(sqlSession.getMapper(Mapper.class));
+    }
+  }
+
+  private static boolean isGenerated(Product product) {
+    return product.getMappedBy().contains("$$RowMapper$$");
+  }
+
+  private static List<String> asStrings(List<Product> products) {
+    return products.stream().map(Product::toString).collect(Collectors.toList());
+  }
+
+  private static Throwable rootReflectionException(Throwable e) {
+    Throwable cause = e;
+    while (cause != null && !(cause instanceof ReflectionException)) {
+      cause = cause.getCause();
+    }
+    assertTrue(cause instanceof ReflectionException, String.valueOf(e));
+    return cause;
+  }
+
+}
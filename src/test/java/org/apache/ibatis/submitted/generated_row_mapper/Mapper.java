@@ -0,0 +1,45 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.generated_row_mapper;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.LongTypeHandler;
+
+public interface Mapper {
+
+  @Select("select id, name, stock, weight, price, active, created from products order by id")
+  List<Product> getProducts();
+
+  @Select("select id, name from products order by id")
+  List<Product> getProductNames();
+
+  @Results({
+      @Result(property = "id", column = "id", id = true),
+      @Result(property = "stock", column = "stock", typeHandler = IntegerTypeHandler.class)
+  })
+  @Select("select id, name, stock, weight, price, active, created from products order by id")
+  List<Product> getProductsWithIntegerStock();
+
+  @Results(@Result(property = "id", column = "id", typeHandler = LongTypeHandler.class))
+  @Select("select id, name from products order by id")
+  List<Product> getProductsWithLongId();
+
+}
@@ -0,0 +1,48 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.mapping_plan_cache;
+
+import org.apache.ibatis.annotations.AutomapConstructor;
+
+public class ImmutableUser {
+
+  private final Integer id;
+  private final String name;
+  private final Integer score;
+
+  @AutomapConstructor
+  public ImmutableUser(Integer id, String name, Integer score) {
+    this.id = id;
+    this.name = name;
+    this.score = score;
+  }
+
+  public ImmutableUser(Integer id, String name) {
+    this(id, name, null);
+  }
+
+  public Integer getId() {
+    return id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Integer getScore() {
+    return score;
+  }
+}
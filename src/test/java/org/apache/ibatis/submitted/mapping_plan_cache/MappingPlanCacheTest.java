@@ -0,0 +1,198 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.mapping_plan_cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.Reader;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MappingPlanCacheTest {
+
+  private static final List<String> WITH_SCORES = Arrays.asList(
+      "1 User1 30", "2 User2 10", "3 User3 20", "4 User4 10", "5 User5 30");
+
+  private static final List<String> WITHOUT_SCORES = Arrays.asList(
+      "1 User1 null", "2 User2 null", "3 User3 null", "4 User4 null", "5 User5 null");
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/mapping_plan_cache/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/mapping_plan_cache/CreateDB.sql");
+  }
+
+  @Test
+  void shouldReadCacheSizesFromSettings() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    assertEquals(8, configuration.getAutoMappingPlanCacheSize());
+    assertEquals(8, configuration.getAutoMappingPlanCache().getMaxSize());
+    assertEquals(8, configuration.getResultSetColumnsCacheSize());
+    assertEquals(8, configuration.getResultSetColumnsCache().getMaxSize());
+    assertEquals(8, configuration.getConstructorMappingPlanCacheSize());
+    assertEquals(8, configuration.getConstructorMappingPlanCache().getMaxSize());
+  }
+
+  @Test
+  void shouldShareAutoMappingPlansAcrossSessions() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    assertEquals(WITH_SCORES, getUsers(true));
+    assertEquals(WITH_SCORES, getUsers(true));
+    assertEquals(1, configuration.getAutoMappingPlanCache().size());
+  }
+
+  @Test
+  void shouldKeepAutoMappingPlansApartForDifferentColumns() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    assertEquals(WITH_SCORES, getUsers(true));
+    assertEquals(WITHOUT_SCORES, getUsers(false));
+    assertEquals(WITH_SCORES, getUsers(true));
+    assertEquals(2, configuration.getAutoMappingPlanCache().size());
+  }
+
+  @Test
+  void shouldEvictAutoMappingPlansBeyondTheCacheSize() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setAutoMappingPlanCacheSize(1);
+    assertEquals(WITH_SCORES, getUsers(true));
+    assertEquals(WITHOUT_SCORES, getUsers(false));
+    assertEquals(1, configuration.getAutoMappingPlanCache().size());
+    assertEquals(WITH_SCORES, getUsers(true));
+  }
+
+  @Test
+  void shouldNotCacheAutoMappingPlansWhenTheCacheSizeIsZero() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setAutoMappingPlanCacheSize(0);
+    assertEquals(WITH_SCORES, getUsers(true));
+    assertEquals(WITHOUT_SCORES, getUsers(false));
+    assertEquals(0, configuration.getAutoMappingPlanCache().size());
+  }
+
+  @Test
+  void shouldShareColumnsPerStatementAndSql() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    assertEquals(WITH_SCORES, getUsers(true));
+    assertEquals(WITH_SCORES, getUsers(true));
+    assertEquals(1, configuration.getResultSetColumnsCache().size());
+    // 动态SQL生成了不同的语句
+    assertEquals(WITHOUT_SCORES, getUsers(false));
+    assertEquals(2, configuration.getResultSetColumnsCache().size());
+  }
+
+  @Test
+  void shouldRereadColumnsWhenTheResultSetChanges() throws Exception {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(WITH_SCORES, asStrings(sqlSession.getMapper(Mapper.class).getAllUsers()));
+      try (Statement statement = sqlSession.getConnection().createStatement()) {
+        statement.execute("alter table users drop column score");
+      }
+      sqlSession.clearCache();
+      // SQL相同但列变了，缓存的列信息不再适用
+      assertEquals(WITHOUT_SCORES, asStrings(sqlSession.getMapper(Mapper.class).getAllUsers()));
+    }
+    assertEquals(1, configuration.getResultSetColumnsCache().size());
+  }
+
+  @Test
+  void shouldNotCacheColumnsWhenTheCacheSizeIsZero() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setResultSetColumnsCacheSize(0);
+    assertEquals(WITH_SCORES, getUsers(true));
+    assertEquals(WITHOUT_SCORES, getUsers(false));
+    assertEquals(0, configuration.getResultSetColumnsCache().size());
+  }
+
+  @Test
+  void shouldShareConstructorMappingPlansAcrossSessions() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    assertEquals(WITH_SCORES, getImmutableUsers(Mapper::getImmutableUsers));
+    assertEquals(WITH_SCORES, getImmutableUsers(Mapper::getImmutableUsers));
+    assertEquals(1, configuration.getConstructorMappingPlanCache().size());
+    assertEquals(WITHOUT_SCORES, getImmutableUsers(Mapper::getImmutableUsersByConstructorArgs));
+    assertEquals(2, configuration.getConstructorMappingPlanCache().size());
+  }
+
+  @Test
+  void shouldPassConstructorArgumentsToACustomObjectFactory() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    List<String> created = new ArrayList<>();
+    configuration.setObjectFactory(new DefaultObjectFactory() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      public <T> T create(Class<T> type, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
+        if (type == ImmutableUser.class) {
+          created.add(constructorArgTypes.stream().map(Class::getSimpleName).collect(Collectors.toList()) + "=" + constructorArgs);
+        }
+        return super.create(type, constructorArgTypes, constructorArgs);
+      }
+    });
+    assertEquals(WITH_SCORES, getImmutableUsers(Mapper::getImmutableUsers));
+    assertEquals(5, created.size());
+    assertEquals("[Integer, String, Integer]=[1, User1, 30]", created.get(0));
+    assertEquals(WITHOUT_SCORES, getImmutableUsers(Mapper::getImmutableUsersByConstructorArgs));
+    assertEquals("[Integer, String]=[1, User1]", created.get(5));
+  }
+
+  @Test
+  void shouldNotCacheConstructorMappingPlansWhenTheCacheSizeIsZero() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setConstructorMappingPlanCacheSize(0);
+    assertEquals(WITH_SCORES, getImmutableUsers(Mapper::getImmutableUsers));
+    assertEquals(WITHOUT_SCORES, getImmutableUsers(Mapper::getImmutableUsersByConstructorArgs));
+    assertEquals(0, configuration.getConstructorMappingPlanCache().size());
+  }
+
+  private List<String> getImmutableUsers(Function<Mapper, List<ImmutableUser>> statement) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return statement.apply(sqlSession.getMapper(Mapper.class)).stream()
+          .map(user -> user.getId() + " " + user.getName() + " " + user.getScore())
+          .collect(Collectors.toList());
+    }
+  }
+
+  private List<String> getUsers(boolean withScore) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return asStrings(sqlSession.getMapper(Mapper.class).getUsers(withScore));
+    }
+  }
+
+  private static List<String> asStrings(List<User> users) {
+    return users.stream().map(user -> user.getId() + " " + user.getName() + " " + user.getScore()).collect(Collectors.toList());
+  }
+
+}
@@ -0,0 +1,155 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.multi_row_insert;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.Reader;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MultiRowInsertTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+  private final List<String> batchedSql = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/multi_row_insert/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/multi_row_insert/CreateDB.sql");
+    sqlSessionFactory.getConfiguration().addInterceptor(new BatchedSqlRecorder(batchedSql));
+  }
+
+  @Test
+  void shouldRewriteInsertsAsMultiRowValues() {
+    sqlSessionFactory.getConfiguration().setBatchInsertRowsPerStatement(2);
+    List<User> users = Arrays.asList(new User("User1"), new User("User2"), new User("User3"),
+        new User("User4"), new User("User5"));
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (User user : users) {
+        mapper.insertUser(user);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(1, results.size());
+      assertArrayEquals(new int[] {1, 1, 1, 1, 1}, results.get(0).getUpdateCounts());
+      assertEquals(Arrays.asList(
+          "insert into users (name) values (?), (?)",
+          "insert into users (name) values (?), (?)",
+          "insert into users (name) values (?)"), batchedSql);
+
+      assertEquals(Arrays.asList(1, 2, 3, 4, 5), ids(users));
+      List<User> stored = mapper.getUsers();
+      assertEquals(5, stored.size());
+      assertEquals("User5", stored.get(4).getName());
+    }
+  }
+
+  @Test
+  void shouldBatchSingleRowInsertsWhenRewriteIsOff() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUser(new User("User1"));
+      mapper.insertUser(new User("User2"));
+      mapper.insertUser(new User("User3"));
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(1, results.size());
+      assertArrayEquals(new int[] {1, 1, 1}, results.get(0).getUpdateCounts());
+      assertEquals(3, batchedSql.size());
+      for (String sql : batchedSql) {
+        assertEquals("insert into users (name) values (?)", sql);
+      }
+    }
+  }
+
+  @Test
+  void shouldNotRewriteInsertsWithSelectKey() {
+    sqlSessionFactory.getConfiguration().setBatchInsertRowsPerStatement(2);
+    List<User> users = Arrays.asList(new User("User1"), new User("User2"), new User("User3"));
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (User user : users) {
+        mapper.insertUserWithSelectKey(user);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertArrayEquals(new int[] {1, 1, 1}, results.get(0).getUpdateCounts());
+      for (String sql : batchedSql) {
+        assertEquals("insert into users (id, name) values (?, ?)", sql);
+      }
+      assertEquals(Arrays.asList(100, 101, 102), ids(users));
+      assertEquals(Arrays.asList(100, 101, 102), ids(mapper.getUsers()));
+    }
+  }
+
+  private static List<Integer> ids(List<User> users) {
+    List<Integer> ids = new ArrayList<>();
+    for (User user : users) {
+      ids.add(user.getId());
+    }
+    return ids;
+  }
+
+  @Intercepts(@Signature(type = StatementHandler.class, method = "batch", args = Statement.class))
+  private static class BatchedSqlRecorder implements Interceptor {
+
+    private final List<String> batchedSql;
+
+    BatchedSqlRecorder(List<String> batchedSql) {
+      this.batchedSql = batchedSql;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      StatementHandler handler = (StatementHandler) invocation.getTarget();
+      batchedSql.add(handler.getBoundSql().getSql());
+      return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+
+  }
+
+}
@@ -0,0 +1,105 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.nested_row_keys;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NestedRowKeysTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/nested_row_keys/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/nested_row_keys/CreateDB.sql");
+  }
+
+  @Test
+  void shouldKeepChildrenWithTheSameIdApartUnderDifferentParents() {
+    assertEquals(Arrays.asList(
+        "1 jim [1:applex2, 2:pearx1]",
+        "2 sally [1:applex2, 2:applex2]",
+        "3 bob []"), query(Mapper::getOrders));
+  }
+
+  @Test
+  void shouldMergeIdenticalChildrenWithoutIds() {
+    assertEquals(Arrays.asList(
+        "1 jim [null:applex2, null:pearx1]",
+        "2 sally [null:applex2]",
+        "3 bob []"), query(Mapper::getOrdersWithAnonymousLines));
+  }
+
+  @Test
+  void shouldMergeChildrenByTheirIdOnlyWithinTheirParent() {
+    assertEquals(Arrays.asList(
+        "1 jim [1:applexnull, 2:pearxnull]",
+        "2 sally [1:applexnull]",
+        "3 bob []"), query(Mapper::getOrdersWithLinesByProduct));
+  }
+
+  @Test
+  void shouldCountNullIdsWhenReturningInstancesForEmptyRows() {
+    sqlSessionFactory.getConfiguration().setReturnInstanceForEmptyRow(true);
+    // 与CacheKey相同，空值也参与识别，没有明细的订单得到一个空明细
+    assertEquals(Arrays.asList(
+        "1 jim [1:applex2, 2:pearx1]",
+        "2 sally [1:applex2, 2:applex2]",
+        "3 bob [null:nullxnull]"), query(Mapper::getOrders));
+  }
+
+  @Test
+  void shouldGroupManyRows() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int id = 10; id < 1010; id++) {
+        mapper.insertOrder(id, "customer" + id);
+        for (int lineNo = 1; lineNo <= 3; lineNo++) {
+          mapper.insertLine(id, lineNo, "product" + lineNo);
+        }
+      }
+      List<Order> orders = mapper.getOrders();
+      assertEquals(1003, orders.size());
+      for (Order order : orders.subList(3, orders.size())) {
+        assertEquals("[1:product1x1, 2:product2x1, 3:product3x1]", String.valueOf(order.getLines()), order.toString());
+      }
+    }
+  }
+
+  private List<String> query(Function<Mapper, List<Order>> statement) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return statement.apply(sqlSession.getMapper(Mapper.class)).stream().map(Order::toString).collect(Collectors.toList());
+    }
+  }
+
+}
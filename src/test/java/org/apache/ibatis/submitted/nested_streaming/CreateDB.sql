@@ -0,0 +1,39 @@
+--
+--    Copyright 2009-2019 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table lines if exists;
+drop table orders if exists;
+
+create table orders (
+  id int primary key,
+  customer varchar(20)
+);
+
+create table lines (
+  order_id int,
+  line_no int,
+  product varchar(20),
+  qty int
+);
+
+insert into orders (id, customer) values (1, 'jim');
+insert into orders (id, customer) values (2, 'sally');
+insert into orders (id, customer) values (3, 'bob');
+
+insert into lines (order_id, line_no, product, qty) values (1, 1, 'apple', 2);
+insert into lines (order_id, line_no, product, qty) values (1, 2, 'pear', 1);
+insert into lines (order_id, line_no, product, qty) values (2, 1, 'apple', 2);
+insert into lines (order_id, line_no, product, qty) values (2, 2, 'apple', 2);
@@ -0,0 +1,138 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.nested_streaming;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NestedStreamingTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/nested_streaming/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/nested_streaming/CreateDB.sql");
+  }
+
+  @Test
+  void shouldEmitCompleteRootsThroughCursor() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession();
+         Cursor<Order> cursor = sqlSession.getMapper(Mapper.class).getOrderedOrders()) {
+      List<String> orders = new ArrayList<>();
+      cursor.forEach(order -> orders.add(order.toString()));
+      assertEquals(Arrays.asList("1 jim [1:applex2, 2:pearx1]", "2 sally [1:applex2, 2:applex2]", "3 bob []"), orders);
+    }
+  }
+
+  @Test
+  void shouldReleaseEmittedRootsWhileStreamingThroughCursor() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession();
+         Cursor<Order> cursor = sqlSession.getMapper(Mapper.class).getOrderedOrders()) {
+      Iterator<Order> iterator = cursor.iterator();
+      WeakReference<Order> first = new WeakReference<>(iterator.next());
+      WeakReference<Line> firstLine = new WeakReference<>(first.get().getLines().get(0));
+      assertEquals(Integer.valueOf(2), iterator.next().getId());
+      assertTrue(isCollected(first));
+      assertTrue(isCollected(firstLine));
+      WeakReference<Order> last = new WeakReference<>(iterator.next());
+      assertFalse(iterator.hasNext());
+      // 结果集读完后，最后一个根对象也不再被保留
+      assertTrue(isCollected(last));
+      assertTrue(cursor.isConsumed());
+    }
+  }
+
+  @Test
+  void shouldStreamOrderedRootsWithinRowBounds() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession();
+         Cursor<Order> cursor = sqlSession.getMapper(Mapper.class).getOrderedOrderPage(new RowBounds(1, 1))) {
+      List<String> orders = new ArrayList<>();
+      cursor.forEach(order -> orders.add(order.toString()));
+      // 游标按根对象跳过和计数
+      assertEquals(Arrays.asList("2 sally [1:applex2, 2:applex2]"), orders);
+    }
+  }
+
+  @Test
+  void shouldReleaseHandledRootsWhenResultsAreOrdered() {
+    List<WeakReference<Order>> handled = new ArrayList<>();
+    List<Boolean> previousCollected = new ArrayList<>();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).handleOrderedOrders(context -> {
+        if (!handled.isEmpty()) {
+          previousCollected.add(isCollected(handled.get(handled.size() - 1)));
+        }
+        handled.add(new WeakReference<>(context.getResultObject()));
+      });
+    }
+    assertEquals(3, handled.size());
+    assertEquals(Arrays.asList(true, true), previousCollected);
+  }
+
+  @Test
+  void shouldKeepHandledRootsWhenResultsAreNotOrdered() {
+    sqlSessionFactory.getConfiguration().setSafeResultHandlerEnabled(false);
+    List<WeakReference<Order>> handled = new ArrayList<>();
+    List<Boolean> previousCollected = new ArrayList<>();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).handleUnorderedOrders(context -> {
+        if (!handled.isEmpty()) {
+          previousCollected.add(isCollected(handled.get(handled.size() - 1)));
+        }
+        handled.add(new WeakReference<>(context.getResultObject()));
+      });
+    }
+    assertEquals(3, handled.size());
+    // 结果无序时后面的行可能属于之前的根对象，已交出的根对象要保留到结果集结束
+    assertEquals(Arrays.asList(false, false), previousCollected);
+  }
+
+  private static boolean isCollected(WeakReference<?> reference) {
+    for (int i = 0; i < 20 && reference.get() != null; i++) {
+      System.gc();
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    return reference.get() == null;
+  }
+
+}
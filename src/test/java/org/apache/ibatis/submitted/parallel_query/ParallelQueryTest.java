@@ -0,0 +1,147 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.parallel_query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ParallelQuery;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionException;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ParallelQueryTest {
+
+  private static final String NAMESPACE = "org.apache.ibatis.submitted.parallel_query.Mapper.";
+
+  private SqlSessionFactory sqlSessionFactory;
+  // 每条语句准备时得到的事务超时时间
+  private final List<Integer> statementTimeouts = Collections.synchronizedList(new ArrayList<>());
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/parallel_query/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/parallel_query/CreateDB.sql");
+    sqlSessionFactory.getConfiguration().addInterceptor(new TimeoutRecorder(statementTimeouts));
+  }
+
+  @Test
+  void shouldReturnResultsInTheOrderTheQueriesWereAdded() {
+    Map<String, Object> results = sqlSessionFactory.selectParallel(new ParallelQuery()
+        .selectList("users", NAMESPACE + "getUsers", null)
+        .selectOne("user", NAMESPACE + "getUser", 3), 30, TimeUnit.SECONDS);
+    assertEquals(Arrays.asList("users", "user"), new ArrayList<>(results.keySet()));
+    assertEquals(5, ((List<?>) results.get("users")).size());
+    assertEquals("User3", ((User) results.get("user")).getName());
+  }
+
+  @Test
+  void shouldBoundEveryStatementByTheSharedDeadline() {
+    sqlSessionFactory.selectParallel(new ParallelQuery()
+        .selectList("users", NAMESPACE + "getUsers", null)
+        .selectOne("user", NAMESPACE + "getUser", 3), 30, TimeUnit.SECONDS);
+    assertEquals(2, statementTimeouts.size());
+    for (Integer timeout : statementTimeouts) {
+      assertTrue(timeout >= 1 && timeout <= 30, "timeout " + timeout);
+    }
+  }
+
+  @Test
+  void shouldNotBoundStatementsOutsideParallelQueries() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).getUsers();
+    }
+    assertEquals(1, statementTimeouts.size());
+    assertNull(statementTimeouts.get(0));
+  }
+
+  @Test
+  void shouldRejectDuplicateKeys() {
+    ParallelQuery query = new ParallelQuery().selectList("users", NAMESPACE + "getUsers", null);
+    assertThrows(IllegalArgumentException.class, () -> query.selectOne("users", NAMESPACE + "getUser", 1));
+  }
+
+  @Test
+  void shouldRethrowTheFailureOfAQuery() {
+    assertThrows(PersistenceException.class, () -> sqlSessionFactory.selectParallel(new ParallelQuery()
+        .selectList("users", NAMESPACE + "getUsers", null)
+        .selectList("missing", NAMESPACE + "getMissing", null), 30, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void shouldGiveUpWhenTheDeadlineHasPassed() {
+    // 执行器从不运行任务，查询只能等到截止时间
+    sqlSessionFactory.getConfiguration().setAsyncExecutor(command -> {
+    });
+    SqlSessionException e = assertThrows(SqlSessionException.class, () -> sqlSessionFactory.selectParallel(
+        new ParallelQuery().selectList("users", NAMESPACE + "getUsers", null), 100, TimeUnit.MILLISECONDS));
+    assertTrue(e.getMessage().contains("'users'"));
+  }
+
+  @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+  private static class TimeoutRecorder implements Interceptor {
+
+    private final List<Integer> timeouts;
+
+    TimeoutRecorder(List<Integer> timeouts) {
+      this.timeouts = timeouts;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      timeouts.add((Integer) invocation.getArgs()[1]);
+      return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+
+  }
+
+}
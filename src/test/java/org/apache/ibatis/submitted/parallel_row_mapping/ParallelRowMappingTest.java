@@ -0,0 +1,129 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.parallel_row_mapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ParallelRowMappingTest {
+
+  private static final int ROWS = 1000;
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/parallel_row_mapping/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/parallel_row_mapping/CreateDB.sql");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= ROWS; i++) {
+        Item item = new Item();
+        item.setId(i);
+        item.setName("Item" + i);
+        item.setPrice(i % 10 == 0 ? null : BigDecimal.valueOf(i, 2));
+        item.setQuantity(i);
+        mapper.insertItem(item);
+      }
+      sqlSession.commit();
+    }
+  }
+
+  @Test
+  void shouldMapRowsInParallel() {
+    sqlSessionFactory.getConfiguration().setParallelRowMappingChunkSize(16);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Item> items = sqlSession.getMapper(Mapper.class).getItems();
+      assertItems(items, 1, ROWS);
+      String caller = Thread.currentThread().getName();
+      assertTrue(items.stream().anyMatch(item -> !caller.equals(item.mappedBy())));
+    }
+  }
+
+  @Test
+  void shouldMapRowsInTheCallingThreadWhenParallelMappingIsOff() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Item> items = sqlSession.getMapper(Mapper.class).getItems();
+      assertItems(items, 1, ROWS);
+      String caller = Thread.currentThread().getName();
+      assertTrue(items.stream().allMatch(item -> caller.equals(item.mappedBy())));
+    }
+  }
+
+  @Test
+  void shouldApplyRowBoundsInParallel() {
+    sqlSessionFactory.getConfiguration().setParallelRowMappingChunkSize(16);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertItems(sqlSession.getMapper(Mapper.class).getItemPage(new RowBounds(10, 100)), 11, 100);
+    }
+  }
+
+  @Test
+  void shouldMapExplicitResultMappingsInParallel() {
+    sqlSessionFactory.getConfiguration().setParallelRowMappingChunkSize(16);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertItems(sqlSession.getMapper(Mapper.class).getItemsWithResultMap(), 1, ROWS);
+    }
+  }
+
+  @Test
+  void shouldMapSequentiallyForCustomResultHandlers() {
+    sqlSessionFactory.getConfiguration().setParallelRowMappingChunkSize(16);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Item> items = new ArrayList<>();
+      sqlSession.getMapper(Mapper.class).handleItems(context -> items.add(context.getResultObject()));
+      assertItems(items, 1, ROWS);
+      String caller = Thread.currentThread().getName();
+      assertTrue(items.stream().allMatch(item -> caller.equals(item.mappedBy())));
+    }
+  }
+
+  private static void assertItems(List<Item> items, int firstId, int size) {
+    assertEquals(size, items.size());
+    for (int i = 0; i < size; i++) {
+      Item item = items.get(i);
+      int id = firstId + i;
+      assertEquals(id, item.getId());
+      assertEquals("Item" + id, item.getName());
+      assertEquals(Integer.valueOf(id), item.getQuantity());
+      if (id % 10 == 0) {
+        assertNull(item.getPrice());
+      } else {
+        assertEquals(BigDecimal.valueOf(id, 2), item.getPrice());
+      }
+    }
+  }
+
+}
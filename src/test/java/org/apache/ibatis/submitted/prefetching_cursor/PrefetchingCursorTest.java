@@ -0,0 +1,138 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.prefetching_cursor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.defaults.DefaultCursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PrefetchingCursorTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/prefetching_cursor/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/prefetching_cursor/CreateDB.sql");
+  }
+
+  @Test
+  void shouldPrefetchWhenPrefetchSizeIsSet() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      try (Cursor<User> cursor = mapper.getUsersPrefetched()) {
+        assertTrue(cursor instanceof PrefetchingCursor);
+        assertEquals(-1, cursor.getCurrentIndex());
+        List<Integer> ids = new ArrayList<>();
+        for (User user : cursor) {
+          ids.add(user.getId());
+          assertEquals(ids.size() - 1, cursor.getCurrentIndex());
+        }
+        assertEquals(5, ids.size());
+        assertEquals(Integer.valueOf(5), ids.get(4));
+        assertTrue(cursor.isConsumed());
+      }
+      // 读完之后会话可以继续使用
+      assertEquals(5, mapper.countUsers());
+    }
+  }
+
+  @Test
+  void shouldNotPrefetchWithoutPrefetchSize() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      try (Cursor<User> cursor = mapper.getUsers()) {
+        assertTrue(cursor instanceof DefaultCursor);
+        Iterator<User> iterator = cursor.iterator();
+        assertEquals("User1", iterator.next().getName());
+        // 不预读的游标与会话的其他语句共用连接
+        assertEquals(5, mapper.countUsers());
+        assertEquals("User2", iterator.next().getName());
+      }
+    }
+  }
+
+  @Test
+  void shouldRejectOtherStatementsWhilePrefetching() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      try (Cursor<User> cursor = mapper.getUsersPrefetched()) {
+        Iterator<User> iterator = cursor.iterator();
+        assertEquals("User1", iterator.next().getName());
+        PersistenceException e = assertThrows(PersistenceException.class, mapper::countUsers);
+        assertTrue(e.getCause() instanceof ExecutorException);
+        assertThrows(PersistenceException.class, () -> sqlSession.commit(true));
+        assertThrows(PersistenceException.class, () -> sqlSession.rollback(true));
+        assertEquals("User2", iterator.next().getName());
+      }
+      // 关闭游标后后台线程不再使用连接
+      assertEquals(5, mapper.countUsers());
+    }
+  }
+
+  @Test
+  void shouldAllowStatementsBeforeTheFirstRead() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      try (Cursor<User> cursor = mapper.getUsersPrefetched()) {
+        assertFalse(cursor.isOpen());
+        assertEquals(5, mapper.countUsers());
+        assertEquals(5, countItems(cursor));
+      }
+    }
+  }
+
+  @Test
+  void shouldStopPrefetchingWhenTheSessionIsClosed() {
+    Cursor<User> cursor;
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      cursor = sqlSession.getMapper(Mapper.class).getUsersPrefetched();
+      cursor.iterator().next();
+    }
+    assertFalse(cursor.isOpen());
+  }
+
+  private static int countItems(Cursor<User> cursor) {
+    int count = 0;
+    for (User ignored : cursor) {
+      count++;
+    }
+    return count;
+  }
+
+}
@@ -0,0 +1,33 @@
+--
+--    Copyright 2009-2019 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table measurements if exists;
+
+create table measurements (
+  id int primary key,
+  hits int,
+  total bigint,
+  average double,
+  ratio real,
+  tier smallint,
+  flags tinyint,
+  enabled boolean,
+  seq int
+);
+
+insert into measurements (id, hits, total, average, ratio, tier, flags, enabled, seq) values (1, 10, 10000000000, 1.5, 0.25, 3, 7, true, 100);
+insert into measurements (id, hits, total, average, ratio, tier, flags, enabled, seq) values (2, null, null, null, null, null, null, null, null);
+insert into measurements (id, hits, total, average, ratio, tier, flags, enabled, seq) values (3, 30, 30, 3.5, 0.75, 1, 0, false, 300);
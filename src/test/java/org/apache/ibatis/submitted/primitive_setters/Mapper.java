@@ -0,0 +1,51 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.primitive_setters;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.type.IntegerTypeHandler;
+
+public interface Mapper {
+
+  @Select("select * from measurements order by id")
+  List<Measurement> getMeasurements();
+
+  @Results({
+      @Result(property = "id", column = "id", id = true),
+      @Result(property = "hits", column = "hits"),
+      @Result(property = "total", column = "total"),
+      @Result(property = "average", column = "average"),
+      @Result(property = "ratio", column = "ratio"),
+      @Result(property = "tier", column = "tier"),
+      @Result(property = "flags", column = "flags"),
+      @Result(property = "enabled", column = "enabled"),
+      @Result(property = "seq", column = "seq")
+  })
+  @Select("select * from measurements order by id")
+  List<Measurement> getMappedMeasurements();
+
+  @Results({
+      @Result(property = "hits", column = "hits", typeHandler = PlainIntegerTypeHandler.class),
+      @Result(property = "total", column = "hits", typeHandler = IntegerTypeHandler.class)
+  })
+  @Select("select id, hits from measurements order by id")
+  List<Measurement> getMeasurementsWithBoxingHandlers();
+
+}
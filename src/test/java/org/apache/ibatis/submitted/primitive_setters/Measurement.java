@@ -0,0 +1,110 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.primitive_setters;
+
+public class Measurement {
+
+  private int id;
+  private int hits = -1;
+  private long total = -1;
+  private double average = -1;
+  private float ratio = -1;
+  private short tier = -1;
+  private byte flags = -1;
+  private boolean enabled = true;
+  // 没有setter，直接给属性赋值
+  private int seq = -1;
+  // 调用setHits的类
+  private String hitsSetBy;
+
+  public int getId() {
+    return id;
+  }
+
+  public void setId(int id) {
+    this.id = id;
+  }
+
+  public int getHits() {
+    return hits;
+  }
+
+  public void setHits(int hits) {
+    this.hits = hits;
+    this.hitsSetBy = new Throwable().getStackTrace()[1].getClassName();
+  }
+
+  public long getTotal() {
+    return total;
+  }
+
+  public void setTotal(long total) {
+    this.total = total;
+  }
+
+  public double getAverage() {
+    return average;
+  }
+
+  public void setAverage(double average) {
+    this.average = average;
+  }
+
+  public float getRatio() {
+    return ratio;
+  }
+
+  public void setRatio(float ratio) {
+    this.ratio = ratio;
+  }
+
+  public short getTier() {
+    return tier;
+  }
+
+  public void setTier(short tier) {
+    this.tier = tier;
+  }
+
+  public byte getFlags() {
+    return flags;
+  }
+
+  public void setFlags(byte flags) {
+    this.flags = flags;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public int getSeq() {
+    return seq;
+  }
+
+  public String getHitsSetBy() {
+    return hitsSetBy;
+  }
+
+  @Override
+  public String toString() {
+    return id + ", " + hits + ", " + total + ", " + average + ", " + ratio + ", " + tier + ", " + flags + ", " + enabled + ", " + seq;
+  }
+}
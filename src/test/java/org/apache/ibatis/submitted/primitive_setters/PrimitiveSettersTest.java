@@ -0,0 +1,95 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.primitive_setters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PrimitiveSettersTest {
+
+  private static final String PRIMITIVE_SETTER = "org.apache.ibatis.executor.resultset.PrimitivePropertySetter";
+
+  private static final List<String> EXPECTED = Arrays.asList(
+      "1, 10, 10000000000, 1.5, 0.25, 3, 7, true, 100",
+      "2, -1, -1, -1.0, -1.0, -1, -1, true, -1",
+      "3, 30, 30, 3.5, 0.75, 1, 0, false, 300");
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/primitive_setters/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/primitive_setters/CreateDB.sql");
+  }
+
+  @Test
+  void shouldSetAutoMappedPrimitivesThroughMethodHandles() {
+    List<Measurement> measurements = query(Mapper::getMeasurements);
+    assertEquals(EXPECTED, asStrings(measurements));
+    assertEquals(PRIMITIVE_SETTER, measurements.get(0).getHitsSetBy());
+  }
+
+  @Test
+  void shouldSetMappedPrimitivesThroughMethodHandles() {
+    List<Measurement> measurements = query(Mapper::getMappedMeasurements);
+    assertEquals(EXPECTED, asStrings(measurements));
+    assertEquals(PRIMITIVE_SETTER, measurements.get(2).getHitsSetBy());
+  }
+
+  @Test
+  void shouldLeavePrimitivesUntouchedOnNullsEvenWhenCallingSettersOnNulls() {
+    sqlSessionFactory.getConfiguration().setCallSettersOnNulls(true);
+    assertEquals(EXPECTED, asStrings(query(Mapper::getMeasurements)));
+    assertEquals(EXPECTED, asStrings(query(Mapper::getMappedMeasurements)));
+  }
+
+  @Test
+  void shouldFallBackToReflectionForHandlersThatCannotReadPrimitives() {
+    List<Measurement> measurements = query(Mapper::getMeasurementsWithBoxingHandlers);
+    assertEquals(Arrays.asList(10, -1, 30), measurements.stream().map(Measurement::getHits).collect(Collectors.toList()));
+    assertNotEquals(PRIMITIVE_SETTER, measurements.get(0).getHitsSetBy());
+    // int类型处理器读取的值由反射拓宽为long
+    assertEquals(Arrays.asList(10L, -1L, 30L), measurements.stream().map(Measurement::getTotal).collect(Collectors.toList()));
+  }
+
+  private List<Measurement> query(Function<Mapper, List<Measurement>> statement) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return statement.apply(sqlSession.getMapper(Mapper.class));
+    }
+  }
+
+  private static List<String> asStrings(List<Measurement> measurements) {
+    return measurements.stream().map(Measurement::toString).collect(Collectors.toList());
+  }
+
+}
@@ -0,0 +1,144 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.rowbounds_pushdown;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.Test;
+
+class RowBoundsPushdownTest {
+
+  private final List<String> preparedSql = new ArrayList<>();
+
+  private SqlSessionFactory createSqlSessionFactory(String config, String script) throws Exception {
+    SqlSessionFactory sqlSessionFactory;
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/rowbounds_pushdown/" + config)) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/rowbounds_pushdown/" + script);
+    sqlSessionFactory.getConfiguration().addInterceptor(new PreparedSqlRecorder(preparedSql));
+    return sqlSessionFactory;
+  }
+
+  @Test
+  void shouldPushDownWithLimitOffset() throws Exception {
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory("mybatis-config.xml", "CreateDB.sql");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> users = sqlSession.getMapper(Mapper.class).getUsers(1, new RowBounds(1, 2));
+      assertEquals(Arrays.asList(3, 4), ids(users));
+      assertEquals("select id, name from users where id > ? order by id LIMIT ? OFFSET ?", preparedSql.get(0));
+    }
+  }
+
+  @Test
+  void shouldPushDownWithOffsetFetch() throws Exception {
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory("mybatis-config-derby.xml", "CreateDB-derby.sql");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> users = sqlSession.getMapper(Mapper.class).getUsers(1, new RowBounds(1, 2));
+      assertEquals(Arrays.asList(3, 4), ids(users));
+      assertEquals("select id, name from users where id > ? order by id OFFSET ? ROWS FETCH NEXT ? ROWS ONLY", preparedSql.get(0));
+    }
+  }
+
+  @Test
+  void shouldSkipRowsOnTheClientWhenPushDownIsOff() throws Exception {
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory("mybatis-config.xml", "CreateDB.sql");
+    sqlSessionFactory.getConfiguration().setRowBoundsPushdown(false);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> users = sqlSession.getMapper(Mapper.class).getUsers(1, new RowBounds(1, 2));
+      assertEquals(Arrays.asList(3, 4), ids(users));
+      assertEquals("select id, name from users where id > ? order by id", preparedSql.get(0));
+    }
+  }
+
+  @Test
+  void shouldNotRewriteWithoutRowBounds() throws Exception {
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory("mybatis-config.xml", "CreateDB.sql");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> users = sqlSession.getMapper(Mapper.class).getUsers(3, RowBounds.DEFAULT);
+      assertEquals(Arrays.asList(4, 5), ids(users));
+      assertEquals("select id, name from users where id > ? order by id", preparedSql.get(0));
+    }
+  }
+
+  @Test
+  void shouldPushDownCursorQueries() throws Exception {
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory("mybatis-config.xml", "CreateDB.sql");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession();
+        Cursor<User> cursor = sqlSession.getMapper(Mapper.class).getUserCursor(new RowBounds(3, 10))) {
+      List<User> users = new ArrayList<>();
+      cursor.forEach(users::add);
+      assertEquals(Arrays.asList(4, 5), ids(users));
+      assertEquals("select id, name from users order by id LIMIT ? OFFSET ?", preparedSql.get(0));
+    }
+  }
+
+  private static List<Integer> ids(List<User> users) {
+    List<Integer> ids = new ArrayList<>();
+    for (User user : users) {
+      ids.add(user.getId());
+    }
+    return ids;
+  }
+
+  @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+  private static class PreparedSqlRecorder implements Interceptor {
+
+    private final List<String> preparedSql;
+
+    PreparedSqlRecorder(List<String> preparedSql) {
+      this.preparedSql = preparedSql;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      preparedSql.add(((StatementHandler) invocation.getTarget()).getBoundSql().getSql());
+      return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+
+  }
+
+}
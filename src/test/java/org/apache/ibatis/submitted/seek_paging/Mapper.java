@@ -0,0 +1,49 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.seek_paging;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.Page;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SeekBounds;
+
+public interface Mapper {
+
+  @Select("select id, name, score from users order by name")
+  Page<User> getUsers(SeekBounds seekBounds);
+
+  @Select("select id, name, score from users order by id")
+  List<User> getUserList(RowBounds rowBounds);
+
+  @Select("select u.id, u.name, u.score from users u where u.name like #{prefix} or u.id = 0")
+  Page<User> getUsersByName(@Param("prefix") String prefix, SeekBounds seekBounds);
+
+  @Select("select score, count(*) as total from users group by score")
+  Page<ScoreCount> getScoreCounts(SeekBounds seekBounds);
+
+  @Results({
+      @Result(property = "id", column = "user_id"),
+      @Result(property = "name", column = "name")
+  })
+  @Select("select id as user_id, name from users")
+  Page<User> getRenamedUsers(SeekBounds seekBounds);
+
+}
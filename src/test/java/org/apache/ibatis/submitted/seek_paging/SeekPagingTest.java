@@ -0,0 +1,248 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.seek_paging;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Function;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.dialect.LimitOffsetDialect;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Page;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SeekBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SeekPagingTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+  private final List<String> preparedSql = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/seek_paging/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/seek_paging/CreateDB.sql");
+    sqlSessionFactory.getConfiguration().addInterceptor(new PreparedSqlRecorder(preparedSql));
+  }
+
+  @Test
+  void shouldReadAllPagesInKeyOrder() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<List<Integer>> pages = readAllPages(mapper::getUsers, new SeekBounds(2).orderBy("id", "id"), User::getId);
+      assertEquals(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3, 4), Arrays.asList(5)), pages);
+      assertEquals("select id, name, score from users ORDER BY id ASC", preparedSql.get(0));
+      assertEquals("select id, name, score from users WHERE ((id > ?)) ORDER BY id ASC", preparedSql.get(1));
+    }
+  }
+
+  @Test
+  void shouldReportTheLastKeyOfThePage() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Page<User> page = sqlSession.getMapper(Mapper.class).getUsers(new SeekBounds(3).orderBy("id", "id"));
+      assertTrue(page.hasNext());
+      assertArrayEquals(new Object[] {3}, page.getLastKey());
+      assertArrayEquals(new Object[] {3}, page.nextBounds().getLastKey());
+    }
+  }
+
+  @Test
+  void shouldExpandMixedDirectionKeys() {
+    sqlSessionFactory.getConfiguration().setDialect(new LimitOffsetDialect());
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<List<Integer>> pages = readAllPages(mapper::getUsers,
+          new SeekBounds(2).orderByDescending("score", "score").orderBy("id", "id"), User::getId);
+      assertEquals(Arrays.asList(Arrays.asList(1, 5), Arrays.asList(3, 2), Arrays.asList(4)), pages);
+      assertEquals("select id, name, score from users WHERE ((score < ?) OR (score = ? AND id > ?)) ORDER BY score DESC, id ASC",
+          preparedSql.get(1));
+    }
+  }
+
+  @Test
+  void shouldNotUseRowValueComparisonOnHsqldb() {
+    // HSQLDB无法推断行值中占位符的类型
+    sqlSessionFactory.getConfiguration().setDatabaseId("hsqldb");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<List<Integer>> pages = readAllPages(mapper::getUsers,
+          new SeekBounds(2).orderBy("score", "score").orderBy("id", "id"), User::getId);
+      assertEquals(Arrays.asList(Arrays.asList(2, 4), Arrays.asList(3, 1), Arrays.asList(5)), pages);
+      assertEquals("select id, name, score from users WHERE ((score > ?) OR (score = ? AND id > ?)) ORDER BY score ASC, id ASC",
+          preparedSql.get(1));
+    }
+  }
+
+  @Test
+  void shouldExpandSameDirectionKeysWithoutDialect() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<List<Integer>> pages = readAllPages(mapper::getUsers,
+          new SeekBounds(2).orderBy("score", "score").orderBy("id", "id"), User::getId);
+      assertEquals(Arrays.asList(Arrays.asList(2, 4), Arrays.asList(3, 1), Arrays.asList(5)), pages);
+      assertEquals("select id, name, score from users WHERE ((score > ?) OR (score = ? AND id > ?)) ORDER BY score ASC, id ASC",
+          preparedSql.get(1));
+    }
+  }
+
+  @Test
+  void shouldKeepTheOriginalConditionTogether() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<List<Integer>> pages = readAllPages(bounds -> mapper.getUsersByName("User%", bounds),
+          new SeekBounds(3).orderByDescending("u.id", "id"), User::getId);
+      assertEquals(Arrays.asList(Arrays.asList(5, 4, 3), Arrays.asList(2, 1)), pages);
+      assertEquals("select u.id, u.name, u.score from users u where (u.name like ? or u.id = 0) AND ((u.id < ?)) ORDER BY u.id DESC",
+          preparedSql.get(1));
+    }
+  }
+
+  @Test
+  void shouldWrapGroupedQueries() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<List<Integer>> pages = readAllPages(mapper::getScoreCounts,
+          new SeekBounds(2).orderBy("score", "score"), ScoreCount::getScore);
+      assertEquals(Arrays.asList(Arrays.asList(10, 20), Arrays.asList(30)), pages);
+      assertEquals("SELECT * FROM (select score, count(*) as total from users group by score) seek_ WHERE ((seek_.score > ?)) ORDER BY seek_.score ASC",
+          preparedSql.get(1));
+    }
+  }
+
+  @Test
+  void shouldApplyThePageSizeInTheDatabaseWhenPushedDown() {
+    sqlSessionFactory.getConfiguration().setDialect(new LimitOffsetDialect());
+    sqlSessionFactory.getConfiguration().setRowBoundsPushdown(true);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Page<User> page = sqlSession.getMapper(Mapper.class).getUsers(new SeekBounds(2).orderBy("id", "id").after(2));
+      assertEquals(Arrays.asList(3, 4), ids(page.getItems(), User::getId));
+      assertTrue(page.hasNext());
+      assertEquals("select id, name, score from users WHERE ((id > ?)) ORDER BY id ASC LIMIT ?", preparedSql.get(0));
+    }
+  }
+
+  @Test
+  void shouldNotRewritePlainRowBounds() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> users = sqlSession.getMapper(Mapper.class).getUserList(new RowBounds(1, 2));
+      assertEquals(Arrays.asList(2, 3), ids(users, User::getId));
+      assertEquals("select id, name, score from users order by id", preparedSql.get(0));
+    }
+  }
+
+  @Test
+  void shouldSelectPagesThroughTheSession() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Page<User> page = sqlSession.selectPage("org.apache.ibatis.submitted.seek_paging.Mapper.getUsers", null,
+          new SeekBounds(10).orderBy("id", "id").after(3));
+      assertEquals(Arrays.asList(4, 5), ids(page.getItems(), User::getId));
+      assertFalse(page.hasNext());
+      assertNull(page.nextBounds());
+    }
+  }
+
+  @Test
+  void shouldRejectInvalidKeys() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertExecutorException(() -> mapper.getUsers(new SeekBounds(2)));
+      assertExecutorException(() -> mapper.getUsers(new SeekBounds(2).orderBy("id; drop table users", "id")));
+      assertExecutorException(() -> mapper.getUsers(new SeekBounds(2).orderBy("id", "missing")));
+      assertExecutorException(() -> mapper.getRenamedUsers(new SeekBounds(2).orderBy("id", "id")));
+      assertThrows(IllegalArgumentException.class, () -> new SeekBounds(2).orderBy("id", "id").after(1, 2));
+      assertThrows(IllegalArgumentException.class, () -> new SeekBounds(0));
+    }
+  }
+
+  private static void assertExecutorException(Runnable query) {
+    PersistenceException e = assertThrows(PersistenceException.class, query::run);
+    assertTrue(e.getCause() instanceof ExecutorException, String.valueOf(e.getCause()));
+  }
+
+  private static <T> List<List<Integer>> readAllPages(Function<SeekBounds, Page<T>> query, SeekBounds first,
+      Function<T, Integer> id) {
+    List<List<Integer>> pages = new ArrayList<>();
+    SeekBounds bounds = first;
+    while (bounds != null) {
+      Page<T> page = query.apply(bounds);
+      pages.add(ids(page.getItems(), id));
+      bounds = page.nextBounds();
+    }
+    return pages;
+  }
+
+  private static <T> List<Integer> ids(List<T> items, Function<T, Integer> id) {
+    List<Integer> ids = new ArrayList<>();
+    for (T item : items) {
+      ids.add(id.apply(item));
+    }
+    return ids;
+  }
+
+  @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+  private static class PreparedSqlRecorder implements Interceptor {
+
+    private final List<String> preparedSql;
+
+    PreparedSqlRecorder(List<String> preparedSql) {
+      this.preparedSql = preparedSql;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      preparedSql.add(((StatementHandler) invocation.getTarget()).getBoundSql().getSql());
+      return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+
+  }
+
+}